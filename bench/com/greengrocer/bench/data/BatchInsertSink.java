@@ -0,0 +1,89 @@
+package com.greengrocer.bench.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Loads rows with batched prepared INSERTs. With rewriteBatchedStatements
+ * on the connection, each batch is sent as one multi-row INSERT.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class BatchInsertSink implements RowSink {
+
+    /** Rows per batch */
+    private static final int BATCH_SIZE = 2_000;
+
+    /** Rows per transaction */
+    private static final int COMMIT_SIZE = 50_000;
+
+    /** The connection, with auto-commit off */
+    private final Connection connection;
+
+    /** The INSERT statement */
+    private final PreparedStatement statement;
+
+    /** Rows added */
+    private long rows;
+
+    /**
+     * Constructor for a batch sink.
+     *
+     * @param connection The bulk connection
+     * @param table      Table name
+     * @param columns    Column names
+     * @throws SQLException If the statement cannot be prepared
+     */
+    public BatchInsertSink(Connection connection, String table, String... columns) throws SQLException {
+        this.connection = connection;
+        String placeholders = "?" + ",?".repeat(columns.length - 1);
+        this.statement = connection.prepareStatement(
+                "INSERT INTO " + table + " (" + String.join(",", columns) + ") VALUES (" + placeholders + ")");
+    }
+
+    /**
+     * Adds one row to the current batch.
+     *
+     * @param values Column values
+     * @throws SQLException If loading fails
+     */
+    @Override
+    public void add(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            statement.setObject(i + 1, values[i]);
+        }
+        statement.addBatch();
+        rows++;
+
+        if (rows % BATCH_SIZE == 0) {
+            statement.executeBatch();
+        }
+        if (rows % COMMIT_SIZE == 0) {
+            connection.commit();
+        }
+    }
+
+    /**
+     * Gets the number of rows added so far.
+     *
+     * @return Row count
+     */
+    @Override
+    public long getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Sends the last batch and commits.
+     *
+     * @throws SQLException If loading fails
+     */
+    @Override
+    public void close() throws SQLException {
+        statement.executeBatch();
+        connection.commit();
+        statement.close();
+    }
+}
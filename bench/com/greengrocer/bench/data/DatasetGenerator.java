@@ -0,0 +1,516 @@
+package com.greengrocer.bench.data;
+
+import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.database.SchemaMigrator;
+import com.greengrocer.database.SqlDialect;
+import com.greengrocer.utils.CartManager;
+import com.greengrocer.utils.Money;
+import com.greengrocer.utils.Quantity;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fills the database with a production-sized synthetic dataset so every
+ * DAO and screen can be measured against realistic table sizes.
+ *
+ * Distributions: order times are skewed towards the recent past with lunch
+ * and evening peaks; customers and products follow Zipf popularity; carriers
+ * differ both in workload (Zipf) and in rating quality. Orders whose
+ * delivery time has passed are mostly delivered, a few are cancelled, and
+ * future ones are pending or selected.
+ *
+ * New rows get explicit IDs above the current maximum and are appended to
+ * the existing data. Loading uses batched multi-row INSERTs, or LOAD DATA
+ * LOCAL INFILE with --infile (MySQL only), with foreign key and unique
+ * checks off.
+ *
+ * Options: --customers N (default 100000), --carriers N (200),
+ * --orders N (1000000), --messages N (200000), --coupons N (50),
+ * --user-coupons N (300000), --seed N (42), --infile.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class DatasetGenerator {
+
+    /** Password of all generated users */
+    private static final String PASSWORD = "Generated-1";
+
+    /** Mean age of an order in days */
+    private static final double MEAN_ORDER_AGE_DAYS = 60;
+
+    /** Oldest generated order in days */
+    private static final int MAX_ORDER_AGE_DAYS = 730;
+
+    /** Relative order volume per hour of the day */
+    private static final double[] HOUR_WEIGHTS = {
+            0.2, 0.1, 0.1, 0.1, 0.1, 0.2, 0.5, 1.0, 1.5, 2.0, 2.5, 3.5,
+            4.5, 4.0, 3.0, 2.5, 2.5, 3.0, 4.0, 5.0, 4.5, 3.0, 1.5, 0.6
+    };
+
+    /** Message subjects */
+    private static final String[] SUBJECTS = {
+            "Question about my order", "Delivery time", "Product quality",
+            "Missing item", "Thank you", "Coupon not working", "Change delivery address"
+    };
+
+    /** Numeric options */
+    private final Map<String, Integer> options;
+
+    /** Whether to load with LOAD DATA LOCAL INFILE */
+    private final boolean infile;
+
+    /** Random source, seeded for repeatable datasets */
+    private final Random random;
+
+    /** Cumulative hour-of-day distribution */
+    private final double[] hourCdf;
+
+    /** The bulk connection */
+    private Connection connection;
+
+    /** First ID of the generated customers */
+    private int firstCustomerId;
+
+    /** First ID of the generated carriers */
+    private int firstCarrierId;
+
+    /** The owner ID, receiver of customer messages */
+    private int ownerId;
+
+    /** Product IDs by popularity rank */
+    private int[] productIds;
+
+    /** Product names by popularity rank */
+    private String[] productNames;
+
+    /** Product prices in cents by popularity rank */
+    private long[] productPriceCents;
+
+    /** Delivered order count per generated customer */
+    private int[] completedOrders;
+
+    /**
+     * Constructor for a generator.
+     *
+     * @param options Numeric options
+     * @param infile  Whether to load with LOAD DATA LOCAL INFILE
+     */
+    public DatasetGenerator(Map<String, Integer> options, boolean infile) {
+        this.options = options;
+        this.infile = infile;
+        this.random = new Random(options.get("seed"));
+
+        this.hourCdf = new double[HOUR_WEIGHTS.length];
+        double sum = 0;
+        for (int h = 0; h < HOUR_WEIGHTS.length; h++) {
+            sum += HOUR_WEIGHTS[h];
+            hourCdf[h] = sum;
+        }
+        for (int h = 0; h < hourCdf.length; h++) {
+            hourCdf[h] /= sum;
+        }
+    }
+
+    /**
+     * Generates and loads the dataset.
+     *
+     * @param args Options, see class description
+     */
+    public static void main(String[] args) throws SQLException {
+        Map<String, Integer> options = new LinkedHashMap<>();
+        options.put("customers", 100_000);
+        options.put("carriers", 200);
+        options.put("orders", 1_000_000);
+        options.put("messages", 200_000);
+        options.put("coupons", 50);
+        options.put("user-coupons", 300_000);
+        options.put("seed", 42);
+        boolean infile = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i].replaceFirst("^--", "");
+            if ("infile".equals(key)) {
+                infile = true;
+            } else if (options.containsKey(key) && i + 1 < args.length) {
+                options.put(key, Integer.parseInt(args[++i]));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        new DatasetGenerator(options, infile).run();
+    }
+
+    /**
+     * Generates all tables.
+     *
+     * @throws SQLException If loading fails
+     */
+    public void run() throws SQLException {
+        SchemaMigrator.migrate();
+        long start = System.nanoTime();
+
+        SqlDialect dialect = DatabaseAdapter.getInstance().getDialect();
+        if (infile && dialect != SqlDialect.MYSQL) {
+            throw new IllegalArgumentException("--infile needs a MySQL database");
+        }
+
+        try (Connection conn = DatabaseAdapter.getInstance().openBulkConnection()) {
+            connection = conn;
+            try (Statement statement = conn.createStatement()) {
+                for (String sql : dialect.integrityChecks(false)) {
+                    statement.execute(sql);
+                }
+            }
+            conn.setAutoCommit(false);
+
+            prepareIds();
+            System.out.printf("Generating %s%s%n", options, infile ? " via LOAD DATA LOCAL INFILE" : "");
+
+            int firstCouponId = nextId("Coupons");
+            timed("orders, items and ratings", this::generateOrders);
+            timed("users", this::generateUsers);
+            timed("messages", this::generateMessages);
+            timed("coupons", () -> generateCoupons(firstCouponId));
+
+            try (Statement statement = conn.createStatement()) {
+                for (String sql : dialect.integrityChecks(true)) {
+                    statement.execute(sql);
+                }
+            }
+        }
+
+        System.out.printf("Dataset generated in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Reads the products and reserves the user ID ranges.
+     *
+     * @throws SQLException If reading fails
+     */
+    private void prepareIds() throws SQLException {
+        List<Object[]> products = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT id, name, price FROM ProductInfo ORDER BY id")) {
+            while (rs.next()) {
+                products.add(new Object[] {
+                        rs.getInt("id"), rs.getString("name"), Money.fromDecimal(rs.getBigDecimal("price"))
+                });
+            }
+        }
+        if (products.isEmpty()) {
+            throw new SQLException("ProductInfo is empty; load sql/Group17.sql first");
+        }
+
+        // Shuffle so popularity is not tied to insertion order
+        Collections.shuffle(products, random);
+        productIds = new int[products.size()];
+        productNames = new String[products.size()];
+        productPriceCents = new long[products.size()];
+        for (int i = 0; i < products.size(); i++) {
+            productIds[i] = (Integer) products.get(i)[0];
+            productNames[i] = (String) products.get(i)[1];
+            productPriceCents[i] = (Long) products.get(i)[2];
+        }
+
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT id FROM UserInfo WHERE role = 'OWNER' LIMIT 1")) {
+            ownerId = rs.next() ? rs.getInt(1) : 0;
+        }
+
+        firstCustomerId = nextId("UserInfo");
+        firstCarrierId = firstCustomerId + options.get("customers");
+        completedOrders = new int[options.get("customers")];
+    }
+
+    /**
+     * Generates orders with their items, and ratings for delivered orders.
+     *
+     * @throws SQLException If loading fails
+     */
+    private void generateOrders() throws SQLException {
+        int orderCount = options.get("orders");
+        int carrierCount = options.get("carriers");
+        ZipfSampler customerSampler = new ZipfSampler(options.get("customers"), 0.9);
+        ZipfSampler productSampler = new ZipfSampler(productIds.length, 1.1);
+        ZipfSampler carrierSampler = new ZipfSampler(carrierCount, 0.7);
+
+        double[] carrierQuality = new double[carrierCount];
+        for (int c = 0; c < carrierCount; c++) {
+            carrierQuality[c] = Math.max(1.5, Math.min(5.0, 4.0 + random.nextGaussian() * 0.6));
+        }
+
+        LocalDateTime now = LocalDateTime.now().withSecond(0).withNano(0);
+        int firstOrderId = nextId("OrderInfo");
+        int nextItemId = nextId("OrderItems");
+        int nextRatingId = nextId("Ratings");
+        long[] lineQuantities = new long[8];
+        int[] lineProducts = new int[8];
+
+        try (RowSink orders = sink("OrderInfo", "id", "user_id", "carrier_id", "order_time",
+                "requested_delivery", "delivery_time", "status", "subtotal", "vat", "discount", "total_cost",
+                "customer_notified", "owner_notified");
+                RowSink items = sink("OrderItems", "id", "order_id", "product_id", "product_name", "quantity",
+                        "price_at_time");
+                RowSink ratings = sink("Ratings", "id", "order_id", "carrier_id", "customer_id", "rating",
+                        "comment", "created_at")) {
+
+            for (int i = 0; i < orderCount; i++) {
+                int orderId = firstOrderId + i;
+                int customerIndex = customerSampler.next(random);
+                int customerId = firstCustomerId + customerIndex;
+
+                LocalDateTime orderTime = orderTime(now);
+                LocalDateTime requested = orderTime.plusMinutes(30L * (2 + random.nextInt(94)));
+                String status;
+                LocalDateTime delivered = null;
+                if (requested.isAfter(now)) {
+                    status = random.nextDouble() < 0.7 ? "PENDING" : "SELECTED";
+                } else if (random.nextDouble() < 0.03) {
+                    status = "CANCELLED";
+                } else {
+                    status = "DELIVERED";
+                    delivered = requested.plusMinutes(random.nextInt(181) - 90);
+                    if (delivered.isBefore(orderTime)) {
+                        delivered = orderTime.plusMinutes(30);
+                    }
+                    completedOrders[customerIndex]++;
+                }
+
+                int carrierIndex = carrierSampler.next(random);
+                boolean hasCarrier = "SELECTED".equals(status) || "DELIVERED".equals(status);
+                Integer carrierId = hasCarrier ? firstCarrierId + carrierIndex : null;
+
+                // Items: 1-8 lines, most orders small
+                int lines = Math.min(8, 1 + (int) (-Math.log(1 - random.nextDouble()) * 2.2));
+                long subtotal = 0;
+                int lineCount = 0;
+                for (int l = 0; l < lines; l++) {
+                    int rank = productSampler.next(random);
+                    boolean duplicate = false;
+                    for (int p = 0; p < lineCount; p++) {
+                        duplicate |= lineProducts[p] == rank;
+                    }
+                    if (duplicate) {
+                        continue;
+                    }
+                    lineProducts[lineCount] = rank;
+                    lineQuantities[lineCount] = 500L * (1 + random.nextInt(8));
+                    subtotal += Money.lineTotal(productPriceCents[rank], lineQuantities[lineCount]);
+                    lineCount++;
+                }
+
+                long discount = random.nextDouble() < 0.15 ? Money.percentOf(subtotal, 1000) : 0;
+                long vat = Money.percentOf(subtotal - discount, CartManager.VAT_BASIS_POINTS);
+
+                orders.add(orderId, customerId, carrierId, Timestamp.valueOf(orderTime),
+                        Timestamp.valueOf(requested), delivered == null ? null : Timestamp.valueOf(delivered),
+                        status, Money.toDecimal(subtotal), Money.toDecimal(vat), Money.toDecimal(discount),
+                        Money.toDecimal(subtotal - discount + vat), delivered != null, delivered != null);
+
+                for (int p = 0; p < lineCount; p++) {
+                    int rank = lineProducts[p];
+                    items.add(nextItemId++, orderId, productIds[rank], productNames[rank],
+                            Quantity.toDecimal(lineQuantities[p]), Money.toDecimal(productPriceCents[rank]));
+                }
+
+                if (delivered != null && random.nextDouble() < 0.35) {
+                    int stars = (int) Math.round(carrierQuality[carrierIndex] + random.nextGaussian() * 0.8);
+                    stars = Math.max(1, Math.min(5, stars));
+                    ratings.add(nextRatingId++, orderId, carrierId, customerId, stars,
+                            random.nextDouble() < 0.3 ? "Generated review " + stars + "/5" : null,
+                            Timestamp.valueOf(delivered.plusHours(1 + random.nextInt(48))));
+                }
+
+                if ((i + 1) % 100_000 == 0) {
+                    System.out.printf("  %,d orders%n", i + 1);
+                }
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE UserInfo u SET " +
+                    "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM Ratings r WHERE r.carrier_id = u.id), " +
+                    "rating_count = (SELECT COUNT(*) FROM Ratings r WHERE r.carrier_id = u.id) " +
+                    "WHERE u.role = 'CARRIER'");
+        }
+    }
+
+    /**
+     * Generates customers and carriers, with their delivered order counts.
+     *
+     * @throws SQLException If loading fails
+     */
+    private void generateUsers() throws SQLException {
+        try (RowSink users = sink("UserInfo", "id", "username", "password", "role", "full_name", "address",
+                "phone", "email", "loyalty_points", "completed_orders")) {
+            int customers = options.get("customers");
+            for (int i = 0; i < customers; i++) {
+                int id = firstCustomerId + i;
+                users.add(id, "gen_c" + id, PASSWORD, "CUSTOMER", "Customer " + id,
+                        (1 + random.nextInt(200)) + " Generated Street, District " + random.nextInt(40),
+                        String.format("05%09d", random.nextInt(1_000_000_000)), "c" + id + "@example.com",
+                        0, completedOrders[i]);
+            }
+
+            int carriers = options.get("carriers");
+            for (int i = 0; i < carriers; i++) {
+                int id = firstCarrierId + i;
+                users.add(id, "gen_r" + id, PASSWORD, "CARRIER", "Carrier " + id, "Depot " + (i % 10),
+                        String.format("05%09d", random.nextInt(1_000_000_000)), "r" + id + "@example.com", 0, 0);
+            }
+        }
+    }
+
+    /**
+     * Generates customer messages to the owner.
+     *
+     * @throws SQLException If loading fails
+     */
+    private void generateMessages() throws SQLException {
+        if (ownerId == 0) {
+            System.out.println("  no owner found, skipping messages");
+            return;
+        }
+
+        ZipfSampler senderSampler = new ZipfSampler(options.get("customers"), 0.8);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        try (RowSink messages = sink("Messages", "sender_id", "receiver_id", "subject", "content", "reply",
+                "sent_at", "is_read")) {
+            int count = options.get("messages");
+            for (int i = 0; i < count; i++) {
+                int sender = firstCustomerId + senderSampler.next(random);
+                String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+                boolean replied = random.nextDouble() < 0.5;
+                messages.add(sender, ownerId, subject,
+                        "Hello, this is generated message " + i + " about: " + subject.toLowerCase() + ".",
+                        replied ? "Thanks for reaching out, we are looking into it." : null,
+                        Timestamp.valueOf(orderTime(now)), replied || random.nextDouble() < 0.4);
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE UserInfo SET unread_messages = (SELECT COUNT(*) FROM Messages m " +
+                    "WHERE m.receiver_id = UserInfo.id AND m.is_read = FALSE) WHERE id = " + ownerId);
+        }
+    }
+
+    /**
+     * Generates campaign coupons and assigns them to customers.
+     *
+     * @param firstCouponId First ID of the generated coupons
+     * @throws SQLException If loading fails
+     */
+    private void generateCoupons(int firstCouponId) throws SQLException {
+        int coupons = options.get("coupons");
+        try (RowSink sink = sink("Coupons", "id", "code", "discount_percent", "min_order_value", "expiry_date",
+                "is_active", "max_usage")) {
+            for (int i = 0; i < coupons; i++) {
+                int id = firstCouponId + i;
+                sink.add(id, "GEN" + id, 5.0 * (1 + random.nextInt(6)), 10.0 * random.nextInt(6),
+                        java.sql.Date.valueOf(LocalDate.now().plusDays(random.nextInt(400) - 30)),
+                        random.nextDouble() < 0.9, random.nextDouble() < 0.5 ? 0 : 100 * (1 + random.nextInt(50)));
+            }
+        }
+
+        ZipfSampler couponSampler = new ZipfSampler(coupons, 1.0);
+        try (RowSink sink = sink("UserCoupons", "user_id", "coupon_id", "is_used")) {
+            int assignments = options.get("user-coupons");
+            for (int i = 0; i < assignments; i++) {
+                sink.add(firstCustomerId + random.nextInt(options.get("customers")),
+                        firstCouponId + couponSampler.next(random), random.nextDouble() < 0.4);
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE Coupons c SET usage_count = (SELECT COUNT(*) FROM UserCoupons uc " +
+                    "WHERE uc.coupon_id = c.id AND uc.is_used = TRUE) WHERE c.id >= " + firstCouponId);
+        }
+    }
+
+    /**
+     * Draws an order time skewed towards the recent past, with the hour of
+     * day following the shop's daily pattern.
+     *
+     * @param now The current time
+     * @return The order time
+     */
+    private LocalDateTime orderTime(LocalDateTime now) {
+        long days = Math.min(MAX_ORDER_AGE_DAYS, (long) (-Math.log(1 - random.nextDouble()) * MEAN_ORDER_AGE_DAYS));
+        double u = random.nextDouble();
+        int hour = 0;
+        while (hour < hourCdf.length - 1 && hourCdf[hour] < u) {
+            hour++;
+        }
+        LocalDateTime time = now.minusDays(days).withHour(hour).withMinute(random.nextInt(60));
+        return time.isAfter(now) ? now.minusMinutes(random.nextInt(120)) : time;
+    }
+
+    /**
+     * Creates a row sink for a table in the configured load mode.
+     *
+     * @param table   Table name
+     * @param columns Column names
+     * @return The sink
+     * @throws SQLException If the sink cannot be created
+     */
+    private RowSink sink(String table, String... columns) throws SQLException {
+        return infile
+                ? new InfileSink(connection, table, columns)
+                : new BatchInsertSink(connection, table, columns);
+    }
+
+    /**
+     * Gets the next free ID of a table.
+     *
+     * @param table Table name
+     * @return Maximum ID plus one
+     * @throws SQLException If the query fails
+     */
+    private int nextId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1) + 1;
+        }
+    }
+
+    /**
+     * A generation step that loads rows.
+     */
+    @FunctionalInterface
+    private interface Step {
+
+        /**
+         * Runs the step.
+         *
+         * @throws SQLException If loading fails
+         */
+        void run() throws SQLException;
+    }
+
+    /**
+     * Runs a step and prints how long it took.
+     *
+     * @param name Step name
+     * @param step The step
+     * @throws SQLException If loading fails
+     */
+    private void timed(String name, Step step) throws SQLException {
+        long start = System.nanoTime();
+        step.run();
+        System.out.printf("Generated %s in %.1f s%n", name, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,36 @@
+package com.greengrocer.bench.data;
+
+import java.sql.SQLException;
+
+/**
+ * Destination for generated rows of one table.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public interface RowSink extends AutoCloseable {
+
+    /**
+     * Adds one row. Values must be in the column order the sink was
+     * created with; null becomes SQL NULL.
+     *
+     * @param values Column values
+     * @throws SQLException If loading fails
+     */
+    void add(Object... values) throws SQLException;
+
+    /**
+     * Gets the number of rows added so far.
+     *
+     * @return Row count
+     */
+    long getRowCount();
+
+    /**
+     * Loads any buffered rows and releases resources.
+     *
+     * @throws SQLException If loading fails
+     */
+    @Override
+    void close() throws SQLException;
+}
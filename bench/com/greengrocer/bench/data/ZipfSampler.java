@@ -0,0 +1,47 @@
+package com.greengrocer.bench.data;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws ranks from a Zipf distribution: rank 0 is the most popular and rank
+ * k is chosen with probability proportional to 1 / (k + 1)^s.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class ZipfSampler {
+
+    /** Cumulative probabilities by rank */
+    private final double[] cdf;
+
+    /**
+     * Constructor for a sampler.
+     *
+     * @param size     Number of ranks
+     * @param exponent Skew; 0 is uniform, around 1 is typical popularity
+     */
+    public ZipfSampler(int size, double exponent) {
+        cdf = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    /**
+     * Draws a rank.
+     *
+     * @param random Random source
+     * @return Rank between 0 and size - 1
+     */
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+}
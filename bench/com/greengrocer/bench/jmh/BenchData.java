@@ -0,0 +1,104 @@
+package com.greengrocer.bench.jmh;
+
+import com.greengrocer.models.CartItem;
+import com.greengrocer.models.Order;
+import com.greengrocer.models.OrderItem;
+import com.greengrocer.models.Product;
+import com.greengrocer.models.User;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic in-memory fixtures shared by the benchmarks.
+ * Nothing here touches the database.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public final class BenchData {
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private BenchData() {
+    }
+
+    /**
+     * Creates a catalog of products. Every fourth product is below its
+     * threshold so the doubled-price path is exercised too.
+     *
+     * @param count Number of products
+     * @return The products
+     */
+    public static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double stock = i % 4 == 0 ? 2.0 : 50.0;
+            products.add(new Product(i + 1, "Product " + i, i % 2 == 0 ? "VEGETABLE" : "FRUIT",
+                    1.25 + (i % 40) * 0.35, stock, 5.0, null));
+        }
+        return products;
+    }
+
+    /**
+     * Creates cart items for a list of products.
+     *
+     * @param products The products
+     * @return One cart item per product
+     */
+    public static List<CartItem> cartItems(List<Product> products) {
+        List<CartItem> items = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            items.add(new CartItem(products.get(i), 0.5 + (i % 7) * 0.5));
+        }
+        return items;
+    }
+
+    /**
+     * Creates a customer.
+     *
+     * @return The customer
+     */
+    public static User customer() {
+        User user = new User("cust", "Passw0rd!", "CUSTOMER");
+        user.setId(1);
+        user.setFullName("Bench Customer");
+        user.setAddress("1 Benchmark Street, Istanbul");
+        user.setPhone("05551234567");
+        user.setEmail("cust@example.com");
+        return user;
+    }
+
+    /**
+     * Creates an order with items and totals for the given cart items.
+     *
+     * @param customer The customer
+     * @param items    The cart items
+     * @return The order
+     */
+    public static Order order(User customer, List<CartItem> items) {
+        Order order = new Order();
+        order.setId(4242);
+        order.setUserId(customer.getId());
+        order.setCustomerName(customer.getFullName());
+        order.setCustomerAddress(customer.getAddress());
+        order.setOrderTime(LocalDateTime.of(2024, 5, 1, 10, 15));
+        order.setRequestedDelivery(LocalDateTime.of(2024, 5, 1, 16, 30));
+        order.setStatus("PENDING");
+
+        long subtotal = 0;
+        for (CartItem item : items) {
+            order.addItem(OrderItem.fromCartItem(order.getId(), item));
+            subtotal += item.getTotalCents();
+        }
+        long discount = subtotal / 10;
+        long vat = (subtotal - discount) * 18 / 100;
+        order.setSubtotalCents(subtotal);
+        order.setDiscountCents(discount);
+        order.setVatCents(vat);
+        order.setTotalCostCents(subtotal - discount + vat);
+        return order;
+    }
+}
@@ -0,0 +1,99 @@
+package com.greengrocer.bench.jmh;
+
+import com.greengrocer.models.Product;
+import com.greengrocer.utils.CartManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cart operations on carts of different sizes.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CartManagerBenchmark {
+
+    /** Number of distinct products in the cart */
+    @Param({"10", "1000"})
+    public int cartSize;
+
+    /** Cart under test */
+    private CartManager cart;
+
+    /** Products in the cart */
+    private List<Product> products;
+
+    /** Rotates through the products */
+    private int next;
+
+    /**
+     * Fills the cart.
+     */
+    @Setup
+    public void setUp() {
+        products = BenchData.products(cartSize);
+        cart = new CartManager();
+        for (Product product : products) {
+            cart.addItem(product, 1.0);
+        }
+    }
+
+    /**
+     * Adds to a product already in the cart (merge path).
+     *
+     * @return Cart subtotal, consumed by JMH
+     */
+    @Benchmark
+    public long addExisting() {
+        Product product = products.get(next++ % cartSize);
+        cart.addItem(product, 0.5);
+        cart.updateQuantity(product.getId(), 1.0);
+        return cart.getSubtotalCents();
+    }
+
+    /**
+     * Changes the quantity of a product in the cart.
+     *
+     * @return Cart subtotal, consumed by JMH
+     */
+    @Benchmark
+    public long updateQuantity() {
+        Product product = products.get(next++ % cartSize);
+        cart.updateQuantity(product.getId(), (next & 1) == 0 ? 1.0 : 1.5);
+        return cart.getSubtotalCents();
+    }
+
+    /**
+     * Reads every total the cart screen shows.
+     *
+     * @return Sum of the totals, consumed by JMH
+     */
+    @Benchmark
+    public long totals() {
+        return cart.getSubtotalCents()
+                + cart.getDiscountAmountCents(10)
+                + cart.getVatCents(10)
+                + cart.getTotalWithDiscountCents(10);
+    }
+
+    /**
+     * Gets the items list, as the cart table refresh does.
+     *
+     * @return Item count, consumed by JMH
+     */
+    @Benchmark
+    public int getItems() {
+        return cart.getItems().size();
+    }
+}
@@ -0,0 +1,82 @@
+package com.greengrocer.bench.jmh;
+
+import com.greengrocer.models.CartItem;
+import com.greengrocer.models.Order;
+import com.greengrocer.models.User;
+import com.greengrocer.utils.InvoiceGenerator;
+import com.greengrocer.utils.PdfInvoiceGenerator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Text and PDF invoice generation for orders of different sizes.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InvoiceBenchmark {
+
+    /** Number of lines on the invoice */
+    @Param({"5", "50"})
+    public int lines;
+
+    /** The customer */
+    private User customer;
+
+    /** The cart items */
+    private List<CartItem> items;
+
+    /** The order with its items */
+    private Order order;
+
+    /**
+     * Builds the order.
+     */
+    @Setup
+    public void setUp() {
+        customer = BenchData.customer();
+        items = BenchData.cartItems(BenchData.products(lines));
+        order = BenchData.order(customer, items);
+    }
+
+    /**
+     * Generates the text invoice at checkout.
+     *
+     * @return The invoice, consumed by JMH
+     */
+    @Benchmark
+    public String generateInvoice() {
+        return InvoiceGenerator.generateInvoice(order, customer, items, 10);
+    }
+
+    /**
+     * Generates the text invoice from order history.
+     *
+     * @return The invoice, consumed by JMH
+     */
+    @Benchmark
+    public String generateFromOrder() {
+        return InvoiceGenerator.generateFromOrder(order);
+    }
+
+    /**
+     * Generates the PDF invoice at checkout.
+     *
+     * @return The PDF bytes, consumed by JMH
+     */
+    @Benchmark
+    public byte[] generatePdfInvoice() {
+        return PdfInvoiceGenerator.generatePdfInvoice(order, customer, items, 10);
+    }
+}
@@ -0,0 +1,61 @@
+package com.greengrocer.bench.jmh;
+
+import com.greengrocer.models.Product;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Display price lookups over a catalog with normal and low-stock products.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductBenchmark {
+
+    /** Catalog size, a power of two so the index can be masked */
+    private static final int CATALOG_SIZE = 64;
+
+    /** The catalog */
+    private List<Product> products;
+
+    /** Rotates through the products */
+    private int next;
+
+    /**
+     * Builds the catalog.
+     */
+    @Setup
+    public void setUp() {
+        products = BenchData.products(CATALOG_SIZE);
+    }
+
+    /**
+     * Gets the display price as a double.
+     *
+     * @return The price, consumed by JMH
+     */
+    @Benchmark
+    public double getDisplayPrice() {
+        return products.get(next++ & (CATALOG_SIZE - 1)).getDisplayPrice();
+    }
+
+    /**
+     * Gets the display price in cents.
+     *
+     * @return The price, consumed by JMH
+     */
+    @Benchmark
+    public long getDisplayPriceCents() {
+        return products.get(next++ & (CATALOG_SIZE - 1)).getDisplayPriceCents();
+    }
+}
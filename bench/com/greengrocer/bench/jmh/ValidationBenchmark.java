@@ -0,0 +1,84 @@
+package com.greengrocer.bench.jmh;
+
+import com.greengrocer.utils.ValidationUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Form validation checks with valid and invalid input.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+    /** Email addresses to check */
+    private final String[] emails = {"jane.doe@example.com", "not-an-email", "a@b.co"};
+
+    /** Phone numbers to check */
+    private final String[] phones = {"05551234567", "+90 555 123 45 67", "12ab"};
+
+    /** Passwords to check */
+    private final String[] passwords = {"Str0ng!Pass", "weak", "NoDigits!!"};
+
+    /** Quantities to check */
+    private final String[] quantities = {"2.5", "-1", "abc"};
+
+    /**
+     * Validates email addresses.
+     *
+     * @param blackhole JMH sink
+     */
+    @Benchmark
+    public void isValidEmail(Blackhole blackhole) {
+        for (String email : emails) {
+            blackhole.consume(ValidationUtils.isValidEmail(email));
+        }
+    }
+
+    /**
+     * Validates phone numbers.
+     *
+     * @param blackhole JMH sink
+     */
+    @Benchmark
+    public void isValidPhone(Blackhole blackhole) {
+        for (String phone : phones) {
+            blackhole.consume(ValidationUtils.isValidPhone(phone));
+        }
+    }
+
+    /**
+     * Checks password strength and builds the error message.
+     *
+     * @param blackhole JMH sink
+     */
+    @Benchmark
+    public void passwordChecks(Blackhole blackhole) {
+        for (String password : passwords) {
+            blackhole.consume(ValidationUtils.isStrongPassword(password));
+            blackhole.consume(ValidationUtils.getPasswordError(password));
+        }
+    }
+
+    /**
+     * Validates quantity input.
+     *
+     * @param blackhole JMH sink
+     */
+    @Benchmark
+    public void isValidPositiveDouble(Blackhole blackhole) {
+        for (String quantity : quantities) {
+            blackhole.consume(ValidationUtils.isValidPositiveDouble(quantity));
+        }
+    }
+}
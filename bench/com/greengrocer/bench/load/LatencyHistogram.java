@@ -0,0 +1,117 @@
+package com.greengrocer.bench.load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with about 1.6% relative precision.
+ * Values are bucketed by their highest set bit and the next six bits, so
+ * recording is a single atomic increment and memory is fixed no matter how
+ * many samples are recorded.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+    /** Sub-buckets per power of two */
+    private static final int SUB_BITS = 6;
+
+    /** Number of sub-buckets per power of two */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    /** Sample counts per bucket */
+    private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_COUNT);
+
+    /** Total number of samples */
+    private final LongAdder count = new LongAdder();
+
+    /** Number of failed operations */
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Records one successful or failed operation.
+     *
+     * @param nanos   Operation latency in nanoseconds
+     * @param success Whether the operation succeeded
+     */
+    public void record(long nanos, boolean success) {
+        buckets.incrementAndGet(bucketOf(Math.max(1, nanos)));
+        count.increment();
+        if (!success) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * Gets the number of recorded operations.
+     *
+     * @return Sample count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the number of failed operations.
+     *
+     * @return Failure count
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Gets a percentile of the recorded latencies.
+     *
+     * @param percentile The percentile, e.g. 99.9
+     * @return Latency in nanoseconds (upper edge of its bucket), 0 if empty
+     */
+    public long percentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return upperEdgeOf(i);
+            }
+        }
+        return upperEdgeOf(buckets.length() - 1);
+    }
+
+    /**
+     * Gets the bucket of a value.
+     *
+     * @param value Positive value
+     * @return Bucket index
+     */
+    private static int bucketOf(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent < SUB_BITS) {
+            return (int) value;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * Gets the largest value that falls into a bucket.
+     *
+     * @param bucket Bucket index
+     * @return Upper edge of the bucket
+     */
+    private static long upperEdgeOf(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        long sub = bucket % SUB_COUNT;
+        long lower = (1L << exponent) | (sub << (exponent - SUB_BITS));
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,369 @@
+package com.greengrocer.bench.load;
+
+import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.database.OrderDAO;
+import com.greengrocer.database.ProductDAO;
+import com.greengrocer.database.SchemaMigrator;
+import com.greengrocer.database.UserDAO;
+import com.greengrocer.models.DeliverySlot;
+import com.greengrocer.models.Order;
+import com.greengrocer.models.Product;
+import com.greengrocer.models.User;
+import com.greengrocer.utils.CartManager;
+import com.greengrocer.utils.CheckoutService;
+import com.greengrocer.utils.DeliverySlotScheduler;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * End-to-end load simulation against a local MySQL database.
+ * Virtual users run the real application code paths concurrently:
+ * customers fill a cart and check out through CheckoutService (OrderDAO.create
+ * and ProductDAO.updateStock), carriers claim and complete pending orders
+ * with OrderDAO.selectOrder/completeOrder, and owners run the sales reports.
+ * Reports throughput, p50/p99/p99.9 latency and failure rate per operation,
+ * plus InnoDB row lock waits and lost carrier claims.
+ *
+ * The run writes orders and test users into the configured database; use a
+ * scratch copy of the schema.
+ *
+ * Options: --customers N (default 20), --carriers N (5), --owners N (1),
+ * --duration SECONDS (60), --think-ms MS (50), --catalog N (24),
+ * --items-per-order N (4), --slot-capacity N (100000 deliveries per slot,
+ * so checkouts are not limited by delivery slots; 0 estimates it from the
+ * carriers like the application does).
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class LoadGenerator {
+
+    /** Stock every catalog product is set to before the run, in kg */
+    private static final double RUN_STOCK_KG = 1_000_000;
+
+    /** Password of the generated load-test users */
+    private static final String LOAD_PASSWORD = "Load-Test-1";
+
+    /** Latencies per operation name, in report order */
+    private final Map<String, LatencyHistogram> operations = new LinkedHashMap<>();
+
+    /** Carrier claims lost to another carrier */
+    private final LongAdder lostClaims = new LongAdder();
+
+    /** Parsed options */
+    private final Map<String, Integer> options;
+
+    /** Products the customers order from */
+    private List<Product> catalog;
+
+    /** Set when the run is over */
+    private volatile boolean stopped;
+
+    /**
+     * Constructor for a load generator.
+     *
+     * @param options Parsed options
+     */
+    public LoadGenerator(Map<String, Integer> options) {
+        this.options = options;
+        for (String name : new String[] {"checkout", "claim", "complete", "report"}) {
+            operations.put(name, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args Options, see class description
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, Integer> options = new LinkedHashMap<>();
+        options.put("customers", 20);
+        options.put("carriers", 5);
+        options.put("owners", 1);
+        options.put("duration", 60);
+        options.put("think-ms", 50);
+        options.put("catalog", 24);
+        options.put("items-per-order", 4);
+        options.put("slot-capacity", 100000);
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String key = args[i].replaceFirst("^--", "");
+            if (!options.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            options.put(key, Integer.parseInt(args[i + 1]));
+        }
+        System.setProperty("greengrocer.slots.capacity", String.valueOf(options.get("slot-capacity")));
+
+        new LoadGenerator(options).run();
+    }
+
+    /**
+     * Prepares the data, runs all virtual users and prints the report.
+     */
+    public void run() throws InterruptedException {
+        SchemaMigrator.migrate();
+        catalog = prepareCatalog(options.get("catalog"));
+        List<User> customers = prepareUsers("loadcust", options.get("customers"), false);
+        List<User> carriers = prepareUsers("loadcarr", options.get("carriers"), true);
+        User owner = new UserDAO().getOwner();
+
+        System.out.printf("Load: %s%n", options);
+        long lockWaitsBefore = innodbStatus("Innodb_row_lock_waits");
+        long lockTimeBefore = innodbStatus("Innodb_row_lock_time");
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (User customer : customers) {
+            executor.submit(() -> customerLoop(customer));
+        }
+        for (User carrier : carriers) {
+            executor.submit(() -> carrierLoop(carrier));
+        }
+        for (int i = 0; i < options.get("owners") && owner != null; i++) {
+            executor.submit(this::ownerLoop);
+        }
+
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(options.get("duration"));
+        stopped = true;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        printReport(seconds,
+                innodbStatus("Innodb_row_lock_waits") - lockWaitsBefore,
+                innodbStatus("Innodb_row_lock_time") - lockTimeBefore);
+        DatabaseAdapter.getInstance().closeConnection();
+    }
+
+    /**
+     * Customer virtual user: fills a cart with random products and checks out
+     * for the least booked delivery slot.
+     *
+     * @param customer The customer
+     */
+    private void customerLoop(User customer) {
+        CheckoutService checkout = new CheckoutService();
+        DeliverySlotScheduler slots = DeliverySlotScheduler.getInstance();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int itemsPerOrder = options.get("items-per-order");
+
+        while (!stopped) {
+            CartManager cart = new CartManager();
+            for (int i = 0; i < itemsPerOrder; i++) {
+                Product product = catalog.get(random.nextInt(catalog.size()));
+                cart.addItem(product, 0.5 * (1 + random.nextInt(10)));
+            }
+            DeliverySlot slot = DeliverySlotScheduler.leastBooked(slots.findAvailable());
+
+            timed("checkout", () -> slot != null
+                    && checkout.validate(cart, slot.getStart()) == null
+                    && checkout.placeOrder(customer, cart, slot.getStart(), null, 0) != null);
+            think();
+        }
+    }
+
+    /**
+     * Carrier virtual user: claims a pending order and completes it.
+     *
+     * @param carrier The carrier
+     */
+    private void carrierLoop(User carrier) {
+        OrderDAO orderDAO = new OrderDAO();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (!stopped) {
+            List<Order> pending = orderDAO.findPending();
+            if (pending.isEmpty()) {
+                think();
+                continue;
+            }
+
+            Order order = pending.get(random.nextInt(Math.min(pending.size(), 10)));
+            boolean[] claimed = new boolean[1];
+            timed("claim", () -> {
+                claimed[0] = orderDAO.selectOrder(order.getId(), carrier.getId());
+                return true;
+            });
+            if (!claimed[0]) {
+                lostClaims.increment();
+            } else {
+                timed("complete", () -> orderDAO.completeOrder(order.getId(), LocalDateTime.now()));
+            }
+            think();
+        }
+    }
+
+    /**
+     * Owner virtual user: runs the statistics queries.
+     */
+    private void ownerLoop() {
+        OrderDAO orderDAO = new OrderDAO();
+        while (!stopped) {
+            timed("report", () -> {
+                orderDAO.getTotalSalesCents();
+                ResultSet rs = orderDAO.getSalesByProduct();
+                try {
+                    while (rs != null && rs.next()) {
+                        rs.getString("product_name");
+                    }
+                } catch (SQLException e) {
+                    return false;
+                }
+                return rs != null;
+            });
+            think();
+        }
+    }
+
+    /**
+     * Runs and times one operation.
+     *
+     * @param name      Operation name
+     * @param operation The operation, returning false on failure
+     */
+    private void timed(String name, BooleanSupplier operation) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = operation.getAsBoolean();
+        } catch (RuntimeException e) {
+            success = false;
+        }
+        operations.get(name).record(System.nanoTime() - start, success);
+    }
+
+    /**
+     * Waits for a random think time around the configured mean.
+     */
+    private void think() {
+        int mean = options.get("think-ms");
+        if (mean <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(mean / 2, mean * 3L / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        }
+    }
+
+    /**
+     * Makes sure the catalog has the requested number of products, each with
+     * plenty of stock so checkouts do not fail for lack of it.
+     *
+     * @param size Number of products
+     * @return The catalog
+     */
+    private List<Product> prepareCatalog(int size) {
+        ProductDAO productDAO = new ProductDAO();
+        List<Product> products = productDAO.findAllIncludingOutOfStock();
+        for (int i = products.size(); i < size; i++) {
+            productDAO.add(new Product(String.format("Load Product %05d", i),
+                    i % 2 == 0 ? "VEGETABLE" : "FRUIT", 1.0 + (i % 50) / 10.0, 0, 5.0));
+        }
+        products = productDAO.findAllIncludingOutOfStock();
+
+        List<Product> catalog = new ArrayList<>(products.subList(0, Math.min(size, products.size())));
+        // Set rather than add, so repeated runs do not keep growing the stock
+        for (Product product : catalog) {
+            product.setStock(RUN_STOCK_KG);
+            productDAO.update(product);
+        }
+        return catalog;
+    }
+
+    /**
+     * Finds or creates the load-test users.
+     *
+     * @param prefix  Username prefix
+     * @param count   Number of users
+     * @param carrier true for carriers, false for customers
+     * @return The users
+     */
+    private List<User> prepareUsers(String prefix, int count, boolean carrier) {
+        UserDAO userDAO = new UserDAO();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String username = prefix + i;
+            User user = userDAO.findByUsername(username);
+            if (user == null) {
+                User created = new User(username, LOAD_PASSWORD, carrier ? "CARRIER" : "CUSTOMER");
+                created.setFullName("Load " + username);
+                created.setAddress("Load Street " + i);
+                created.setPhone("05550000000");
+                created.setEmail(username + "@load.test");
+                if (carrier) {
+                    userDAO.addCarrier(created);
+                } else {
+                    userDAO.register(created);
+                }
+                user = userDAO.findByUsername(username);
+            }
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Reads a numeric InnoDB status counter.
+     *
+     * @param name Status variable name
+     * @return The value, or 0 if unavailable
+     */
+    private static long innodbStatus(String name) {
+        try {
+            ResultSet rs = DatabaseAdapter.getInstance().executeQuery("SHOW GLOBAL STATUS LIKE '" + name + "'");
+            if (rs.next()) {
+                return rs.getLong("Value");
+            }
+        } catch (SQLException e) {
+            System.err.println("Status query error: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Prints the results of the run.
+     *
+     * @param seconds        Measured duration
+     * @param lockWaits      InnoDB row lock waits during the run
+     * @param lockWaitMillis InnoDB row lock wait time during the run
+     */
+    private void printReport(double seconds, long lockWaits, long lockWaitMillis) {
+        System.out.println();
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %9s%n",
+                "operation", "count", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "failed");
+        for (Map.Entry<String, LatencyHistogram> entry : operations.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            long count = histogram.getCount();
+            System.out.printf("%-10s %10d %10.1f %10.2f %10.2f %10.2f %8.2f%%%n",
+                    entry.getKey(),
+                    count,
+                    count / seconds,
+                    histogram.percentile(50) / 1e6,
+                    histogram.percentile(99) / 1e6,
+                    histogram.percentile(99.9) / 1e6,
+                    count == 0 ? 0 : 100.0 * histogram.getFailures() / count);
+        }
+        System.out.println();
+        LatencyHistogram checkouts = operations.get("checkout");
+        System.out.printf("Orders placed: %.1f/s%n", (checkouts.getCount() - checkouts.getFailures()) / seconds);
+        System.out.printf("Carrier claims lost to another carrier: %d%n", lostClaims.sum());
+        System.out.printf("InnoDB row lock waits: %d (%d ms total)%n", lockWaits, lockWaitMillis);
+    }
+}
@@ -0,0 +1,115 @@
+package com.greengrocer.database;
+
+import com.greengrocer.models.Order;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Order row mapping against an in-memory ResultSet.
+ * Lives in the database package to reach the package-private
+ * OrderDAO.extractOrderFromResultSet. The ResultSet is a dynamic proxy, so
+ * its per-call overhead is part of the measured time.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderExtractBenchmark {
+
+    /** Row with an invoice_pdf column */
+    private ResultSet fullRow;
+
+    /** Row from a query that does not select invoice_pdf */
+    private ResultSet rowWithoutPdf;
+
+    /**
+     * Builds the rows.
+     */
+    @Setup
+    public void setUp() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 4242);
+        row.put("user_id", 7);
+        row.put("customer_name", "Bench Customer");
+        row.put("customer_address", "1 Benchmark Street, Istanbul");
+        row.put("carrier_id", 3);
+        row.put("carrier_name", "Bench Carrier");
+        row.put("order_time", Timestamp.valueOf("2024-05-01 10:15:00"));
+        row.put("requested_delivery", Timestamp.valueOf("2024-05-01 16:30:00"));
+        row.put("delivery_time", null);
+        row.put("status", "SELECTED");
+        row.put("subtotal", new BigDecimal("48.75"));
+        row.put("vat", new BigDecimal("7.90"));
+        row.put("discount", new BigDecimal("4.88"));
+        row.put("total_cost", new BigDecimal("51.77"));
+        row.put("invoice", "INVOICE TEXT ".repeat(80));
+
+        rowWithoutPdf = resultSet(new HashMap<>(row));
+        row.put("invoice_pdf", new byte[8 * 1024]);
+        fullRow = resultSet(row);
+    }
+
+    /**
+     * Maps a row that includes the PDF column.
+     *
+     * @return The order, consumed by JMH
+     * @throws SQLException Never thrown by the in-memory row
+     */
+    @Benchmark
+    public Order extractFullRow() throws SQLException {
+        return OrderDAO.extractOrderFromResultSet(fullRow);
+    }
+
+    /**
+     * Maps a row without the PDF column, which takes the exception path.
+     *
+     * @return The order, consumed by JMH
+     * @throws SQLException Never thrown by the in-memory row
+     */
+    @Benchmark
+    public Order extractRowWithoutPdf() throws SQLException {
+        return OrderDAO.extractOrderFromResultSet(rowWithoutPdf);
+    }
+
+    /**
+     * Creates a single-row ResultSet backed by a map of column values.
+     * Unknown columns throw SQLException like a real driver.
+     *
+     * @param row Column values by label
+     * @return The ResultSet
+     */
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> {
+                    if (args == null || args.length != 1 || !(args[0] instanceof String)) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    String column = (String) args[0];
+                    if (!row.containsKey(column)) {
+                        throw new SQLException("Column '" + column + "' not found.");
+                    }
+                    Object value = row.get(column);
+                    if (method.getReturnType() == int.class) {
+                        return value == null ? 0 : ((Number) value).intValue();
+                    }
+                    return value;
+                });
+    }
+}
@@ -0,0 +1,45 @@
+#!/bin/bash
+# Group17 GreenGrocer - Dataset Generator Script
+# ============================================
+# Appends a production-sized synthetic dataset (users, orders, items,
+# ratings, messages and coupons) to the MySQL database configured in
+# DatabaseAdapter. Point it at a scratch database.
+# Build the application first with build.sh.
+#
+# Usage: bench/run-datagen.sh [--customers N] [--carriers N] [--orders N]
+#                             [--messages N] [--coupons N] [--user-coupons N]
+#                             [--seed N] [--infile]
+
+# Get the project directory
+SCRIPT_DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+PROJECT_DIR="$( dirname "$SCRIPT_DIR" )"
+
+# Change to the project directory
+cd "$PROJECT_DIR"
+
+MYSQL_JAR="$PROJECT_DIR/lib/mysql-connector-j-8.0.33.jar"
+ITEXT_JAR="$PROJECT_DIR/lib/itextpdf-5.5.13.3.jar"
+H2_JAR="$(ls "$PROJECT_DIR"/lib/h2-*.jar 2>/dev/null | head -n 1)"
+OUT_DIR="$PROJECT_DIR/out"
+DATA_OUT="$PROJECT_DIR/out-bench/data"
+
+if [ ! -d "$OUT_DIR" ]; then
+    echo "ERROR: Output directory not found. Please run build.sh first."
+    exit 1
+fi
+
+echo "Compiling dataset generator..."
+rm -rf "$DATA_OUT"
+mkdir -p "$DATA_OUT"
+javac -encoding UTF-8 \
+      -cp "$OUT_DIR:$MYSQL_JAR:$ITEXT_JAR" \
+      -d "$DATA_OUT" \
+      $(find "$SCRIPT_DIR/com/greengrocer/bench/data" -name "*.java")
+
+if [ $? -ne 0 ]; then
+    echo "ERROR: Compilation failed!"
+    exit 1
+fi
+
+java $JAVA_OPTS -cp "$DATA_OUT:$OUT_DIR:$MYSQL_JAR:$ITEXT_JAR:$H2_JAR" \
+     com.greengrocer.bench.data.DatasetGenerator "$@"
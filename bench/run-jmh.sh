@@ -0,0 +1,76 @@
+#!/bin/bash
+# Group17 GreenGrocer - Micro-benchmark Script
+# ============================================
+# Compiles the JMH benchmarks in bench/ against the application classes
+# and runs them, writing JSON results to out-bench/jmh-results.json.
+# The JMH jars are downloaded from Maven Central into lib/jmh on first use.
+# Build the application first with build.sh.
+#
+# Usage: bench/run-jmh.sh [JMH options] [benchmark regex]
+#   e.g. bench/run-jmh.sh -f 1 -wi 3 -i 5 CartManager
+
+# Get the project directory
+SCRIPT_DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+PROJECT_DIR="$( dirname "$SCRIPT_DIR" )"
+
+# Change to the project directory
+cd "$PROJECT_DIR"
+
+MYSQL_JAR="$PROJECT_DIR/lib/mysql-connector-j-8.0.33.jar"
+ITEXT_JAR="$PROJECT_DIR/lib/itextpdf-5.5.13.3.jar"
+OUT_DIR="$PROJECT_DIR/out"
+JMH_LIB="$PROJECT_DIR/lib/jmh"
+JMH_OUT="$PROJECT_DIR/out-bench/jmh"
+RESULTS="$PROJECT_DIR/out-bench/jmh-results.json"
+
+JMH_VERSION="1.37"
+MAVEN="https://repo1.maven.org/maven2"
+JMH_JARS=(
+    "org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar"
+    "org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar"
+    "net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar"
+    "org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar"
+)
+
+if [ ! -d "$OUT_DIR" ]; then
+    echo "ERROR: Output directory not found. Please run build.sh first."
+    exit 1
+fi
+
+echo "[1/3] Checking JMH libraries..."
+mkdir -p "$JMH_LIB"
+for jar in "${JMH_JARS[@]}"; do
+    file="$JMH_LIB/$(basename "$jar")"
+    if [ ! -f "$file" ]; then
+        echo "Downloading $(basename "$jar")..."
+        if ! curl -fsSL -o "$file" "$MAVEN/$jar"; then
+            rm -f "$file"
+            echo "ERROR: Could not download $MAVEN/$jar"
+            exit 1
+        fi
+    fi
+done
+JMH_CP="$(find "$JMH_LIB" -name "*.jar" | tr '\n' ':')"
+
+echo "[2/3] Compiling benchmarks..."
+rm -rf "$JMH_OUT"
+mkdir -p "$JMH_OUT"
+find "$SCRIPT_DIR" -name "*.java" -not -path "*/bench/load/*" > /tmp/bench-sources.txt
+javac -encoding UTF-8 \
+      -cp "$OUT_DIR:$MYSQL_JAR:$ITEXT_JAR:$JMH_CP" \
+      -processorpath "$JMH_CP" \
+      -d "$JMH_OUT" \
+      @/tmp/bench-sources.txt
+STATUS=$?
+rm -f /tmp/bench-sources.txt
+if [ $STATUS -ne 0 ]; then
+    echo "ERROR: Compilation failed!"
+    exit 1
+fi
+
+echo "[3/3] Running benchmarks..."
+java -cp "$JMH_OUT:$OUT_DIR:$MYSQL_JAR:$ITEXT_JAR:$JMH_CP" \
+     org.openjdk.jmh.Main -rf json -rff "$RESULTS" "$@"
+
+echo ""
+echo "Results written to $RESULTS"
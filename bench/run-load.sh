@@ -0,0 +1,45 @@
+#!/bin/bash
+# Group17 GreenGrocer - Load Test Script
+# ============================================
+# Drives checkout, carrier dispatch and owner reports concurrently against
+# the local MySQL database configured in DatabaseAdapter. The run inserts
+# orders and load-test users: point it at a scratch database.
+# Requires Java 21+ (virtual threads). Build the application first with build.sh.
+#
+# Usage: bench/run-load.sh [--customers N] [--carriers N] [--owners N]
+#                          [--duration SECONDS] [--think-ms MS]
+#                          [--catalog N] [--items-per-order N]
+
+# Get the project directory
+SCRIPT_DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+PROJECT_DIR="$( dirname "$SCRIPT_DIR" )"
+
+# Change to the project directory
+cd "$PROJECT_DIR"
+
+MYSQL_JAR="$PROJECT_DIR/lib/mysql-connector-j-8.0.33.jar"
+ITEXT_JAR="$PROJECT_DIR/lib/itextpdf-5.5.13.3.jar"
+H2_JAR="$(ls "$PROJECT_DIR"/lib/h2-*.jar 2>/dev/null | head -n 1)"
+OUT_DIR="$PROJECT_DIR/out"
+LOAD_OUT="$PROJECT_DIR/out-bench/load"
+
+if [ ! -d "$OUT_DIR" ]; then
+    echo "ERROR: Output directory not found. Please run build.sh first."
+    exit 1
+fi
+
+echo "Compiling load generator..."
+rm -rf "$LOAD_OUT"
+mkdir -p "$LOAD_OUT"
+javac -encoding UTF-8 \
+      -cp "$OUT_DIR:$MYSQL_JAR:$ITEXT_JAR" \
+      -d "$LOAD_OUT" \
+      $(find "$SCRIPT_DIR/com/greengrocer/bench/load" -name "*.java")
+
+if [ $? -ne 0 ]; then
+    echo "ERROR: Compilation failed!"
+    exit 1
+fi
+
+java $JAVA_OPTS -cp "$LOAD_OUT:$OUT_DIR:$MYSQL_JAR:$ITEXT_JAR:$H2_JAR" \
+     com.greengrocer.bench.load.LoadGenerator "$@"
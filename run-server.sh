@@ -0,0 +1,38 @@
+#!/bin/bash
+# Group17 GreenGrocer - Headless API Server Script
+# ============================================
+# Serves the shop over HTTP without the JavaFX client.
+# Requires Java 21+ (virtual threads). Build first with build.sh.
+#
+# Usage: ./run-server.sh [port]
+# Extra JVM settings can be passed in JAVA_OPTS, e.g.
+#   JAVA_OPTS="-Dgreengrocer.http.maxInFlight=512 -Dgreengrocer.carts.persist=true" ./run-server.sh
+
+# Get the script's directory
+SCRIPT_DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+
+# Change to the script's directory
+cd "$SCRIPT_DIR"
+
+# Set path to MySQL Connector JAR
+MYSQL_JAR="$SCRIPT_DIR/lib/mysql-connector-j-8.0.33.jar"
+
+# Set path to iTextPDF JAR
+ITEXT_JAR="$SCRIPT_DIR/lib/itextpdf-5.5.13.3.jar"
+
+# Optional H2 JAR for the embedded database (-Dgreengrocer.db.url=jdbc:h2:...)
+H2_JAR="$(ls "$SCRIPT_DIR"/lib/h2-*.jar 2>/dev/null | head -n 1)"
+
+# Output directory
+OUT_DIR="$SCRIPT_DIR/out"
+
+# Check if output exists
+if [ ! -d "$OUT_DIR" ]; then
+    echo "ERROR: Output directory not found. Please run build.sh first."
+    exit 1
+fi
+
+echo "Starting GreenGrocer API server..."
+java $JAVA_OPTS \
+     -cp "$OUT_DIR:$MYSQL_JAR:$ITEXT_JAR:$H2_JAR" \
+     com.greengrocer.server.ApiServer "$@"
@@ -17,9 +17,46 @@ MYSQL_JAR="$SCRIPT_DIR/lib/mysql-connector-j-8.0.33.jar"
 # Set path to iTextPDF JAR
 ITEXT_JAR="$SCRIPT_DIR/lib/itextpdf-5.5.13.3.jar"
 
+# Optional H2 JAR for the embedded database (-Dgreengrocer.db.url=jdbc:h2:...)
+H2_JAR="$(ls "$SCRIPT_DIR"/lib/h2-*.jar 2>/dev/null | head -n 1)"
+
 # Output directory
 OUT_DIR="$SCRIPT_DIR/out"
 
+# AppCDS archive (lives in out/ so a rebuild discards the stale archive)
+CDS_ARCHIVE="$OUT_DIR/greengrocer.jsa"
+
+# Flight recordings directory
+JFR_DIR="$SCRIPT_DIR/recordings"
+
+# Optional modes (can be combined):
+#   ./run.sh --cds-dump   run once and write the archive on exit
+#   ./run.sh --cds        start using the archive written by --cds-dump
+#   ./run.sh --jfr        continuous flight recording with a rolling buffer
+#                         (last 30 min / 250 MB), dumped to recordings/ on exit.
+#                         Dump a running session with:
+#                         jcmd <pid> JFR.dump name=greengrocer filename=now.jfr
+CDS_OPTS=""
+JFR_OPTS=""
+for arg in "$@"; do
+    case "$arg" in
+        --cds-dump)
+            CDS_OPTS="-XX:ArchiveClassesAtExit=$CDS_ARCHIVE"
+            ;;
+        --cds)
+            if [ -f "$CDS_ARCHIVE" ]; then
+                CDS_OPTS="-XX:SharedArchiveFile=$CDS_ARCHIVE"
+            else
+                echo "WARNING: CDS archive not found. Run ./run.sh --cds-dump first."
+            fi
+            ;;
+        --jfr)
+            mkdir -p "$JFR_DIR"
+            JFR_OPTS="-XX:StartFlightRecording=name=greengrocer,settings=default,disk=true,maxage=30m,maxsize=250m,dumponexit=true,filename=$JFR_DIR/greengrocer-$(date +%Y%m%d-%H%M%S).jfr"
+            ;;
+    esac
+done
+
 echo ""
 echo "========================================"
 echo "   Group17 GreenGrocer - Starting..."
@@ -33,10 +70,17 @@ if [ ! -d "$OUT_DIR" ]; then
 fi
 
 echo "Starting application..."
-java --module-path "$PATH_TO_FX" \
+if [ -n "$CDS_OPTS" ]; then
+    echo "Class-data sharing: $CDS_OPTS"
+fi
+if [ -n "$JFR_OPTS" ]; then
+    echo "Flight recording: $JFR_OPTS"
+fi
+java $JAVA_OPTS $CDS_OPTS $JFR_OPTS \
+     --module-path "$PATH_TO_FX" \
      --add-modules javafx.controls,javafx.fxml,javafx.graphics \
      --enable-native-access=javafx.graphics \
-     -cp "$OUT_DIR:$MYSQL_JAR:$ITEXT_JAR" \
+     -cp "$OUT_DIR:$MYSQL_JAR:$ITEXT_JAR:$H2_JAR" \
      com.greengrocer.Main
 
 if [ $? -ne 0 ]; then
@@ -1,5 +1,6 @@
 -- Greengrocer Database Schema
 -- Run this script in MySQL to create the database and tables
+-- Keep Group17-h2.sql, the embedded database version, in sync
 
 -- ============================================
 -- CREATE DATABASE USER (myuser@localhost with password 1234)
@@ -33,9 +34,23 @@ CREATE TABLE IF NOT EXISTS UserInfo (
     email VARCHAR(100),
     loyalty_points INT DEFAULT 0,
     completed_orders INT DEFAULT 0,
+    unread_messages INT NOT NULL DEFAULT 0,
+    rating_sum INT NOT NULL DEFAULT 0,
+    rating_count INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- ============================================
+-- STORES TABLE
+-- Branches served by this deployment, each with its owner
+-- ============================================
+CREATE TABLE IF NOT EXISTS Stores (
+    id INT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    owner_id INT,
+    FOREIGN KEY (owner_id) REFERENCES UserInfo(id) ON DELETE SET NULL
+);
+
 -- ============================================
 -- PRODUCT INFO TABLE
 -- Stores vegetables and fruits with BLOB for images
@@ -44,11 +59,13 @@ CREATE TABLE IF NOT EXISTS ProductInfo (
     id INT PRIMARY KEY AUTO_INCREMENT,
     name VARCHAR(100) NOT NULL,
     type ENUM('VEGETABLE', 'FRUIT') NOT NULL,
-    price DOUBLE NOT NULL,
-    stock DOUBLE NOT NULL,
-    threshold DOUBLE DEFAULT 5.0,
+    price DECIMAL(10,2) NOT NULL,
+    stock DECIMAL(10,3) NOT NULL,
+    threshold DECIMAL(10,3) DEFAULT 5.0,
     image LONGBLOB,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    store_id INT NOT NULL DEFAULT 1,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_product_store (store_id, type, name)
 );
 
 -- ============================================
@@ -63,12 +80,16 @@ CREATE TABLE IF NOT EXISTS OrderInfo (
     requested_delivery DATETIME NOT NULL,
     delivery_time DATETIME,
     status ENUM('PENDING', 'SELECTED', 'DELIVERED', 'CANCELLED') DEFAULT 'PENDING',
-    subtotal DOUBLE NOT NULL,
-    vat DOUBLE NOT NULL,
-    discount DOUBLE DEFAULT 0,
-    total_cost DOUBLE NOT NULL,
+    subtotal DECIMAL(12,2) NOT NULL,
+    vat DECIMAL(12,2) NOT NULL,
+    discount DECIMAL(12,2) DEFAULT 0,
+    total_cost DECIMAL(12,2) NOT NULL,
     invoice LONGTEXT,
     invoice_pdf LONGBLOB,
+    store_id INT NOT NULL DEFAULT 1,
+    INDEX idx_order_store (store_id, status),
+    INDEX idx_order_delivery (store_id, requested_delivery),
+    INDEX idx_order_user (user_id, order_time),
     FOREIGN KEY (user_id) REFERENCES UserInfo(id),
     FOREIGN KEY (carrier_id) REFERENCES UserInfo(id)
 );
@@ -82,8 +103,8 @@ CREATE TABLE IF NOT EXISTS OrderItems (
     order_id INT NOT NULL,
     product_id INT,
     product_name VARCHAR(100) NOT NULL,
-    quantity DOUBLE NOT NULL,
-    price_at_time DOUBLE NOT NULL,
+    quantity DECIMAL(10,3) NOT NULL,
+    price_at_time DECIMAL(10,2) NOT NULL,
     FOREIGN KEY (order_id) REFERENCES OrderInfo(id) ON DELETE CASCADE,
     FOREIGN KEY (product_id) REFERENCES ProductInfo(id) ON DELETE SET NULL
 );
@@ -102,7 +123,11 @@ CREATE TABLE IF NOT EXISTS Messages (
     sent_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     is_read BOOLEAN DEFAULT FALSE,
     FOREIGN KEY (sender_id) REFERENCES UserInfo(id),
-    FOREIGN KEY (receiver_id) REFERENCES UserInfo(id)
+    FOREIGN KEY (receiver_id) REFERENCES UserInfo(id),
+    INDEX idx_message_receiver (receiver_id, sent_at),
+    INDEX idx_message_sender (sender_id, sent_at),
+    INDEX idx_message_unread (receiver_id, is_read),
+    FULLTEXT INDEX ft_message_text (subject, content, reply)
 );
 
 -- ============================================
@@ -117,6 +142,7 @@ CREATE TABLE IF NOT EXISTS Coupons (
     expiry_date DATE,
     is_active BOOLEAN DEFAULT TRUE,
     max_usage INT DEFAULT 0,
+    usage_count INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
@@ -130,6 +156,7 @@ CREATE TABLE IF NOT EXISTS UserCoupons (
     coupon_id INT NOT NULL,
     is_used BOOLEAN DEFAULT FALSE,
     assigned_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE INDEX uq_user_coupon (user_id, coupon_id),
     FOREIGN KEY (user_id) REFERENCES UserInfo(id),
     FOREIGN KEY (coupon_id) REFERENCES Coupons(id)
 );
@@ -151,6 +178,41 @@ CREATE TABLE IF NOT EXISTS Ratings (
     FOREIGN KEY (customer_id) REFERENCES UserInfo(id)
 );
 
+-- ============================================
+-- CARTS TABLE
+-- Open shopping carts persisted so they survive restarts
+-- ============================================
+CREATE TABLE IF NOT EXISTS Carts (
+    user_id INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity DECIMAL(10,3) NOT NULL,
+    price_at_time DECIMAL(10,2) NOT NULL,
+    position INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, product_id),
+    FOREIGN KEY (user_id) REFERENCES UserInfo(id) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES ProductInfo(id) ON DELETE CASCADE
+);
+
+-- ============================================
+-- DELIVERY SLOTS TABLE
+-- Deliveries booked per store and half-hour slot
+-- ============================================
+CREATE TABLE IF NOT EXISTS DeliverySlots (
+    store_id INT NOT NULL,
+    slot_start DATETIME NOT NULL,
+    reserved INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (store_id, slot_start)
+);
+
+-- ============================================
+-- Counter backfills that have completed
+-- ============================================
+CREATE TABLE IF NOT EXISTS SchemaBackfills (
+    name VARCHAR(64) PRIMARY KEY,
+    completed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- ============================================
 -- LOYALTY SETTINGS TABLE
 -- Settings for loyalty discount (managed by owner)
@@ -172,6 +234,10 @@ INSERT INTO UserInfo (username, password, role, full_name, address, phone, email
 ('carr', 'carr', 'CARRIER', 'Test Carrier', '456 Carrier Avenue', '555-0002', 'carrier@test.com'),
 ('own', 'own', 'OWNER', 'Store Owner', '789 Owner Boulevard', '555-0003', 'owner@test.com');
 
+-- Insert the default store, run by the default owner
+INSERT INTO Stores (id, name, owner_id)
+SELECT 1, 'Main Store', id FROM UserInfo WHERE username = 'own';
+
 -- Insert 12 Vegetables
 INSERT INTO ProductInfo (name, type, price, stock, threshold) VALUES
 ('Tomato', 'VEGETABLE', 2.50, 100.0, 5.0),
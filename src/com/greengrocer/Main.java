@@ -1,11 +1,17 @@
 package com.greengrocer;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.metrics.MetricsServer;
+import com.greengrocer.utils.AppBootstrap;
+import com.greengrocer.utils.LogWriter;
+import com.greengrocer.utils.Logger;
+import com.greengrocer.utils.NotificationAggregator;
 
 /**
  * Main entry point for the Greengrocer Application.
@@ -18,6 +24,9 @@ import com.greengrocer.database.DatabaseAdapter;
  */
 public class Main extends Application {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(Main.class);
+
     /** The initial width of the application window */
     public static final int WINDOW_WIDTH = 960;
 
@@ -32,16 +41,18 @@ public class Main extends Application {
 
     /**
      * The main entry point for the JavaFX application.
-     * Initializes the database connection and displays the login screen.
+     * Displays the login screen immediately while the database connection and
+     * the other startup stages run in the background.
      * 
      * @param primaryStage The primary stage for this application
      */
     @Override
     public void start(Stage primaryStage) {
         try {
-            // Initialize database connection
-            DatabaseAdapter.getInstance().getConnection();
-            System.out.println("Database connected successfully!");
+            // Connect, migrate and warm up in the background
+            AppBootstrap bootstrap = AppBootstrap.getInstance();
+            bootstrap.start();
+            MetricsServer.startFromProperties();
 
             // Load the login screen
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/greengrocer/views/Login.fxml"));
@@ -66,9 +77,11 @@ public class Main extends Application {
             // Show the stage
             primaryStage.show();
 
+            // Runs after the first frame has been handed to the FX thread
+            Platform.runLater(bootstrap::reportInteractive);
+
         } catch (Exception e) {
-            System.err.println("Error starting application: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error starting application", e);
         }
     }
 
@@ -78,8 +91,11 @@ public class Main extends Application {
      */
     @Override
     public void stop() {
+        AppBootstrap.getInstance().shutdown();
+        NotificationAggregator.getInstance().shutdown();
         DatabaseAdapter.getInstance().closeConnection();
-        System.out.println("Application closed. Database connection closed.");
+        LOG.info("Application closed");
+        LogWriter.getInstance().shutdown();
     }
 
     /**
@@ -182,8 +182,9 @@ public class CarrierController {
      * Updates the carrier's rating display.
      */
     private void updateRating() {
-        double avgRating = ratingDAO.getAverageRating(currentUser.getId());
-        int ratingCount = ratingDAO.getRatingCount(currentUser.getId());
+        CarrierRating rating = ratingDAO.getCarrierRating(currentUser.getId());
+        double avgRating = rating.getAverage();
+        int ratingCount = rating.getRatingCount();
 
         if (ratingCount > 0) {
             ratingLabel.setText(
@@ -3,7 +3,6 @@ package com.greengrocer.controllers;
 import com.greengrocer.database.*;
 import com.greengrocer.models.*;
 import com.greengrocer.utils.*;
-import java.io.ByteArrayInputStream;
 import java.util.List;
 import java.util.Optional;
 import javafx.event.ActionEvent;
@@ -31,6 +30,9 @@ import javafx.stage.Stage;
  */
 public class CustomerController {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(CustomerController.class);
+
     @FXML
     private TextField searchField;
 
@@ -132,9 +134,8 @@ public class CustomerController {
      * Checks for unnotified delivered orders and shows a popup.
      */
     private void checkDeliveryNotifications() {
-        System.out.println("Checking for delivery notifications for user: " + currentUser.getId());
         List<Order> unnotified = orderDAO.getUnnotifiedDeliveredOrdersForCustomer(currentUser.getId());
-        System.out.println("Found " + unnotified.size() + " unnotified orders.");
+        LOG.debug("Checked delivery notifications", "userId", currentUser.getId(), "unnotified", unnotified.size());
 
         if (!unnotified.isEmpty()) {
             StringBuilder message = new StringBuilder("The following orders have been delivered:\n\n");
@@ -166,17 +167,34 @@ public class CustomerController {
 
     /**
      * Loads all products into the display containers.
+     * If the database cannot be reached the products already shown stay.
      */
     private void loadProducts() {
+        DbResult<List<Product>> vegetables = productDAO.loadByType("VEGETABLE");
+        DbResult<List<Product>> fruits = productDAO.loadByType("FRUIT");
+        if (!vegetables.isOk() || !fruits.isOk()) {
+            showCatalogUnavailable(vegetables.isUnavailable() || fruits.isUnavailable());
+            return;
+        }
+
         // Load vegetables
-        List<Product> vegetables = productDAO.getVegetables();
-        displayProducts(vegetablesContainer, vegetables);
-        vegetablesPane.setText("[V] Vegetables (" + vegetables.size() + ")");
+        displayProducts(vegetablesContainer, vegetables.getValue());
+        vegetablesPane.setText("[V] Vegetables (" + vegetables.getValue().size() + ")");
 
         // Load fruits
-        List<Product> fruits = productDAO.getFruits();
-        displayProducts(fruitsContainer, fruits);
-        fruitsPane.setText("[F] Fruits (" + fruits.size() + ")");
+        displayProducts(fruitsContainer, fruits.getValue());
+        fruitsPane.setText("[F] Fruits (" + fruits.getValue().size() + ")");
+    }
+
+    /**
+     * Tells the customer that the catalog could not be refreshed.
+     *
+     * @param unavailable Whether the database was unreachable rather than failing otherwise
+     */
+    private void showCatalogUnavailable(boolean unavailable) {
+        statusLabel.setText(unavailable
+                ? "Catalog temporarily unavailable, showing the last loaded products. Try again shortly."
+                : "Could not load the catalog, showing the last loaded products.");
     }
 
     /**
@@ -216,8 +234,7 @@ public class CustomerController {
         // Load image from database, file, or use placeholder
         if (product.getImage() != null) {
             try {
-                Image image = new Image(
-                        new ByteArrayInputStream(product.getImage()));
+                Image image = ImageDecoder.decode(product.getImage(), product.getName());
                 imageView.setImage(image);
             } catch (Exception e) {
                 loadImageFromFile(imageView, product.getName());
@@ -349,13 +366,7 @@ public class CustomerController {
 
         // Check stock availability
         // Need to consider what's already in cart for this product
-        double alreadyInCart = 0;
-        for (CartItem item : cartManager.getItems()) {
-            if (item.getProductId() == product.getId()) {
-                alreadyInCart = item.getQuantity();
-                break;
-            }
-        }
+        double alreadyInCart = cartManager.getQuantity(product.getId());
 
         if (quantity + alreadyInCart > product.getStock()) {
             AlertUtils.showWarning(
@@ -495,8 +506,14 @@ public class CustomerController {
         }
 
         // Load products
-        List<Product> vegetables = productDAO.getVegetables();
-        List<Product> fruits = productDAO.getFruits();
+        DbResult<List<Product>> vegetableResult = productDAO.loadByType("VEGETABLE");
+        DbResult<List<Product>> fruitResult = productDAO.loadByType("FRUIT");
+        if (!vegetableResult.isOk() || !fruitResult.isOk()) {
+            showCatalogUnavailable(vegetableResult.isUnavailable() || fruitResult.isUnavailable());
+            return;
+        }
+        List<Product> vegetables = vegetableResult.getValue();
+        List<Product> fruits = fruitResult.getValue();
 
         // Sort based on selection
         if (sortOption.equals("Price: Low to High")) {
@@ -552,12 +569,7 @@ public class CustomerController {
             SessionManager.getInstance().setCurrentUser(currentUser);
             updateLoyaltyStatus();
         } catch (Exception e) {
-            System.err.println(
-                    "ERROR opening cart: " +
-                            e.getClass().getName() +
-                            ": " +
-                            e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error opening cart", e);
             AlertUtils.showError(
                     "Error",
                     "Could not open shopping cart: " + e.getMessage());
@@ -566,10 +578,13 @@ public class CustomerController {
 
     /**
      * Opens the order history view.
+     * Orders are shown a page at a time; the cells only read the prepared
+     * history entries, so scrolling does not query the database.
      */
     @FXML
     private void handleViewOrders(ActionEvent event) {
-        List<Order> orders = orderDAO.findByUser(currentUser.getId());
+        OrderHistory history = new OrderHistory(currentUser.getId());
+        List<OrderHistoryEntry> firstPage = history.nextPage();
 
         // Create a dialog to show orders
         Dialog<Void> dialog = new Dialog<>();
@@ -581,20 +596,21 @@ public class CustomerController {
         content.setPrefWidth(600);
         content.setPrefHeight(400);
 
-        if (orders.isEmpty()) {
+        if (firstPage.isEmpty()) {
             content.getChildren().add(new Label("No orders found."));
         } else {
-            ListView<Order> orderList = new ListView<>();
-            orderList.getItems().addAll(orders);
+            ListView<OrderHistoryEntry> orderList = new ListView<>();
+            orderList.getItems().addAll(firstPage);
 
-            orderList.setCellFactory(lv -> new ListCell<Order>() {
+            orderList.setCellFactory(lv -> new ListCell<OrderHistoryEntry>() {
                 @Override
-                protected void updateItem(Order order, boolean empty) {
-                    super.updateItem(order, empty);
-                    if (empty || order == null) {
+                protected void updateItem(OrderHistoryEntry entry, boolean empty) {
+                    super.updateItem(entry, empty);
+                    if (empty || entry == null) {
                         setText(null);
                         setGraphic(null);
                     } else {
+                        Order order = entry.getOrder();
                         VBox cell = new VBox(5);
                         cell.setPadding(new Insets(5));
 
@@ -621,9 +637,8 @@ public class CustomerController {
 
                         // Cancel button (only for pending orders within 24 hour time limit)
                         if (order.isPending()) {
-                            if (orderDAO.canCancelOrder(order.getId())) {
-                                int hoursRemaining = orderDAO.getHoursRemainingToCancel(
-                                        order.getId());
+                            if (entry.isCancellable()) {
+                                int hoursRemaining = entry.getHoursToCancel();
                                 Button cancelBtn = new Button(
                                         "Cancel (" + hoursRemaining + "h left)");
                                 cancelBtn.setStyle(
@@ -641,7 +656,7 @@ public class CustomerController {
                                                     "Order cancelled successfully. Stock has been restored.");
                                             orderList
                                                     .getItems()
-                                                    .remove(order);
+                                                    .remove(entry);
                                             loadProducts(); // Refresh product display to show updated stock
                                         } else {
                                             AlertUtils.showError(
@@ -660,15 +675,16 @@ public class CustomerController {
                             }
                         }
 
-                        // Rate button (only for delivered orders)
-                        if (order.isDelivered() && order.getCarrierId() > 0) {
-                            if (!ratingDAO.hasRated(
-                                    order.getId(),
-                                    currentUser.getId())) {
-                                Button rateBtn = new Button("Rate Carrier");
-                                rateBtn.setOnAction(e -> rateCarrier(order));
-                                actions.getChildren().add(rateBtn);
-                            }
+                        // Rate button (only for delivered orders not rated yet)
+                        if (entry.isRateable()) {
+                            Button rateBtn = new Button("Rate Carrier");
+                            rateBtn.setOnAction(e -> {
+                                if (rateCarrier(order)) {
+                                    entry.markRated();
+                                    orderList.refresh();
+                                }
+                            });
+                            actions.getChildren().add(rateBtn);
                         }
 
                         cell
@@ -685,6 +701,16 @@ public class CustomerController {
 
             content.getChildren().add(orderList);
             VBox.setVgrow(orderList, Priority.ALWAYS);
+
+            // Older orders are loaded on request
+            if (history.hasMore()) {
+                Button olderBtn = new Button("Show Older Orders");
+                olderBtn.setOnAction(e -> {
+                    orderList.getItems().addAll(history.nextPage());
+                    olderBtn.setVisible(history.hasMore());
+                });
+                content.getChildren().add(olderBtn);
+            }
         }
 
         dialog.getDialogPane().setContent(content);
@@ -763,8 +789,11 @@ public class CustomerController {
 
     /**
      * Opens the carrier rating dialog.
+     *
+     * @param order The delivered order
+     * @return true if a rating was saved
      */
-    private void rateCarrier(Order order) {
+    private boolean rateCarrier(Order order) {
         Dialog<Rating> dialog = new Dialog<>();
         dialog.setTitle("Rate Carrier");
         dialog.setHeaderText(
@@ -807,11 +836,11 @@ public class CustomerController {
         });
 
         Optional<Rating> result = dialog.showAndWait();
-        result.ifPresent(rating -> {
-            if (ratingDAO.create(rating)) {
-                AlertUtils.showSuccess("Thank you for your feedback!");
-            }
-        });
+        if (result.isPresent() && ratingDAO.create(result.get())) {
+            AlertUtils.showSuccess("Thank you for your feedback!");
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -3,15 +3,18 @@ package com.greengrocer.controllers;
 import com.greengrocer.database.*;
 import com.greengrocer.models.*;
 import com.greengrocer.utils.*;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.file.Files;
 import java.sql.ResultSet;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
@@ -21,6 +24,7 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
@@ -34,6 +38,27 @@ import javafx.stage.Stage;
  */
 public class OwnerController {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(OwnerController.class);
+
+    /** Coupon assignment target: a single customer */
+    private static final String ASSIGN_ONE = "One customer";
+
+    /** Coupon assignment target: every customer */
+    private static final String ASSIGN_ALL = "All customers";
+
+    /** Coupon assignment target: customers with enough completed orders */
+    private static final String ASSIGN_MIN_ORDERS = "Customers with at least N completed orders";
+
+    /** Coupon assignment target: customers without recent orders */
+    private static final String ASSIGN_INACTIVE = "Customers inactive for N days";
+
+    /** Carriers shown on the ratings leaderboard */
+    private static final int LEADERBOARD_SIZE = 10;
+
+    /** Most recent ratings shown on the ratings tab */
+    private static final int RECENT_RATINGS = 200;
+
     // Products Tab
     @FXML
     private TableView<Product> productsTable;
@@ -122,6 +147,15 @@ public class OwnerController {
     @FXML
     private ListView<Message> messagesList;
 
+    @FXML
+    private Label unreadLabel;
+
+    @FXML
+    private TextField messageSearchField;
+
+    @FXML
+    private Button olderMessagesButton;
+
     @FXML
     private TextArea messageContentArea;
 
@@ -166,6 +200,9 @@ public class OwnerController {
     @FXML
     private TableView<Rating> ratingsTable;
 
+    @FXML
+    private ListView<String> leaderboardList;
+
     @FXML
     private TableColumn<Rating, String> rateCarrierColumn;
 
@@ -226,6 +263,9 @@ public class OwnerController {
     private LoyaltySettingsDAO loyaltySettingsDAO;
 
     private User currentUser;
+    private Inbox inbox;
+    private MessageSearch messageSearch;
+    private Map<Integer, CarrierRating> carrierRatings = new HashMap<>();
     private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(
             "yyyy-MM-dd HH:mm");
 
@@ -373,7 +413,7 @@ public class OwnerController {
     private Image loadProductImage(Product product) {
         // First try database image
         if (product.getImage() != null && product.getImage().length > 0) {
-            return new Image(new ByteArrayInputStream(product.getImage()));
+            return ImageDecoder.decode(product.getImage(), product.getName());
         }
 
         // Fall back to resource image
@@ -550,8 +590,7 @@ public class OwnerController {
             if (file != null) {
                 try {
                     selectedImageBytes[0] = Files.readAllBytes(file.toPath());
-                    Image img = new Image(
-                            new ByteArrayInputStream(selectedImageBytes[0]));
+                    Image img = ImageDecoder.decode(selectedImageBytes[0], file.getName());
                     previewImage.setImage(img);
                     imageLabel.setText(file.getName());
                 } catch (Exception ex) {
@@ -639,16 +678,16 @@ public class OwnerController {
         carrPhoneColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getPhone()));
         carrEmailColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getEmail()));
         carrRatingColumn.setCellValueFactory(data -> {
-            double rating = ratingDAO.getAverageRating(data.getValue().getId());
-            int count = ratingDAO.getRatingCount(data.getValue().getId());
-            String text = count > 0
-                    ? String.format("%.1f/5 (%d)", rating, count)
+            CarrierRating rating = carrierRatings.get(data.getValue().getId());
+            String text = rating != null && rating.getRatingCount() > 0
+                    ? String.format("%.1f/5 (%d)", rating.getAverage(), rating.getRatingCount())
                     : "No ratings";
             return new SimpleStringProperty(text);
         });
     }
 
     private void loadCarriers() {
+        carrierRatings = CarrierLeaderboard.getInstance().byCarrier();
         List<User> carriers = userDAO.getAllCarriers();
         carriersTable.setItems(FXCollections.observableArrayList(carriers));
     }
@@ -932,16 +971,58 @@ public class OwnerController {
 
                         // Mark as read
                         if (!selected.isRead()) {
-                            messageDAO.markAsRead(selected.getId());
-                            loadMessages();
+                            inbox.markRead(selected);
+                            messagesList.refresh();
+                            updateUnreadLabel();
                         }
                     }
                 });
     }
 
     private void loadMessages() {
-        List<Message> messages = messageDAO.findByReceiver(currentUser.getId());
-        messagesList.setItems(FXCollections.observableArrayList(messages));
+        messageSearch = null;
+        inbox = new Inbox(currentUser.getId());
+        messagesList.setItems(FXCollections.observableArrayList(inbox.nextPage()));
+        olderMessagesButton.setVisible(inbox.hasMore());
+        updateUnreadLabel();
+    }
+
+    private void updateUnreadLabel() {
+        unreadLabel.setText(inbox.getUnreadCount() + " unread");
+    }
+
+    @FXML
+    private void handleOlderMessages(ActionEvent event) {
+        if (messageSearch != null) {
+            messagesList.getItems().addAll(messageSearch.nextPage());
+            olderMessagesButton.setVisible(messageSearch.hasMore());
+        } else {
+            messagesList.getItems().addAll(inbox.nextPage());
+            olderMessagesButton.setVisible(inbox.hasMore());
+        }
+    }
+
+    @FXML
+    private void handleSearchMessages(ActionEvent event) {
+        String words = messageSearchField.getText().trim();
+        if (words.isEmpty()) {
+            loadMessages();
+            return;
+        }
+
+        messageSearch = new MessageSearch(currentUser.getId(), words);
+        messagesList.setItems(FXCollections.observableArrayList(messageSearch.nextPage()));
+        messagesList.setPlaceholder(new Label("No messages match \"" + words + "\""));
+        olderMessagesButton.setVisible(messageSearch.hasMore());
+    }
+
+    @FXML
+    private void handleMarkAllRead(ActionEvent event) {
+        if (inbox.markAllRead(messagesList.getItems()) < 0) {
+            AlertUtils.showError("Error", "Could not mark messages as read.");
+        }
+        messagesList.refresh();
+        updateUnreadLabel();
     }
 
     @FXML
@@ -962,7 +1043,10 @@ public class OwnerController {
 
         if (messageDAO.reply(selected.getId(), reply)) {
             AlertUtils.showSuccess("Reply sent successfully!");
-            loadMessages();
+            selected.setReply(reply);
+            selected.setRead(true);
+            messagesList.refresh();
+            updateUnreadLabel();
         } else {
             AlertUtils.showError("Error", "Could not send reply.");
         }
@@ -1015,12 +1099,8 @@ public class OwnerController {
     }
 
     private void loadCoupons() {
-        System.out.println("DEBUG: Loading coupons from database...");
         List<Coupon> coupons = couponDAO.findAll();
-        System.out.println("DEBUG: Found " + coupons.size() + " coupons");
-        for (Coupon c : coupons) {
-            System.out.println("DEBUG: - " + c.getCode() + " (" + c.getDiscountPercent() + "%)");
-        }
+        LOG.debug("Loaded coupons", "count", coupons.size());
         couponsTable.setItems(FXCollections.observableArrayList(coupons));
     }
 
@@ -1165,17 +1245,11 @@ public class OwnerController {
         });
 
         Optional<Coupon> result = dialog.showAndWait();
-        System.out.println("DEBUG: Dialog closed, result present: " + result.isPresent());
         result.ifPresent(coupon -> {
-            System.out.println("DEBUG: Attempting to create coupon: " + coupon.getCode());
-            System.out.println("DEBUG: Discount: " + coupon.getDiscountPercent());
-            System.out.println("DEBUG: Min Order: " + coupon.getMinOrderValue());
-            System.out.println("DEBUG: Max Usage: " + coupon.getMaxUsage());
-            System.out.println("DEBUG: Expiry Date: " + coupon.getExpiryDate());
-            System.out.println("DEBUG: Is Active: " + coupon.isActive());
-
             boolean created = couponDAO.create(coupon);
-            System.out.println("DEBUG: Coupon created: " + created);
+            LOG.debug("Create coupon", "code", coupon.getCode(), "discount", coupon.getDiscountPercent(),
+                    "minOrder", coupon.getMinOrderValue(), "maxUsage", coupon.getMaxUsage(),
+                    "expiry", coupon.getExpiryDate(), "active", coupon.isActive(), "created", created);
 
             if (created) {
                 AlertUtils.showSuccess("Coupon created successfully!");
@@ -1214,22 +1288,148 @@ public class OwnerController {
             return;
         }
 
-        List<User> customers = userDAO.getAllCustomers();
-        ChoiceDialog<User> dialog = new ChoiceDialog<>(
-                customers.isEmpty() ? null : customers.get(0),
-                customers);
+        Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Assign Coupon");
-        dialog.setHeaderText("Select a customer to assign the coupon");
+        dialog.setHeaderText("Assign " + selected.getCode() + " to one customer or a customer segment");
 
-        Optional<User> result = dialog.showAndWait();
-        result.ifPresent(customer -> {
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20));
+
+        ComboBox<String> targetCombo = new ComboBox<>(FXCollections.observableArrayList(
+                ASSIGN_ONE, ASSIGN_ALL, ASSIGN_MIN_ORDERS, ASSIGN_INACTIVE));
+        targetCombo.setValue(ASSIGN_ONE);
+        ComboBox<User> customerCombo = new ComboBox<>(
+                FXCollections.observableArrayList(userDAO.getAllCustomers()));
+        TextField valueField = new TextField();
+        valueField.setPromptText("Orders or days");
+        valueField.setDisable(true);
+        targetCombo.setOnAction(e -> {
+            String target = targetCombo.getValue();
+            customerCombo.setDisable(!ASSIGN_ONE.equals(target));
+            valueField.setDisable(!ASSIGN_MIN_ORDERS.equals(target) && !ASSIGN_INACTIVE.equals(target));
+        });
+
+        grid.add(new Label("Assign to:"), 0, 0);
+        grid.add(targetCombo, 1, 0);
+        grid.add(new Label("Customer:"), 0, 1);
+        grid.add(customerCombo, 1, 1);
+        grid.add(new Label("Orders / days:"), 0, 2);
+        grid.add(valueField, 1, 2);
+
+        dialog.getDialogPane().setContent(grid);
+        dialog
+                .getDialogPane()
+                .getButtonTypes()
+                .addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        // Add validation to prevent dialog from closing on invalid input
+        Button okButton = (Button) dialog.getDialogPane().lookupButton(ButtonType.OK);
+        okButton.addEventFilter(ActionEvent.ACTION, e -> {
+            if (ASSIGN_ONE.equals(targetCombo.getValue())) {
+                if (customerCombo.getValue() == null) {
+                    AlertUtils.showValidationError("Please select a customer.");
+                    e.consume();
+                }
+            } else if (!valueField.isDisabled() && ValidationUtils.parseInt(valueField.getText()) <= 0) {
+                AlertUtils.showValidationError("Orders or days must be a positive whole number.");
+                e.consume();
+            }
+        });
+
+        Optional<ButtonType> result = dialog.showAndWait();
+        if (result.isEmpty() || result.get() != ButtonType.OK) {
+            return;
+        }
+
+        String target = targetCombo.getValue();
+        if (ASSIGN_ONE.equals(target)) {
+            User customer = customerCombo.getValue();
             if (couponDAO.assignToUser(customer.getId(), selected.getId())) {
                 AlertUtils.showSuccess(
                         "Coupon assigned to " + customer.getUsername() + "!");
             } else {
                 AlertUtils.showError("Error", "Could not assign coupon.");
             }
+            return;
+        }
+
+        int value = ValidationUtils.parseInt(valueField.getText());
+        CustomerSegment segment = ASSIGN_MIN_ORDERS.equals(target)
+                ? CustomerSegment.minCompletedOrders(value)
+                : ASSIGN_INACTIVE.equals(target) ? CustomerSegment.inactiveFor(value) : CustomerSegment.all();
+        runCouponCampaign(selected, segment);
+    }
+
+    /**
+     * Assigns a coupon to a customer segment in the background, showing
+     * its progress. The owner confirms the number of customers first.
+     *
+     * @param coupon  The coupon
+     * @param segment The customer segment
+     */
+    private void runCouponCampaign(Coupon coupon, CustomerSegment segment) {
+        CouponCampaign campaign = new CouponCampaign();
+        int targets = campaign.countTargets(coupon.getId(), segment);
+        if (targets < 0) {
+            AlertUtils.showError("Error", "Could not find the customers of this segment.");
+            return;
+        }
+        if (targets == 0) {
+            AlertUtils.showInfo("Assign Coupon", "All " + segment + " already have this coupon.");
+            return;
+        }
+        if (!AlertUtils.showConfirmation(
+                "Assign Coupon",
+                "Assign " + coupon.getCode() + " to " + targets + " " + segment + "?")) {
+            return;
+        }
+
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() {
+                return campaign.run(coupon.getId(), segment, (done, total, assigned) -> {
+                    updateProgress(done, total);
+                    updateMessage(assigned + " of " + targets + " customers assigned");
+                });
+            }
+        };
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(300);
+        progressBar.progressProperty().bind(task.progressProperty());
+        Label progressLabel = new Label();
+        progressLabel.textProperty().bind(task.messageProperty());
+
+        Alert progressDialog = new Alert(Alert.AlertType.NONE);
+        progressDialog.setTitle("Assign Coupon");
+        progressDialog.setHeaderText("Assigning " + coupon.getCode() + " to " + segment);
+        progressDialog.getDialogPane().setContent(new VBox(10, progressBar, progressLabel));
+        progressDialog.getButtonTypes().add(ButtonType.CANCEL);
+        progressDialog.setOnCloseRequest(e -> task.cancel());
+
+        task.setOnSucceeded(e -> {
+            progressDialog.close();
+            int assigned = task.getValue();
+            if (assigned < 0) {
+                AlertUtils.showError("Campaign Stopped",
+                        "The coupon could not be assigned to every customer. " +
+                                "Run the campaign again to finish; customers who have it are skipped.");
+            } else {
+                AlertUtils.showSuccess("Coupon assigned to " + assigned + " customers!");
+            }
+        });
+        task.setOnFailed(e -> {
+            progressDialog.close();
+            LOG.error("Coupon campaign error", task.getException());
+            AlertUtils.showError("Error", "Could not assign coupon.");
         });
+
+        Thread thread = new Thread(task, "coupon-campaign");
+        thread.setDaemon(true);
+        thread.start();
+        progressDialog.show();
     }
 
     @FXML
@@ -1279,7 +1479,19 @@ public class OwnerController {
     }
 
     private void loadRatings() {
-        List<Rating> ratings = ratingDAO.findAll();
+        CarrierLeaderboard leaderboard = CarrierLeaderboard.getInstance();
+        List<String> ranks = new ArrayList<>();
+        for (CarrierRating carrier : leaderboard.top(LEADERBOARD_SIZE)) {
+            ranks.add(String.format("%d. %s - %.2f (average %.1f/5 from %d ratings)",
+                    ranks.size() + 1,
+                    carrier.getCarrierName(),
+                    leaderboard.score(carrier),
+                    carrier.getAverage(),
+                    carrier.getRatingCount()));
+        }
+        leaderboardList.setItems(FXCollections.observableArrayList(ranks));
+
+        List<Rating> ratings = ratingDAO.findRecent(RECENT_RATINGS);
         ratingsTable.setItems(FXCollections.observableArrayList(ratings));
     }
 
@@ -1332,7 +1544,7 @@ public class OwnerController {
                 bestSellingLabel.setText("No sales data yet");
             }
         } catch (Exception e) {
-            System.err.println("Error loading best seller: " + e.getMessage());
+            LOG.error("Error loading best seller", e);
             bestSellingLabel.setText("Error loading data");
         }
     }
@@ -1355,7 +1567,7 @@ public class OwnerController {
                 count++;
             }
         } catch (Exception e) {
-            System.err.println("Error loading sales chart: " + e.getMessage());
+            LOG.error("Error loading sales chart", e);
         }
 
         productSalesChart.getData().add(salesSeries);
@@ -6,7 +6,10 @@ import com.greengrocer.utils.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -29,6 +32,9 @@ import javafx.stage.Stage;
  */
 public class ShoppingCartController {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(ShoppingCartController.class);
+
     @FXML
     private TableView<CartItem> cartTable;
 
@@ -103,11 +109,10 @@ public class ShoppingCartController {
 
     private CartManager cartManager;
     private ProductDAO productDAO;
-    private OrderDAO orderDAO;
-    private UserDAO userDAO;
     private CouponDAO couponDAO;
     private LoyaltySettingsDAO loyaltySettingsDAO;
-    private MessageDAO messageDAO;
+    private CheckoutService checkoutService;
+    private DeliverySlotScheduler slotScheduler;
     private User currentUser;
 
     /** Reference to parent controller - kept for potential future use */
@@ -119,6 +124,9 @@ public class ShoppingCartController {
     private Coupon appliedCoupon = null;
     private LoyaltySettings loyaltySettings;
 
+    /** Delivery slots with room left, by date */
+    private Map<LocalDate, List<DeliverySlot>> availableSlots = new TreeMap<>();
+
     /**
      * Tracks if user is eligible for loyalty discount - kept for potential future
      * use
@@ -140,11 +148,10 @@ public class ShoppingCartController {
     public void initialize() {
         cartManager = CartManager.getInstance();
         productDAO = new ProductDAO();
-        orderDAO = new OrderDAO();
         couponDAO = new CouponDAO();
         loyaltySettingsDAO = new LoyaltySettingsDAO();
-        messageDAO = new MessageDAO();
-        userDAO = new UserDAO();
+        checkoutService = new CheckoutService();
+        slotScheduler = DeliverySlotScheduler.getInstance();
         currentUser = SessionManager.getInstance().getCurrentUser();
         loyaltySettings = loyaltySettingsDAO.getSettings();
 
@@ -318,13 +325,13 @@ public class ShoppingCartController {
 
                 if (imageBytes != null && imageBytes.length > 0) {
                     try {
-                        Image image = new Image(new java.io.ByteArrayInputStream(imageBytes));
+                        Image image = ImageDecoder.decode(imageBytes, productName);
                         if (image != null && !image.isError()) {
                             imageView.setImage(image);
                             return;
                         }
                     } catch (Exception e) {
-                        System.err.println("Error loading image from database: " + e.getMessage());
+                        LOG.warn("Error loading image from database", e);
                     }
                 }
                 break;
@@ -364,31 +371,61 @@ public class ShoppingCartController {
     }
 
     /**
-     * Sets up delivery date and time options.
+     * Sets up the delivery date and time pickers, which offer only the
+     * slots that still have room.
      */
     private void setupDeliveryOptions() {
-        // Date picker - only allow next 2 days
-        LocalDate today = LocalDate.now();
+        // Date picker - only dates with a free slot
         deliveryDatePicker.setDayCellFactory(picker -> new DateCell() {
             @Override
             public void updateItem(LocalDate date, boolean empty) {
                 super.updateItem(date, empty);
-                // Only allow dates within next 48 hours
-                LocalDate maxDate = today.plusDays(2);
-                setDisable(
-                        empty || date.isBefore(today) || date.isAfter(maxDate));
+                setDisable(empty || !availableSlots.containsKey(date));
             }
         });
-        deliveryDatePicker.setValue(today);
+        deliveryDatePicker.valueProperty().addListener((obs, oldDate, newDate) -> showDeliveryTimes(newDate));
+        refreshDeliverySlots();
+    }
+
+    /**
+     * Loads the free delivery slots and preselects the one with the most
+     * room, so that deliveries spread over the day.
+     */
+    private void refreshDeliverySlots() {
+        List<DeliverySlot> slots = slotScheduler.findAvailable();
+        availableSlots = new TreeMap<>();
+        for (DeliverySlot slot : slots) {
+            availableSlots.computeIfAbsent(slot.getStart().toLocalDate(), date -> new ArrayList<>()).add(slot);
+        }
+
+        DeliverySlot suggested = DeliverySlotScheduler.leastBooked(slots);
+        if (suggested == null) {
+            deliveryDatePicker.setValue(null);
+            deliveryTimeCombo.setItems(FXCollections.observableArrayList());
+            deliveryTimeCombo.setPromptText("No delivery slots left");
+            return;
+        }
+        deliveryDatePicker.setValue(suggested.getStart().toLocalDate());
+        showDeliveryTimes(suggested.getStart().toLocalDate());
+        deliveryTimeCombo.setValue(suggested.getTimeLabel());
+    }
 
-        // Time slots
+    /**
+     * Fills the time picker with the free slots of a date and selects the
+     * one with the most room.
+     *
+     * @param date The delivery date
+     */
+    private void showDeliveryTimes(LocalDate date) {
+        List<DeliverySlot> slots = availableSlots.getOrDefault(date, new ArrayList<>());
         ObservableList<String> timeSlots = FXCollections.observableArrayList();
-        for (int hour = 9; hour <= 20; hour++) {
-            timeSlots.add(String.format("%02d:00", hour));
-            timeSlots.add(String.format("%02d:30", hour));
+        for (DeliverySlot slot : slots) {
+            timeSlots.add(slot.getTimeLabel());
         }
         deliveryTimeCombo.setItems(timeSlots);
-        deliveryTimeCombo.setValue("10:00");
+
+        DeliverySlot suggested = DeliverySlotScheduler.leastBooked(slots);
+        deliveryTimeCombo.setValue(suggested != null ? suggested.getTimeLabel() : null);
     }
 
     /**
@@ -396,20 +433,7 @@ public class ShoppingCartController {
      */
     private void loadCoupons() {
         List<Coupon> coupons = couponDAO.findUserCoupons(currentUser.getId());
-        System.out.println(
-                "DEBUG: Loading coupons for user ID: " +
-                        currentUser.getId() +
-                        ", found " +
-                        coupons.size() +
-                        " coupons");
-        for (Coupon c : coupons) {
-            System.out.println(
-                    "DEBUG: Coupon found: " +
-                            c.getCode() +
-                            " - " +
-                            c.getDiscountPercent() +
-                            "%");
-        }
+        LOG.debug("Loaded user coupons", "userId", currentUser.getId(), "count", coupons.size());
         couponCombo.getItems().clear();
         couponCombo.getItems().addAll(coupons);
 
@@ -539,22 +563,21 @@ public class ShoppingCartController {
      * Updates the totals display.
      */
     private void updateTotals() {
-        double subtotal = cartManager.getSubtotal();
-        double discount = subtotal * (appliedDiscountPercent / 100.0);
-        double afterDiscount = subtotal - discount;
-        double vat = afterDiscount * CartManager.VAT_RATE;
-        double total = afterDiscount + vat;
+        long subtotal = cartManager.getSubtotalCents();
+        long discount = cartManager.getDiscountAmountCents(appliedDiscountPercent);
+        long vat = cartManager.getVatCents(appliedDiscountPercent);
+        long total = subtotal - discount + vat;
 
-        subtotalLabel.setText(String.format("$%.2f", subtotal));
+        subtotalLabel.setText("$" + Money.format(subtotal));
 
         if (appliedDiscountPercent > 0) {
-            discountValueLabel.setText(String.format("-$%.2f", discount));
+            discountValueLabel.setText("-$" + Money.format(discount));
             discountRow.setVisible(true);
             discountRow.setManaged(true);
         }
 
-        vatLabel.setText(String.format("$%.2f", vat));
-        totalLabel.setText(String.format("$%.2f", total));
+        vatLabel.setText("$" + Money.format(vat));
+        totalLabel.setText("$" + Money.format(total));
     }
 
     /**
@@ -562,7 +585,7 @@ public class ShoppingCartController {
      */
     private void checkMinimum() {
         if (!cartManager.meetsMinimum()) {
-            double needed = CartManager.MINIMUM_CART_VALUE - cartManager.getSubtotal();
+            double needed = Money.toDouble(CartManager.MINIMUM_CART_CENTS - cartManager.getSubtotalCents());
             minimumWarning.setText(
                     String.format(
                             "Minimum order: $%.2f. Add $%.2f more.",
@@ -720,6 +743,14 @@ public class ShoppingCartController {
             return;
         }
 
+        // Validate the slot still has room
+        if (!slotScheduler.isAvailable(requestedDelivery)) {
+            AlertUtils.showValidationError(
+                    "This delivery time is no longer available. Please choose another slot.");
+            refreshDeliverySlots();
+            return;
+        }
+
         // Verify stock one more time
         for (CartItem item : cartManager.getItems()) {
             if (!productDAO.hasEnoughStock(
@@ -739,90 +770,17 @@ public class ShoppingCartController {
             return;
         }
 
-        // Create order
-        double subtotal = cartManager.getSubtotal();
-        double discount = cartManager.getDiscountAmount(appliedDiscountPercent);
-        double afterDiscount = subtotal - discount;
-        double vat = afterDiscount * CartManager.VAT_RATE;
-        double total = afterDiscount + vat;
-
-        Order order = new Order();
-        order.setUserId(currentUser.getId());
-        order.setRequestedDelivery(requestedDelivery);
-        order.setStatus("PENDING");
-        order.setSubtotal(subtotal);
-        order.setDiscount(discount);
-        order.setVat(vat);
-        order.setTotalCost(total);
-
-        // Add items to order
-        for (CartItem cartItem : cartManager.getItems()) {
-            OrderItem orderItem = new OrderItem(
-                    0,
-                    cartItem.getProductId(),
-                    cartItem.getProductName(),
-                    cartItem.getQuantity(),
-                    cartItem.getPriceAtTime());
-            order.addItem(orderItem);
-        }
-
-        // Generate text invoice
-        String invoice = InvoiceGenerator.generateInvoice(
-                order,
+        // Create order, take stock and use up the discounts
+        Order order = checkoutService.placeOrder(
                 currentUser,
-                cartManager.getItems(),
-                appliedDiscountPercent);
-        order.setInvoice(invoice);
+                cartManager,
+                requestedDelivery,
+                appliedCoupon,
+                loyaltyDiscountPercent);
 
-        // Generate PDF invoice
-        byte[] pdfInvoice = PdfInvoiceGenerator.generatePdfInvoice(
-                order,
-                currentUser,
-                cartManager.getItems(),
-                appliedDiscountPercent);
-        order.setInvoicePdf(pdfInvoice);
-
-        // Save order
-        int orderId = orderDAO.create(order);
-
-        if (orderId > 0) {
-            // Update stock and check for notifications
-            for (CartItem item : cartManager.getItems()) {
-                // Get product state before stock update
-                Product productBefore = productDAO.findById(
-                        item.getProductId());
-                boolean wasAboveThreshold = productBefore != null &&
-                        productBefore.getStock() > productBefore.getThreshold();
-
-                // Update stock
-                productDAO.updateStock(item.getProductId(), item.getQuantity());
-
-                // Get product state after stock update
-                Product productAfter = productDAO.findById(item.getProductId());
-                if (productAfter != null) {
-                    // Check if stock ran out
-                    if (productAfter.getStock() <= 0) {
-                        notifyOwnerStockOut(productAfter);
-                    }
-                    // Check if stock just crossed below threshold (price doubled)
-                    else if (wasAboveThreshold && productAfter.isLowStock()) {
-                        notifyOwnerThresholdDoubled(productAfter);
-                    }
-                }
-            }
-
-            // Mark coupon as used if applied
-            if (appliedCoupon != null) {
-                couponDAO.markCouponUsed(
-                        currentUser.getId(),
-                        appliedCoupon.getId());
-            }
-
-            // Reset completed orders count if loyalty discount was used
-            // User must earn the discount again by completing more orders
-            if (loyaltyDiscountPercent > 0) {
-                userDAO.resetCompletedOrders(currentUser.getId());
-            }
+        if (order != null) {
+            int orderId = order.getId();
+            String invoice = order.getInvoice();
 
             // NOTE: Completed orders count is incremented by CarrierController
             // when the order is marked as DELIVERED, not here when placed.
@@ -843,80 +801,6 @@ public class ShoppingCartController {
         }
     }
 
-    /**
-     * Notifies the owner when a product stock runs out.
-     *
-     * @param product The product that ran out of stock
-     */
-    private void notifyOwnerStockOut(Product product) {
-        // Find the owner user
-        User owner = userDAO.getOwner();
-        if (owner == null) {
-            return;
-        }
-
-        String subject = "⚠️ Stock Alert: " + product.getName() + " is OUT OF STOCK";
-        String content = String.format(
-                "STOCK ALERT\n\n" +
-                        "Product: %s\n" +
-                        "Type: %s\n" +
-                        "Current Stock: %.2f kg\n" +
-                        "Status: OUT OF STOCK\n\n" +
-                        "Action Required: Please restock this product as soon as possible.\n\n" +
-                        "This notification was automatically generated after a customer order.",
-                product.getName(),
-                product.getType(),
-                product.getStock());
-
-        Message notification = new Message(
-                currentUser.getId(),
-                owner.getId(),
-                subject,
-                content);
-        messageDAO.send(notification);
-    }
-
-    /**
-     * Notifies the owner when a product's price is doubled due to low stock.
-     *
-     * @param product The product that fell below threshold
-     */
-    private void notifyOwnerThresholdDoubled(Product product) {
-        // Find the owner user
-        User owner = userDAO.getOwner();
-        if (owner == null) {
-            return;
-        }
-
-        String subject = "⚠️ Price Alert: " + product.getName() + " - PRICE DOUBLED";
-        String content = String.format(
-                "THRESHOLD ALERT\n\n" +
-                        "Product: %s\n" +
-                        "Type: %s\n" +
-                        "Current Stock: %.2f kg\n" +
-                        "Threshold: %.2f kg\n" +
-                        "Status: LOW STOCK - PRICE DOUBLED\n\n" +
-                        "Original Price: $%.2f/kg\n" +
-                        "Current Price: $%.2f/kg (2x)\n\n" +
-                        "The stock has fallen below the threshold. The price has been automatically doubled for customers.\n\n"
-                        +
-                        "Action Required: Consider restocking this product soon.\n\n" +
-                        "This notification was automatically generated after a customer order.",
-                product.getName(),
-                product.getType(),
-                product.getStock(),
-                product.getThreshold(),
-                product.getPrice(),
-                product.getDisplayPrice());
-
-        Message notification = new Message(
-                currentUser.getId(),
-                owner.getId(),
-                subject,
-                content);
-        messageDAO.send(notification);
-    }
-
     /**
      * Shows the invoice in a dialog with option to save as PDF.
      * Shows the order summary confirmation dialog.
@@ -936,27 +820,21 @@ public class ShoppingCartController {
         }
 
         summary.append("\n─────────────────────────\n");
-        summary.append(
-                String.format("Subtotal: $%.2f\n", cartManager.getSubtotal()));
+        summary.append("Subtotal: $")
+                .append(Money.format(cartManager.getSubtotalCents())).append("\n");
 
         if (appliedDiscountPercent > 0) {
             summary.append(
                     String.format(
-                            "Discount (%.0f%%): -$%.2f\n",
+                            "Discount (%.0f%%): -$%s\n",
                             appliedDiscountPercent,
-                            cartManager.getDiscountAmount(appliedDiscountPercent)));
+                            Money.format(cartManager.getDiscountAmountCents(appliedDiscountPercent))));
         }
 
-        double afterDiscount = cartManager.getSubtotal() -
-                cartManager.getDiscountAmount(appliedDiscountPercent);
-        summary.append(
-                String.format(
-                        "VAT (18%%): $%.2f\n",
-                        afterDiscount * CartManager.VAT_RATE));
-        summary.append(
-                String.format(
-                        "TOTAL: $%.2f\n",
-                        afterDiscount + afterDiscount * CartManager.VAT_RATE));
+        summary.append("VAT (18%): $")
+                .append(Money.format(cartManager.getVatCents(appliedDiscountPercent))).append("\n");
+        summary.append("TOTAL: $")
+                .append(Money.format(cartManager.getTotalWithDiscountCents(appliedDiscountPercent))).append("\n");
         summary.append("\nDelivery: ").append(deliveryTime.toString());
 
         return AlertUtils.showConfirmation("Confirm Order", summary.toString());
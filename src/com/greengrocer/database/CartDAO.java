@@ -0,0 +1,165 @@
+package com.greengrocer.database;
+
+import com.greengrocer.models.CartItem;
+import com.greengrocer.models.Product;
+import com.greengrocer.utils.Logger;
+import com.greengrocer.utils.Money;
+import com.greengrocer.utils.Quantity;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object for persisted shopping carts.
+ * Carts are stored per user so an open cart survives application restarts.
+ * A user may be logged in more than once, so each session writes only the
+ * items it changed instead of replacing the whole cart.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CartDAO {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(CartDAO.class);
+
+    /** Database adapter instance */
+    private DatabaseAdapter db;
+
+    /** Product DAO used to rebuild cart items */
+    private ProductDAO productDAO;
+
+    /**
+     * Constructor - initializes database adapter.
+     */
+    public CartDAO() {
+        this.db = DatabaseAdapter.getInstance();
+        this.productDAO = new ProductDAO();
+        // Ensure the Carts table exists
+        SchemaMigrator.migrate();
+    }
+
+    /**
+     * Writes the changes a session made to a user's saved cart since it
+     * last loaded or saved it. Items the session dropped are deleted and new
+     * or changed ones are inserted or updated; everything else is left
+     * alone, so another session of the same user does not lose its items.
+     *
+     * @param userId The user ID
+     * @param saved  The items as the session last loaded or saved them
+     * @param items  The cart items now, in display order
+     * @return true if successful
+     */
+    public boolean saveChanges(int userId, List<CartItem> saved, List<CartItem> items) {
+        String deleteQuery = "DELETE FROM Carts WHERE user_id = ? AND product_id = ?";
+        String upsertQuery = "INSERT INTO Carts (user_id, product_id, quantity, price_at_time, position) " +
+                "VALUES (?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), price_at_time = VALUES(price_at_time)";
+
+        Map<Integer, CartItem> before = new HashMap<>();
+        for (CartItem item : saved) {
+            before.put(item.getProductId(), item);
+        }
+
+        try {
+            return db.inTransaction(conn -> {
+                PreparedStatement upsertStmt = conn.prepareStatement(upsertQuery);
+                int position = 0;
+                for (CartItem item : items) {
+                    CartItem previous = before.remove(item.getProductId());
+                    if (previous == null
+                            || previous.getQuantityGrams() != item.getQuantityGrams()
+                            || previous.getPriceCents() != item.getPriceCents()) {
+                        upsertStmt.setInt(1, userId);
+                        upsertStmt.setInt(2, item.getProductId());
+                        upsertStmt.setBigDecimal(3, Quantity.toDecimal(item.getQuantityGrams()));
+                        upsertStmt.setBigDecimal(4, Money.toDecimal(item.getPriceCents()));
+                        upsertStmt.setInt(5, position);
+                        upsertStmt.addBatch();
+                    }
+                    position++;
+                }
+                upsertStmt.executeBatch();
+
+                // Whatever is left was in the cart before and has been removed since
+                PreparedStatement deleteStmt = conn.prepareStatement(deleteQuery);
+                for (int productId : before.keySet()) {
+                    deleteStmt.setInt(1, userId);
+                    deleteStmt.setInt(2, productId);
+                    deleteStmt.addBatch();
+                }
+                deleteStmt.executeBatch();
+                return true;
+            });
+        } catch (SQLException e) {
+            LOG.error("Save cart error", e);
+            return false;
+        }
+    }
+
+    /**
+     * Loads the saved cart of a user.
+     * Items whose product no longer exists are skipped.
+     *
+     * @param userId The user ID
+     * @return List of cart items in display order, empty if none saved
+     */
+    public List<CartItem> loadCart(int userId) {
+        List<CartItem> items = new ArrayList<>();
+        String query = "SELECT product_id, quantity, price_at_time FROM Carts WHERE user_id = ? ORDER BY position";
+
+        try {
+            PreparedStatement stmt = db.prepareStatement(query);
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+
+            List<long[]> rows = new ArrayList<>();
+            List<Integer> productIds = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(new long[] {
+                        rs.getInt("product_id"),
+                        Quantity.fromDecimal(rs.getBigDecimal("quantity")),
+                        Money.fromDecimal(rs.getBigDecimal("price_at_time"))
+                });
+                productIds.add(rs.getInt("product_id"));
+            }
+
+            // All products of the cart in one query
+            Map<Integer, Product> products = productDAO.findByIds(productIds);
+            for (long[] row : rows) {
+                Product product = products.get((int) row[0]);
+                if (product != null) {
+                    CartItem item = new CartItem(product, Quantity.toKg(row[1]));
+                    item.setPriceAtTime(Money.toDouble(row[2]));
+                    items.add(item);
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Load cart error", e);
+        }
+
+        return items;
+    }
+
+    /**
+     * Deletes the saved cart of a user.
+     *
+     * @param userId The user ID
+     * @return true if successful
+     */
+    public boolean deleteCart(int userId) {
+        String query = "DELETE FROM Carts WHERE user_id = ?";
+
+        try {
+            PreparedStatement stmt = db.prepareStatement(query);
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            LOG.error("Delete cart error", e);
+            return false;
+        }
+    }
+}
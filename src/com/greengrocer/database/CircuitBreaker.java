@@ -0,0 +1,140 @@
+package com.greengrocer.database;
+
+import com.greengrocer.metrics.Counter;
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.utils.Logger;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Circuit breaker in front of the database.
+ *
+ * After a number of consecutive availability failures (lost connections,
+ * timeouts) the breaker opens and every call fails at once instead of
+ * waiting for its own timeout. After a cool-down one trial call is let
+ * through: if it succeeds the breaker closes, otherwise it opens again.
+ * Errors such as constraint violations say nothing about availability
+ * and are not counted.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CircuitBreaker {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(CircuitBreaker.class);
+
+    /** Breaker states */
+    public enum State {
+        /** Calls pass through */
+        CLOSED,
+        /** Calls fail fast */
+        OPEN,
+        /** One trial call is in progress */
+        HALF_OPEN
+    }
+
+    /** Name of the database, for logs and metric labels */
+    private final String database;
+
+    /** Consecutive failures that open the breaker */
+    private final int failureThreshold;
+
+    /** Time the breaker stays open before a trial call */
+    private final long openMillis;
+
+    /** Calls rejected while open */
+    private final Counter rejections;
+
+    /** Current state */
+    private State state = State.CLOSED;
+
+    /** Consecutive failures while closed */
+    private int failures;
+
+    /** When the breaker last opened */
+    private long openedAt;
+
+    /**
+     * Constructor for a breaker. Use create, which also registers its gauge.
+     *
+     * @param database         Name of the database, for logs and metric labels
+     * @param failureThreshold Consecutive failures that open the breaker
+     * @param openMillis       Time the breaker stays open before a trial call
+     */
+    private CircuitBreaker(String database, int failureThreshold, long openMillis) {
+        this.database = database;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.rejections = MetricsRegistry.getInstance().counter("greengrocer_db_breaker_rejections_total",
+                "Database calls rejected by the open circuit breaker", "database", database);
+    }
+
+    /**
+     * Creates a closed breaker and registers its state gauge. The gauge is
+     * registered here rather than in the constructor so the registry never
+     * sees a breaker that is not fully constructed.
+     *
+     * @param database         Name of the database, for logs and metric labels
+     * @param failureThreshold Consecutive failures that open the breaker
+     * @param openMillis       Time the breaker stays open before a trial call
+     * @return The breaker
+     */
+    public static CircuitBreaker create(String database, int failureThreshold, long openMillis) {
+        CircuitBreaker breaker = new CircuitBreaker(database, failureThreshold, openMillis);
+        MetricsRegistry.getInstance().gauge("greengrocer_db_breaker_open", "1 while the database circuit breaker is open",
+                () -> breaker.getState() == State.CLOSED ? 0 : 1, "database", database);
+        return breaker;
+    }
+
+    /**
+     * Checks that a call may proceed.
+     *
+     * @throws SQLTransientConnectionException If the breaker is open
+     */
+    public synchronized void acquire() throws SQLTransientConnectionException {
+        if (state == State.CLOSED) {
+            return;
+        }
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            return;
+        }
+        rejections.inc();
+        throw new SQLTransientConnectionException("Database unavailable, try again shortly", "08001");
+    }
+
+    /**
+     * Records a successful call.
+     */
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            LOG.info("Database circuit breaker closed", "database", database);
+        }
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    /**
+     * Records an availability failure.
+     */
+    public synchronized void recordFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            if (state == State.CLOSED) {
+                LOG.warn("Database circuit breaker opened", "database", database, "failures", failures,
+                        "openMillis", openMillis);
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Gets the current state.
+     *
+     * @return The state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+}
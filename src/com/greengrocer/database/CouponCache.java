@@ -0,0 +1,353 @@
+package com.greengrocer.database;
+
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.models.Coupon;
+import com.greengrocer.utils.BloomFilter;
+import com.greengrocer.utils.Logger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of coupon lookups, kept per database so stores on
+ * different shards do not see each other's coupons.
+ *
+ * A Bloom filter of all coupon codes turns away unknown codes, e.g.
+ * typos or guessing, without a query. Known codes are kept in a
+ * code-to-coupon map, including codes that passed the filter but were not
+ * found, and the available coupons of recently active customers in a
+ * bounded LRU map. CouponDAO invalidates the affected entries whenever it
+ * changes coupons or assignments, and everything is reloaded after a short
+ * TTL so changes made by other processes show up as well. Checkout still
+ * claims a use with a conditional UPDATE, so a stale entry can at worst
+ * show a coupon the database then refuses.
+ *
+ * Settings (system properties):
+ * greengrocer.coupons.cacheSeconds (default 30),
+ * greengrocer.coupons.cacheUsers (default 10000).
+ * Uses Singleton pattern.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+class CouponCache {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(CouponCache.class);
+
+    /** Singleton instance */
+    private static CouponCache instance;
+
+    /** Chance that the Bloom filter lets an unknown code through */
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    /** Minimum number of codes the Bloom filter is sized for */
+    private static final int MIN_FILTER_CODES = 1024;
+
+    /** Time after which a database's entries are reloaded */
+    private final long ttlNanos;
+
+    /** Customers whose available coupons are kept per database */
+    private final int maxUsers;
+
+    /** Whether the cache is used at all */
+    private final boolean enabled;
+
+    /** Cached entries by database name */
+    private final ConcurrentHashMap<String, Entries> databases;
+
+    /**
+     * The cached coupons of one database.
+     */
+    private final class Entries {
+
+        /** When the entries were created */
+        final long createdAt = System.nanoTime();
+
+        /** All coupon codes, null until loaded */
+        volatile BloomFilter codes;
+
+        /** Coupons by normalized code; empty for codes that do not exist */
+        final ConcurrentHashMap<String, Optional<Coupon>> byCode = new ConcurrentHashMap<>();
+
+        /** Available coupons by customer, least recently used first */
+        final Map<Integer, List<Coupon>> byUser = Collections.synchronizedMap(
+                new LinkedHashMap<Integer, List<Coupon>>(256, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Integer, List<Coupon>> eldest) {
+                        return size() > maxUsers;
+                    }
+                });
+
+        /**
+         * Checks whether the entries are due for a reload.
+         *
+         * @return true once the TTL has passed
+         */
+        boolean isExpired() {
+            return System.nanoTime() - createdAt > ttlNanos;
+        }
+    }
+
+    /**
+     * Private constructor for singleton.
+     */
+    private CouponCache() {
+        long seconds = Long.getLong("greengrocer.coupons.cacheSeconds", 30);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(seconds);
+        this.maxUsers = Integer.getInteger("greengrocer.coupons.cacheUsers", 10000);
+        this.enabled = seconds > 0 && maxUsers > 0;
+        this.databases = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return The CouponCache instance
+     */
+    static synchronized CouponCache getInstance() {
+        if (instance == null) {
+            instance = new CouponCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Looks up a coupon by code. Codes are compared ignoring case.
+     *
+     * @param code     The coupon code
+     * @param allCodes Loads every coupon code, to build the Bloom filter
+     * @param loader   Loads the coupon from the database, value null if not found
+     * @return A copy of the coupon, or null if there is none or it could not be loaded
+     */
+    Coupon findByCode(String code, Supplier<DbResult<List<String>>> allCodes, Supplier<DbResult<Coupon>> loader) {
+        if (!enabled) {
+            return loader.get().orElse(null);
+        }
+        Entries entries = entries();
+        String key = normalize(code);
+
+        BloomFilter codes = codes(entries, allCodes);
+        if (codes != null && !codes.mightContain(key)) {
+            MetricsRegistry.getInstance().cacheLookup("coupon_codes", true);
+            return null;
+        }
+
+        Optional<Coupon> cached = entries.byCode.get(key);
+        if (cached != null) {
+            MetricsRegistry.getInstance().cacheLookup("coupon_codes", true);
+            return cached.map(CouponCache::copy).orElse(null);
+        }
+
+        MetricsRegistry.getInstance().cacheLookup("coupon_codes", false);
+        DbResult<Coupon> loaded = loader.get();
+        if (!loaded.isOk()) {
+            return null;
+        }
+        entries.byCode.put(key, Optional.ofNullable(loaded.getValue()).map(CouponCache::copy));
+        return loaded.getValue();
+    }
+
+    /**
+     * Gets the coupons a customer can still use.
+     *
+     * @param userId The user ID
+     * @param loader Loads the coupons from the database
+     * @return Copies of the coupons; empty if they could not be loaded
+     */
+    List<Coupon> findUserCoupons(int userId, Supplier<DbResult<List<Coupon>>> loader) {
+        if (!enabled) {
+            return loader.get().orElse(new ArrayList<>());
+        }
+        Entries entries = entries();
+
+        List<Coupon> cached = entries.byUser.get(userId);
+        MetricsRegistry.getInstance().cacheLookup("user_coupons", cached != null);
+        if (cached != null) {
+            return copies(cached);
+        }
+
+        DbResult<List<Coupon>> loaded = loader.get();
+        if (!loaded.isOk()) {
+            return new ArrayList<>();
+        }
+        entries.byUser.put(userId, copies(loaded.getValue()));
+        return loaded.getValue();
+    }
+
+    /**
+     * Records a newly created coupon code, so the Bloom filter lets it
+     * through straight away.
+     *
+     * @param code The coupon code
+     */
+    void codeAdded(String code) {
+        Entries entries = databases.get(databaseName());
+        if (entries == null) {
+            return;
+        }
+        String key = normalize(code);
+        // Waits for a filter being loaded, which may not have seen the code
+        synchronized (entries) {
+            if (entries.codes != null) {
+                entries.codes.add(key);
+            }
+        }
+        entries.byCode.remove(key);
+    }
+
+    /**
+     * Forgets all coupons, after a coupon itself was changed or removed.
+     * Customers' lists are dropped too, as they hold copies of the coupon.
+     */
+    void couponsChanged() {
+        databases.remove(databaseName());
+    }
+
+    /**
+     * Forgets the available coupons of one customer.
+     *
+     * @param userId The user ID
+     */
+    void userChanged(int userId) {
+        Entries entries = databases.get(databaseName());
+        if (entries != null) {
+            entries.byUser.remove(userId);
+        }
+    }
+
+    /**
+     * Forgets the available coupons of all customers, e.g. after a coupon
+     * was assigned to a whole segment.
+     */
+    void usersChanged() {
+        Entries entries = databases.get(databaseName());
+        if (entries != null) {
+            entries.byUser.clear();
+        }
+    }
+
+    /**
+     * Records a use taken or given back on a coupon, so cached copies
+     * show the new usage count until their next reload.
+     *
+     * @param userId   The user who used the coupon
+     * @param couponId The coupon ID
+     * @param delta    +1 for a use, -1 for a use given back
+     */
+    void usageChanged(int userId, int couponId, int delta) {
+        Entries entries = databases.get(databaseName());
+        if (entries == null) {
+            return;
+        }
+        entries.byUser.remove(userId);
+        for (Map.Entry<String, Optional<Coupon>> entry : entries.byCode.entrySet()) {
+            Optional<Coupon> cached = entry.getValue();
+            if (cached.isPresent() && cached.get().getId() == couponId) {
+                Coupon updated = copy(cached.get());
+                updated.setUsageCount(Math.max(0, updated.getUsageCount() + delta));
+                entries.byCode.replace(entry.getKey(), cached, Optional.of(updated));
+            }
+        }
+    }
+
+    /**
+     * Gets the entries of the current database, starting afresh once they
+     * have expired.
+     *
+     * @return The entries
+     */
+    private Entries entries() {
+        return databases.compute(databaseName(),
+                (name, entries) -> entries == null || entries.isExpired() ? new Entries() : entries);
+    }
+
+    /**
+     * Gets the Bloom filter of a database's codes, loading it on first use.
+     *
+     * @param entries  The database's entries
+     * @param allCodes Loads every coupon code
+     * @return The filter, or null if the codes could not be loaded
+     */
+    private BloomFilter codes(Entries entries, Supplier<DbResult<List<String>>> allCodes) {
+        BloomFilter codes = entries.codes;
+        if (codes != null) {
+            return codes;
+        }
+        synchronized (entries) {
+            if (entries.codes == null) {
+                DbResult<List<String>> loaded = allCodes.get();
+                if (!loaded.isOk()) {
+                    return null;
+                }
+                List<String> all = loaded.getValue();
+                BloomFilter filter = new BloomFilter(Math.max(MIN_FILTER_CODES, all.size() * 2), FALSE_POSITIVE_RATE);
+                for (String code : all) {
+                    filter.add(normalize(code));
+                }
+                entries.codes = filter;
+                LOG.debug("Loaded coupon codes", "database", databaseName(), "codes", all.size());
+            }
+            return entries.codes;
+        }
+    }
+
+    /**
+     * Gets the name of the database the current thread works on.
+     *
+     * @return The database name
+     */
+    private static String databaseName() {
+        return DatabaseAdapter.getInstance().getDatabaseName();
+    }
+
+    /**
+     * Normalizes a code for lookups.
+     *
+     * @param code The coupon code
+     * @return The trimmed code in upper case
+     */
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Copies a list of coupons, so callers cannot change cached ones.
+     *
+     * @param coupons The coupons
+     * @return The copies
+     */
+    private static List<Coupon> copies(List<Coupon> coupons) {
+        List<Coupon> copies = new ArrayList<>(coupons.size());
+        for (Coupon coupon : coupons) {
+            copies.add(copy(coupon));
+        }
+        return copies;
+    }
+
+    /**
+     * Copies a coupon.
+     *
+     * @param coupon The coupon
+     * @return The copy
+     */
+    private static Coupon copy(Coupon coupon) {
+        Coupon copy = new Coupon();
+        copy.setId(coupon.getId());
+        copy.setCode(coupon.getCode());
+        copy.setDiscountPercent(coupon.getDiscountPercent());
+        copy.setMinOrderValue(coupon.getMinOrderValue());
+        copy.setExpiryDate(coupon.getExpiryDate());
+        copy.setActive(coupon.isActive());
+        copy.setMaxUsage(coupon.getMaxUsage());
+        copy.setUsageCount(coupon.getUsageCount());
+        return copy;
+    }
+}
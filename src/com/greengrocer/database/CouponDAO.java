@@ -1,9 +1,12 @@
 package com.greengrocer.database;
 
 import com.greengrocer.models.Coupon;
+import com.greengrocer.models.CustomerSegment;
+import com.greengrocer.utils.Logger;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Data Access Object for Coupon operations.
@@ -14,14 +17,23 @@ import java.util.List;
  */
 public class CouponDAO {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(CouponDAO.class);
+
     /** Database adapter instance */
     private DatabaseAdapter db;
 
+    /** Cache of code lookups and customers' available coupons */
+    private final CouponCache cache;
+
     /**
      * Constructor - initializes database adapter.
      */
     public CouponDAO() {
         this.db = DatabaseAdapter.getInstance();
+        this.cache = CouponCache.getInstance();
+        // Ensure the usage counter column exists
+        SchemaMigrator.migrate();
     }
 
     /**
@@ -40,7 +52,7 @@ public class CouponDAO {
                 coupons.add(extractCouponFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Find all coupons error: " + e.getMessage());
+            LOG.error("Find all coupons error", e);
         }
 
         return coupons;
@@ -63,35 +75,59 @@ public class CouponDAO {
                 coupons.add(extractCouponFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Find active coupons error: " + e.getMessage());
+            LOG.error("Find active coupons error", e);
         }
 
         return coupons;
     }
 
     /**
-     * Finds a coupon by code.
+     * Finds a coupon by code, ignoring case. Served from the coupon cache;
+     * codes that do not exist are usually turned away without a query.
      *
      * @param code The coupon code
      * @return Coupon or null if not found
      */
     public Coupon findByCode(String code) {
-        String query = "SELECT * FROM Coupons WHERE code = ?";
+        if (code == null || code.trim().isEmpty()) {
+            return null;
+        }
+        return cache.findByCode(code, this::loadAllCodes,
+                () -> loadByCode(code.trim().toUpperCase(Locale.ROOT)));
+    }
 
-        try {
-            PreparedStatement stmt = db.prepareStatement(query);
+    /**
+     * Loads a coupon by code from the database. Codes are stored in upper
+     * case, see OwnerController.
+     *
+     * @param code The coupon code in upper case
+     * @return The coupon, value null if not found
+     */
+    private DbResult<Coupon> loadByCode(String code) {
+        return DbResult.of("Find coupon", () -> {
+            PreparedStatement stmt = db.prepareStatement("SELECT * FROM Coupons WHERE code = ?");
             stmt.setString(1, code);
 
             ResultSet rs = stmt.executeQuery();
+            return rs.next() ? extractCouponFromResultSet(rs) : null;
+        });
+    }
 
-            if (rs.next()) {
-                return extractCouponFromResultSet(rs);
-            }
-        } catch (SQLException e) {
-            System.err.println("Find coupon error: " + e.getMessage());
-        }
+    /**
+     * Loads every coupon code, for the cache's Bloom filter.
+     *
+     * @return The codes
+     */
+    private DbResult<List<String>> loadAllCodes() {
+        return DbResult.of("Load coupon codes", () -> {
+            List<String> codes = new ArrayList<>();
+            ResultSet rs = db.executeQuery("SELECT code FROM Coupons");
 
-        return null;
+            while (rs.next()) {
+                codes.add(rs.getString("code"));
+            }
+            return codes;
+        });
     }
 
     /**
@@ -118,9 +154,12 @@ public class CouponDAO {
             stmt.setInt(6, coupon.getMaxUsage());
 
             int rows = stmt.executeUpdate();
+            if (rows > 0) {
+                cache.codeAdded(coupon.getCode());
+            }
             return rows > 0;
         } catch (SQLException e) {
-            System.err.println("Coupon creation error: " + e.getMessage());
+            LOG.error("Coupon creation error", e);
             return false;
         }
     }
@@ -149,9 +188,10 @@ public class CouponDAO {
             stmt.setInt(6, coupon.getId());
 
             int rows = stmt.executeUpdate();
+            cache.couponsChanged();
             return rows > 0;
         } catch (SQLException e) {
-            System.err.println("Update coupon error: " + e.getMessage());
+            LOG.error("Update coupon error", e);
             return false;
         }
     }
@@ -170,9 +210,10 @@ public class CouponDAO {
             stmt.setInt(1, couponId);
 
             int rows = stmt.executeUpdate();
+            cache.couponsChanged();
             return rows > 0;
         } catch (SQLException e) {
-            System.err.println("Delete coupon error: " + e.getMessage());
+            LOG.error("Delete coupon error", e);
             return false;
         }
     }
@@ -191,126 +232,262 @@ public class CouponDAO {
             stmt.setInt(1, couponId);
 
             int rows = stmt.executeUpdate();
+            cache.couponsChanged();
             return rows > 0;
         } catch (SQLException e) {
-            System.err.println("Deactivate coupon error: " + e.getMessage());
+            LOG.error("Deactivate coupon error", e);
             return false;
         }
     }
 
     /**
-     * Assigns a coupon to a user.
+     * Assigns a coupon to a user. A user who already has the coupon keeps
+     * the one assignment, so it cannot be used twice.
      *
      * @param userId   The user ID
      * @param couponId The coupon ID
-     * @return true if successful
+     * @return true if the user has the coupon afterwards
      */
     public boolean assignToUser(int userId, int couponId) {
         String query =
-            "INSERT INTO UserCoupons (user_id, coupon_id) VALUES (?, ?)";
+            "INSERT IGNORE INTO UserCoupons (user_id, coupon_id) VALUES (?, ?)";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
             stmt.setInt(1, userId);
             stmt.setInt(2, couponId);
-
-            System.out.println(
-                "DEBUG: Assigning coupon " + couponId + " to user " + userId
-            );
             int rows = stmt.executeUpdate();
-            System.out.println("DEBUG: Rows affected: " + rows);
-            return rows > 0;
+            cache.userChanged(userId);
+            LOG.debug("Assigned coupon", "couponId", couponId, "userId", userId, "rows", rows);
+            return true;
         } catch (SQLException e) {
-            System.err.println("Assign coupon error: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Assign coupon error", e);
             return false;
         }
     }
 
     /**
-     * Gets coupons available for a user.
+     * Counts the customers of a segment who do not have a coupon yet.
      *
-     * @param userId The user ID
-     * @return List of available coupons for the user
+     * @param couponId The coupon ID
+     * @param segment  The segment
+     * @param cutoff   Start of the activity window for INACTIVE_DAYS segments
+     * @return Number of customers, or -1 if the query failed
      */
-    public List<Coupon> findUserCoupons(int userId) {
-        List<Coupon> coupons = new ArrayList<>();
-        String query =
-            "SELECT c.* FROM Coupons c " +
-            "JOIN UserCoupons uc ON c.id = uc.coupon_id " +
-            "WHERE uc.user_id = ? AND uc.is_used = FALSE " +
-            "AND c.is_active = TRUE AND (c.expiry_date IS NULL OR c.expiry_date >= CURDATE())";
+    public int countSegmentWithout(int couponId, CustomerSegment segment, Timestamp cutoff) {
+        String query = "SELECT COUNT(*) FROM UserInfo u WHERE u.role = 'CUSTOMER'" +
+                segmentCondition(segment) +
+                " AND NOT EXISTS (SELECT 1 FROM UserCoupons uc WHERE uc.user_id = u.id AND uc.coupon_id = ?)";
 
-        System.out.println(
-            "DEBUG: findUserCoupons called for userId: " + userId
-        );
         try {
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setInt(1, userId);
+            int index = bindSegment(stmt, 1, segment, cutoff);
+            stmt.setInt(index, couponId);
 
             ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                Coupon c = extractCouponFromResultSet(rs);
-                System.out.println("DEBUG: Found coupon in DB: " + c.getCode());
-                coupons.add(c);
+            if (rs.next()) {
+                return rs.getInt(1);
             }
-            System.out.println("DEBUG: Total coupons found: " + coupons.size());
         } catch (SQLException e) {
-            System.err.println("Find user coupons error: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Count segment error", e, "couponId", couponId, "segment", segment);
         }
 
-        return coupons;
+        return -1;
     }
 
     /**
-     * Gets the total usage count for a coupon.
+     * Assigns a coupon to the customers of a segment within a range of
+     * user IDs, with a single INSERT ... SELECT. Customers who already
+     * have the coupon are skipped, so a range can safely be run again; the
+     * unique (user_id, coupon_id) index makes the insert ignore customers
+     * given the coupon by a concurrent assignment as well.
      *
      * @param couponId The coupon ID
-     * @return The number of times the coupon has been used
+     * @param segment  The segment
+     * @param cutoff   Start of the activity window for INACTIVE_DAYS segments
+     * @param fromId   First user ID of the range
+     * @param toId     Last user ID of the range
+     * @return Number of customers assigned, or -1 if the insert failed
      */
-    public int getCouponUsageCount(int couponId) {
-        String query =
-            "SELECT COUNT(*) as usage_count FROM UserCoupons WHERE coupon_id = ? AND is_used = TRUE";
+    public int assignToSegment(int couponId, CustomerSegment segment, Timestamp cutoff, int fromId, int toId) {
+        String query = "INSERT IGNORE INTO UserCoupons (user_id, coupon_id) " +
+                "SELECT u.id, ? FROM UserInfo u WHERE u.role = 'CUSTOMER' AND u.id BETWEEN ? AND ?" +
+                segmentCondition(segment) +
+                " AND NOT EXISTS (SELECT 1 FROM UserCoupons uc WHERE uc.user_id = u.id AND uc.coupon_id = ?)";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
             stmt.setInt(1, couponId);
-            ResultSet rs = stmt.executeQuery();
+            stmt.setInt(2, fromId);
+            stmt.setInt(3, toId);
+            int index = bindSegment(stmt, 4, segment, cutoff);
+            stmt.setInt(index, couponId);
 
-            if (rs.next()) {
-                return rs.getInt("usage_count");
+            int rows = stmt.executeUpdate();
+            if (rows > 0) {
+                cache.usersChanged();
             }
+            return rows;
         } catch (SQLException e) {
-            System.err.println(
-                "Get coupon usage count error: " + e.getMessage()
-            );
+            LOG.error("Assign coupon to segment error", e, "couponId", couponId, "segment", segment,
+                    "fromId", fromId, "toId", toId);
+            return -1;
         }
+    }
 
-        return 0;
+    /**
+     * Builds the SQL condition selecting a segment's customers from
+     * UserInfo u.
+     *
+     * @param segment The segment
+     * @return The condition starting with AND, or an empty string
+     */
+    private String segmentCondition(CustomerSegment segment) {
+        switch (segment.getType()) {
+            case MIN_COMPLETED_ORDERS:
+                return " AND u.completed_orders >= ?";
+            case INACTIVE_DAYS:
+                return " AND u.created_at < ?" +
+                        " AND NOT EXISTS (SELECT 1 FROM OrderInfo o WHERE o.user_id = u.id AND o.order_time >= ?)";
+            default:
+                return "";
+        }
     }
 
     /**
-     * Marks a user's coupon as used.
+     * Binds the parameters of a segment's condition.
      *
-     * @param userId   The user ID
-     * @param couponId The coupon ID
-     * @return true if successful
+     * @param stmt    The statement
+     * @param index   Index of the first parameter
+     * @param segment The segment
+     * @param cutoff  Start of the activity window for INACTIVE_DAYS segments
+     * @return Index of the next parameter
+     * @throws SQLException If binding fails
      */
-    public boolean markCouponUsed(int userId, int couponId) {
+    private int bindSegment(PreparedStatement stmt, int index, CustomerSegment segment, Timestamp cutoff)
+        throws SQLException {
+        switch (segment.getType()) {
+            case MIN_COMPLETED_ORDERS:
+                stmt.setInt(index++, segment.getValue());
+                break;
+            case INACTIVE_DAYS:
+                stmt.setTimestamp(index++, cutoff);
+                stmt.setTimestamp(index++, cutoff);
+                break;
+            default:
+                break;
+        }
+        return index;
+    }
+
+    /**
+     * Gets coupons available for a user. Served from the coupon cache,
+     * which is invalidated when the user's coupons are assigned or used.
+     *
+     * @param userId The user ID
+     * @return List of available coupons for the user
+     */
+    public List<Coupon> findUserCoupons(int userId) {
+        return cache.findUserCoupons(userId, () -> loadUserCoupons(userId));
+    }
+
+    /**
+     * Loads the coupons available for a user from the database.
+     *
+     * @param userId The user ID
+     * @return The coupons
+     */
+    private DbResult<List<Coupon>> loadUserCoupons(int userId) {
         String query =
-            "UPDATE UserCoupons SET is_used = TRUE WHERE user_id = ? AND coupon_id = ?";
+            "SELECT c.* FROM Coupons c " +
+            "JOIN UserCoupons uc ON c.id = uc.coupon_id " +
+            "WHERE uc.user_id = ? AND uc.is_used = FALSE " +
+            "AND c.is_active = TRUE AND (c.expiry_date IS NULL OR c.expiry_date >= CURDATE())";
 
-        try {
+        return DbResult.of("Find user coupons", () -> {
+            List<Coupon> coupons = new ArrayList<>();
             PreparedStatement stmt = db.prepareStatement(query);
             stmt.setInt(1, userId);
-            stmt.setInt(2, couponId);
 
-            int rows = stmt.executeUpdate();
-            return rows > 0;
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                coupons.add(extractCouponFromResultSet(rs));
+            }
+            return coupons;
+        });
+    }
+
+    /**
+     * Marks a user's coupon as used and counts the use on the coupon, in
+     * one transaction. The count only goes up while it is below the
+     * coupon's max_usage, so two customers racing for the last use cannot
+     * both get it. The coupon row is updated last so its lock, which every
+     * use of a popular code needs, is held only until the commit.
+     *
+     * @param userId   The user ID
+     * @param couponId The coupon ID
+     * @return true if the use was recorded; false if the coupon is not
+     *         assigned to the user, already used or at its usage limit
+     */
+    public boolean markCouponUsed(int userId, int couponId) {
+        String markQuery =
+            "UPDATE UserCoupons SET is_used = TRUE WHERE user_id = ? AND coupon_id = ? AND is_used = FALSE";
+        String countQuery =
+            "UPDATE Coupons SET usage_count = usage_count + 1 " +
+            "WHERE id = ? AND (max_usage = 0 OR usage_count < max_usage)";
+
+        if (!updateUsage(userId, couponId, markQuery, countQuery, "Mark coupon used error")) {
+            return false;
+        }
+        cache.usageChanged(userId, couponId, 1);
+        return true;
+    }
+
+    /**
+     * Corrects the cached copies of a coupon after a use recorded by
+     * markCouponUsed was rolled back with the surrounding transaction.
+     *
+     * @param userId   The user ID
+     * @param couponId The coupon ID
+     */
+    public void discardUsage(int userId, int couponId) {
+        cache.usageChanged(userId, couponId, -1);
+    }
+
+    /**
+     * Updates a user's coupon assignment and the coupon's usage counter in
+     * one transaction, rolling back unless both change.
+     *
+     * @param userId     The user ID
+     * @param couponId   The coupon ID
+     * @param markQuery  Update of the UserCoupons rows
+     * @param countQuery Conditional update of the counter
+     * @param error      Log message on failure
+     * @return true if both updates changed rows
+     */
+    private boolean updateUsage(int userId, int couponId, String markQuery, String countQuery, String error) {
+        try {
+            return db.inTransaction(conn -> {
+                PreparedStatement markStmt = conn.prepareStatement(markQuery);
+                markStmt.setInt(1, userId);
+                markStmt.setInt(2, couponId);
+
+                if (markStmt.executeUpdate() > 0) {
+                    PreparedStatement countStmt = conn.prepareStatement(countQuery);
+                    countStmt.setInt(1, couponId);
+
+                    if (countStmt.executeUpdate() > 0) {
+                        return true;
+                    }
+                }
+
+                db.setRollbackOnly();
+                return false;
+            });
         } catch (SQLException e) {
-            System.err.println("Mark coupon used error: " + e.getMessage());
+            LOG.error(error, e, "userId", userId, "couponId", couponId);
             return false;
         }
     }
@@ -345,9 +522,8 @@ public class CouponDAO {
             coupon.setMaxUsage(0);
         }
 
-        // Get usage count
-        int usageCount = getCouponUsageCount(coupon.getId());
-        coupon.setUsageCount(usageCount);
+        // Usage is counted on the row, so listings need no query per coupon
+        coupon.setUsageCount(rs.getInt("usage_count"));
 
         return coupon;
     }
@@ -1,11 +1,37 @@
 package com.greengrocer.database;
 
+import com.greengrocer.metrics.Counter;
+import com.greengrocer.metrics.Histogram;
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.utils.FlightEvents.QueryEvent;
+import com.greengrocer.utils.Logger;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Database Adapter class for managing MySQL database connections.
@@ -13,32 +39,177 @@ import java.sql.Statement;
  * 
  * This class handles all database connectivity for the Greengrocer application.
  * 
+ * The database is set with greengrocer.db.url, .user and .password. A
+ * jdbc:h2: URL selects the embedded database instead of a MySQL server;
+ * see SqlDialect for what differs between the two.
+ * 
+ * Read replicas can be listed in greengrocer.db.replicas. Reads declared
+ * as ReadRoute.STALE_OK then go to the replicas in turn, falling back to
+ * the primary when none can be reached. Once a session has written, its
+ * reads stay on the primary for a few seconds so it sees its own writes
+ * despite replication lag.
+ * 
+ * Several stores (branches) can be served at once. Each thread works for
+ * one store, greengrocer.store.id unless bound otherwise, and a store
+ * listed with its own greengrocer.db.shard.&lt;id&gt; URL gets its own
+ * database (shard) with its own connections and breakers. Stores without one share the default database and are kept
+ * apart by their store_id columns.
+ * 
  * @author Group17
  * @version 1.0
  */
 public class DatabaseAdapter {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(DatabaseAdapter.class);
     
-    /** Database connection URL */
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/greengrocer";
+    /** Duration of SELECT statements */
+    private static final Histogram QUERY_SECONDS = MetricsRegistry.getInstance().histogram(
+            "greengrocer_db_query_seconds", "Duration of database statements by kind", "kind", "query");
+
+    /** Duration of INSERT, UPDATE and DELETE statements */
+    private static final Histogram UPDATE_SECONDS = MetricsRegistry.getInstance().histogram(
+            "greengrocer_db_query_seconds", "Duration of database statements by kind", "kind", "update");
+
+    /** Failed statements */
+    private static final Counter QUERY_ERRORS = MetricsRegistry.getInstance().counter(
+            "greengrocer_db_errors_total", "Database statements that failed");
+
+    /** Statements retried after a transient failure */
+    private static final Counter QUERY_RETRIES = MetricsRegistry.getInstance().counter(
+            "greengrocer_db_retries_total", "Database statements retried after a transient failure");
+
+    /** Per-statement timeout in seconds, 0 for none */
+    private static final int QUERY_TIMEOUT_SECONDS = Integer.getInteger("greengrocer.db.queryTimeoutSeconds", 5);
+
+    /** Per-statement timeout of schema migrations in seconds, 0 for none */
+    private static final int MIGRATION_TIMEOUT_SECONDS =
+            Integer.getInteger("greengrocer.db.migrationTimeoutSeconds", 0);
+
+    /** Timeout for opening a connection in milliseconds */
+    private static final int CONNECT_TIMEOUT_MILLIS = Integer.getInteger("greengrocer.db.connectTimeoutMs", 5000);
+
+    /** Timeout for a blocked socket read in milliseconds, a backstop for the statement timeout */
+    private static final int SOCKET_TIMEOUT_MILLIS = Integer.getInteger("greengrocer.db.socketTimeoutMs", 30000);
+
+    /** Connections per database that transactions can hold at once */
+    private static final int POOL_SIZE = Math.max(1, Integer.getInteger("greengrocer.db.poolSize", 8));
+
+    /** Retries after the first attempt of a statement */
+    private static final int MAX_RETRIES = Integer.getInteger("greengrocer.db.retries", 2);
+
+    /** Base delay of the exponential retry backoff in milliseconds */
+    private static final long RETRY_BASE_MILLIS = Long.getLong("greengrocer.db.retryBaseMs", 50);
+
+    /** Longest delay before a retry in milliseconds */
+    private static final long RETRY_MAX_MILLIS = 1000;
+
+    /** Consecutive failures that open a database's circuit breaker */
+    private static final int BREAKER_FAILURES = Integer.getInteger("greengrocer.db.breaker.failures", 5);
+
+    /** Time a circuit breaker stays open in milliseconds */
+    private static final long BREAKER_OPEN_MILLIS =
+            TimeUnit.SECONDS.toMillis(Long.getLong("greengrocer.db.breaker.openSeconds", 10));
+
+    /** How long a session's reads stay on the primary after it wrote */
+    private static final long STICKY_NANOS =
+            TimeUnit.SECONDS.toNanos(Long.getLong("greengrocer.db.replica.stickySeconds", 5));
+
+    /** Session key of the desktop client and of requests without a session */
+    private static final String LOCAL_SESSION = "local";
+
+    /** Store served by threads that are not bound to one */
+    private static final int DEFAULT_STORE = Integer.getInteger("greengrocer.store.id", 1);
+
+    /** Database connection URL, a jdbc:h2: URL for the embedded database */
+    private static final String DB_URL =
+            System.getProperty("greengrocer.db.url", "jdbc:mysql://localhost:3306/greengrocer");
     
     /** Database username */
-    private static final String DB_USER = "myuser";
+    private static final String DB_USER = System.getProperty("greengrocer.db.user", "myuser");
     
     /** Database password */
-    private static final String DB_PASSWORD = "1234";
+    private static final String DB_PASSWORD = System.getProperty("greengrocer.db.password", "1234");
     
     /** Singleton instance */
     private static DatabaseAdapter instance;
     
-    /** The active database connection */
-    private Connection connection;
+    /** The database of stores without a shard of their own */
+    private final Shard defaultShard;
+
+    /** Shards by store ID, for stores with a database of their own */
+    private final Map<Integer, Shard> shards;
+
+    /** Every distinct shard, the default one first */
+    private final List<Shard> allShards;
+
+    /** IDs of all stores, for cross-store reports */
+    private final List<Integer> storeIds;
+
+    /** Whether any shard has read replicas */
+    private final boolean anyReplicas;
+
+    /** Store the current thread works for, null for the default store */
+    private final ThreadLocal<Integer> store = new ThreadLocal<>();
+
+    /** Session the current thread works for, null for the local session */
+    private final ThreadLocal<String> session = new ThreadLocal<>();
+
+    /** Transaction the current thread runs, null outside one */
+    private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+
+    /** Dedicated connection of the schema migration the current thread runs, null outside one */
+    private final ThreadLocal<Transaction> migration = new ThreadLocal<>();
+
+    /** System.nanoTime() of each session's last write, kept only while replicas are used */
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
     
     /**
      * Private constructor to prevent direct instantiation.
      * Use getInstance() to get the singleton instance.
      */
     private DatabaseAdapter() {
-        // Private constructor for singleton
+        this.defaultShard = new Shard("", DB_URL, System.getProperty("greengrocer.db.replicas", ""));
+        this.shards = new HashMap<>();
+        this.storeIds = new ArrayList<>();
+
+        // Stores naming the same URL share one shard
+        Map<String, Shard> byUrl = new HashMap<>();
+        byUrl.put(DB_URL, defaultShard);
+        for (String id : System.getProperty("greengrocer.stores", String.valueOf(DEFAULT_STORE)).split(",")) {
+            if (id.isBlank()) {
+                continue;
+            }
+            int storeId = Integer.parseInt(id.trim());
+            storeIds.add(storeId);
+            String url = System.getProperty("greengrocer.db.shard." + storeId, "").trim();
+            if (!url.isEmpty()) {
+                shards.put(storeId, byUrl.computeIfAbsent(url, key -> new Shard("store" + storeId + "-", key,
+                        System.getProperty("greengrocer.db.shard." + storeId + ".replicas", ""))));
+            }
+        }
+        if (!storeIds.contains(DEFAULT_STORE)) {
+            storeIds.add(0, DEFAULT_STORE);
+        }
+
+        Set<Shard> distinct = new LinkedHashSet<>();
+        distinct.add(defaultShard);
+        distinct.addAll(shards.values());
+        this.allShards = new ArrayList<>(distinct);
+        this.anyReplicas = allShards.stream().anyMatch(shard -> !shard.replicas.isEmpty());
+        if (allShards.size() > 1) {
+            LOG.info("Serving stores from several databases", "stores", storeIds.size(),
+                    "databases", allShards.size());
+        }
+
+        // Each server has one shared connection, and each primary a pool for transactions
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.gauge("greengrocer_db_pool_size", "Database connections in the pool",
+                () -> allShards.stream().mapToInt(shard -> 1 + POOL_SIZE + shard.replicas.size()).sum());
+        registry.gauge("greengrocer_db_pool_active", "Connections held by a transaction",
+                () -> allShards.stream().mapToInt(shard -> shard.primary.leased()).sum());
+        registry.gauge("greengrocer_db_pool_waiting", "Threads waiting for a connection",
+                () -> allShards.stream().mapToInt(shard -> shard.primary.permits.getQueueLength()).sum());
     }
     
     /**
@@ -54,39 +225,312 @@ public class DatabaseAdapter {
     }
     
     /**
-     * Gets the database connection, creating it if necessary.
+     * Gets the primary connection of the current store's database,
+     * creating it if necessary. Inside inTransaction this is the
+     * transaction's own connection and inside inMigration the migration's;
+     * otherwise it is the shared connection,
+     * which other threads use at the same time and must stay in autocommit
+     * mode.
+     * Connecting is synchronized because the startup bootstrap may connect
+     * in the background while the login screen is already accepting input.
+     * While the circuit breaker is open no connection attempt is made.
      * 
      * @return The active database connection
      * @throws SQLException If connection cannot be established
      */
     public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                // Load MySQL JDBC driver
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                
-                // Establish connection
-                connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-                System.out.println("Database connection established.");
-                
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("MySQL JDBC Driver not found: " + e.getMessage());
+        Shard shard = shard();
+        Transaction current = transaction.get();
+        if (current != null && current.endpoint == shard.primary) {
+            return current.connection;
+        }
+        Transaction migrating = migration.get();
+        if (migrating != null && migrating.endpoint == shard.primary) {
+            return migrating.connection;
+        }
+        return shard.primary.connect();
+    }
+
+    /**
+     * Gets the SQL dialect of the current store's database.
+     *
+     * @return The dialect
+     */
+    public SqlDialect getDialect() {
+        return shard().primary.dialect;
+    }
+
+    /**
+     * Gets the store the current thread works for.
+     *
+     * @return The store ID
+     */
+    public int getStoreId() {
+        Integer storeId = store.get();
+        return storeId != null ? storeId : DEFAULT_STORE;
+    }
+
+    /**
+     * Gets the IDs of all stores of this deployment.
+     *
+     * @return The store IDs, the default store included
+     */
+    public List<Integer> getStoreIds() {
+        return Collections.unmodifiableList(storeIds);
+    }
+
+    /**
+     * Gets the name of the current store's database, e.g. primary or
+     * store2-primary. Stores sharing a database share the name.
+     *
+     * @return The database name
+     */
+    public String getDatabaseName() {
+        return shard().primary.name;
+    }
+
+    /**
+     * Binds the current thread to a store, routing its statements to that
+     * store's database. The headless server calls this for each request.
+     *
+     * @param storeId The store ID
+     * @throws IllegalArgumentException If the store is not part of this deployment
+     */
+    public void bindStore(int storeId) {
+        if (!storeIds.contains(storeId)) {
+            throw new IllegalArgumentException("Unknown store " + storeId);
+        }
+        store.set(storeId);
+    }
+
+    /**
+     * Unbinds the current thread from its store, so it works for the
+     * default store again.
+     */
+    public void unbindStore() {
+        store.remove();
+    }
+
+    /**
+     * Runs a call for another store, restoring the current binding afterwards.
+     *
+     * @param <T>     Type of the result
+     * @param storeId The store ID
+     * @param call    The call
+     * @return The result of the call
+     * @throws SQLException If the call fails
+     */
+    public <T> T withStore(int storeId, DbResult.SqlCall<T> call) throws SQLException {
+        Integer previous = store.get();
+        bindStore(storeId);
+        try {
+            return call.call();
+        } finally {
+            if (previous != null) {
+                store.set(previous);
+            } else {
+                store.remove();
             }
         }
-        return connection;
+    }
+
+    /**
+     * Gets the database of the current store.
+     *
+     * @return The shard
+     */
+    private Shard shard() {
+        return shards.getOrDefault(getStoreId(), defaultShard);
+    }
+
+    /**
+     * Checks whether a failure means the database could not be reached
+     * or answered too slowly, rather than that the statement was wrong:
+     * lost or refused connections, timeouts and calls rejected by the
+     * circuit breaker.
+     *
+     * @param e The exception
+     * @return true if the failure is about availability
+     */
+    public static boolean isAvailabilityFailure(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientConnectionException
+                || e instanceof SQLRecoverableException
+                || e instanceof SQLTimeoutException
+                || (state != null && state.startsWith("08"));
+    }
+
+    /**
+     * Checks whether a statement was chosen as a deadlock victim or gave
+     * up waiting for a row lock, so running it again may succeed.
+     *
+     * @param e The exception
+     * @return true for deadlocks and lock wait timeouts
+     */
+    private boolean isLockConflict(SQLException e) {
+        return "40001".equals(e.getSQLState()) || getDialect().isLockConflict(e);
     }
     
     /**
-     * Closes the database connection if it is open.
+     * Runs work as one transaction on a connection of its own, taken from
+     * the current store's pool, so statements of other threads on the
+     * shared connection never become part of it. While the work runs, every
+     * statement of this thread on that database goes to the transaction's
+     * connection, including those of the DAO methods it calls.
+     *
+     * The transaction commits when the work returns, and rolls back if it
+     * throws or called setRollbackOnly. A call made inside another
+     * transaction joins it and leaves the outcome to the outermost call.
+     * Transactions write, so the session's reads are kept on the primary
+     * afterwards.
+     *
+     * @param <T>  Type of the result
+     * @param work The statements to run, given the transaction's connection
+     * @return The result of the work
+     * @throws SQLException If the work or the commit fails, or no connection
+     *                      became free within the query timeout
      */
-    public void closeConnection() {
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        Endpoint primary = shard().primary;
+        Transaction current = transaction.get();
+        if (current != null) {
+            if (current.endpoint != primary) {
+                throw new SQLException("A transaction cannot span the databases of several stores");
+            }
+            return work.run(current.connection);
+        }
+
+        recordWrite();
+        Transaction migrating = migration.get();
+        boolean dedicated = migrating != null && migrating.endpoint == primary;
+        Connection conn = dedicated ? migrating.connection : primary.lease();
+        Transaction started = new Transaction(primary, conn);
+        transaction.set(started);
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
+            conn.setAutoCommit(false);
+            T result;
+            try {
+                result = work.run(conn);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+            if (started.rollbackOnly) {
+                conn.rollback();
+            } else {
+                conn.commit();
             }
+            return result;
         } catch (SQLException e) {
-            System.err.println("Error closing connection: " + e.getMessage());
+            started.broken = isAvailabilityFailure(e);
+            throw e;
+        } finally {
+            transaction.remove();
+            if (dedicated) {
+                conn.setAutoCommit(true);
+            } else {
+                primary.giveBack(conn, started.broken);
+            }
+        }
+    }
+
+    /**
+     * Runs schema migrations on a connection of their own to the current
+     * store's primary. Its statements get greengrocer.db.migrationTimeoutSeconds
+     * instead of the query timeout and no socket timeout, so table rebuilds,
+     * index builds and backfills on large tables are not cut off.
+     * Transactions started inside run on the same connection.
+     *
+     * @param <T>  Type of the result
+     * @param work The migration, given the dedicated connection
+     * @return The result of the work
+     * @throws SQLException If the connection cannot be opened or the work fails
+     */
+    public <T> T inMigration(TransactionWork<T> work) throws SQLException {
+        Endpoint primary = shard().primary;
+        Transaction current = migration.get();
+        if (current != null && current.endpoint == primary) {
+            return work.run(current.connection);
+        }
+
+        Connection conn = primary.openForMigration();
+        migration.set(new Transaction(primary, conn));
+        try {
+            return work.run(conn);
+        } finally {
+            if (current != null) {
+                migration.set(current);
+            } else {
+                migration.remove();
+            }
+            primary.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * Marks the current transaction so that it rolls back instead of
+     * committing, for work that failed without throwing. Does nothing
+     * outside a transaction.
+     */
+    public void setRollbackOnly() {
+        Transaction current = transaction.get();
+        if (current != null) {
+            current.rollbackOnly = true;
+        }
+    }
+
+    /**
+     * Checks whether the current transaction will roll back.
+     *
+     * @return true if setRollbackOnly was called in the current transaction
+     */
+    public boolean isRollbackOnly() {
+        Transaction current = transaction.get();
+        return current != null && current.rollbackOnly;
+    }
+
+    /**
+     * Binds the current thread to a session for read-your-writes routing.
+     * The headless server calls this for each request.
+     *
+     * @param sessionId The session ID, or null for requests without one
+     */
+    public void bindSession(String sessionId) {
+        session.set(sessionId);
+    }
+
+    /**
+     * Unbinds the current thread from its session.
+     */
+    public void unbindSession() {
+        session.remove();
+    }
+    
+    /**
+     * Opens a separate connection to the default database for bulk
+     * loading tools. On MySQL, batched inserts are rewritten into
+     * multi-row INSERTs and LOAD DATA LOCAL INFILE is allowed.
+     * The caller must close it.
+     * 
+     * @return A new connection, not shared with the application
+     * @throws SQLException If connection cannot be established
+     */
+    public Connection openBulkConnection() throws SQLException {
+        SqlDialect dialect = defaultShard.primary.dialect;
+        dialect.loadDriver();
+        return DriverManager.getConnection(dialect.bulkUrl(DB_URL), DB_USER, DB_PASSWORD);
+    }
+    
+    /**
+     * Closes the database connections if they are open, including idle
+     * pooled ones.
+     */
+    public void closeConnection() {
+        for (Shard shard : allShards) {
+            shard.primary.close();
+            for (Endpoint replica : shard.replicas) {
+                replica.close();
+            }
         }
     }
     
@@ -98,8 +542,20 @@ public class DatabaseAdapter {
      * @throws SQLException If query execution fails
      */
     public ResultSet executeQuery(String query) throws SQLException {
-        Statement statement = getConnection().createStatement();
-        return statement.executeQuery(query);
+        return executeQuery(query, ReadRoute.PRIMARY);
+    }
+
+    /**
+     * Executes a SELECT query on the database chosen by its route.
+     * 
+     * @param query The SQL SELECT query to execute
+     * @param route Whether the query may read from a replica
+     * @return ResultSet containing the query results
+     * @throws SQLException If query execution fails
+     */
+    public ResultSet executeQuery(String query, ReadRoute route) throws SQLException {
+        return (ResultSet) execute(query, "query", createStatement(route), () -> createStatement(route),
+                statement -> statement.executeQuery(query));
     }
     
     /**
@@ -110,8 +566,8 @@ public class DatabaseAdapter {
      * @throws SQLException If query execution fails
      */
     public int executeUpdate(String query) throws SQLException {
-        Statement statement = getConnection().createStatement();
-        return statement.executeUpdate(query);
+        return (Integer) execute(query, "update", createStatement(ReadRoute.PRIMARY),
+                () -> createStatement(ReadRoute.PRIMARY), statement -> statement.executeUpdate(query));
     }
     
     /**
@@ -122,7 +578,19 @@ public class DatabaseAdapter {
      * @throws SQLException If statement preparation fails
      */
     public PreparedStatement prepareStatement(String query) throws SQLException {
-        return getConnection().prepareStatement(query);
+        return resilient(query, false, ReadRoute.PRIMARY);
+    }
+
+    /**
+     * Prepares a SELECT statement on the database chosen by its route.
+     * 
+     * @param query The SQL query with placeholders
+     * @param route Whether the query may read from a replica
+     * @return PreparedStatement ready for parameter binding
+     * @throws SQLException If statement preparation fails
+     */
+    public PreparedStatement prepareStatement(String query, ReadRoute route) throws SQLException {
+        return resilient(query, false, route);
     }
     
     /**
@@ -133,6 +601,721 @@ public class DatabaseAdapter {
      * @throws SQLException If statement preparation fails
      */
     public PreparedStatement prepareStatementWithKeys(String query) throws SQLException {
-        return getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+        return resilient(query, true, ReadRoute.PRIMARY);
+    }
+
+    /**
+     * Creates a plain statement with the query timeout set.
+     *
+     * @param route Whether the statement may read from a replica
+     * @return The statement and its database
+     * @throws SQLException If the statement cannot be created
+     */
+    private Target createStatement(ReadRoute route) throws SQLException {
+        return open(route, connection -> connection.createStatement());
+    }
+
+    /**
+     * Prepares a statement with the query timeout set.
+     *
+     * @param query      The SQL text
+     * @param returnKeys Whether generated keys are requested
+     * @param route      Whether the statement may read from a replica
+     * @return The statement and its database
+     * @throws SQLException If preparation fails
+     */
+    private Target prepare(String query, boolean returnKeys, ReadRoute route) throws SQLException {
+        return open(route, connection -> returnKeys
+                ? connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(query));
+    }
+
+    /**
+     * Creates a statement on the database chosen by the route. A replica
+     * that cannot be reached is skipped in favour of the primary.
+     *
+     * @param route   Whether the statement may read from a replica
+     * @param creator Creates the statement on a connection
+     * @return The statement and its database
+     * @throws SQLException If the primary cannot be reached
+     */
+    private Target open(ReadRoute route, StatementCreator creator) throws SQLException {
+        Shard shard = shard();
+        Transaction current = transaction.get();
+        if (current != null && current.endpoint == shard.primary) {
+            // A transaction reads its own writes, so even stale-tolerant reads stay on it
+            return new Target(shard.primary, withTimeout(creator.create(current.connection)));
+        }
+        Transaction migrating = migration.get();
+        if (migrating != null && migrating.endpoint == shard.primary) {
+            return new Target(shard.primary, withTimeout(creator.create(migrating.connection)));
+        }
+        Endpoint endpoint = chooseEndpoint(shard, route);
+        if (endpoint != shard.primary) {
+            try {
+                return new Target(endpoint, withTimeout(creator.create(endpoint.connect())));
+            } catch (SQLException e) {
+                LOG.warn("Replica unavailable, reading from primary", "database", endpoint.name,
+                        "error", e.getMessage());
+            }
+        }
+        return new Target(shard.primary, withTimeout(creator.create(shard.primary.connect())));
+    }
+
+    /**
+     * Sets the query timeout on a new statement, or the migration timeout
+     * while the thread runs a schema migration.
+     *
+     * @param <T>       Statement type
+     * @param statement The statement
+     * @return The statement
+     * @throws SQLException If the timeout cannot be set
+     */
+    private <T extends Statement> T withTimeout(T statement) throws SQLException {
+        statement.setQueryTimeout(migration.get() != null ? MIGRATION_TIMEOUT_SECONDS : QUERY_TIMEOUT_SECONDS);
+        return statement;
+    }
+
+    /**
+     * Chooses the server for a statement. Stale-tolerant reads go to the
+     * shard's replicas in turn unless the session wrote recently.
+     *
+     * @param shard The current store's database
+     * @param route Whether the statement may read from a replica
+     * @return The server
+     */
+    private Endpoint chooseEndpoint(Shard shard, ReadRoute route) {
+        if (route == ReadRoute.PRIMARY || shard.replicas.isEmpty() || wroteRecently()) {
+            return shard.primary;
+        }
+        return shard.replicas.get(Math.floorMod(shard.nextReplica.getAndIncrement(), shard.replicas.size()));
+    }
+
+    /**
+     * Gets the key of the session the current thread works for.
+     *
+     * @return The session key
+     */
+    private String sessionKey() {
+        String key = session.get();
+        return key != null ? key : LOCAL_SESSION;
+    }
+
+    /**
+     * Notes that the current session wrote to the primary.
+     */
+    private void recordWrite() {
+        if (anyReplicas) {
+            lastWrites.put(sessionKey(), System.nanoTime());
+        }
+    }
+
+    /**
+     * Checks whether the current session wrote within the sticky period,
+     * forgetting writes that are older.
+     *
+     * @return true if its reads must stay on the primary
+     */
+    private boolean wroteRecently() {
+        String key = sessionKey();
+        Long writtenAt = lastWrites.get(key);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < STICKY_NANOS) {
+            return true;
+        }
+        lastWrites.remove(key, writtenAt);
+        return false;
+    }
+
+    /**
+     * Prepares a statement wrapped so its executions go through the retry
+     * and circuit breaker policy, are timed into the query metrics and,
+     * during a flight recording, recorded as query events.
+     *
+     * The setter calls are remembered so that after a lost connection the
+     * statement can be prepared again on a new one and its parameters
+     * bound again before the retry.
+     *
+     * @param query      The SQL text
+     * @param returnKeys Whether generated keys are requested
+     * @param route      Whether the statement may read from a replica
+     * @return The wrapped statement
+     * @throws SQLException If preparation fails
+     */
+    private PreparedStatement resilient(String query, boolean returnKeys, ReadRoute route)
+            throws SQLException {
+        Target[] current = {prepare(query, returnKeys, route)};
+        // Parameter setters keyed by index, statement setters by name, in call order
+        Map<Object, Object[]> setters = new LinkedHashMap<>();
+
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (!name.startsWith("execute")) {
+                        if ("clearParameters".equals(name)) {
+                            setters.keySet().removeIf(key -> key instanceof Integer);
+                        } else if (name.startsWith("set") && args != null) {
+                            boolean parameter = method.getDeclaringClass() == PreparedStatement.class;
+                            setters.put(parameter ? args[0] : name, new Object[] {method, args});
+                        }
+                        return invoke((PreparedStatement) current[0].statement, method, args);
+                    }
+
+                    String kind = "executeQuery".equals(name) ? "query"
+                            : "execute".equals(name) ? "execute" : "update";
+                    Opener reopen = () -> {
+                        current[0] = prepare(query, returnKeys, route);
+                        for (Object[] setter : setters.values()) {
+                            invoke((PreparedStatement) current[0].statement, (Method) setter[0],
+                                    (Object[]) setter[1]);
+                        }
+                        return current[0];
+                    };
+                    return execute(query, kind, current[0], reopen,
+                            statement -> invoke((PreparedStatement) statement, method, args));
+                });
+    }
+
+    /**
+     * Runs a statement under the resilience policy.
+     *
+     * Every attempt first asks the circuit breaker and is bounded by the
+     * query timeout. Failures that show the database is unreachable or too
+     * slow count towards the breaker, so once it opens statements fail at
+     * once, also on connections that stay open after a timeout. A broken
+     * connection is dropped so the next attempt reconnects.
+     * Outside a transaction, deadlock victims and lock wait timeouts are
+     * retried, and so are reads that lost their connection; timeouts are not
+     * retried so a slow database cannot multiply the wait. Retries back off
+     * exponentially with full jitter.
+     *
+     * @param query   The SQL text
+     * @param kind    query, update or execute
+     * @param first   The statement for the first attempt
+     * @param reopen  Creates the statement again after a lost connection
+     * @param attempt Runs the statement once
+     * @return The statement result
+     * @throws SQLException The failure of the last attempt
+     */
+    private Object execute(String query, String kind, Target first, Opener reopen, Attempt attempt)
+            throws SQLException {
+        Target target = first;
+        for (int retry = 0; ; retry++) {
+            // Fail fast while the database is known to be down, even on a connection that is still open
+            CircuitBreaker breaker = target.endpoint.breaker;
+            breaker.acquire();
+            target.endpoint.statements.inc();
+            QueryEvent event = new QueryEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                Object result = attempt.run(target.statement);
+                breaker.recordSuccess();
+                if (!"query".equals(kind)) {
+                    recordWrite();
+                }
+                long rows = result instanceof Number ? ((Number) result).longValue() : -1;
+                recordQuery(event, start, query, kind, rows);
+                return result;
+            } catch (SQLException e) {
+                QUERY_ERRORS.inc();
+                boolean unavailable = isAvailabilityFailure(e);
+                boolean connectionLost = unavailable && !(e instanceof SQLTimeoutException);
+                if (unavailable) {
+                    breaker.recordFailure();
+                } else {
+                    // The server answered, so it is reachable
+                    breaker.recordSuccess();
+                }
+                if (connectionLost) {
+                    invalidate(target);
+                }
+                if (retry >= MAX_RETRIES || !isRetryable(e, kind, connectionLost)) {
+                    throw e;
+                }
+
+                QUERY_RETRIES.inc();
+                LOG.warn("Retrying database statement", "attempt", retry + 2, "error", e.getMessage());
+                backoff(retry, e);
+                if (connectionLost) {
+                    target = reopen.open();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the connection a statement lost: the shared connection is
+     * reopened by the next statement, a transaction's connection is
+     * discarded when the transaction ends.
+     *
+     * @param target The statement and its database
+     */
+    private void invalidate(Target target) {
+        Transaction current = transaction.get();
+        if (current != null && target.endpoint == current.endpoint) {
+            current.broken = true;
+        } else {
+            target.endpoint.invalidate();
+        }
+    }
+
+    /**
+     * Decides whether a failed statement may run again on its own.
+     * Statements inside a transaction never are: the transaction was
+     * rolled back or its connection is gone, so only the caller can redo it.
+     *
+     * @param e              The failure
+     * @param kind           query, update or execute
+     * @param connectionLost Whether the connection was lost
+     * @return true if the statement may be retried
+     */
+    private boolean isRetryable(SQLException e, String kind, boolean connectionLost) {
+        if (transaction.get() != null) {
+            return false;
+        }
+        if (isLockConflict(e)) {
+            return true;
+        }
+        // A write that lost its connection may have been applied already
+        return connectionLost && "query".equals(kind);
+    }
+
+    /**
+     * Sleeps before a retry, a random time up to an exponentially
+     * growing cap so that clients do not retry in lockstep.
+     *
+     * @param retry Retries done so far
+     * @param cause The failure being retried, rethrown if interrupted
+     * @throws SQLException The cause if the thread is interrupted
+     */
+    private static void backoff(int retry, SQLException cause) throws SQLException {
+        long cap = Math.min(RETRY_MAX_MILLIS, RETRY_BASE_MILLIS << retry);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    /**
+     * Calls a statement method, unwrapping the reflection exception.
+     *
+     * @param statement The statement
+     * @param method    The method
+     * @param args      The arguments
+     * @return The method result
+     * @throws SQLException The exception thrown by the method
+     */
+    private static Object invoke(PreparedStatement statement, Method method, Object[] args)
+            throws SQLException {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        } catch (IllegalAccessException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * Runs a statement once.
+     */
+    @FunctionalInterface
+    private interface Attempt {
+
+        /**
+         * Runs the statement.
+         *
+         * @param statement The statement
+         * @return The statement result
+         * @throws SQLException If execution fails
+         */
+        Object run(Statement statement) throws SQLException;
+    }
+
+    /**
+     * Creates a statement again on a new connection.
+     */
+    @FunctionalInterface
+    private interface Opener {
+
+        /**
+         * Creates the statement.
+         *
+         * @return The statement and its database
+         * @throws SQLException If the connection or statement cannot be created
+         */
+        Target open() throws SQLException;
+    }
+
+    /**
+     * Creates a statement on a connection.
+     */
+    @FunctionalInterface
+    private interface StatementCreator {
+
+        /**
+         * Creates the statement.
+         *
+         * @param connection The connection
+         * @return The statement
+         * @throws SQLException If the statement cannot be created
+         */
+        Statement create(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Work run in a transaction by inTransaction.
+     *
+     * @param <T> Type of the result
+     */
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+
+        /**
+         * Runs the statements of the transaction.
+         *
+         * @param conn The transaction's connection
+         * @return The result
+         * @throws SQLException If a statement fails; the transaction rolls back
+         */
+        T run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * A transaction in progress on the current thread.
+     */
+    private static final class Transaction {
+
+        /** The primary the connection belongs to */
+        final Endpoint endpoint;
+
+        /** The transaction's own connection */
+        final Connection connection;
+
+        /** Whether the transaction must roll back instead of committing */
+        boolean rollbackOnly;
+
+        /** Whether the connection broke and must not go back to the pool */
+        boolean broken;
+
+        /**
+         * Constructor for a transaction.
+         *
+         * @param endpoint   The primary the connection belongs to
+         * @param connection The transaction's own connection
+         */
+        Transaction(Endpoint endpoint, Connection connection) {
+            this.endpoint = endpoint;
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * A statement together with the database it runs on.
+     */
+    private static final class Target {
+
+        /** The database */
+        final Endpoint endpoint;
+
+        /** The statement */
+        final Statement statement;
+
+        /**
+         * Constructor for a target.
+         *
+         * @param endpoint  The database
+         * @param statement The statement
+         */
+        Target(Endpoint endpoint, Statement statement) {
+            this.endpoint = endpoint;
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * One database with its primary and read replicas.
+     */
+    private static final class Shard {
+
+        /** The primary server, which takes all writes */
+        final Endpoint primary;
+
+        /** Read replicas, empty if none are configured */
+        final List<Endpoint> replicas;
+
+        /** Round-robin position over the replicas */
+        final AtomicInteger nextReplica = new AtomicInteger();
+
+        /**
+         * Constructor for a shard.
+         *
+         * @param prefix      Prefix of the server names, empty for the default database
+         * @param url         JDBC URL of the primary
+         * @param replicaUrls Comma-separated JDBC URLs of the replicas, may be empty
+         */
+        Shard(String prefix, String url, String replicaUrls) {
+            this.primary = new Endpoint(prefix + "primary", url);
+            this.replicas = new ArrayList<>();
+            for (String replicaUrl : replicaUrls.split(",")) {
+                if (!replicaUrl.isBlank()) {
+                    replicas.add(new Endpoint(prefix + "replica" + (replicas.size() + 1), replicaUrl.trim()));
+                }
+            }
+            if (!replicas.isEmpty()) {
+                LOG.info("Routing stale-tolerant reads to replicas", "database", primary.name,
+                        "replicas", replicas.size());
+            }
+        }
+    }
+
+    /**
+     * One database server with its shared connection, its pool of
+     * connections for transactions and its circuit breaker.
+     */
+    private static final class Endpoint {
+
+        /** Name used in logs and metric labels, e.g. primary or replica1 */
+        final String name;
+
+        /** JDBC URL without timeout parameters */
+        final String url;
+
+        /** SQL dialect, from the URL */
+        final SqlDialect dialect;
+
+        /** Fails calls fast while this database is unreachable */
+        final CircuitBreaker breaker;
+
+        /** Statements sent to this database */
+        final Counter statements;
+
+        /** The shared connection, null until connected */
+        private Connection connection;
+
+        /** Pooled connections no transaction holds, most recently used first */
+        private final Deque<Connection> idle = new ArrayDeque<>();
+
+        /** Connections transactions may still take; waiting threads queue fairly */
+        final Semaphore permits = new Semaphore(POOL_SIZE, true);
+
+        /**
+         * Constructor for an endpoint.
+         *
+         * @param name Name used in logs and metric labels
+         * @param url  JDBC URL
+         */
+        Endpoint(String name, String url) {
+            this.name = name;
+            this.url = url;
+            this.dialect = SqlDialect.forUrl(url);
+            this.breaker = CircuitBreaker.create(name, BREAKER_FAILURES, BREAKER_OPEN_MILLIS);
+            this.statements = MetricsRegistry.getInstance().counter("greengrocer_db_statements_total",
+                    "Statements sent by database", "database", name);
+        }
+
+        /**
+         * Gets the connection, creating it if necessary. No attempt is
+         * made while the circuit breaker is open.
+         *
+         * @return The connection
+         * @throws SQLException If connection cannot be established
+         */
+        synchronized Connection connect() throws SQLException {
+            if (connection == null || connection.isClosed()) {
+                connection = open();
+                LOG.info("Database connection established", "database", name, "dialect", dialect);
+            }
+            return connection;
+        }
+
+        /**
+         * Takes a connection for a transaction from the pool, opening one
+         * if no idle connection is left. Waits at most the query timeout
+         * while the pool is exhausted.
+         *
+         * @return A connection only the caller uses until giveBack
+         * @throws SQLException If no connection becomes free in time or
+         *                      connection cannot be established
+         */
+        Connection lease() throws SQLException {
+            breaker.acquire();
+            try {
+                if (!permits.tryAcquire(Math.max(1, QUERY_TIMEOUT_SECONDS), TimeUnit.SECONDS)) {
+                    throw new SQLTransientConnectionException(
+                            "No database connection free in the pool", "08001");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted waiting for a database connection", "08001", e);
+            }
+            try {
+                Connection conn;
+                synchronized (this) {
+                    conn = idle.pollFirst();
+                }
+                return conn != null && !conn.isClosed() ? conn : open();
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns a transaction's connection to the pool, back in
+         * autocommit mode, or closes it if it broke.
+         *
+         * @param conn   The connection from lease
+         * @param broken Whether the connection was lost
+         */
+        void giveBack(Connection conn, boolean broken) {
+            try {
+                if (!broken && !conn.isClosed()) {
+                    conn.setAutoCommit(true);
+                    synchronized (this) {
+                        idle.addFirst(conn);
+                    }
+                    return;
+                }
+            } catch (SQLException e) {
+                LOG.debug("Discarding pooled connection", "database", name, "error", e.getMessage());
+            } finally {
+                permits.release();
+            }
+            closeQuietly(conn);
+        }
+
+        /**
+         * Gets the number of pooled connections held by transactions.
+         *
+         * @return Connections in use
+         */
+        int leased() {
+            return POOL_SIZE - permits.availablePermits();
+        }
+
+        /**
+         * Opens a new connection. No attempt is made while the circuit
+         * breaker is open.
+         *
+         * @return The connection
+         * @throws SQLException If connection cannot be established
+         */
+        private Connection open() throws SQLException {
+            return open(SOCKET_TIMEOUT_MILLIS);
+        }
+
+        /**
+         * Opens a new connection for schema migrations, with a socket
+         * timeout only if migrations have a statement timeout.
+         *
+         * @return The connection, which the caller must close
+         * @throws SQLException If connection cannot be established
+         */
+        Connection openForMigration() throws SQLException {
+            return open((int) TimeUnit.SECONDS.toMillis(MIGRATION_TIMEOUT_SECONDS));
+        }
+
+        /**
+         * Opens a new connection with a given socket timeout. No attempt is
+         * made while the circuit breaker is open.
+         *
+         * @param socketTimeoutMillis Socket read timeout, 0 for none
+         * @return The connection
+         * @throws SQLException If connection cannot be established
+         */
+        private Connection open(int socketTimeoutMillis) throws SQLException {
+            breaker.acquire();
+            dialect.loadDriver();
+            try {
+                // Establish connection; bounded so a dead server cannot hang the caller
+                Connection conn = DriverManager.getConnection(
+                        dialect.connectionUrl(url, CONNECT_TIMEOUT_MILLIS, socketTimeoutMillis),
+                        DB_USER, DB_PASSWORD);
+                breaker.recordSuccess();
+                return conn;
+
+            } catch (SQLException e) {
+                breaker.recordFailure();
+                throw e;
+            }
+        }
+
+        /**
+         * Closes a connection, ignoring errors since it is being dropped.
+         *
+         * @param conn The connection
+         */
+        void closeQuietly(Connection conn) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                LOG.debug("Error closing broken connection", "database", name, "error", e.getMessage());
+            }
+        }
+
+        /**
+         * Drops the connection after it broke, so the next call
+         * reconnects instead of reusing a dead socket.
+         */
+        synchronized void invalidate() {
+            if (connection != null) {
+                closeQuietly(connection);
+                connection = null;
+            }
+        }
+
+        /**
+         * Closes the connection if it is open, and the idle pooled ones.
+         */
+        synchronized void close() {
+            while (!idle.isEmpty()) {
+                closeQuietly(idle.pollFirst());
+            }
+            try {
+                if (connection != null && !connection.isClosed()) {
+                    connection.close();
+                    LOG.info("Database connection closed", "database", name);
+                }
+            } catch (SQLException e) {
+                LOG.error("Error closing connection", e, "database", name);
+            }
+        }
+    }
+
+    /**
+     * Records a finished statement in the query metrics and commits its
+     * flight recorder event if it is being recorded.
+     *
+     * @param event The event started before the execution
+     * @param start System.nanoTime() before the execution
+     * @param query The SQL text
+     * @param kind  query, update or execute
+     * @param rows  Rows affected, -1 for queries
+     */
+    private static void recordQuery(QueryEvent event, long start, String query, String kind, long rows) {
+        ("query".equals(kind) ? QUERY_SECONDS : UPDATE_SECONDS).recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.sql = query;
+            event.kind = kind;
+            event.rows = rows;
+            event.commit();
+        }
     }
 }
@@ -0,0 +1,163 @@
+package com.greengrocer.database;
+
+import com.greengrocer.utils.Logger;
+import java.sql.SQLException;
+
+/**
+ * Outcome of a DAO call that lets the caller tell "no data" apart from
+ * "the database could not be reached" and react accordingly, e.g. keep
+ * showing the previous catalog and offer a retry instead of an empty list.
+ *
+ * @param <T> Type of the value
+ * @author Group17
+ * @version 1.0
+ */
+public final class DbResult<T> {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(DbResult.class);
+
+    /** Kinds of outcome */
+    public enum Status {
+        /** The call succeeded */
+        OK,
+        /** The database was unreachable, timed out or the breaker is open; retrying later may help */
+        UNAVAILABLE,
+        /** The call failed for another reason */
+        ERROR
+    }
+
+    /**
+     * A database call that may throw SQLException.
+     *
+     * @param <T> Type of the result
+     */
+    @FunctionalInterface
+    public interface SqlCall<T> {
+
+        /**
+         * Runs the call.
+         *
+         * @return The result
+         * @throws SQLException If the call fails
+         */
+        T call() throws SQLException;
+    }
+
+    /** The outcome */
+    private final Status status;
+
+    /** The value, null unless OK */
+    private final T value;
+
+    /** Error message, null if OK */
+    private final String message;
+
+    /**
+     * Private constructor, use the factory methods.
+     *
+     * @param status  The outcome
+     * @param value   The value
+     * @param message Error message
+     */
+    private DbResult(Status status, T value, String message) {
+        this.status = status;
+        this.value = value;
+        this.message = message;
+    }
+
+    /**
+     * Creates a successful result.
+     *
+     * @param <T>   Type of the value
+     * @param value The value
+     * @return The result
+     */
+    public static <T> DbResult<T> ok(T value) {
+        return new DbResult<>(Status.OK, value, null);
+    }
+
+    /**
+     * Creates a failed result from an exception.
+     *
+     * @param <T>   Type of the value
+     * @param error The exception
+     * @return UNAVAILABLE for availability problems, otherwise ERROR
+     */
+    public static <T> DbResult<T> failed(SQLException error) {
+        Status status = DatabaseAdapter.isAvailabilityFailure(error) ? Status.UNAVAILABLE : Status.ERROR;
+        return new DbResult<>(status, null, error.getMessage());
+    }
+
+    /**
+     * Runs a call and wraps its outcome, logging failures.
+     *
+     * @param <T>         Type of the result
+     * @param description What the call does, for the log
+     * @param call        The call
+     * @return The result
+     */
+    public static <T> DbResult<T> of(String description, SqlCall<T> call) {
+        try {
+            return ok(call.call());
+        } catch (SQLException e) {
+            LOG.error(description + " error", e);
+            return failed(e);
+        }
+    }
+
+    /**
+     * Gets the outcome.
+     *
+     * @return The status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks whether the call succeeded.
+     *
+     * @return true if OK
+     */
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+
+    /**
+     * Checks whether the database was unavailable.
+     *
+     * @return true if UNAVAILABLE
+     */
+    public boolean isUnavailable() {
+        return status == Status.UNAVAILABLE;
+    }
+
+    /**
+     * Gets the value.
+     *
+     * @return The value, null unless OK
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the value or a fallback.
+     *
+     * @param fallback Value to return if the call failed
+     * @return The value if OK, otherwise the fallback
+     */
+    public T orElse(T fallback) {
+        return status == Status.OK ? value : fallback;
+    }
+
+    /**
+     * Gets the error message.
+     *
+     * @return The message, null if OK
+     */
+    public String getMessage() {
+        return message;
+    }
+}
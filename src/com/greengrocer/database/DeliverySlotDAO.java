@@ -0,0 +1,151 @@
+package com.greengrocer.database;
+
+import com.greengrocer.models.DeliverySlot;
+import com.greengrocer.utils.Logger;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data Access Object for delivery slot bookings.
+ *
+ * Each slot of a store has a counter row in DeliverySlots. A booking
+ * raises it with a conditional UPDATE that fails once the slot is full, so
+ * two customers can never take the last place of a slot together, and a
+ * cancellation lowers it again. A slot's row is created before its first
+ * booking, outside the checkout transaction, counting the open orders
+ * already placed for it with a plain read so the count takes no locks on
+ * OrderInfo that concurrent checkouts would deadlock on.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class DeliverySlotDAO {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(DeliverySlotDAO.class);
+
+    /** Counts the open orders already placed for a slot */
+    private static final String COUNT_ORDERS_QUERY =
+            "SELECT COUNT(*) FROM OrderInfo " +
+            "WHERE store_id = ? AND requested_delivery >= ? AND requested_delivery < ? " +
+            "AND status IN ('PENDING', 'SELECTED')";
+
+    /** Creates a slot's counter unless another checkout created it first */
+    private static final String CREATE_SLOT_QUERY =
+            "INSERT IGNORE INTO DeliverySlots (store_id, slot_start, reserved) VALUES (?, ?, ?)";
+
+    /** Database adapter instance */
+    private DatabaseAdapter db;
+
+    /**
+     * Constructor - initializes database adapter.
+     */
+    public DeliverySlotDAO() {
+        this.db = DatabaseAdapter.getInstance();
+        // Ensure the DeliverySlots table exists
+        SchemaMigrator.migrate();
+    }
+
+    /**
+     * Books a delivery in a slot of the current store if it is not full.
+     * The slot's row must exist, see {@link #ensureSlot(LocalDateTime)}.
+     *
+     * @param slotStart Start of the slot
+     * @param capacity  Deliveries the slot can take
+     * @return true if the delivery was booked, false if the slot is full
+     * @throws SQLException If the update fails
+     */
+    public boolean reserve(LocalDateTime slotStart, int capacity) throws SQLException {
+        String query = "UPDATE DeliverySlots SET reserved = reserved + 1 " +
+                "WHERE store_id = ? AND slot_start = ? AND reserved < ?";
+
+        PreparedStatement stmt = db.prepareStatement(query);
+        stmt.setInt(1, db.getStoreId());
+        stmt.setTimestamp(2, Timestamp.valueOf(slotStart));
+        stmt.setInt(3, capacity);
+
+        return stmt.executeUpdate() > 0;
+    }
+
+    /**
+     * Creates the counter row of a slot of the current store if it does not
+     * exist yet, starting at the open orders already placed for the slot.
+     * Must run outside the transaction that books the slot.
+     *
+     * @param slotStart Start of the slot
+     * @throws SQLException If a query fails
+     */
+    public void ensureSlot(LocalDateTime slotStart) throws SQLException {
+        PreparedStatement existsStmt = db.prepareStatement(
+                "SELECT 1 FROM DeliverySlots WHERE store_id = ? AND slot_start = ?");
+        existsStmt.setInt(1, db.getStoreId());
+        existsStmt.setTimestamp(2, Timestamp.valueOf(slotStart));
+        if (existsStmt.executeQuery().next()) {
+            return;
+        }
+
+        PreparedStatement countStmt = db.prepareStatement(COUNT_ORDERS_QUERY);
+        countStmt.setInt(1, db.getStoreId());
+        countStmt.setTimestamp(2, Timestamp.valueOf(slotStart));
+        countStmt.setTimestamp(3, Timestamp.valueOf(slotStart.plusMinutes(DeliverySlot.SLOT_MINUTES)));
+        ResultSet rs = countStmt.executeQuery();
+        int open = rs.next() ? rs.getInt(1) : 0;
+
+        PreparedStatement createStmt = db.prepareStatement(CREATE_SLOT_QUERY);
+        createStmt.setInt(1, db.getStoreId());
+        createStmt.setTimestamp(2, Timestamp.valueOf(slotStart));
+        createStmt.setInt(3, open);
+        createStmt.executeUpdate();
+    }
+
+    /**
+     * Gives back a delivery booked in a slot of the current store.
+     *
+     * @param slotStart Start of the slot
+     * @return true if a booking was given back, false if the slot has no counter
+     * @throws SQLException If the update fails
+     */
+    public boolean release(LocalDateTime slotStart) throws SQLException {
+        String query = "UPDATE DeliverySlots SET reserved = GREATEST(reserved - 1, 0) " +
+                "WHERE store_id = ? AND slot_start = ?";
+
+        PreparedStatement stmt = db.prepareStatement(query);
+        stmt.setInt(1, db.getStoreId());
+        stmt.setTimestamp(2, Timestamp.valueOf(slotStart));
+
+        return stmt.executeUpdate() > 0;
+    }
+
+    /**
+     * Gets the booked deliveries of the current store's slots in a period.
+     * Slots nobody has booked yet are missing from the result.
+     *
+     * @param from First slot start, inclusive
+     * @param to   Last slot start, inclusive
+     * @return Booked deliveries by slot start; empty on error
+     */
+    public Map<LocalDateTime, Integer> findReserved(LocalDateTime from, LocalDateTime to) {
+        Map<LocalDateTime, Integer> reserved = new HashMap<>();
+        String query = "SELECT slot_start, reserved FROM DeliverySlots " +
+                "WHERE store_id = ? AND slot_start BETWEEN ? AND ?";
+
+        try {
+            PreparedStatement stmt = db.prepareStatement(query);
+            stmt.setInt(1, db.getStoreId());
+            stmt.setTimestamp(2, Timestamp.valueOf(from));
+            stmt.setTimestamp(3, Timestamp.valueOf(to));
+
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                reserved.put(rs.getTimestamp("slot_start").toLocalDateTime(), rs.getInt("reserved"));
+            }
+        } catch (SQLException e) {
+            LOG.error("Find delivery slots error", e);
+        }
+
+        return reserved;
+    }
+}
@@ -1,25 +1,34 @@
 package com.greengrocer.database;
 
 import com.greengrocer.models.LoyaltySettings;
+import com.greengrocer.utils.Logger;
 import java.sql.*;
 
 /**
  * Data Access Object for LoyaltySettings operations.
  * Handles loyalty discount settings managed by owner.
+ * Settings are read through the reference cache, which update() invalidates.
  * 
  * @author Group17
  * @version 1.0
  */
 public class LoyaltySettingsDAO {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(LoyaltySettingsDAO.class);
+
     /** Database adapter instance */
     private DatabaseAdapter db;
 
+    /** Cache of the settings */
+    private final ReferenceCache cache;
+
     /**
      * Constructor - initializes database adapter.
      */
     public LoyaltySettingsDAO() {
         this.db = DatabaseAdapter.getInstance();
+        this.cache = ReferenceCache.getInstance();
     }
 
     /**
@@ -28,10 +37,18 @@ public class LoyaltySettingsDAO {
      * @return LoyaltySettings or default if not found
      */
     public LoyaltySettings getSettings() {
-        String query = "SELECT * FROM LoyaltySettings LIMIT 1";
+        LoyaltySettings settings = cache.findLoyaltySettings(this::loadSettings);
+        return settings != null ? settings : new LoyaltySettings();
+    }
 
-        try {
-            ResultSet rs = db.executeQuery(query);
+    /**
+     * Loads the loyalty settings from the database.
+     *
+     * @return The settings, or the defaults if none are stored
+     */
+    private DbResult<LoyaltySettings> loadSettings() {
+        return DbResult.of("Get loyalty settings", () -> {
+            ResultSet rs = db.executeQuery("SELECT * FROM LoyaltySettings LIMIT 1");
 
             if (rs.next()) {
                 LoyaltySettings settings = new LoyaltySettings();
@@ -40,12 +57,10 @@ public class LoyaltySettingsDAO {
                 settings.setDiscountPercent(rs.getDouble("discount_percent"));
                 return settings;
             }
-        } catch (SQLException e) {
-            System.err.println("Get loyalty settings error: " + e.getMessage());
-        }
 
-        // Return default settings if none found
-        return new LoyaltySettings();
+            // Return default settings if none found
+            return new LoyaltySettings();
+        });
     }
 
     /**
@@ -67,13 +82,14 @@ public class LoyaltySettingsDAO {
 
             if (rows == 0) {
                 // No existing settings, insert new
-                return insert(settings);
+                rows = insert(settings) ? 1 : 0;
             }
 
-            return true;
+            cache.invalidate();
+            return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Update loyalty settings error: " + e.getMessage());
+            LOG.error("Update loyalty settings error", e);
             return false;
         }
     }
@@ -96,7 +112,7 @@ public class LoyaltySettingsDAO {
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Insert loyalty settings error: " + e.getMessage());
+            LOG.error("Insert loyalty settings error", e);
             return false;
         }
     }
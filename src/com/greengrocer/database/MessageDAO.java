@@ -1,6 +1,7 @@
 package com.greengrocer.database;
 
 import com.greengrocer.models.Message;
+import com.greengrocer.utils.Logger;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -8,12 +9,34 @@ import java.util.List;
 /**
  * Data Access Object for Message operations.
  * Handles customer-owner messaging.
+ *
+ * Each user's number of unread messages is kept in UserInfo.unread_messages
+ * and changed in the same transaction as the messages, so the unread badge
+ * costs a primary key lookup however large the inbox grows.
  * 
  * @author Group17
  * @version 1.0
  */
 public class MessageDAO {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(MessageDAO.class);
+
+    /** Text columns searched by search(), as listed in the FULLTEXT index */
+    static final String SEARCH_COLUMNS = "subject, content, reply";
+
+    /** Messages marked read per statement by markAllAsRead */
+    private static final int READ_BATCH = 1000;
+
+    /** Columns and joins of message queries */
+    private static final String SELECT_MESSAGES = "SELECT m.*, s.username as sender_name, r.username as receiver_name " +
+            "FROM Messages m " +
+            "JOIN UserInfo s ON m.sender_id = s.id " +
+            "JOIN UserInfo r ON m.receiver_id = r.id ";
+
+    /** Keyset condition selecting messages sent before a given one, newest first */
+    private static final String OLDER_THAN = "AND (m.sent_at < ? OR (m.sent_at = ? AND m.id < ?)) ";
+
     /** Database adapter instance */
     private DatabaseAdapter db;
 
@@ -22,6 +45,8 @@ public class MessageDAO {
      */
     public MessageDAO() {
         this.db = DatabaseAdapter.getInstance();
+        // Ensure the unread counter column exists
+        SchemaMigrator.migrate();
     }
 
     /**
@@ -33,20 +58,19 @@ public class MessageDAO {
     public boolean send(Message message) {
         String query = "INSERT INTO Messages (sender_id, receiver_id, subject, content) VALUES (?, ?, ?, ?)";
 
-        try {
-            PreparedStatement stmt = db.prepareStatement(query);
+        return inTransaction("Send message error", conn -> {
+            PreparedStatement stmt = conn.prepareStatement(query);
             stmt.setInt(1, message.getSenderId());
             stmt.setInt(2, message.getReceiverId());
             stmt.setString(3, message.getSubject());
             stmt.setString(4, message.getContent());
 
             int rows = stmt.executeUpdate();
-            return rows > 0;
-
-        } catch (SQLException e) {
-            System.err.println("Send message error: " + e.getMessage());
-            return false;
-        }
+            if (rows > 0) {
+                changeUnread(conn, message.getReceiverId(), rows);
+            }
+            return rows;
+        }) > 0;
     }
 
     /**
@@ -57,10 +81,7 @@ public class MessageDAO {
      */
     public List<Message> findBySender(int userId) {
         List<Message> messages = new ArrayList<>();
-        String query = "SELECT m.*, s.username as sender_name, r.username as receiver_name " +
-                "FROM Messages m " +
-                "JOIN UserInfo s ON m.sender_id = s.id " +
-                "JOIN UserInfo r ON m.receiver_id = r.id " +
+        String query = SELECT_MESSAGES +
                 "WHERE m.sender_id = ? " +
                 "ORDER BY m.sent_at DESC";
 
@@ -74,7 +95,7 @@ public class MessageDAO {
                 messages.add(extractMessageFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Find messages error: " + e.getMessage());
+            LOG.error("Find messages error", e);
         }
 
         return messages;
@@ -88,10 +109,7 @@ public class MessageDAO {
      */
     public List<Message> findByReceiver(int userId) {
         List<Message> messages = new ArrayList<>();
-        String query = "SELECT m.*, s.username as sender_name, r.username as receiver_name " +
-                "FROM Messages m " +
-                "JOIN UserInfo s ON m.sender_id = s.id " +
-                "JOIN UserInfo r ON m.receiver_id = r.id " +
+        String query = SELECT_MESSAGES +
                 "WHERE m.receiver_id = ? " +
                 "ORDER BY m.sent_at DESC";
 
@@ -105,7 +123,120 @@ public class MessageDAO {
                 messages.add(extractMessageFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Find messages error: " + e.getMessage());
+            LOG.error("Find messages error", e);
+        }
+
+        return messages;
+    }
+
+    /**
+     * Gets a page of the messages sent by a user, newest first.
+     *
+     * @param userId The sender's user ID
+     * @param after  Last message of the previous page, or null for the first page
+     * @param limit  Maximum number of messages
+     * @return List of messages
+     */
+    public List<Message> findBySender(int userId, Message after, int limit) {
+        return findPage("m.sender_id", userId, after, limit);
+    }
+
+    /**
+     * Gets a page of the messages received by a user, newest first. Pages
+     * continue from the last message of the previous page, so each costs
+     * the same however far back the user reads.
+     *
+     * @param userId The receiver's user ID
+     * @param after  Last message of the previous page, or null for the first page
+     * @param limit  Maximum number of messages
+     * @return List of messages
+     */
+    public List<Message> findByReceiver(int userId, Message after, int limit) {
+        return findPage("m.receiver_id", userId, after, limit);
+    }
+
+    /**
+     * Gets a page of a user's messages, newest first.
+     *
+     * @param column The user column, m.sender_id or m.receiver_id
+     * @param userId The user ID
+     * @param after  Last message of the previous page, or null for the first page
+     * @param limit  Maximum number of messages
+     * @return List of messages
+     */
+    private List<Message> findPage(String column, int userId, Message after, int limit) {
+        List<Message> messages = new ArrayList<>();
+        String query = SELECT_MESSAGES +
+                "WHERE " + column + " = ? " +
+                (after != null ? OLDER_THAN : "") +
+                "ORDER BY m.sent_at DESC, m.id DESC LIMIT ?";
+
+        try {
+            PreparedStatement stmt = db.prepareStatement(query);
+            int index = 1;
+            stmt.setInt(index++, userId);
+            if (after != null) {
+                Timestamp sentAt = Timestamp.valueOf(after.getSentAt());
+                stmt.setTimestamp(index++, sentAt);
+                stmt.setTimestamp(index++, sentAt);
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, limit);
+
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                messages.add(extractMessageFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            LOG.error("Find messages error", e, "userId", userId);
+        }
+
+        return messages;
+    }
+
+    /**
+     * Searches the subject, content and reply of the messages received by
+     * a user. On MySQL the search uses the FULLTEXT index and results are
+     * ranked by relevance; the embedded database matches the words as one
+     * phrase and ranks by date.
+     *
+     * @param userId The receiver's user ID
+     * @param words  The search words
+     * @param limit  Maximum number of messages
+     * @param offset Number of results to skip
+     * @return Matching messages, best first
+     */
+    public List<Message> search(int userId, String words, int limit, int offset) {
+        List<Message> messages = new ArrayList<>();
+        if (words == null || words.trim().isEmpty()) {
+            return messages;
+        }
+        SqlDialect dialect = db.getDialect();
+        String query = "SELECT m.*, s.username as sender_name, r.username as receiver_name, " +
+                dialect.fullTextScore(SEARCH_COLUMNS) + " as relevance " +
+                "FROM Messages m " +
+                "JOIN UserInfo s ON m.sender_id = s.id " +
+                "JOIN UserInfo r ON m.receiver_id = r.id " +
+                "WHERE m.receiver_id = ? AND " + dialect.fullTextMatch(SEARCH_COLUMNS) + " " +
+                "ORDER BY relevance DESC, m.sent_at DESC, m.id DESC LIMIT ? OFFSET ?";
+
+        try {
+            String parameter = dialect.fullTextParameter(words);
+            PreparedStatement stmt = db.prepareStatement(query);
+            stmt.setString(1, parameter);
+            stmt.setInt(2, userId);
+            stmt.setString(3, parameter);
+            stmt.setInt(4, limit);
+            stmt.setInt(5, offset);
+
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                messages.add(extractMessageFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            LOG.error("Search messages error", e, "userId", userId);
         }
 
         return messages;
@@ -118,11 +249,7 @@ public class MessageDAO {
      */
     public List<Message> findAll() {
         List<Message> messages = new ArrayList<>();
-        String query = "SELECT m.*, s.username as sender_name, r.username as receiver_name " +
-                "FROM Messages m " +
-                "JOIN UserInfo s ON m.sender_id = s.id " +
-                "JOIN UserInfo r ON m.receiver_id = r.id " +
-                "ORDER BY m.sent_at DESC";
+        String query = SELECT_MESSAGES + "ORDER BY m.sent_at DESC";
 
         try {
             ResultSet rs = db.executeQuery(query);
@@ -131,7 +258,7 @@ public class MessageDAO {
                 messages.add(extractMessageFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Find all messages error: " + e.getMessage());
+            LOG.error("Find all messages error", e);
         }
 
         return messages;
@@ -141,21 +268,85 @@ public class MessageDAO {
      * Marks a message as read.
      * 
      * @param messageId The message ID
-     * @return true if successful
+     * @return true if the message was unread
      */
     public boolean markAsRead(int messageId) {
-        String query = "UPDATE Messages SET is_read = TRUE WHERE id = ?";
+        return inTransaction("Mark as read error", conn -> markRead(conn, messageId)) > 0;
+    }
 
-        try {
-            PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setInt(1, messageId);
+    /**
+     * Marks several messages of a user as read.
+     *
+     * @param receiverId The receiver's user ID
+     * @param messageIds The message IDs
+     * @return Number of messages that were unread, or -1 on error
+     */
+    public int markAsRead(int receiverId, List<Integer> messageIds) {
+        if (messageIds.isEmpty()) {
+            return 0;
+        }
+        StringBuilder query = new StringBuilder(
+                "UPDATE Messages SET is_read = TRUE WHERE receiver_id = ? AND is_read = FALSE AND id IN (");
+        for (int i = 0; i < messageIds.size(); i++) {
+            query.append(i == 0 ? "?" : ", ?");
+        }
+        query.append(')');
+
+        return inTransaction("Mark messages as read error", conn -> {
+            PreparedStatement stmt = conn.prepareStatement(query.toString());
+            stmt.setInt(1, receiverId);
+            for (int i = 0; i < messageIds.size(); i++) {
+                stmt.setInt(i + 2, messageIds.get(i));
+            }
 
             int rows = stmt.executeUpdate();
-            return rows > 0;
+            if (rows > 0) {
+                changeUnread(conn, receiverId, -rows);
+            }
+            return rows;
+        });
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Mark as read error: " + e.getMessage());
-            return false;
+    /**
+     * Marks all unread messages of a user up to a message as read, in
+     * batches so other work is not held up by one large transaction.
+     * Messages that arrive later, with higher IDs, stay unread.
+     *
+     * @param receiverId The receiver's user ID
+     * @param upToId     ID of the newest message to mark
+     * @return Number of messages marked, or -1 on error
+     */
+    public int markAllAsRead(int receiverId, int upToId) {
+        String query = "SELECT id FROM Messages WHERE receiver_id = ? AND is_read = FALSE AND id <= ? LIMIT " +
+                READ_BATCH;
+
+        int marked = 0;
+        while (true) {
+            List<Integer> ids = new ArrayList<>();
+            try {
+                PreparedStatement stmt = db.prepareStatement(query);
+                stmt.setInt(1, receiverId);
+                stmt.setInt(2, upToId);
+
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    ids.add(rs.getInt("id"));
+                }
+            } catch (SQLException e) {
+                LOG.error("Find unread messages error", e, "userId", receiverId);
+                return -1;
+            }
+
+            int rows = markAsRead(receiverId, ids);
+            if (rows < 0) {
+                return -1;
+            }
+            marked += rows;
+            if (ids.size() < READ_BATCH) {
+                LOG.debug("Marked all messages read", "userId", receiverId, "messages", marked);
+                return marked;
+            }
         }
     }
 
@@ -167,20 +358,16 @@ public class MessageDAO {
      * @return true if successful
      */
     public boolean reply(int messageId, String reply) {
-        String query = "UPDATE Messages SET reply = ?, is_read = TRUE WHERE id = ?";
+        String query = "UPDATE Messages SET reply = ? WHERE id = ?";
 
-        try {
-            PreparedStatement stmt = db.prepareStatement(query);
+        return inTransaction("Reply message error", conn -> {
+            markRead(conn, messageId);
+
+            PreparedStatement stmt = conn.prepareStatement(query);
             stmt.setString(1, reply);
             stmt.setInt(2, messageId);
-
-            int rows = stmt.executeUpdate();
-            return rows > 0;
-
-        } catch (SQLException e) {
-            System.err.println("Reply message error: " + e.getMessage());
-            return false;
-        }
+            return stmt.executeUpdate();
+        }) > 0;
     }
 
     /**
@@ -190,7 +377,7 @@ public class MessageDAO {
      * @return Count of unread messages
      */
     public int getUnreadCount(int userId) {
-        String query = "SELECT COUNT(*) as count FROM Messages WHERE receiver_id = ? AND is_read = FALSE";
+        String query = "SELECT unread_messages FROM UserInfo WHERE id = ?";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
@@ -199,15 +386,74 @@ public class MessageDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getInt("count");
+                return rs.getInt("unread_messages");
             }
         } catch (SQLException e) {
-            System.err.println("Get unread count error: " + e.getMessage());
+            LOG.error("Get unread count error", e);
         }
 
         return 0;
     }
 
+    /**
+     * Marks one message as read and lowers its receiver's unread counter
+     * if it was unread. The message row is locked first, so two readers of
+     * the same message cannot both lower the counter.
+     *
+     * @param conn      The connection in a transaction
+     * @param messageId The message ID
+     * @return 1 if the message was unread, otherwise 0
+     * @throws SQLException If an update fails
+     */
+    private int markRead(Connection conn, int messageId) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE Messages SET is_read = TRUE WHERE id = ? AND is_read = FALSE");
+        stmt.setInt(1, messageId);
+
+        int rows = stmt.executeUpdate();
+        if (rows > 0) {
+            PreparedStatement counter = conn.prepareStatement(
+                    "UPDATE UserInfo SET unread_messages = GREATEST(unread_messages - 1, 0) " +
+                    "WHERE id = (SELECT receiver_id FROM Messages WHERE id = ?)");
+            counter.setInt(1, messageId);
+            counter.executeUpdate();
+        }
+        return rows;
+    }
+
+    /**
+     * Changes a user's unread counter.
+     *
+     * @param conn   The connection in a transaction
+     * @param userId The user ID
+     * @param delta  Messages received, negative for messages read
+     * @throws SQLException If the update fails
+     */
+    private void changeUnread(Connection conn, int userId, int delta) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE UserInfo SET unread_messages = GREATEST(unread_messages + ?, 0) WHERE id = ?");
+        stmt.setInt(1, delta);
+        stmt.setInt(2, userId);
+        stmt.executeUpdate();
+    }
+
+    /**
+     * Runs statements in one transaction on a connection of their own,
+     * rolling back if any of them fails.
+     *
+     * @param error Log message on failure
+     * @param work  The statements
+     * @return The result of the statements, or -1 on error
+     */
+    private int inTransaction(String error, DatabaseAdapter.TransactionWork<Integer> work) {
+        try {
+            return db.inTransaction(work);
+        } catch (SQLException e) {
+            LOG.error(error, e);
+            return -1;
+        }
+    }
+
     /**
      * Extracts a Message object from a ResultSet.
      * 
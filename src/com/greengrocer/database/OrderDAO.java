@@ -1,11 +1,21 @@
 package com.greengrocer.database;
 
+import com.greengrocer.metrics.Counter;
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.models.DeliverySlot;
 import com.greengrocer.models.Order;
 import com.greengrocer.models.OrderItem;
+import com.greengrocer.models.ProductSales;
+import com.greengrocer.utils.FlightEvents.OrderClaimEvent;
+import com.greengrocer.utils.Logger;
+import com.greengrocer.utils.Money;
+import com.greengrocer.utils.Quantity;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for Order operations.
@@ -16,63 +26,81 @@ import java.util.List;
  */
 public class OrderDAO {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(OrderDAO.class);
+
+    /** Orders delivered by carriers */
+    private static final Counter ORDERS_DELIVERED = MetricsRegistry.getInstance().counter(
+            "greengrocer_orders_delivered_total", "Orders marked delivered by carriers");
+
+    /** Delivered sales per product of one store, highest revenue first */
+    private static final String SALES_BY_PRODUCT_QUERY =
+            "SELECT oi.product_name, SUM(oi.quantity) as total_quantity, SUM(oi.quantity * oi.price_at_time) as total_sales " +
+            "FROM OrderItems oi " +
+            "JOIN OrderInfo o ON oi.order_id = o.id " +
+            "WHERE o.store_id = ? AND o.status = 'DELIVERED' " +
+            "GROUP BY oi.product_name " +
+            "ORDER BY total_sales DESC";
+
+    /** Orders of one customer with display names */
+    private static final String USER_ORDERS_QUERY =
+            "SELECT o.*, u.username as customer_name, u.address as customer_address, " +
+            "c.username as carrier_name " +
+            "FROM OrderInfo o " +
+            "LEFT JOIN UserInfo u ON o.user_id = u.id " +
+            "LEFT JOIN UserInfo c ON o.carrier_id = c.id " +
+            "WHERE o.user_id = ? ";
+
+    /** Keyset condition selecting orders placed before a given one, newest first */
+    private static final String OLDER_THAN = "AND (o.order_time < ? OR (o.order_time = ? AND o.id < ?)) ";
+
+    /** Newest orders first; the ID orders orders placed in the same second */
+    private static final String NEWEST_FIRST = "ORDER BY o.order_time DESC, o.id DESC";
+
     /** Database adapter instance */
     private DatabaseAdapter db;
 
+    /** Product DAO used to restore the stock of cancelled orders */
+    private ProductDAO productDAO;
+
+    /** Delivery slot DAO used to free the slot of cancelled orders */
+    private DeliverySlotDAO slotDAO;
+
     /**
      * Constructor - initializes database adapter.
      */
     public OrderDAO() {
         super();
         this.db = DatabaseAdapter.getInstance();
+        this.productDAO = new ProductDAO();
+        this.slotDAO = new DeliverySlotDAO();
         // Ensure notification columns exist
-        try {
-            // Add customer_notified column if it doesn't exist
-            String checkCustomerCol = "SELECT COUNT(*) FROM information_schema.COLUMNS " +
-                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'OrderInfo' " +
-                    "AND COLUMN_NAME = 'customer_notified'";
-            ResultSet rs = db.executeQuery(checkCustomerCol);
-            if (rs.next() && rs.getInt(1) == 0) {
-                db.executeUpdate("ALTER TABLE OrderInfo ADD COLUMN customer_notified BOOLEAN DEFAULT FALSE");
-                System.out.println("Added customer_notified column to OrderInfo");
-            }
-
-            // Add owner_notified column if it doesn't exist
-            String checkOwnerCol = "SELECT COUNT(*) FROM information_schema.COLUMNS " +
-                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'OrderInfo' " +
-                    "AND COLUMN_NAME = 'owner_notified'";
-            rs = db.executeQuery(checkOwnerCol);
-            if (rs.next() && rs.getInt(1) == 0) {
-                db.executeUpdate("ALTER TABLE OrderInfo ADD COLUMN owner_notified BOOLEAN DEFAULT FALSE");
-                System.out.println("Added owner_notified column to OrderInfo");
-            }
-        } catch (SQLException e) {
-            System.err.println("Database schema update error: " + e.getMessage());
-        }
+        SchemaMigrator.migrate();
     }
 
     /**
-     * Creates a new order.
+     * Creates a new order in the current store.
      * 
      * @param order The order to create
      * @return The created order ID, or -1 if failed
      */
     public int create(Order order) {
-        String query = "INSERT INTO OrderInfo (user_id, requested_delivery, status, subtotal, vat, discount, total_cost, invoice, invoice_pdf) "
+        String query = "INSERT INTO OrderInfo (user_id, requested_delivery, status, subtotal, vat, discount, total_cost, invoice, invoice_pdf, store_id) "
                 +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         try {
             PreparedStatement stmt = db.prepareStatementWithKeys(query);
             stmt.setInt(1, order.getUserId());
             stmt.setTimestamp(2, Timestamp.valueOf(order.getRequestedDelivery()));
             stmt.setString(3, order.getStatus());
-            stmt.setDouble(4, order.getSubtotal());
-            stmt.setDouble(5, order.getVat());
-            stmt.setDouble(6, order.getDiscount());
-            stmt.setDouble(7, order.getTotalCost());
+            stmt.setBigDecimal(4, Money.toDecimal(order.getSubtotalCents()));
+            stmt.setBigDecimal(5, Money.toDecimal(order.getVatCents()));
+            stmt.setBigDecimal(6, Money.toDecimal(order.getDiscountCents()));
+            stmt.setBigDecimal(7, Money.toDecimal(order.getTotalCostCents()));
             stmt.setString(8, order.getInvoice());
             stmt.setBytes(9, order.getInvoicePdf());
+            stmt.setInt(10, db.getStoreId());
 
             int rows = stmt.executeUpdate();
 
@@ -90,7 +118,7 @@ public class OrderDAO {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Create order error: " + e.getMessage());
+            LOG.error("Create order error", e);
         }
 
         return -1;
@@ -112,54 +140,94 @@ public class OrderDAO {
             stmt.setInt(1, orderId);
             stmt.setInt(2, item.getProductId());
             stmt.setString(3, item.getProductName());
-            stmt.setDouble(4, item.getQuantity());
-            stmt.setDouble(5, item.getPriceAtTime());
+            stmt.setBigDecimal(4, Quantity.toDecimal(item.getQuantityGrams()));
+            stmt.setBigDecimal(5, Money.toDecimal(item.getPriceCents()));
 
             int rows = stmt.executeUpdate();
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Add order item error: " + e.getMessage());
+            LOG.error("Add order item error", e);
             return false;
         }
     }
 
     /**
-     * Gets all orders for a specific customer.
+     * Gets one page of a customer's orders, newest first. Pages continue
+     * from the last order of the previous page, so each costs the same
+     * however far back the customer scrolls, and the items of the whole
+     * page are read with one more query.
      * 
      * @param userId The customer ID
+     * @param after  Last order of the previous page, or null for the first page
+     * @param limit  Maximum number of orders
      * @return List of orders
      */
-    public List<Order> findByUser(int userId) {
+    public List<Order> findByUser(int userId, Order after, int limit) {
         List<Order> orders = new ArrayList<>();
-        String query = "SELECT o.*, u.username as customer_name, u.address as customer_address, " +
-                "c.username as carrier_name " +
-                "FROM OrderInfo o " +
-                "LEFT JOIN UserInfo u ON o.user_id = u.id " +
-                "LEFT JOIN UserInfo c ON o.carrier_id = c.id " +
-                "WHERE o.user_id = ? " +
-                "ORDER BY o.order_time DESC";
+        String query = USER_ORDERS_QUERY + (after != null ? OLDER_THAN : "") + NEWEST_FIRST + " LIMIT ?";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setInt(1, userId);
+            int index = 1;
+            stmt.setInt(index++, userId);
+            if (after != null) {
+                Timestamp orderTime = Timestamp.valueOf(after.getOrderTime());
+                stmt.setTimestamp(index++, orderTime);
+                stmt.setTimestamp(index++, orderTime);
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, limit);
 
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                Order order = extractOrderFromResultSet(rs);
-                order.setItems(getOrderItems(order.getId()));
-                orders.add(order);
+                orders.add(extractOrderFromResultSet(rs));
             }
+            loadItems(orders);
         } catch (SQLException e) {
-            System.err.println("Find orders by user error: " + e.getMessage());
+            LOG.error("Find order page by user error", e, "userId", userId);
         }
 
         return orders;
     }
 
     /**
-     * Gets all pending orders (available for carriers).
+     * Reads the items of several orders with one query and sets them on
+     * the orders.
+     *
+     * @param orders The orders
+     * @throws SQLException If the query fails
+     */
+    private void loadItems(List<Order> orders) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Integer, Order> byId = new HashMap<>();
+        StringBuilder placeholders = new StringBuilder();
+        for (Order order : orders) {
+            order.setItems(new ArrayList<>());
+            byId.put(order.getId(), order);
+            placeholders.append(placeholders.length() == 0 ? "?" : ", ?");
+        }
+
+        PreparedStatement stmt = db.prepareStatement(
+                "SELECT * FROM OrderItems WHERE order_id IN (" + placeholders + ") ORDER BY order_id, id");
+        int index = 1;
+        for (Order order : orders) {
+            stmt.setInt(index++, order.getId());
+        }
+
+        ResultSet rs = stmt.executeQuery();
+
+        while (rs.next()) {
+            OrderItem item = extractItemFromResultSet(rs);
+            byId.get(item.getOrderId()).getItems().add(item);
+        }
+    }
+
+    /**
+     * Gets all pending orders of the current store (available for carriers).
      * 
      * @return List of pending orders
      */
@@ -170,11 +238,14 @@ public class OrderDAO {
                 "FROM OrderInfo o " +
                 "LEFT JOIN UserInfo u ON o.user_id = u.id " +
                 "LEFT JOIN UserInfo c ON o.carrier_id = c.id " +
-                "WHERE o.status = 'PENDING' " +
+                "WHERE o.store_id = ? AND o.status = 'PENDING' " +
                 "ORDER BY o.order_time ASC";
 
         try {
-            ResultSet rs = db.executeQuery(query);
+            PreparedStatement stmt = db.prepareStatement(query);
+            stmt.setInt(1, db.getStoreId());
+
+            ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
                 Order order = extractOrderFromResultSet(rs);
@@ -182,7 +253,7 @@ public class OrderDAO {
                 orders.add(order);
             }
         } catch (SQLException e) {
-            System.err.println("Find pending orders error: " + e.getMessage());
+            LOG.error("Find pending orders error", e);
         }
 
         return orders;
@@ -216,7 +287,7 @@ public class OrderDAO {
                 orders.add(order);
             }
         } catch (SQLException e) {
-            System.err.println("Find carrier selected orders error: " + e.getMessage());
+            LOG.error("Find carrier selected orders error", e);
         }
 
         return orders;
@@ -250,14 +321,15 @@ public class OrderDAO {
                 orders.add(order);
             }
         } catch (SQLException e) {
-            System.err.println("Find carrier completed orders error: " + e.getMessage());
+            LOG.error("Find carrier completed orders error", e);
         }
 
         return orders;
     }
 
     /**
-     * Gets all orders (for owner view).
+     * Gets all orders of the current store (for owner view).
+     * Reads from a replica when one is configured.
      * 
      * @return List of all orders
      */
@@ -268,25 +340,30 @@ public class OrderDAO {
                 "FROM OrderInfo o " +
                 "LEFT JOIN UserInfo u ON o.user_id = u.id " +
                 "LEFT JOIN UserInfo c ON o.carrier_id = c.id " +
+                "WHERE o.store_id = ? " +
                 "ORDER BY o.order_time DESC";
 
         try {
-            ResultSet rs = db.executeQuery(query);
+            PreparedStatement stmt = db.prepareStatement(query, ReadRoute.STALE_OK);
+            stmt.setInt(1, db.getStoreId());
+
+            ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
                 Order order = extractOrderFromResultSet(rs);
-                order.setItems(getOrderItems(order.getId()));
+                order.setItems(getOrderItems(order.getId(), ReadRoute.STALE_OK));
                 orders.add(order);
             }
         } catch (SQLException e) {
-            System.err.println("Find all orders error: " + e.getMessage());
+            LOG.error("Find all orders error", e);
         }
 
         return orders;
     }
 
     /**
-     * Selects an order for a carrier (changes status to SELECTED).
+     * Selects an order of the current store for a carrier (changes status
+     * to SELECTED).
      * Uses transaction to handle concurrency.
      * 
      * @param orderId   The order ID
@@ -295,69 +372,80 @@ public class OrderDAO {
      */
     public boolean selectOrder(int orderId, int carrierId) {
         // First check if order is still pending
-        String checkQuery = "SELECT status FROM OrderInfo WHERE id = ? FOR UPDATE";
-        String updateQuery = "UPDATE OrderInfo SET carrier_id = ?, status = 'SELECTED' WHERE id = ? AND status = 'PENDING'";
+        String checkQuery = "SELECT status FROM OrderInfo WHERE id = ? AND store_id = ? FOR UPDATE";
+        String updateQuery = "UPDATE OrderInfo SET carrier_id = ?, status = 'SELECTED' " +
+                "WHERE id = ? AND store_id = ? AND status = 'PENDING'";
 
+        OrderClaimEvent event = new OrderClaimEvent();
+        event.begin();
+        String outcome = "ERROR";
         try {
-            Connection conn = db.getConnection();
-            conn.setAutoCommit(false);
-
-            try {
+            outcome = db.inTransaction(conn -> {
                 PreparedStatement checkStmt = conn.prepareStatement(checkQuery);
                 checkStmt.setInt(1, orderId);
+                checkStmt.setInt(2, db.getStoreId());
                 ResultSet rs = checkStmt.executeQuery();
 
                 if (rs.next() && "PENDING".equals(rs.getString("status"))) {
                     PreparedStatement updateStmt = conn.prepareStatement(updateQuery);
                     updateStmt.setInt(1, carrierId);
                     updateStmt.setInt(2, orderId);
+                    updateStmt.setInt(3, db.getStoreId());
 
-                    int rows = updateStmt.executeUpdate();
-                    conn.commit();
-                    return rows > 0;
-                } else {
-                    conn.rollback();
-                    return false; // Order already selected by another carrier
+                    return updateStmt.executeUpdate() > 0 ? "CLAIMED" : "TAKEN";
                 }
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+                return "TAKEN"; // Order already selected by another carrier
+            });
+            return "CLAIMED".equals(outcome);
         } catch (SQLException e) {
-            System.err.println("Select order error: " + e.getMessage());
+            LOG.error("Select order error", e);
             return false;
+        } finally {
+            MetricsRegistry.getInstance().counter("greengrocer_order_claims_total",
+                    "Carrier claim attempts by outcome; TAKEN means another carrier won", "outcome", outcome).inc();
+            event.end();
+            if (event.shouldCommit()) {
+                event.orderId = orderId;
+                event.carrierId = carrierId;
+                event.outcome = outcome;
+                event.commit();
+            }
         }
     }
 
     /**
-     * Completes an order (changes status to DELIVERED).
+     * Completes an order of the current store (changes status to DELIVERED).
      * 
      * @param orderId      The order ID
      * @param deliveryTime The actual delivery time
      * @return true if successful
      */
     public boolean completeOrder(int orderId, LocalDateTime deliveryTime) {
-        String query = "UPDATE OrderInfo SET status = 'DELIVERED', delivery_time = ? WHERE id = ? AND status = 'SELECTED'";
+        String query = "UPDATE OrderInfo SET status = 'DELIVERED', delivery_time = ? " +
+                "WHERE id = ? AND store_id = ? AND status = 'SELECTED'";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
             stmt.setTimestamp(1, Timestamp.valueOf(deliveryTime));
             stmt.setInt(2, orderId);
+            stmt.setInt(3, db.getStoreId());
 
             int rows = stmt.executeUpdate();
+            if (rows > 0) {
+                ORDERS_DELIVERED.inc();
+            }
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Complete order error: " + e.getMessage());
+            LOG.error("Complete order error", e);
             return false;
         }
     }
 
     /**
-     * Cancels an order within allowed time frame (24 hours from order placement).
-     * Also restores the stock for all items in the order.
+     * Cancels an order of the current store within allowed time frame (24 hours from order placement).
+     * Also restores the stock for all items in the order and frees its
+     * delivery slot, in the same transaction as the status change.
      * 
      * @param orderId The order ID
      * @return true if successful
@@ -365,32 +453,46 @@ public class OrderDAO {
     public boolean cancelOrder(int orderId) {
         // Only allow cancellation within 24 hours of order placement
         String query = "UPDATE OrderInfo SET status = 'CANCELLED' " +
-                "WHERE id = ? AND status = 'PENDING' " +
-                "AND TIMESTAMPDIFF(HOUR, order_time, NOW()) <= 24";
+                "WHERE id = ? AND store_id = ? AND status = 'PENDING' " +
+                "AND TIMESTAMPDIFF(HOUR, order_time, NOW()) <= " + Order.CANCEL_WINDOW_HOURS;
 
         try {
-            // First, get the order items to restore stock
-            List<OrderItem> items = getOrderItems(orderId);
-
-            // Update order status to CANCELLED
-            PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setInt(1, orderId);
-
-            int rows = stmt.executeUpdate();
+            return db.inTransaction(conn -> {
+                // Update order status to CANCELLED
+                PreparedStatement stmt = conn.prepareStatement(query);
+                stmt.setInt(1, orderId);
+                stmt.setInt(2, db.getStoreId());
+
+                if (stmt.executeUpdate() == 0) {
+                    return false;
+                }
 
-            if (rows > 0) {
                 // Order was successfully cancelled, now restore stock for each item
-                ProductDAO productDAO = new ProductDAO();
+                PreparedStatement itemsStmt = conn.prepareStatement("SELECT * FROM OrderItems WHERE order_id = ?");
+                itemsStmt.setInt(1, orderId);
+                ResultSet itemsRs = itemsStmt.executeQuery();
+                List<OrderItem> items = new ArrayList<>();
+                while (itemsRs.next()) {
+                    items.add(extractItemFromResultSet(itemsRs));
+                }
                 for (OrderItem item : items) {
-                    productDAO.restoreStock(item.getProductId(), item.getQuantity());
+                    if (!productDAO.restoreStock(item.getProductId(), item.getQuantity())) {
+                        db.setRollbackOnly();
+                        return false;
+                    }
                 }
-                return true;
-            }
-
-            return false;
 
+                // And give back the delivery slot
+                PreparedStatement slotStmt = conn.prepareStatement("SELECT requested_delivery FROM OrderInfo WHERE id = ?");
+                slotStmt.setInt(1, orderId);
+                ResultSet slotRs = slotStmt.executeQuery();
+                if (slotRs.next() && slotRs.getTimestamp("requested_delivery") != null) {
+                    slotDAO.release(DeliverySlot.startOf(slotRs.getTimestamp("requested_delivery").toLocalDateTime()));
+                }
+                return true;
+            });
         } catch (SQLException e) {
-            System.err.println("Cancel order error: " + e.getMessage());
+            LOG.error("Cancel order error", e);
             return false;
         }
     }
@@ -413,10 +515,10 @@ public class OrderDAO {
 
             if (rs.next()) {
                 int hoursSince = rs.getInt("hours_since");
-                return hoursSince <= 24;
+                return hoursSince <= Order.CANCEL_WINDOW_HOURS;
             }
         } catch (SQLException e) {
-            System.err.println("Check cancel order error: " + e.getMessage());
+            LOG.error("Check cancel order error", e);
         }
 
         return false;
@@ -440,11 +542,11 @@ public class OrderDAO {
 
             if (rs.next()) {
                 int hoursSince = rs.getInt("hours_since");
-                int remaining = 24 - hoursSince;
+                int remaining = Order.CANCEL_WINDOW_HOURS - hoursSince;
                 return remaining > 0 ? remaining : 0;
             }
         } catch (SQLException e) {
-            System.err.println("Get hours remaining error: " + e.getMessage());
+            LOG.error("Get hours remaining error", e);
         }
 
         return -1;
@@ -457,32 +559,54 @@ public class OrderDAO {
      * @return List of order items
      */
     public List<OrderItem> getOrderItems(int orderId) {
+        return getOrderItems(orderId, ReadRoute.PRIMARY);
+    }
+
+    /**
+     * Gets all items for an order from the database chosen by the route.
+     * 
+     * @param orderId The order ID
+     * @param route   Whether the items may be read from a replica
+     * @return List of order items
+     */
+    private List<OrderItem> getOrderItems(int orderId, ReadRoute route) {
         List<OrderItem> items = new ArrayList<>();
         String query = "SELECT * FROM OrderItems WHERE order_id = ?";
 
         try {
-            PreparedStatement stmt = db.prepareStatement(query);
+            PreparedStatement stmt = db.prepareStatement(query, route);
             stmt.setInt(1, orderId);
 
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                OrderItem item = new OrderItem();
-                item.setId(rs.getInt("id"));
-                item.setOrderId(rs.getInt("order_id"));
-                item.setProductId(rs.getInt("product_id"));
-                item.setProductName(rs.getString("product_name"));
-                item.setQuantity(rs.getDouble("quantity"));
-                item.setPriceAtTime(rs.getDouble("price_at_time"));
-                items.add(item);
+                items.add(extractItemFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Get order items error: " + e.getMessage());
+            LOG.error("Get order items error", e);
         }
 
         return items;
     }
 
+    /**
+     * Extracts an OrderItem object from a ResultSet.
+     *
+     * @param rs The ResultSet positioned at the item row
+     * @return OrderItem object
+     * @throws SQLException If data extraction fails
+     */
+    private OrderItem extractItemFromResultSet(ResultSet rs) throws SQLException {
+        OrderItem item = new OrderItem();
+        item.setId(rs.getInt("id"));
+        item.setOrderId(rs.getInt("order_id"));
+        item.setProductId(rs.getInt("product_id"));
+        item.setProductName(rs.getString("product_name"));
+        item.setQuantityGrams(Quantity.fromDecimal(rs.getBigDecimal("quantity")));
+        item.setPriceCents(Money.fromDecimal(rs.getBigDecimal("price_at_time")));
+        return item;
+    }
+
     /**
      * Gets an order by ID.
      * 
@@ -509,14 +633,14 @@ public class OrderDAO {
                 return order;
             }
         } catch (SQLException e) {
-            System.err.println("Find order error: " + e.getMessage());
+            LOG.error("Find order error", e);
         }
 
         return null;
     }
 
     /**
-     * Gets orders by status.
+     * Gets orders of the current store by status.
      * 
      * @param status The order status
      * @return List of orders with the specified status
@@ -528,12 +652,13 @@ public class OrderDAO {
                 "FROM OrderInfo o " +
                 "LEFT JOIN UserInfo u ON o.user_id = u.id " +
                 "LEFT JOIN UserInfo c ON o.carrier_id = c.id " +
-                "WHERE o.status = ? " +
+                "WHERE o.store_id = ? AND o.status = ? " +
                 "ORDER BY o.order_time DESC";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setString(1, status);
+            stmt.setInt(1, db.getStoreId());
+            stmt.setString(2, status);
 
             ResultSet rs = stmt.executeQuery();
 
@@ -543,63 +668,186 @@ public class OrderDAO {
                 orders.add(order);
             }
         } catch (SQLException e) {
-            System.err.println("Find orders by status error: " + e.getMessage());
+            LOG.error("Find orders by status error", e);
         }
 
         return orders;
     }
 
     /**
-     * Gets total sales amount.
+     * Counts orders of the current store with a status.
      * 
-     * @return Total sales
+     * @param status The order status
+     * @return Number of orders, or -1 on error
      */
-    public double getTotalSales() {
-        String query = "SELECT SUM(total_cost) as total FROM OrderInfo WHERE status = 'DELIVERED'";
+    public int countByStatus(String status) {
+        String query = "SELECT COUNT(*) FROM OrderInfo WHERE store_id = ? AND status = ?";
 
         try {
-            ResultSet rs = db.executeQuery(query);
+            PreparedStatement stmt = db.prepareStatement(query);
+            stmt.setInt(1, db.getStoreId());
+            stmt.setString(2, status);
 
+            ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return rs.getDouble("total");
+                return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Get total sales error: " + e.getMessage());
+            LOG.error("Count orders by status error", e);
         }
 
-        return 0;
+        return -1;
     }
 
     /**
-     * Gets sales by product for reports.
+     * Counts the carriers that delivered orders of the current store.
+     * Reads from a replica when one is configured.
+     *
+     * @param since Earliest delivery taken into account
+     * @return Number of carriers, or -1 on error
+     */
+    public int countActiveCarriers(LocalDateTime since) {
+        String query = "SELECT COUNT(DISTINCT carrier_id) FROM OrderInfo " +
+                "WHERE store_id = ? AND status = 'DELIVERED' AND delivery_time >= ?";
+
+        try {
+            PreparedStatement stmt = db.prepareStatement(query, ReadRoute.STALE_OK);
+            stmt.setInt(1, db.getStoreId());
+            stmt.setTimestamp(2, Timestamp.valueOf(since));
+
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            LOG.error("Count active carriers error", e);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the average time a carrier of the current store spends per
+     * delivery: the time between a delivery and the same carrier's previous
+     * one. Longer gaps are breaks between shifts and are left out.
+     * Reads from a replica when one is configured.
+     *
+     * @param since         Earliest delivery taken into account
+     * @param maxGapMinutes Longest gap counted as working time
+     * @return Average minutes per delivery, 0 if there is no history, or -1 on error
+     */
+    public double getAverageDeliveryMinutes(LocalDateTime since, int maxGapMinutes) {
+        String query = "SELECT AVG(gap) FROM (" +
+                "SELECT TIMESTAMPDIFF(MINUTE, LAG(delivery_time) OVER " +
+                "(PARTITION BY carrier_id ORDER BY delivery_time), delivery_time) AS gap " +
+                "FROM OrderInfo WHERE store_id = ? AND status = 'DELIVERED' AND delivery_time >= ?) g " +
+                "WHERE gap > 0 AND gap <= ?";
+
+        try {
+            PreparedStatement stmt = db.prepareStatement(query, ReadRoute.STALE_OK);
+            stmt.setInt(1, db.getStoreId());
+            stmt.setTimestamp(2, Timestamp.valueOf(since));
+            stmt.setInt(3, maxGapMinutes);
+
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getDouble(1);
+            }
+        } catch (SQLException e) {
+            LOG.error("Average delivery time error", e);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets total sales amount.
+     * 
+     * @return Total sales
+     */
+    public double getTotalSales() {
+        return Money.toDouble(getTotalSalesCents());
+    }
+
+    /**
+     * Gets total sales amount of the current store in cents.
+     * Reads from a replica when one is configured.
+     * 
+     * @return Total sales in cents
+     */
+    public long getTotalSalesCents() {
+        return loadTotalSalesCents().orElse(0L);
+    }
+
+    /**
+     * Gets total sales amount of the current store in cents, telling a
+     * failed query apart from a store without sales.
+     * Reads from a replica when one is configured.
+     * 
+     * @return Total sales in cents, or UNAVAILABLE/ERROR if the query failed
+     */
+    public DbResult<Long> loadTotalSalesCents() {
+        String query = "SELECT SUM(total_cost) as total FROM OrderInfo WHERE store_id = ? AND status = 'DELIVERED'";
+
+        return DbResult.of("Get total sales", () -> {
+            PreparedStatement stmt = db.prepareStatement(query, ReadRoute.STALE_OK);
+            stmt.setInt(1, db.getStoreId());
+
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? Money.fromDecimal(rs.getBigDecimal("total")) : 0L;
+        });
+    }
+
+    /**
+     * Gets sales by product of the current store for reports.
+     * Reads from a replica when one is configured.
      * 
      * @return ResultSet with product sales data
      */
     public ResultSet getSalesByProduct() {
-        String query = "SELECT oi.product_name, SUM(oi.quantity) as total_quantity, SUM(oi.quantity * oi.price_at_time) as total_sales "
-                +
-                "FROM OrderItems oi " +
-                "JOIN OrderInfo o ON oi.order_id = o.id " +
-                "WHERE o.status = 'DELIVERED' " +
-                "GROUP BY oi.product_name " +
-                "ORDER BY total_sales DESC";
-
         try {
-            return db.executeQuery(query);
+            PreparedStatement stmt = db.prepareStatement(SALES_BY_PRODUCT_QUERY, ReadRoute.STALE_OK);
+            stmt.setInt(1, db.getStoreId());
+            return stmt.executeQuery();
         } catch (SQLException e) {
-            System.err.println("Get sales by product error: " + e.getMessage());
+            LOG.error("Get sales by product error", e);
             return null;
         }
     }
 
+    /**
+     * Gets sales by product of the current store as a list, for reports
+     * that merge several stores.
+     * Reads from a replica when one is configured.
+     * 
+     * @return Product sales, highest revenue first, or UNAVAILABLE/ERROR if the query failed
+     */
+    public DbResult<List<ProductSales>> loadSalesByProduct() {
+        return DbResult.of("Get sales by product", () -> {
+            PreparedStatement stmt = db.prepareStatement(SALES_BY_PRODUCT_QUERY, ReadRoute.STALE_OK);
+            stmt.setInt(1, db.getStoreId());
+
+            ResultSet rs = stmt.executeQuery();
+            List<ProductSales> sales = new ArrayList<>();
+            while (rs.next()) {
+                sales.add(new ProductSales(rs.getString("product_name"),
+                        Quantity.fromDecimal(rs.getBigDecimal("total_quantity")),
+                        Money.fromDecimal(rs.getBigDecimal("total_sales"))));
+            }
+            return sales;
+        });
+    }
+
     /**
      * Extracts an Order object from a ResultSet.
+     * Package-private and static so the benchmarks can call it without a
+     * database connection.
      * 
      * @param rs The ResultSet positioned at the order row
      * @return Order object
      * @throws SQLException If data extraction fails
      */
-    private Order extractOrderFromResultSet(ResultSet rs) throws SQLException {
+    static Order extractOrderFromResultSet(ResultSet rs) throws SQLException {
         Order order = new Order();
         order.setId(rs.getInt("id"));
         order.setUserId(rs.getInt("user_id"));
@@ -624,10 +872,10 @@ public class OrderDAO {
         }
 
         order.setStatus(rs.getString("status"));
-        order.setSubtotal(rs.getDouble("subtotal"));
-        order.setVat(rs.getDouble("vat"));
-        order.setDiscount(rs.getDouble("discount"));
-        order.setTotalCost(rs.getDouble("total_cost"));
+        order.setSubtotalCents(Money.fromDecimal(rs.getBigDecimal("subtotal")));
+        order.setVatCents(Money.fromDecimal(rs.getBigDecimal("vat")));
+        order.setDiscountCents(Money.fromDecimal(rs.getBigDecimal("discount")));
+        order.setTotalCostCents(Money.fromDecimal(rs.getBigDecimal("total_cost")));
         order.setInvoice(rs.getString("invoice"));
 
         // Try to get PDF invoice (may not exist in all queries)
@@ -665,13 +913,13 @@ public class OrderDAO {
                 orders.add(extractOrderFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Get unnotified orders for customer error: " + e.getMessage());
+            LOG.error("Get unnotified orders for customer error", e);
         }
         return orders;
     }
 
     /**
-     * Gets unnotified delivered orders for the owner.
+     * Gets unnotified delivered orders of the current store for the owner.
      * 
      * @return List of unnotified delivered orders
      */
@@ -682,11 +930,13 @@ public class OrderDAO {
                 "FROM OrderInfo o " +
                 "JOIN UserInfo cust ON o.user_id = cust.id " +
                 "LEFT JOIN UserInfo carr ON o.carrier_id = carr.id " +
-                "WHERE o.status = 'DELIVERED' AND (o.owner_notified = FALSE OR o.owner_notified IS NULL)";
+                "WHERE o.store_id = ? AND o.status = 'DELIVERED' " +
+                "AND (o.owner_notified = FALSE OR o.owner_notified IS NULL)";
 
         List<Order> orders = new ArrayList<>();
         try {
             PreparedStatement stmt = db.prepareStatement(query);
+            stmt.setInt(1, db.getStoreId());
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
@@ -703,7 +953,7 @@ public class OrderDAO {
                 orders.add(order);
             }
         } catch (SQLException e) {
-            System.err.println("Get unnotified orders for owner error: " + e.getMessage());
+            LOG.error("Get unnotified orders for owner error", e);
         }
         return orders;
     }
@@ -732,7 +982,7 @@ public class OrderDAO {
         try {
             db.executeUpdate(query.toString());
         } catch (Exception e) {
-            System.err.println("Mark orders notified error: " + e.getMessage());
+            LOG.error("Mark orders notified error", e);
         }
     }
 }
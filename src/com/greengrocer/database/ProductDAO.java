@@ -1,9 +1,14 @@
 package com.greengrocer.database;
 
 import com.greengrocer.models.Product;
+import com.greengrocer.utils.Logger;
+import com.greengrocer.utils.Money;
+import com.greengrocer.utils.Quantity;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for Product operations.
@@ -14,6 +19,9 @@ import java.util.List;
  */
 public class ProductDAO {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(ProductDAO.class);
+
     /** Database adapter instance */
     private DatabaseAdapter db;
 
@@ -25,22 +33,25 @@ public class ProductDAO {
     }
 
     /**
-     * Gets all products sorted by name.
+     * Gets all products of the current store sorted by name.
      * 
      * @return List of all products
      */
     public List<Product> findAll() {
         List<Product> products = new ArrayList<>();
-        String query = "SELECT * FROM ProductInfo ORDER BY name ASC";
+        String query = "SELECT * FROM ProductInfo WHERE store_id = ? ORDER BY name ASC";
 
         try {
-            ResultSet rs = db.executeQuery(query);
+            PreparedStatement stmt = db.prepareStatement(query);
+            stmt.setInt(1, db.getStoreId());
+
+            ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
                 products.add(extractProductFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Find all products error: " + e.getMessage());
+            LOG.error("Find all products error", e);
         }
 
         return products;
@@ -54,23 +65,32 @@ public class ProductDAO {
      * @return List of products of the specified type
      */
     public List<Product> findByType(String type) {
-        List<Product> products = new ArrayList<>();
-        String query = "SELECT * FROM ProductInfo WHERE type = ? AND stock > 0 ORDER BY name ASC";
+        return loadByType(type).orElse(new ArrayList<>());
+    }
 
-        try {
+    /**
+     * Gets all products of a specific type with stock > 0, sorted by name,
+     * telling an unreachable database apart from an empty result.
+     *
+     * @param type The product type
+     * @return The products, or UNAVAILABLE/ERROR if the query failed
+     */
+    public DbResult<List<Product>> loadByType(String type) {
+        String query = "SELECT * FROM ProductInfo WHERE store_id = ? AND type = ? AND stock > 0 ORDER BY name ASC";
+
+        return DbResult.of("Find products by type", () -> {
+            List<Product> products = new ArrayList<>();
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setString(1, type);
+            stmt.setInt(1, db.getStoreId());
+            stmt.setString(2, type);
 
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
                 products.add(extractProductFromResultSet(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Find products by type error: " + e.getMessage());
-        }
-
-        return products;
+            return products;
+        });
     }
 
     /**
@@ -99,11 +119,12 @@ public class ProductDAO {
      */
     public List<Product> searchByName(String keyword) {
         List<Product> products = new ArrayList<>();
-        String query = "SELECT * FROM ProductInfo WHERE name LIKE ? AND stock > 0 ORDER BY name ASC";
+        String query = "SELECT * FROM ProductInfo WHERE store_id = ? AND name LIKE ? AND stock > 0 ORDER BY name ASC";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setString(1, "%" + keyword + "%");
+            stmt.setInt(1, db.getStoreId());
+            stmt.setString(2, "%" + keyword + "%");
 
             ResultSet rs = stmt.executeQuery();
 
@@ -111,24 +132,25 @@ public class ProductDAO {
                 products.add(extractProductFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Search products error: " + e.getMessage());
+            LOG.error("Search products error", e);
         }
 
         return products;
     }
 
     /**
-     * Finds a product by ID.
+     * Finds a product of the current store by ID.
      * 
      * @param id The product ID
      * @return Product or null if not found
      */
     public Product findById(int id) {
-        String query = "SELECT * FROM ProductInfo WHERE id = ?";
+        String query = "SELECT * FROM ProductInfo WHERE id = ? AND store_id = ?";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
             stmt.setInt(1, id);
+            stmt.setInt(2, db.getStoreId());
 
             ResultSet rs = stmt.executeQuery();
 
@@ -136,24 +158,59 @@ public class ProductDAO {
                 return extractProductFromResultSet(rs);
             }
         } catch (SQLException e) {
-            System.err.println("Find product error: " + e.getMessage());
+            LOG.error("Find product error", e);
         }
 
         return null;
     }
 
     /**
-     * Checks if a product with the given name already exists.
+     * Gets several products of the current store with one query.
+     *
+     * @param ids The product IDs
+     * @return The products found, by ID
+     * @throws SQLException If the query fails
+     */
+    Map<Integer, Product> findByIds(List<Integer> ids) throws SQLException {
+        Map<Integer, Product> products = new HashMap<>();
+        if (ids.isEmpty()) {
+            return products;
+        }
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < ids.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+
+        PreparedStatement stmt = db.prepareStatement(
+                "SELECT * FROM ProductInfo WHERE store_id = ? AND id IN (" + placeholders + ")");
+        int index = 1;
+        stmt.setInt(index++, db.getStoreId());
+        for (int id : ids) {
+            stmt.setInt(index++, id);
+        }
+
+        ResultSet rs = stmt.executeQuery();
+
+        while (rs.next()) {
+            Product product = extractProductFromResultSet(rs);
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
+    /**
+     * Checks if a product with the given name already exists in the current store.
      * 
      * @param name The product name to check
      * @return true if a product with this name exists
      */
     public boolean existsByName(String name) {
-        String query = "SELECT COUNT(*) FROM ProductInfo WHERE LOWER(name) = LOWER(?)";
+        String query = "SELECT COUNT(*) FROM ProductInfo WHERE store_id = ? AND LOWER(name) = LOWER(?)";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setString(1, name.trim());
+            stmt.setInt(1, db.getStoreId());
+            stmt.setString(2, name.trim());
 
             ResultSet rs = stmt.executeQuery();
 
@@ -161,7 +218,7 @@ public class ProductDAO {
                 return rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
-            System.err.println("Check product exists error: " + e.getMessage());
+            LOG.error("Check product exists error", e);
         }
 
         return false;
@@ -176,12 +233,13 @@ public class ProductDAO {
      * @return true if another product with this name exists
      */
     public boolean existsByNameExcluding(String name, int excludeId) {
-        String query = "SELECT COUNT(*) FROM ProductInfo WHERE LOWER(name) = LOWER(?) AND id != ?";
+        String query = "SELECT COUNT(*) FROM ProductInfo WHERE store_id = ? AND LOWER(name) = LOWER(?) AND id != ?";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setString(1, name.trim());
-            stmt.setInt(2, excludeId);
+            stmt.setInt(1, db.getStoreId());
+            stmt.setString(2, name.trim());
+            stmt.setInt(3, excludeId);
 
             ResultSet rs = stmt.executeQuery();
 
@@ -189,36 +247,37 @@ public class ProductDAO {
                 return rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
-            System.err.println("Check product exists error: " + e.getMessage());
+            LOG.error("Check product exists error", e);
         }
 
         return false;
     }
 
     /**
-     * Adds a new product.
+     * Adds a new product to the current store.
      * 
      * @param product The product to add
      * @return true if successful
      */
     public boolean add(Product product) {
-        String query = "INSERT INTO ProductInfo (name, type, price, stock, threshold, image) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
+        String query = "INSERT INTO ProductInfo (name, type, price, stock, threshold, image, store_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
             stmt.setString(1, product.getName());
             stmt.setString(2, product.getType());
-            stmt.setDouble(3, product.getPrice());
-            stmt.setDouble(4, product.getStock());
-            stmt.setDouble(5, product.getThreshold());
+            stmt.setBigDecimal(3, Money.toDecimal(product.getPriceCents()));
+            stmt.setBigDecimal(4, Quantity.toDecimal(Quantity.toGrams(product.getStock())));
+            stmt.setBigDecimal(5, Quantity.toDecimal(Quantity.toGrams(product.getThreshold())));
             stmt.setBytes(6, product.getImage());
+            stmt.setInt(7, db.getStoreId());
 
             int rows = stmt.executeUpdate();
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Add product error: " + e.getMessage());
+            LOG.error("Add product error", e);
             return false;
         }
     }
@@ -236,16 +295,16 @@ public class ProductDAO {
             PreparedStatement stmt = db.prepareStatement(query);
             stmt.setString(1, product.getName());
             stmt.setString(2, product.getType());
-            stmt.setDouble(3, product.getPrice());
-            stmt.setDouble(4, product.getStock());
-            stmt.setDouble(5, product.getThreshold());
+            stmt.setBigDecimal(3, Money.toDecimal(product.getPriceCents()));
+            stmt.setBigDecimal(4, Quantity.toDecimal(Quantity.toGrams(product.getStock())));
+            stmt.setBigDecimal(5, Quantity.toDecimal(Quantity.toGrams(product.getThreshold())));
             stmt.setInt(6, product.getId());
 
             int rows = stmt.executeUpdate();
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Update product error: " + e.getMessage());
+            LOG.error("Update product error", e);
             return false;
         }
     }
@@ -263,9 +322,9 @@ public class ProductDAO {
             PreparedStatement stmt = db.prepareStatement(query);
             stmt.setString(1, product.getName());
             stmt.setString(2, product.getType());
-            stmt.setDouble(3, product.getPrice());
-            stmt.setDouble(4, product.getStock());
-            stmt.setDouble(5, product.getThreshold());
+            stmt.setBigDecimal(3, Money.toDecimal(product.getPriceCents()));
+            stmt.setBigDecimal(4, Quantity.toDecimal(Quantity.toGrams(product.getStock())));
+            stmt.setBigDecimal(5, Quantity.toDecimal(Quantity.toGrams(product.getThreshold())));
             stmt.setBytes(6, product.getImage());
             stmt.setInt(7, product.getId());
 
@@ -273,7 +332,7 @@ public class ProductDAO {
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Update product with image error: " + e.getMessage());
+            LOG.error("Update product with image error", e);
             return false;
         }
     }
@@ -299,7 +358,7 @@ public class ProductDAO {
             ResultSet rs = checkStmt.executeQuery();
 
             if (rs.next() && rs.getInt(1) > 0) {
-                System.err.println("Cannot delete product: it is in active orders");
+                LOG.warn("Cannot delete product: it is in active orders", "productId", id);
                 return false;
             }
 
@@ -319,7 +378,7 @@ public class ProductDAO {
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Delete product error: " + e.getMessage());
+            LOG.error("Delete product error", e);
             return false;
         }
     }
@@ -336,15 +395,15 @@ public class ProductDAO {
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setDouble(1, quantity);
+            stmt.setBigDecimal(1, Quantity.toDecimal(Quantity.toGrams(quantity)));
             stmt.setInt(2, productId);
-            stmt.setDouble(3, quantity);
+            stmt.setBigDecimal(3, Quantity.toDecimal(Quantity.toGrams(quantity)));
 
             int rows = stmt.executeUpdate();
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Update stock error: " + e.getMessage());
+            LOG.error("Update stock error", e);
             return false;
         }
     }
@@ -361,14 +420,14 @@ public class ProductDAO {
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setDouble(1, quantity);
+            stmt.setBigDecimal(1, Quantity.toDecimal(Quantity.toGrams(quantity)));
             stmt.setInt(2, productId);
 
             int rows = stmt.executeUpdate();
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Restore stock error: " + e.getMessage());
+            LOG.error("Restore stock error", e);
             return false;
         }
     }
@@ -390,33 +449,36 @@ public class ProductDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                double stock = rs.getDouble("stock");
-                return stock >= quantity;
+                return Quantity.fromDecimal(rs.getBigDecimal("stock")) >= Quantity.toGrams(quantity);
             }
         } catch (SQLException e) {
-            System.err.println("Check stock error: " + e.getMessage());
+            LOG.error("Check stock error", e);
         }
 
         return false;
     }
 
     /**
-     * Gets all products including those with zero stock (for owner).
+     * Gets all products of the current store including those with zero
+     * stock (for owner).
      * 
      * @return List of all products
      */
     public List<Product> findAllIncludingOutOfStock() {
         List<Product> products = new ArrayList<>();
-        String query = "SELECT * FROM ProductInfo ORDER BY type, name ASC";
+        String query = "SELECT * FROM ProductInfo WHERE store_id = ? ORDER BY type, name ASC";
 
         try {
-            ResultSet rs = db.executeQuery(query);
+            PreparedStatement stmt = db.prepareStatement(query);
+            stmt.setInt(1, db.getStoreId());
+
+            ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
                 products.add(extractProductFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Find all products error: " + e.getMessage());
+            LOG.error("Find all products error", e);
         }
 
         return products;
@@ -434,9 +496,9 @@ public class ProductDAO {
         product.setId(rs.getInt("id"));
         product.setName(rs.getString("name"));
         product.setType(rs.getString("type"));
-        product.setPrice(rs.getDouble("price"));
-        product.setStock(rs.getDouble("stock"));
-        product.setThreshold(rs.getDouble("threshold"));
+        product.setPriceCents(Money.fromDecimal(rs.getBigDecimal("price")));
+        product.setStock(Quantity.toKg(Quantity.fromDecimal(rs.getBigDecimal("stock"))));
+        product.setThreshold(Quantity.toKg(Quantity.fromDecimal(rs.getBigDecimal("threshold"))));
         product.setImage(rs.getBytes("image"));
         return product;
     }
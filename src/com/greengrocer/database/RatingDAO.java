@@ -1,19 +1,32 @@
 package com.greengrocer.database;
 
+import com.greengrocer.models.CarrierRating;
 import com.greengrocer.models.Rating;
+import com.greengrocer.utils.CarrierLeaderboard;
+import com.greengrocer.utils.Logger;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Data Access Object for Rating operations.
  * Handles carrier ratings from customers.
+ *
+ * Each carrier's sum and count of ratings are kept on its UserInfo row and
+ * updated in the same transaction as a new rating, so a carrier's average
+ * is a primary key lookup however many ratings exist.
  * 
  * @author Group17
  * @version 1.0
  */
 public class RatingDAO {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(RatingDAO.class);
+
     /** Database adapter instance */
     private DatabaseAdapter db;
 
@@ -22,6 +35,8 @@ public class RatingDAO {
      */
     public RatingDAO() {
         this.db = DatabaseAdapter.getInstance();
+        // Ensure the rating total columns exist
+        SchemaMigrator.migrate();
     }
 
     /**
@@ -32,20 +47,35 @@ public class RatingDAO {
      */
     public boolean create(Rating rating) {
         String query = "INSERT INTO Ratings (order_id, carrier_id, customer_id, rating, comment) VALUES (?, ?, ?, ?, ?)";
+        String totalsQuery =
+            "UPDATE UserInfo SET rating_sum = rating_sum + ?, rating_count = rating_count + 1 WHERE id = ?";
 
         try {
-            PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setInt(1, rating.getOrderId());
-            stmt.setInt(2, rating.getCarrierId());
-            stmt.setInt(3, rating.getCustomerId());
-            stmt.setInt(4, rating.getRating());
-            stmt.setString(5, rating.getComment());
-
-            int rows = stmt.executeUpdate();
-            return rows > 0;
-
+            boolean created = db.inTransaction(conn -> {
+                PreparedStatement stmt = conn.prepareStatement(query);
+                stmt.setInt(1, rating.getOrderId());
+                stmt.setInt(2, rating.getCarrierId());
+                stmt.setInt(3, rating.getCustomerId());
+                stmt.setInt(4, rating.getRating());
+                stmt.setString(5, rating.getComment());
+
+                if (stmt.executeUpdate() > 0) {
+                    PreparedStatement totals = conn.prepareStatement(totalsQuery);
+                    totals.setInt(1, rating.getRating());
+                    totals.setInt(2, rating.getCarrierId());
+                    totals.executeUpdate();
+                    return true;
+                }
+
+                db.setRollbackOnly();
+                return false;
+            });
+            if (created) {
+                CarrierLeaderboard.getInstance().refresh();
+            }
+            return created;
         } catch (SQLException e) {
-            System.err.println("Create rating error: " + e.getMessage());
+            LOG.error("Create rating error", e);
             return false;
         }
     }
@@ -75,7 +105,7 @@ public class RatingDAO {
                 ratings.add(extractRatingFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Find ratings error: " + e.getMessage());
+            LOG.error("Find ratings error", e);
         }
 
         return ratings;
@@ -83,6 +113,7 @@ public class RatingDAO {
 
     /**
      * Gets all ratings (for owner view).
+     * Reads from a replica when one is configured.
      * 
      * @return List of all ratings
      */
@@ -95,26 +126,54 @@ public class RatingDAO {
                 "ORDER BY r.created_at DESC";
 
         try {
-            ResultSet rs = db.executeQuery(query);
+            ResultSet rs = db.executeQuery(query, ReadRoute.STALE_OK);
 
             while (rs.next()) {
                 ratings.add(extractRatingFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Find all ratings error: " + e.getMessage());
+            LOG.error("Find all ratings error", e);
         }
 
         return ratings;
     }
 
     /**
-     * Gets the average rating for a carrier.
-     * 
+     * Gets the most recent ratings (for owner view).
+     * Reads from a replica when one is configured.
+     *
+     * @param limit Maximum number of ratings
+     * @return Ratings, newest first
+     */
+    public List<Rating> findRecent(int limit) {
+        List<Rating> ratings = new ArrayList<>();
+        String query = "SELECT r.*, c.username as carrier_name, cu.username as customer_name " +
+                "FROM Ratings r " +
+                "JOIN UserInfo c ON r.carrier_id = c.id " +
+                "JOIN UserInfo cu ON r.customer_id = cu.id " +
+                "ORDER BY r.id DESC LIMIT " + limit;
+
+        try {
+            ResultSet rs = db.executeQuery(query, ReadRoute.STALE_OK);
+
+            while (rs.next()) {
+                ratings.add(extractRatingFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            LOG.error("Find recent ratings error", e);
+        }
+
+        return ratings;
+    }
+
+    /**
+     * Gets a carrier's rating totals.
+     *
      * @param carrierId The carrier ID
-     * @return Average rating (1-5) or 0 if no ratings
+     * @return The totals; zero if the carrier has no ratings or the lookup failed
      */
-    public double getAverageRating(int carrierId) {
-        String query = "SELECT AVG(rating) as avg_rating FROM Ratings WHERE carrier_id = ?";
+    public CarrierRating getCarrierRating(int carrierId) {
+        String query = "SELECT id, username, rating_sum, rating_count FROM UserInfo WHERE id = ?";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
@@ -123,13 +182,54 @@ public class RatingDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getDouble("avg_rating");
+                return extractCarrierRatingFromResultSet(rs);
             }
         } catch (SQLException e) {
-            System.err.println("Get average rating error: " + e.getMessage());
+            LOG.error("Get carrier rating error", e);
         }
 
-        return 0;
+        return new CarrierRating(carrierId, null, 0, 0);
+    }
+
+    /**
+     * Gets the rating totals of all carriers in one query.
+     * Reads from a replica when one is configured.
+     *
+     * @return Totals of every carrier, including unrated ones
+     */
+    public List<CarrierRating> findCarrierRatings() {
+        return loadCarrierRatings().orElse(new ArrayList<>());
+    }
+
+    /**
+     * Gets the rating totals of all carriers in one query, telling a failed
+     * query apart from a store without carriers.
+     * Reads from a replica when one is configured.
+     *
+     * @return Totals of every carrier, or UNAVAILABLE/ERROR if the query failed
+     */
+    public DbResult<List<CarrierRating>> loadCarrierRatings() {
+        String query = "SELECT id, username, rating_sum, rating_count FROM UserInfo WHERE role = 'CARRIER'";
+
+        return DbResult.of("Find carrier ratings", () -> {
+            List<CarrierRating> ratings = new ArrayList<>();
+            ResultSet rs = db.executeQuery(query, ReadRoute.STALE_OK);
+
+            while (rs.next()) {
+                ratings.add(extractCarrierRatingFromResultSet(rs));
+            }
+            return ratings;
+        });
+    }
+
+    /**
+     * Gets the average rating for a carrier.
+     * 
+     * @param carrierId The carrier ID
+     * @return Average rating (1-5) or 0 if no ratings
+     */
+    public double getAverageRating(int carrierId) {
+        return getCarrierRating(carrierId).getAverage();
     }
 
     /**
@@ -153,35 +253,67 @@ public class RatingDAO {
                 return rs.getInt("count") > 0;
             }
         } catch (SQLException e) {
-            System.err.println("Check rated error: " + e.getMessage());
+            LOG.error("Check rated error", e);
         }
 
         return false;
     }
 
     /**
-     * Gets rating count for a carrier.
+     * Gets which of the given orders a customer has already rated,
+     * in a single query.
      * 
-     * @param carrierId The carrier ID
-     * @return Number of ratings
+     * @param customerId The customer ID
+     * @param orderIds   The order IDs to check
+     * @return IDs of the rated orders among them
      */
-    public int getRatingCount(int carrierId) {
-        String query = "SELECT COUNT(*) as count FROM Ratings WHERE carrier_id = ?";
+    public Set<Integer> findRatedOrderIds(int customerId, List<Integer> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        Set<Integer> rated = new HashSet<>();
+        String query = "SELECT order_id FROM Ratings WHERE customer_id = ? AND order_id IN (" +
+                String.join(", ", Collections.nCopies(orderIds.size(), "?")) + ")";
 
         try {
             PreparedStatement stmt = db.prepareStatement(query);
-            stmt.setInt(1, carrierId);
+            stmt.setInt(1, customerId);
+            for (int i = 0; i < orderIds.size(); i++) {
+                stmt.setInt(i + 2, orderIds.get(i));
+            }
 
             ResultSet rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                return rs.getInt("count");
+            while (rs.next()) {
+                rated.add(rs.getInt("order_id"));
             }
         } catch (SQLException e) {
-            System.err.println("Get rating count error: " + e.getMessage());
+            LOG.error("Find rated orders error", e);
         }
 
-        return 0;
+        return rated;
+    }
+
+    /**
+     * Gets rating count for a carrier.
+     * 
+     * @param carrierId The carrier ID
+     * @return Number of ratings
+     */
+    public int getRatingCount(int carrierId) {
+        return getCarrierRating(carrierId).getRatingCount();
+    }
+
+    /**
+     * Extracts a carrier's rating totals from a ResultSet.
+     *
+     * @param rs The ResultSet positioned at the carrier's UserInfo row
+     * @return The totals
+     * @throws SQLException If data extraction fails
+     */
+    private CarrierRating extractCarrierRatingFromResultSet(ResultSet rs) throws SQLException {
+        return new CarrierRating(rs.getInt("id"), rs.getString("username"),
+                rs.getInt("rating_sum"), rs.getInt("rating_count"));
     }
 
     /**
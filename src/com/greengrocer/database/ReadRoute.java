@@ -0,0 +1,14 @@
+package com.greengrocer.database;
+
+/**
+ * Declares where a read may run when read replicas are configured.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public enum ReadRoute {
+    /** Must see the latest data, e.g. stock checks and order claims */
+    PRIMARY,
+    /** May lag the primary by a few seconds, e.g. owner reports */
+    STALE_OK
+}
@@ -0,0 +1,209 @@
+package com.greengrocer.database;
+
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.models.LoyaltySettings;
+import com.greengrocer.models.User;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of reference data that nearly every customer action
+ * reads but that almost never changes: the owner of each store and the
+ * loyalty settings. Kept per database so stores on different shards do not
+ * see each other's rows.
+ *
+ * UserDAO and LoyaltySettingsDAO invalidate a database's entries when they
+ * change an owner or the settings, and everything is reloaded after a TTL
+ * so changes made by other processes show up as well. Each invalidation
+ * starts a new generation of entries; a load that began before it is
+ * returned to its caller but not kept, so a slow reader cannot put the old
+ * row back into the cache.
+ *
+ * Settings (system properties):
+ * greengrocer.reference.cacheSeconds (default 60; 0 disables the cache).
+ * Uses Singleton pattern.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+class ReferenceCache {
+
+    /** Singleton instance */
+    private static ReferenceCache instance;
+
+    /** Time after which a database's entries are reloaded */
+    private final long ttlNanos;
+
+    /** Whether the cache is used at all */
+    private final boolean enabled;
+
+    /** Current generation of entries by database name */
+    private final ConcurrentHashMap<String, Entries> databases;
+
+    /**
+     * One generation of the cached rows of a database.
+     */
+    private final class Entries {
+
+        /** When the entries were created */
+        final long createdAt = System.nanoTime();
+
+        /** Owners by store ID */
+        final ConcurrentHashMap<Integer, User> owners = new ConcurrentHashMap<>();
+
+        /** The loyalty settings, null until loaded */
+        volatile LoyaltySettings loyalty;
+
+        /**
+         * Checks whether the entries are due for a reload.
+         *
+         * @return true once the TTL has passed
+         */
+        boolean isExpired() {
+            return System.nanoTime() - createdAt > ttlNanos;
+        }
+    }
+
+    /**
+     * Private constructor for singleton.
+     */
+    private ReferenceCache() {
+        long seconds = Long.getLong("greengrocer.reference.cacheSeconds", 60);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(seconds);
+        this.enabled = seconds > 0;
+        this.databases = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return The ReferenceCache instance
+     */
+    static synchronized ReferenceCache getInstance() {
+        if (instance == null) {
+            instance = new ReferenceCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the owner of a store.
+     *
+     * @param storeId The store ID
+     * @param loader  Loads the owner from the database, value null if there is none
+     * @return A copy of the owner, or null if there is none or it could not be loaded
+     */
+    User findOwner(int storeId, Supplier<DbResult<User>> loader) {
+        if (!enabled) {
+            return loader.get().orElse(null);
+        }
+        Entries entries = entries();
+
+        User cached = entries.owners.get(storeId);
+        MetricsRegistry.getInstance().cacheLookup("store_owner", cached != null);
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        DbResult<User> loaded = loader.get();
+        if (!loaded.isOk() || loaded.getValue() == null) {
+            return null;
+        }
+        if (isCurrent(entries)) {
+            entries.owners.put(storeId, copy(loaded.getValue()));
+        }
+        return loaded.getValue();
+    }
+
+    /**
+     * Gets the loyalty settings.
+     *
+     * @param loader Loads the settings from the database
+     * @return A copy of the settings, or null if they could not be loaded
+     */
+    LoyaltySettings findLoyaltySettings(Supplier<DbResult<LoyaltySettings>> loader) {
+        if (!enabled) {
+            return loader.get().orElse(null);
+        }
+        Entries entries = entries();
+
+        LoyaltySettings cached = entries.loyalty;
+        MetricsRegistry.getInstance().cacheLookup("loyalty_settings", cached != null);
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        DbResult<LoyaltySettings> loaded = loader.get();
+        if (!loaded.isOk()) {
+            return null;
+        }
+        if (isCurrent(entries)) {
+            entries.loyalty = copy(loaded.getValue());
+        }
+        return loaded.getValue();
+    }
+
+    /**
+     * Forgets the current database's entries, after an owner or the
+     * loyalty settings were changed.
+     */
+    void invalidate() {
+        databases.remove(databaseName());
+    }
+
+    /**
+     * Gets the entries of the current database, starting a new generation
+     * once they have expired.
+     *
+     * @return The entries
+     */
+    private Entries entries() {
+        return databases.compute(databaseName(),
+                (name, entries) -> entries == null || entries.isExpired() ? new Entries() : entries);
+    }
+
+    /**
+     * Checks whether entries are still the current generation of their
+     * database, i.e. nothing was invalidated since they were fetched.
+     *
+     * @param entries The entries
+     * @return true if loaded rows may be kept in them
+     */
+    private boolean isCurrent(Entries entries) {
+        return databases.get(databaseName()) == entries;
+    }
+
+    /**
+     * Gets the name of the database the current thread works on.
+     *
+     * @return The database name
+     */
+    private static String databaseName() {
+        return DatabaseAdapter.getInstance().getDatabaseName();
+    }
+
+    /**
+     * Copies a user, so callers cannot change the cached one.
+     *
+     * @param user The user
+     * @return The copy
+     */
+    private static User copy(User user) {
+        return new User(user.getId(), user.getUsername(), user.getPassword(), user.getRole(),
+                user.getFullName(), user.getAddress(), user.getPhone(), user.getEmail(),
+                user.getLoyaltyPoints(), user.getCompletedOrders());
+    }
+
+    /**
+     * Copies loyalty settings, so callers cannot change the cached ones.
+     *
+     * @param settings The settings
+     * @return The copy
+     */
+    private static LoyaltySettings copy(LoyaltySettings settings) {
+        LoyaltySettings copy = new LoyaltySettings(settings.getMinOrdersForDiscount(), settings.getDiscountPercent());
+        copy.setId(settings.getId());
+        return copy;
+    }
+}
@@ -0,0 +1,358 @@
+package com.greengrocer.database;
+
+import com.greengrocer.utils.Logger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Applies schema updates that are not part of the original SQL script.
+ * Migrations run once per application start, either from the startup
+ * bootstrap or lazily from the first DAO that needs them, on the database
+ * of every store. An empty embedded database is created from its schema
+ * script first. Migrations run on a connection of their own without the
+ * query timeout, so rebuilding or backfilling a large table is not cut off.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class SchemaMigrator {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(SchemaMigrator.class);
+
+    /** DDL for the Carts table, kept in sync with Group17.sql */
+    private static final String CREATE_CARTS = "CREATE TABLE IF NOT EXISTS Carts (" +
+            "user_id INT NOT NULL, " +
+            "product_id INT NOT NULL, " +
+            "quantity DECIMAL(10,3) NOT NULL, " +
+            "price_at_time DECIMAL(10,2) NOT NULL, " +
+            "position INT NOT NULL DEFAULT 0, " +
+            "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
+            "PRIMARY KEY (user_id, product_id), " +
+            "FOREIGN KEY (user_id) REFERENCES UserInfo(id) ON DELETE CASCADE, " +
+            "FOREIGN KEY (product_id) REFERENCES ProductInfo(id) ON DELETE CASCADE)";
+
+    /** DDL for the Stores table, kept in sync with Group17.sql */
+    private static final String CREATE_STORES = "CREATE TABLE IF NOT EXISTS Stores (" +
+            "id INT PRIMARY KEY, " +
+            "name VARCHAR(100) NOT NULL, " +
+            "owner_id INT, " +
+            "FOREIGN KEY (owner_id) REFERENCES UserInfo(id) ON DELETE SET NULL)";
+
+    /** DDL for the DeliverySlots table, kept in sync with Group17.sql */
+    private static final String CREATE_DELIVERY_SLOTS = "CREATE TABLE IF NOT EXISTS DeliverySlots (" +
+            "store_id INT NOT NULL, " +
+            "slot_start DATETIME NOT NULL, " +
+            "reserved INT NOT NULL DEFAULT 0, " +
+            "PRIMARY KEY (store_id, slot_start))";
+
+    /** DDL for the table recording finished backfills, kept in sync with Group17.sql */
+    private static final String CREATE_BACKFILLS = "CREATE TABLE IF NOT EXISTS SchemaBackfills (" +
+            "name VARCHAR(64) PRIMARY KEY, " +
+            "completed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    /** Schema script for a new embedded database, translated from Group17.sql */
+    private static final String EMBEDDED_SCHEMA =
+            System.getProperty("greengrocer.db.schema", "sql/Group17-h2.sql");
+
+    /** Whether the migrations have already been applied in this JVM */
+    private static boolean migrated = false;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Applies all pending schema migrations.
+     * Safe to call repeatedly; only the first successful call touches the
+     * database.
+     */
+    public static synchronized void migrate() {
+        if (migrated) {
+            return;
+        }
+
+        DatabaseAdapter db = DatabaseAdapter.getInstance();
+        try {
+            Set<String> databases = new HashSet<>();
+            for (int storeId : db.getStoreIds()) {
+                db.withStore(storeId, () -> db.inMigration(conn -> {
+                    if (databases.add(db.getDatabaseName())) {
+                        migrateDatabase(db);
+                    }
+                    registerStore(db, storeId);
+                    return null;
+                }));
+            }
+            migrated = true;
+        } catch (SQLException e) {
+            LOG.error("Database schema update error", e);
+        }
+    }
+
+    /**
+     * Applies the migrations to the current store's database.
+     *
+     * @param db The database adapter
+     * @throws SQLException If a migration fails
+     */
+    private static void migrateDatabase(DatabaseAdapter db) throws SQLException {
+        if (db.getDialect().isEmbedded()) {
+            createEmbeddedSchema(db);
+        }
+
+        // Ensure notification columns exist
+        addColumnIfMissing(db, "OrderInfo", "customer_notified", "BOOLEAN DEFAULT FALSE");
+        addColumnIfMissing(db, "OrderInfo", "owner_notified", "BOOLEAN DEFAULT FALSE");
+
+        // Money and weights are fixed-point; older schemas used DOUBLE
+        convertToDecimal(db, "ProductInfo",
+                "price", "DECIMAL(10,2) NOT NULL",
+                "stock", "DECIMAL(10,3) NOT NULL",
+                "threshold", "DECIMAL(10,3) DEFAULT 5.0");
+        convertToDecimal(db, "OrderInfo",
+                "subtotal", "DECIMAL(12,2) NOT NULL",
+                "vat", "DECIMAL(12,2) NOT NULL",
+                "discount", "DECIMAL(12,2) DEFAULT 0",
+                "total_cost", "DECIMAL(12,2) NOT NULL");
+        convertToDecimal(db, "OrderItems",
+                "quantity", "DECIMAL(10,3) NOT NULL",
+                "price_at_time", "DECIMAL(10,2) NOT NULL");
+
+        // Persisted carts for the multi-session store
+        db.executeUpdate(CREATE_CARTS);
+
+        // Store dimension; rows from before it belong to store 1
+        db.executeUpdate(CREATE_STORES);
+        addColumnIfMissing(db, "ProductInfo", "store_id", "INT NOT NULL DEFAULT 1");
+        addColumnIfMissing(db, "OrderInfo", "store_id", "INT NOT NULL DEFAULT 1");
+        addIndexIfMissing(db, "ProductInfo", "idx_product_store", "store_id, type, name");
+        addIndexIfMissing(db, "OrderInfo", "idx_order_store", "store_id, status");
+
+        // Counters kept on rows are filled from their source tables until a backfill has completed
+        db.executeUpdate(CREATE_BACKFILLS);
+
+        // Coupon usage is counted on the coupon instead of per listing
+        addColumnIfMissing(db, "Coupons", "usage_count", "INT NOT NULL DEFAULT 0");
+        backfill(db, "coupon_usage_count", "UPDATE Coupons c SET usage_count = " +
+                "(SELECT COUNT(*) FROM UserCoupons uc WHERE uc.coupon_id = c.id AND uc.is_used = TRUE)");
+
+        // Unread messages are counted per user; inboxes are read a page at a time
+        addColumnIfMissing(db, "UserInfo", "unread_messages", "INT NOT NULL DEFAULT 0");
+        backfill(db, "user_unread_messages", "UPDATE UserInfo u SET unread_messages = " +
+                "(SELECT COUNT(*) FROM Messages m WHERE m.receiver_id = u.id AND m.is_read = FALSE)");
+        addIndexIfMissing(db, "Messages", "idx_message_receiver", "receiver_id, sent_at");
+        addIndexIfMissing(db, "Messages", "idx_message_sender", "sender_id, sent_at");
+        addIndexIfMissing(db, "Messages", "idx_message_unread", "receiver_id, is_read");
+
+        // Carrier ratings are summed per carrier as they are given
+        addColumnIfMissing(db, "UserInfo", "rating_count", "INT NOT NULL DEFAULT 0");
+        addColumnIfMissing(db, "UserInfo", "rating_sum", "INT NOT NULL DEFAULT 0");
+        backfill(db, "carrier_rating_totals", "UPDATE UserInfo u SET " +
+                "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM Ratings r WHERE r.carrier_id = u.id), " +
+                "rating_count = (SELECT COUNT(*) FROM Ratings r WHERE r.carrier_id = u.id) " +
+                "WHERE u.role = 'CARRIER'");
+
+        // A coupon is assigned to a user at most once; older schemas allowed duplicates
+        if (!hasIndex(db, "UserCoupons", "uq_user_coupon")) {
+            removeDuplicateUserCoupons(db);
+            addIndexIfMissing(db, "UserCoupons", "uq_user_coupon", "user_id, coupon_id", "UNIQUE INDEX");
+        }
+
+        // Deliveries booked per slot; counters start from the open orders when first booked
+        db.executeUpdate(CREATE_DELIVERY_SLOTS);
+        addIndexIfMissing(db, "OrderInfo", "idx_order_delivery", "store_id, requested_delivery");
+
+        // Order history is paged by order time within a customer
+        addIndexIfMissing(db, "OrderInfo", "idx_order_user", "user_id, order_time");
+
+        // Message search; the embedded database scans instead
+        if (db.getDialect().hasFullTextIndex()) {
+            addIndexIfMissing(db, "Messages", "ft_message_text", MessageDAO.SEARCH_COLUMNS, "FULLTEXT INDEX");
+        }
+    }
+
+    /**
+     * Creates the tables and default data of a new embedded database.
+     * A database that already has the UserInfo table is left alone.
+     *
+     * @param db The database adapter
+     * @throws SQLException If the script fails
+     */
+    private static void createEmbeddedSchema(DatabaseAdapter db) throws SQLException {
+        ResultSet rs = db.executeQuery("SELECT COUNT(*) FROM information_schema.TABLES " +
+                "WHERE TABLE_SCHEMA = " + db.getDialect().currentSchema() + " AND LOWER(TABLE_NAME) = 'userinfo'");
+        if (rs.next() && rs.getInt(1) == 0) {
+            db.executeUpdate("RUNSCRIPT FROM '" + EMBEDDED_SCHEMA.replace("'", "''") + "'");
+            LOG.info("Created embedded database", "script", EMBEDDED_SCHEMA);
+        }
+    }
+
+    /**
+     * Deletes repeated assignments of a coupon to the same user, keeping a
+     * used one if there is one, otherwise the earliest.
+     *
+     * @param db The database adapter
+     * @throws SQLException If the delete fails
+     */
+    private static void removeDuplicateUserCoupons(DatabaseAdapter db) throws SQLException {
+        // Grouped derived table, so MySQL materializes it before deleting from the same table
+        int rows = db.executeUpdate("DELETE FROM UserCoupons WHERE id IN (SELECT id FROM (" +
+                "SELECT uc.id FROM UserCoupons uc JOIN UserCoupons keep " +
+                "ON keep.user_id = uc.user_id AND keep.coupon_id = uc.coupon_id " +
+                "AND (keep.is_used > uc.is_used OR (keep.is_used = uc.is_used AND keep.id < uc.id)) " +
+                "GROUP BY uc.id) duplicates)");
+        if (rows > 0) {
+            LOG.info("Removed duplicate coupon assignments", "rows", rows);
+        }
+    }
+
+    /**
+     * Adds a store to the Stores table if it is missing, run by the
+     * first owner account until another owner is assigned.
+     *
+     * @param db      The database adapter
+     * @param storeId The store ID
+     * @throws SQLException If the insert fails
+     */
+    private static void registerStore(DatabaseAdapter db, int storeId) throws SQLException {
+        int rows = db.executeUpdate("INSERT IGNORE INTO Stores (id, name, owner_id) " +
+                "SELECT " + storeId + ", 'Store " + storeId + "', MIN(id) FROM UserInfo WHERE role = 'OWNER'");
+        if (rows > 0) {
+            LOG.info("Registered store", "store", storeId);
+        }
+    }
+
+    /**
+     * Adds a column to a table if it does not exist yet.
+     *
+     * @param db         The database adapter
+     * @param table      The table name
+     * @param column     The column name
+     * @param definition The column type and default
+     * @return true if the column was added
+     * @throws SQLException If the check or the ALTER fails
+     */
+    private static boolean addColumnIfMissing(DatabaseAdapter db, String table, String column, String definition)
+            throws SQLException {
+        String check = "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = " + db.getDialect().currentSchema() + " " +
+                "AND LOWER(TABLE_NAME) = LOWER('" + table + "') AND LOWER(COLUMN_NAME) = LOWER('" + column + "')";
+        ResultSet rs = db.executeQuery(check);
+        if (rs.next() && rs.getInt(1) == 0) {
+            db.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+            LOG.info("Added column", "table", table, "column", column);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fills a counter column from its source table unless that has been
+     * done before. The update and its completion marker commit together,
+     * so a backfill that fails or is interrupted runs again on the next
+     * start instead of leaving the counters at their default.
+     *
+     * @param db     The database adapter
+     * @param name   Name of the backfill in SchemaBackfills
+     * @param update The UPDATE that fills the counters
+     * @throws SQLException If the check, the update or the marker fails
+     */
+    private static void backfill(DatabaseAdapter db, String name, String update) throws SQLException {
+        ResultSet rs = db.executeQuery("SELECT COUNT(*) FROM SchemaBackfills WHERE name = '" + name + "'");
+        if (rs.next() && rs.getInt(1) > 0) {
+            return;
+        }
+
+        int rows = db.inTransaction(conn -> {
+            int updated = db.executeUpdate(update);
+            db.executeUpdate("INSERT INTO SchemaBackfills (name) VALUES ('" + name + "')");
+            return updated;
+        });
+        LOG.info("Backfilled counters", "backfill", name, "rows", rows);
+    }
+
+    /**
+     * Adds an index to a table if it does not exist yet.
+     *
+     * @param db      The database adapter
+     * @param table   The table name
+     * @param index   The index name
+     * @param columns The indexed columns, comma-separated
+     * @throws SQLException If the check or the ALTER fails
+     */
+    private static void addIndexIfMissing(DatabaseAdapter db, String table, String index, String columns)
+            throws SQLException {
+        addIndexIfMissing(db, table, index, columns, "INDEX");
+    }
+
+    /**
+     * Adds an index of a given kind to a table if it does not exist yet.
+     *
+     * @param db      The database adapter
+     * @param table   The table name
+     * @param index   The index name
+     * @param columns The indexed columns, comma-separated
+     * @param kind    The kind, e.g. INDEX or FULLTEXT INDEX
+     * @throws SQLException If the check or the CREATE fails
+     */
+    private static void addIndexIfMissing(DatabaseAdapter db, String table, String index, String columns,
+            String kind) throws SQLException {
+        if (!hasIndex(db, table, index)) {
+            db.executeUpdate("CREATE " + kind + " " + index + " ON " + table + " (" + columns + ")");
+            LOG.info("Added index", "table", table, "index", index);
+        }
+    }
+
+    /**
+     * Checks whether a table has an index.
+     *
+     * @param db    The database adapter
+     * @param table The table name
+     * @param index The index name
+     * @return true if the index exists
+     * @throws SQLException If the check fails
+     */
+    private static boolean hasIndex(DatabaseAdapter db, String table, String index) throws SQLException {
+        String check = "SELECT COUNT(*) FROM " + db.getDialect().indexTable() + " " +
+                "WHERE TABLE_SCHEMA = " + db.getDialect().currentSchema() + " " +
+                "AND LOWER(TABLE_NAME) = LOWER('" + table + "') AND LOWER(INDEX_NAME) = LOWER('" + index + "')";
+        ResultSet rs = db.executeQuery(check);
+        return rs.next() && rs.getInt(1) > 0;
+    }
+
+    /**
+     * Converts DOUBLE columns of a table to DECIMAL in a single ALTER so the
+     * table is only rebuilt once. Columns that are already DECIMAL are skipped.
+     *
+     * @param db          The database adapter
+     * @param table       The table name
+     * @param definitions Alternating column names and new column definitions
+     * @throws SQLException If the check or the ALTER fails
+     */
+    private static void convertToDecimal(DatabaseAdapter db, String table, String... definitions)
+            throws SQLException {
+        StringBuilder alter = new StringBuilder();
+        for (int i = 0; i < definitions.length; i += 2) {
+            String check = "SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+                    "WHERE TABLE_SCHEMA = " + db.getDialect().currentSchema() + " " +
+                    "AND LOWER(TABLE_NAME) = LOWER('" + table + "') " +
+                    "AND LOWER(COLUMN_NAME) = LOWER('" + definitions[i] + "')";
+            ResultSet rs = db.executeQuery(check);
+            if (rs.next() && "double".equalsIgnoreCase(rs.getString(1))) {
+                alter.append(alter.length() == 0 ? "" : ", ")
+                        .append("MODIFY COLUMN ").append(definitions[i]).append(' ').append(definitions[i + 1]);
+            }
+        }
+
+        if (alter.length() > 0) {
+            db.executeUpdate("ALTER TABLE " + table + " " + alter);
+            LOG.info("Converted money columns to DECIMAL", "table", table);
+        }
+    }
+}
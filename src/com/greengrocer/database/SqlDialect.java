@@ -0,0 +1,226 @@
+package com.greengrocer.database;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The SQL flavours the application can run on, chosen from the JDBC URL.
+ *
+ * MySQL is the shop's server database. H2 runs embedded in the
+ * application, file-backed for offline kiosks or in memory for disposable
+ * benchmark and CI databases, in its MySQL compatibility mode so the DAOs
+ * send the same statements to both. This enum holds what still differs:
+ * the driver, connection settings, catalog queries, lock error codes,
+ * full-text search and the switches used for bulk loading.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public enum SqlDialect {
+
+    /** MySQL or MariaDB server */
+    MYSQL("com.mysql.cj.jdbc.Driver", "information_schema.STATISTICS", 1213, 1205),
+
+    /** Embedded H2 database in MySQL compatibility mode */
+    H2("org.h2.Driver", "information_schema.INDEXES", 50200);
+
+    /** Settings that make H2 accept and answer like MySQL */
+    private static final String H2_MYSQL_MODE = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE"
+            + ";CASE_INSENSITIVE_IDENTIFIERS=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    /** JDBC driver class */
+    private final String driverClass;
+
+    /** Catalog table listing the indexes */
+    private final String indexTable;
+
+    /** Vendor error codes for deadlocks and lock wait timeouts */
+    private final int[] lockErrorCodes;
+
+    /**
+     * Constructor for a dialect.
+     *
+     * @param driverClass    JDBC driver class
+     * @param indexTable     Catalog table listing the indexes
+     * @param lockErrorCodes Vendor error codes for deadlocks and lock wait timeouts
+     */
+    SqlDialect(String driverClass, String indexTable, int... lockErrorCodes) {
+        this.driverClass = driverClass;
+        this.indexTable = indexTable;
+        this.lockErrorCodes = lockErrorCodes;
+    }
+
+    /**
+     * Gets the dialect of a JDBC URL.
+     *
+     * @param url The JDBC URL
+     * @return H2 for jdbc:h2: URLs, otherwise MySQL
+     */
+    public static SqlDialect forUrl(String url) {
+        return url.startsWith("jdbc:h2:") ? H2 : MYSQL;
+    }
+
+    /**
+     * Checks whether the database runs inside the application.
+     *
+     * @return true for H2
+     */
+    public boolean isEmbedded() {
+        return this == H2;
+    }
+
+    /**
+     * Loads the JDBC driver.
+     *
+     * @throws SQLException If the driver is not on the classpath
+     */
+    void loadDriver() throws SQLException {
+        try {
+            Class.forName(driverClass);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException(this + " JDBC Driver not found: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Completes a configured URL with the settings the application needs:
+     * network timeouts for MySQL, MySQL compatibility for H2, and for an
+     * in-memory H2 database that it survives reconnects.
+     *
+     * @param url                  The configured JDBC URL
+     * @param connectTimeoutMillis Connect timeout, MySQL only
+     * @param socketTimeoutMillis  Socket read timeout, MySQL only
+     * @return The URL to connect with
+     */
+    String connectionUrl(String url, int connectTimeoutMillis, int socketTimeoutMillis) {
+        if (this == MYSQL) {
+            return url + (url.contains("?") ? "&" : "?") + "connectTimeout=" + connectTimeoutMillis
+                    + "&socketTimeout=" + socketTimeoutMillis;
+        }
+        String settings = url.toUpperCase().contains(";MODE=") ? "" : H2_MYSQL_MODE;
+        if (url.startsWith("jdbc:h2:mem:") && !url.toUpperCase().contains("DB_CLOSE_DELAY")) {
+            settings += ";DB_CLOSE_DELAY=-1";
+        }
+        return url + settings;
+    }
+
+    /**
+     * Completes a configured URL for a bulk loading connection.
+     *
+     * @param url The configured JDBC URL
+     * @return The URL to connect with
+     */
+    String bulkUrl(String url) {
+        if (this == MYSQL) {
+            return url + (url.contains("?") ? "&" : "?")
+                    + "rewriteBatchedStatements=true&allowLoadLocalInfile=true&useCompression=false";
+        }
+        return connectionUrl(url, 0, 0);
+    }
+
+    /**
+     * Gets the SQL expression naming the connection's current schema,
+     * as used in information_schema queries.
+     *
+     * @return DATABASE() for MySQL, SCHEMA() for H2
+     */
+    public String currentSchema() {
+        return this == MYSQL ? "DATABASE()" : "SCHEMA()";
+    }
+
+    /**
+     * Gets the catalog table listing the indexes, with TABLE_SCHEMA,
+     * TABLE_NAME and INDEX_NAME columns.
+     *
+     * @return The qualified table name
+     */
+    public String indexTable() {
+        return indexTable;
+    }
+
+    /**
+     * Checks whether a vendor error code means a deadlock or lock wait timeout.
+     *
+     * @param e The exception
+     * @return true for lock conflicts
+     */
+    boolean isLockConflict(SQLException e) {
+        for (int code : lockErrorCodes) {
+            if (e.getErrorCode() == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the statements that switch integrity checks off or on around
+     * a bulk load.
+     *
+     * @param enabled Whether the checks should be on
+     * @return The statements to run
+     */
+    public List<String> integrityChecks(boolean enabled) {
+        if (this == H2) {
+            return List.of("SET REFERENTIAL_INTEGRITY " + enabled);
+        }
+        return enabled
+                ? List.of("SET unique_checks = 1", "SET foreign_key_checks = 1")
+                : List.of("SET foreign_key_checks = 0", "SET unique_checks = 0");
+    }
+
+    /**
+     * Checks whether text columns can carry a FULLTEXT index.
+     *
+     * @return true for MySQL
+     */
+    public boolean hasFullTextIndex() {
+        return this == MYSQL;
+    }
+
+    /**
+     * Gets the condition matching rows whose text columns contain the
+     * words of a search, with one parameter bound to fullTextParameter().
+     * MySQL answers it from the FULLTEXT index on the columns; H2 scans.
+     *
+     * @param columns The columns of the index, comma-separated
+     * @return The condition
+     */
+    public String fullTextMatch(String columns) {
+        if (this == H2) {
+            return "LOWER(CONCAT_WS(' ', " + columns + ")) LIKE ?";
+        }
+        return "MATCH(" + columns + ") AGAINST (? IN NATURAL LANGUAGE MODE)";
+    }
+
+    /**
+     * Gets the expression ranking a row against a search, higher is
+     * better, with one parameter bound to fullTextParameter().
+     *
+     * @param columns The columns of the index, comma-separated
+     * @return MySQL's relevance; for H2, 1 for a match and 0 otherwise
+     */
+    public String fullTextScore(String columns) {
+        if (this == H2) {
+            return "CASE WHEN " + fullTextMatch(columns) + " THEN 1 ELSE 0 END";
+        }
+        return fullTextMatch(columns);
+    }
+
+    /**
+     * Converts search words to the parameter of fullTextMatch() and
+     * fullTextScore().
+     *
+     * @param words The search words
+     * @return The words for MySQL; a LIKE pattern of the whole text for H2
+     */
+    public String fullTextParameter(String words) {
+        if (this == H2) {
+            String escaped = words.trim().toLowerCase(Locale.ROOT)
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            return "%" + escaped + "%";
+        }
+        return words.trim();
+    }
+}
@@ -1,6 +1,8 @@
 package com.greengrocer.database;
 
 import com.greengrocer.models.User;
+import com.greengrocer.utils.CarrierLeaderboard;
+import com.greengrocer.utils.Logger;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,14 +16,21 @@ import java.util.List;
  */
 public class UserDAO {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(UserDAO.class);
+
     /** Database adapter instance */
     private DatabaseAdapter db;
 
+    /** Cache of store owners */
+    private final ReferenceCache cache;
+
     /**
      * Constructor - initializes database adapter.
      */
     public UserDAO() {
         this.db = DatabaseAdapter.getInstance();
+        this.cache = ReferenceCache.getInstance();
     }
 
     /**
@@ -45,7 +54,7 @@ public class UserDAO {
                 return extractUserFromResultSet(rs);
             }
         } catch (SQLException e) {
-            System.err.println("Authentication error: " + e.getMessage());
+            LOG.error("Authentication error", e);
         }
 
         return null;
@@ -75,7 +84,7 @@ public class UserDAO {
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Registration error: " + e.getMessage());
+            LOG.error("Registration error", e);
             return false;
         }
     }
@@ -98,10 +107,13 @@ public class UserDAO {
             stmt.setInt(5, user.getId());
 
             int rows = stmt.executeUpdate();
+            if (rows > 0 && "OWNER".equals(user.getRole())) {
+                cache.invalidate();
+            }
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Update user error: " + e.getMessage());
+            LOG.error("Update user error", e);
             return false;
         }
     }
@@ -125,7 +137,7 @@ public class UserDAO {
                 return extractUserFromResultSet(rs);
             }
         } catch (SQLException e) {
-            System.err.println("Find user error: " + e.getMessage());
+            LOG.error("Find user error", e);
         }
 
         return null;
@@ -150,7 +162,7 @@ public class UserDAO {
                 return extractUserFromResultSet(rs);
             }
         } catch (SQLException e) {
-            System.err.println("Find user error: " + e.getMessage());
+            LOG.error("Find user error", e);
         }
 
         return null;
@@ -172,7 +184,7 @@ public class UserDAO {
                 carriers.add(extractUserFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Get carriers error: " + e.getMessage());
+            LOG.error("Get carriers error", e);
         }
 
         return carriers;
@@ -194,12 +206,55 @@ public class UserDAO {
                 customers.add(extractUserFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Get customers error: " + e.getMessage());
+            LOG.error("Get customers error", e);
         }
 
         return customers;
     }
 
+    /**
+     * Gets the lowest and highest customer IDs, so that bulk jobs can
+     * walk the customers in ranges.
+     * 
+     * @return The IDs as {min, max}, or null if there are no customers or the query failed
+     */
+    public int[] getCustomerIdRange() {
+        String query = "SELECT MIN(id), MAX(id) FROM UserInfo WHERE role = 'CUSTOMER'";
+
+        try {
+            ResultSet rs = db.executeQuery(query);
+
+            if (rs.next() && rs.getObject(1) != null) {
+                return new int[] {rs.getInt(1), rs.getInt(2)};
+            }
+        } catch (SQLException e) {
+            LOG.error("Get customer ID range error", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Counts the carriers in the current store's database, who may deliver
+     * for every store that shares it.
+     *
+     * @return Number of carriers, or -1 on error
+     */
+    public int countCarriers() {
+        String query = "SELECT COUNT(*) FROM UserInfo WHERE role = 'CARRIER'";
+
+        try {
+            ResultSet rs = db.executeQuery(query);
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            LOG.error("Count carriers error", e);
+        }
+
+        return -1;
+    }
+
     /**
      * Adds a new carrier (employed by owner).
      * 
@@ -220,10 +275,13 @@ public class UserDAO {
             stmt.setString(6, user.getEmail());
 
             int rows = stmt.executeUpdate();
+            if (rows > 0) {
+                CarrierLeaderboard.getInstance().refresh();
+            }
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Add carrier error: " + e.getMessage());
+            LOG.error("Add carrier error", e);
             return false;
         }
     }
@@ -242,10 +300,13 @@ public class UserDAO {
             stmt.setInt(1, carrierId);
 
             int rows = stmt.executeUpdate();
+            if (rows > 0) {
+                CarrierLeaderboard.getInstance().refresh();
+            }
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Delete carrier error: " + e.getMessage());
+            LOG.error("Delete carrier error", e);
             return false;
         }
     }
@@ -267,7 +328,7 @@ public class UserDAO {
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Update completed orders error: " + e.getMessage());
+            LOG.error("Update completed orders error", e);
             return false;
         }
     }
@@ -289,30 +350,38 @@ public class UserDAO {
             return rows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Reset completed orders error: " + e.getMessage());
+            LOG.error("Reset completed orders error", e);
             return false;
         }
     }
 
     /**
-     * Gets the owner user.
+     * Gets the owner of the current store, falling back to the first
+     * owner account if the store has none assigned. Served from the
+     * reference cache.
      * 
      * @return Owner user or null
      */
     public User getOwner() {
-        String query = "SELECT * FROM UserInfo WHERE role = 'OWNER' LIMIT 1";
-
-        try {
-            ResultSet rs = db.executeQuery(query);
+        return cache.findOwner(db.getStoreId(), this::loadOwner);
+    }
 
-            if (rs.next()) {
-                return extractUserFromResultSet(rs);
-            }
-        } catch (SQLException e) {
-            System.err.println("Get owner error: " + e.getMessage());
-        }
+    /**
+     * Loads the owner of the current store from the database.
+     *
+     * @return The owner, value null if there is none
+     */
+    private DbResult<User> loadOwner() {
+        return DbResult.of("Get owner", () -> {
+            PreparedStatement stmt = db.prepareStatement("SELECT u.* FROM UserInfo u " +
+                    "LEFT JOIN Stores s ON s.owner_id = u.id AND s.id = ? " +
+                    "WHERE u.role = 'OWNER' " +
+                    "ORDER BY s.id IS NULL, u.id LIMIT 1");
+            stmt.setInt(1, db.getStoreId());
 
-        return null;
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? extractUserFromResultSet(rs) : null;
+        });
     }
 
     /**
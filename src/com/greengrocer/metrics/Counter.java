@@ -0,0 +1,41 @@
+package com.greengrocer.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, e.g. orders placed.
+ * Increments are lock-free and scale across threads.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class Counter {
+
+    /** The count */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Adds one.
+     */
+    public void inc() {
+        count.increment();
+    }
+
+    /**
+     * Adds an amount.
+     *
+     * @param amount The amount, must not be negative
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Gets the current count.
+     *
+     * @return The count
+     */
+    public long get() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,38 @@
+package com.greengrocer.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A value that goes up and down, e.g. the pending order queue depth.
+ * The value is read from a supplier when metrics are scraped.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class Gauge {
+
+    /** Supplies the current value */
+    private final DoubleSupplier supplier;
+
+    /**
+     * Constructor for a gauge.
+     *
+     * @param supplier Supplies the current value
+     */
+    public Gauge(DoubleSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Reads the current value.
+     *
+     * @return The value, or NaN if it cannot be read
+     */
+    public double get() {
+        try {
+            return supplier.getAsDouble();
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+}
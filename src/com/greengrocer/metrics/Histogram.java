@@ -0,0 +1,187 @@
+package com.greengrocer.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with log-linear buckets in the style of HdrHistogram.
+ * Every power of two of nanoseconds is split into 8 sub-buckets, so any
+ * recorded value is known to within 12.5% from 1 ns up to hours, in a
+ * fixed 4 KB array. Recording is a few atomic increments and never locks.
+ *
+ * Counts at the usual second-based Prometheus "le" boundaries are kept
+ * alongside, so the exposition is exact rather than re-derived from the
+ * log-linear buckets.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class Histogram {
+
+    /** Sub-buckets per power of two, as a bit count */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** Sub-buckets per power of two */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets, enough for any positive long */
+    private static final int BUCKET_COUNT = SUB_BUCKETS * (64 - SUB_BUCKET_BITS);
+
+    /** Prometheus bucket boundaries in seconds */
+    static final double[] BOUNDARIES_SECONDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    /** Prometheus bucket boundaries in nanoseconds */
+    private static final long[] BOUNDARIES_NANOS = new long[BOUNDARIES_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDARIES_NANOS.length; i++) {
+            BOUNDARIES_NANOS[i] = (long) (BOUNDARIES_SECONDS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    /** Recorded values per bucket */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    /** Recorded values per Prometheus boundary, the last one for +Inf */
+    private final AtomicLongArray boundaryCounts = new AtomicLongArray(BOUNDARIES_SECONDS.length + 1);
+
+    /** Sum of all recorded values in nanoseconds */
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        int boundary = 0;
+        while (boundary < BOUNDARIES_NANOS.length && value > BOUNDARIES_NANOS[boundary]) {
+            boundary++;
+        }
+        boundaryCounts.incrementAndGet(boundary);
+        sumNanos.add(value);
+    }
+
+    /**
+     * Records the time elapsed since a System.nanoTime() reading.
+     *
+     * @param startNanos The start time
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The count
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the sum of the recorded values.
+     *
+     * @return Sum in nanoseconds
+     */
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Estimates a percentile from the buckets.
+     *
+     * @param percentile The percentile, e.g. 99.9
+     * @return Upper edge of the bucket holding the percentile, in nanoseconds
+     */
+    public long percentile(double percentile) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperEdge(i);
+            }
+        }
+        return upperEdge(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Gets cumulative counts at the Prometheus boundaries.
+     *
+     * @return Count of values at or below each boundary, plus the total last
+     */
+    long[] cumulativeCounts() {
+        long[] cumulative = new long[boundaryCounts.length()];
+        long seen = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            seen += boundaryCounts.get(i);
+            cumulative[i] = seen;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Copies the bucket counts.
+     *
+     * @return The counts
+     */
+    private long[] snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Finds the bucket of a value.
+     *
+     * @param value Non-negative value
+     * @return Bucket index
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Gets the largest value that falls into a bucket.
+     *
+     * @param bucket Bucket index
+     * @return Upper edge in nanoseconds
+     */
+    private static long upperEdge(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long edge = ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+        return edge < 0 ? Long.MAX_VALUE : edge;
+    }
+}
@@ -0,0 +1,259 @@
+package com.greengrocer.metrics;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds all application metrics and writes them in the Prometheus text
+ * exposition format.
+ *
+ * Metrics are registered by name plus optional label pairs, e.g.
+ * counter("greengrocer_order_claims_total", "...", "outcome", "TAKEN").
+ * Asking again for the same name and labels returns the same metric, so
+ * callers keep the metric in a field and record without any lookup.
+ * Uses Singleton pattern.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class MetricsRegistry {
+
+    /** Singleton instance */
+    private static MetricsRegistry instance;
+
+    /** Histogram boundaries as written in "le" labels, e.g. 0.0005 */
+    private static final String[] BOUNDARY_LABELS = new String[Histogram.BOUNDARIES_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDARY_LABELS.length; i++) {
+            BOUNDARY_LABELS[i] = BigDecimal.valueOf(Histogram.BOUNDARIES_SECONDS[i]).stripTrailingZeros()
+                    .toPlainString();
+        }
+    }
+
+    /** Metric families by name */
+    private final ConcurrentHashMap<String, Family> families;
+
+    /** Hit and miss counters by cache name */
+    private final ConcurrentHashMap<String, Counter[]> cacheCounters;
+
+    /**
+     * Private constructor for singleton.
+     */
+    private MetricsRegistry() {
+        this.families = new ConcurrentHashMap<>();
+        this.cacheCounters = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return The MetricsRegistry instance
+     */
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets or creates a counter.
+     *
+     * @param name   Metric name, ending in _total
+     * @param help   Description
+     * @param labels Alternating label names and values
+     * @return The counter
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, "counter").series
+                .computeIfAbsent(labelString(labels), key -> new Counter());
+    }
+
+    /**
+     * Registers a gauge, replacing an earlier one with the same labels.
+     *
+     * @param name     Metric name
+     * @param help     Description
+     * @param supplier Supplies the value when scraped
+     * @param labels   Alternating label names and values
+     * @return The gauge
+     */
+    public Gauge gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        Gauge gauge = new Gauge(supplier);
+        family(name, help, "gauge").series.put(labelString(labels), gauge);
+        return gauge;
+    }
+
+    /**
+     * Gets or creates a latency histogram.
+     *
+     * @param name   Metric name, ending in _seconds
+     * @param help   Description
+     * @param labels Alternating label names and values
+     * @return The histogram
+     */
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) family(name, help, "histogram").series
+                .computeIfAbsent(labelString(labels), key -> new Histogram());
+    }
+
+    /**
+     * Records a cache lookup in greengrocer_cache_requests_total, from
+     * which hit ratios are derived.
+     *
+     * @param cache Cache name
+     * @param hit   Whether the lookup was a hit
+     */
+    public void cacheLookup(String cache, boolean hit) {
+        Counter[] counters = cacheCounters.computeIfAbsent(cache, name -> new Counter[] {
+                counter("greengrocer_cache_requests_total", "Cache lookups by cache and result",
+                        "cache", name, "result", "hit"),
+                counter("greengrocer_cache_requests_total", "Cache lookups by cache and result",
+                        "cache", name, "result", "miss")
+        });
+        counters[hit ? 0 : 1].inc();
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text format, sorted by name.
+     *
+     * @return The exposition text
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : new TreeMap<>(families).values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> series : new TreeMap<>(family.series).entrySet()) {
+                writeSeries(out, family.name, series.getKey(), series.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the samples of one series.
+     *
+     * @param out    The output
+     * @param name   Metric name
+     * @param labels Rendered labels without braces
+     * @param metric The metric
+     */
+    private static void writeSeries(StringBuilder out, String name, String labels, Object metric) {
+        if (metric instanceof Counter) {
+            sample(out, name, labels, ((Counter) metric).get());
+        } else if (metric instanceof Gauge) {
+            double value = ((Gauge) metric).get();
+            if (!Double.isNaN(value)) {
+                sample(out, name, labels, value);
+            }
+        } else if (metric instanceof Histogram) {
+            Histogram histogram = (Histogram) metric;
+            long[] cumulative = histogram.cumulativeCounts();
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            for (int i = 0; i < Histogram.BOUNDARIES_SECONDS.length; i++) {
+                sample(out, name + "_bucket", prefix + "le=\"" + BOUNDARY_LABELS[i] + "\"", cumulative[i]);
+            }
+            long count = cumulative[cumulative.length - 1];
+            sample(out, name + "_bucket", prefix + "le=\"+Inf\"", count);
+            sample(out, name + "_sum", labels, histogram.getSumNanos() / 1e9);
+            sample(out, name + "_count", labels, count);
+        }
+    }
+
+    /**
+     * Writes one sample line.
+     *
+     * @param out    The output
+     * @param name   Sample name
+     * @param labels Rendered labels without braces
+     * @param value  The value
+     */
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(String.format(Locale.ROOT, "%.6g", value));
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Gets or creates a metric family, checking its type.
+     *
+     * @param name Metric name
+     * @param help Description
+     * @param type Prometheus type
+     * @return The family
+     */
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Renders label pairs as name="value",...
+     *
+     * @param labels Alternating label names and values
+     * @return The rendered labels, empty if none
+     */
+    private static String labelString(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return text.toString();
+    }
+
+    /**
+     * All series of one metric name.
+     */
+    private static final class Family {
+
+        /** Metric name */
+        final String name;
+
+        /** Description */
+        final String help;
+
+        /** Prometheus type */
+        final String type;
+
+        /** Metrics by rendered labels */
+        final ConcurrentHashMap<String, Object> series = new ConcurrentHashMap<>();
+
+        /**
+         * Constructor for a family.
+         *
+         * @param name Metric name
+         * @param help Description
+         * @param type Prometheus type
+         */
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
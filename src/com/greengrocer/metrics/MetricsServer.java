@@ -0,0 +1,110 @@
+package com.greengrocer.metrics;
+
+import com.greengrocer.database.OrderDAO;
+import com.greengrocer.utils.Logger;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves GET /metrics in the Prometheus text format.
+ *
+ * The headless server mounts the handler on its own port. The desktop
+ * client starts a separate listener on the loopback interface when the
+ * system property greengrocer.metrics.port is set.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public final class MetricsServer {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(MetricsServer.class);
+
+    /** Prometheus text format content type */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** Whether the shared gauges are registered */
+    private static boolean gaugesRegistered;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private MetricsServer() {
+    }
+
+    /**
+     * Creates the /metrics handler.
+     *
+     * @return The handler
+     */
+    public static HttpHandler handler() {
+        registerGauges();
+        return exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                byte[] body = MetricsRegistry.getInstance().scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        };
+    }
+
+    /**
+     * Starts a loopback-only metrics listener if greengrocer.metrics.port
+     * is set.
+     */
+    public static void startFromProperties() {
+        int port = Integer.getInteger("greengrocer.metrics.port", 0);
+        if (port <= 0) {
+            return;
+        }
+
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 16);
+            server.createContext("/metrics", handler());
+            server.start();
+            LOG.info("Metrics listening", "port", port);
+        } catch (IOException e) {
+            LOG.error("Metrics server error", e, "port", port);
+        }
+    }
+
+    /**
+     * Registers the gauges that are read on scrape: the pending order
+     * queue and basic JVM figures.
+     */
+    private static synchronized void registerGauges() {
+        if (gaugesRegistered) {
+            return;
+        }
+        gaugesRegistered = true;
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        OrderDAO orderDAO = new OrderDAO();
+        registry.gauge("greengrocer_orders_pending", "Orders waiting for a carrier",
+                () -> {
+                    int pending = orderDAO.countByStatus("PENDING");
+                    return pending < 0 ? Double.NaN : pending;
+                });
+        registry.gauge("greengrocer_jvm_heap_used_bytes", "Used heap memory",
+                () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        registry.gauge("greengrocer_jvm_threads", "Live platform threads",
+                () -> ManagementFactory.getThreadMXBean().getThreadCount());
+        registry.gauge("greengrocer_uptime_seconds", "Time since the JVM started",
+                () -> ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    }
+}
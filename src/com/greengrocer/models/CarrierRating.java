@@ -0,0 +1,99 @@
+package com.greengrocer.models;
+
+/**
+ * A carrier's running rating totals, kept on the carrier's UserInfo row
+ * as ratings are given.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CarrierRating {
+
+    /** The carrier's user ID */
+    private final int carrierId;
+
+    /** The carrier's username */
+    private final String carrierName;
+
+    /** Sum of all stars given */
+    private final int ratingSum;
+
+    /** Number of ratings */
+    private final int ratingCount;
+
+    /**
+     * Constructor with all fields.
+     *
+     * @param carrierId   The carrier's user ID
+     * @param carrierName The carrier's username
+     * @param ratingSum   Sum of all stars given
+     * @param ratingCount Number of ratings
+     */
+    public CarrierRating(int carrierId, String carrierName, int ratingSum, int ratingCount) {
+        this.carrierId = carrierId;
+        this.carrierName = carrierName;
+        this.ratingSum = ratingSum;
+        this.ratingCount = ratingCount;
+    }
+
+    /**
+     * Gets the carrier's user ID.
+     *
+     * @return The carrier ID
+     */
+    public int getCarrierId() {
+        return carrierId;
+    }
+
+    /**
+     * Gets the carrier's username.
+     *
+     * @return The username
+     */
+    public String getCarrierName() {
+        return carrierName;
+    }
+
+    /**
+     * Gets the sum of all stars given.
+     *
+     * @return The sum
+     */
+    public int getRatingSum() {
+        return ratingSum;
+    }
+
+    /**
+     * Gets the number of ratings.
+     *
+     * @return The count
+     */
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    /**
+     * Gets the plain average rating.
+     *
+     * @return Average rating (1-5) or 0 if no ratings
+     */
+    public double getAverage() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0;
+    }
+
+    /**
+     * Gets the Bayesian average rating: the carrier's ratings plus a number
+     * of imagined ratings at the overall mean. Carriers with few ratings
+     * stay near the mean, so one five-star review does not top a list.
+     *
+     * @param priorMean   Mean rating over all carriers
+     * @param priorWeight Number of imagined ratings at the mean
+     * @return The Bayesian average
+     */
+    public double getBayesianAverage(double priorMean, int priorWeight) {
+        if (ratingCount + priorWeight == 0) {
+            return 0;
+        }
+        return (priorMean * priorWeight + ratingSum) / (priorWeight + ratingCount);
+    }
+}
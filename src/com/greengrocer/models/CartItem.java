@@ -1,5 +1,8 @@
 package com.greengrocer.models;
 
+import com.greengrocer.utils.Money;
+import com.greengrocer.utils.Quantity;
+
 /**
  * Represents an item in the shopping cart.
  * Cart items can be merged when same product is added multiple times.
@@ -12,11 +15,11 @@ public class CartItem {
     /** The product in this cart item */
     private Product product;
 
-    /** Quantity in kilograms */
-    private double quantity;
+    /** Quantity in grams */
+    private long quantityGrams;
 
-    /** Price at time of adding to cart (considering threshold) */
-    private double priceAtTime;
+    /** Price per kg in cents at time of adding to cart (considering threshold) */
+    private long priceCents;
 
     /**
      * Constructor for a cart item.
@@ -26,9 +29,9 @@ public class CartItem {
      */
     public CartItem(Product product, double quantity) {
         this.product = product;
-        this.quantity = quantity;
+        this.quantityGrams = Quantity.toGrams(quantity);
         // Store the display price at the time of adding (considers threshold)
-        this.priceAtTime = product.getDisplayPrice();
+        this.priceCents = product.getDisplayPriceCents();
     }
 
     /**
@@ -46,7 +49,16 @@ public class CartItem {
      * @return The quantity in kg
      */
     public double getQuantity() {
-        return quantity;
+        return Quantity.toKg(quantityGrams);
+    }
+
+    /**
+     * Gets the quantity in grams.
+     * 
+     * @return The quantity in grams
+     */
+    public long getQuantityGrams() {
+        return quantityGrams;
     }
 
     /**
@@ -55,7 +67,16 @@ public class CartItem {
      * @return The price per kg when item was added
      */
     public double getPriceAtTime() {
-        return priceAtTime;
+        return Money.toDouble(priceCents);
+    }
+
+    /**
+     * Gets the price per kg in cents at time of adding.
+     * 
+     * @return The price per kg in cents
+     */
+    public long getPriceCents() {
+        return priceCents;
     }
 
     /**
@@ -73,7 +94,7 @@ public class CartItem {
      * @param quantity The quantity in kg
      */
     public void setQuantity(double quantity) {
-        this.quantity = quantity;
+        this.quantityGrams = Quantity.toGrams(quantity);
     }
 
     /**
@@ -82,7 +103,7 @@ public class CartItem {
      * @param priceAtTime The price per kg
      */
     public void setPriceAtTime(double priceAtTime) {
-        this.priceAtTime = priceAtTime;
+        this.priceCents = Money.toCents(priceAtTime);
     }
 
     /**
@@ -91,7 +112,7 @@ public class CartItem {
      * @param additionalQuantity The additional quantity to add in kg
      */
     public void addQuantity(double additionalQuantity) {
-        this.quantity += additionalQuantity;
+        this.quantityGrams += Quantity.toGrams(additionalQuantity);
     }
 
     /**
@@ -100,7 +121,16 @@ public class CartItem {
      * @return Total price (quantity * price per kg)
      */
     public double getTotalPrice() {
-        return quantity * priceAtTime;
+        return Money.toDouble(getTotalCents());
+    }
+
+    /**
+     * Calculates the total price for this cart item in cents.
+     * 
+     * @return Total price in cents, rounded to the nearest cent
+     */
+    public long getTotalCents() {
+        return Money.lineTotal(priceCents, quantityGrams);
     }
 
     /**
@@ -124,6 +154,6 @@ public class CartItem {
     @Override
     public String toString() {
         return String.format("%s - %.2f kg @ $%.2f/kg = $%.2f",
-                product.getName(), quantity, priceAtTime, getTotalPrice());
+                product.getName(), getQuantity(), getPriceAtTime(), getTotalPrice());
     }
 }
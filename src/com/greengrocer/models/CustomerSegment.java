@@ -0,0 +1,102 @@
+package com.greengrocer.models;
+
+/**
+ * A group of customers targeted by a coupon campaign.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CustomerSegment {
+
+    /** Kinds of segment */
+    public enum Type {
+        /** Every customer */
+        ALL,
+        /** Customers with at least a number of completed orders */
+        MIN_COMPLETED_ORDERS,
+        /** Customers who have not ordered for a number of days */
+        INACTIVE_DAYS
+    }
+
+    /** The kind of segment */
+    private final Type type;
+
+    /** Orders or days, depending on the type; 0 for ALL */
+    private final int value;
+
+    /**
+     * Private constructor, use the factory methods.
+     *
+     * @param type  The kind of segment
+     * @param value Orders or days, depending on the type
+     */
+    private CustomerSegment(Type type, int value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * Creates the segment of all customers.
+     *
+     * @return The segment
+     */
+    public static CustomerSegment all() {
+        return new CustomerSegment(Type.ALL, 0);
+    }
+
+    /**
+     * Creates the segment of customers with enough completed orders.
+     *
+     * @param orders Minimum completed orders
+     * @return The segment
+     */
+    public static CustomerSegment minCompletedOrders(int orders) {
+        return new CustomerSegment(Type.MIN_COMPLETED_ORDERS, orders);
+    }
+
+    /**
+     * Creates the segment of customers who have not placed an order for
+     * some days, including registered customers who never ordered.
+     *
+     * @param days Days without an order
+     * @return The segment
+     */
+    public static CustomerSegment inactiveFor(int days) {
+        return new CustomerSegment(Type.INACTIVE_DAYS, days);
+    }
+
+    /**
+     * Gets the kind of segment.
+     *
+     * @return The type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the segment's parameter.
+     *
+     * @return Orders or days, depending on the type; 0 for ALL
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Returns a description for dialogs and logs.
+     *
+     * @return The description
+     */
+    @Override
+    public String toString() {
+        switch (type) {
+            case MIN_COMPLETED_ORDERS:
+                return "customers with at least " + value + " completed orders";
+            case INACTIVE_DAYS:
+                return "customers inactive for " + value + " days";
+            default:
+                return "all customers";
+        }
+    }
+}
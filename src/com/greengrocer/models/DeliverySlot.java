@@ -0,0 +1,121 @@
+package com.greengrocer.models;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A half-hour delivery slot customers can book, with the number of
+ * deliveries it can take and the number already booked.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class DeliverySlot {
+
+    /** Length of a slot in minutes */
+    public static final int SLOT_MINUTES = 30;
+
+    /** Start of the first slot of a day */
+    public static final LocalTime FIRST_SLOT = LocalTime.of(9, 0);
+
+    /** Start of the last slot of a day */
+    public static final LocalTime LAST_SLOT = LocalTime.of(20, 30);
+
+    /** Start of the slot */
+    private final LocalDateTime start;
+
+    /** Deliveries the slot can take */
+    private final int capacity;
+
+    /** Deliveries already booked */
+    private final int reserved;
+
+    /**
+     * Constructor with all fields.
+     *
+     * @param start    Start of the slot
+     * @param capacity Deliveries the slot can take
+     * @param reserved Deliveries already booked
+     */
+    public DeliverySlot(LocalDateTime start, int capacity, int reserved) {
+        this.start = start;
+        this.capacity = capacity;
+        this.reserved = reserved;
+    }
+
+    /**
+     * Gets the start of the slot a time falls in.
+     *
+     * @param time The time
+     * @return The time rounded down to a whole slot
+     */
+    public static LocalDateTime startOf(LocalDateTime time) {
+        LocalDateTime minute = time.withSecond(0).withNano(0);
+        return minute.minusMinutes(minute.getMinute() % SLOT_MINUTES);
+    }
+
+    /**
+     * Checks whether slots are offered at a time of day.
+     *
+     * @param start Start of the slot
+     * @return true between the first and last slot of the day
+     */
+    public static boolean isWithinHours(LocalDateTime start) {
+        LocalTime time = start.toLocalTime();
+        return !time.isBefore(FIRST_SLOT) && !time.isAfter(LAST_SLOT);
+    }
+
+    /**
+     * Gets the start of the slot.
+     *
+     * @return The start
+     */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the deliveries the slot can take.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the deliveries already booked.
+     *
+     * @return The reserved count
+     */
+    public int getReserved() {
+        return reserved;
+    }
+
+    /**
+     * Gets the deliveries the slot can still take.
+     *
+     * @return The remaining capacity, never negative
+     */
+    public int getRemaining() {
+        return Math.max(0, capacity - reserved);
+    }
+
+    /**
+     * Checks whether the slot can take another delivery.
+     *
+     * @return true if there is capacity left
+     */
+    public boolean isAvailable() {
+        return reserved < capacity;
+    }
+
+    /**
+     * Gets the slot's time of day for the time picker.
+     *
+     * @return The start as HH:mm
+     */
+    public String getTimeLabel() {
+        return String.format("%02d:%02d", start.getHour(), start.getMinute());
+    }
+}
@@ -1,5 +1,7 @@
 package com.greengrocer.models;
 
+import com.greengrocer.utils.Money;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,6 +15,9 @@ import java.util.List;
  */
 public class Order {
 
+    /** Hours after placement during which a pending order may be cancelled */
+    public static final int CANCEL_WINDOW_HOURS = 24;
+
     /** Unique identifier for the order */
     private int id;
 
@@ -43,17 +48,17 @@ public class Order {
     /** Order status: PENDING, SELECTED, DELIVERED, CANCELLED */
     private String status;
 
-    /** Subtotal before tax */
-    private double subtotal;
+    /** Subtotal before tax, in cents */
+    private long subtotalCents;
 
-    /** VAT amount (18%) */
-    private double vat;
+    /** VAT amount (18%), in cents */
+    private long vatCents;
 
-    /** Discount applied */
-    private double discount;
+    /** Discount applied, in cents */
+    private long discountCents;
 
-    /** Total cost including tax and discount */
-    private double totalCost;
+    /** Total cost including tax and discount, in cents */
+    private long totalCostCents;
 
     /** Invoice stored as text (CLOB) */
     private String invoice;
@@ -85,9 +90,9 @@ public class Order {
             LocalDateTime requestedDelivery) {
         this();
         this.userId = userId;
-        this.subtotal = subtotal;
-        this.vat = vat;
-        this.totalCost = totalCost;
+        this.subtotalCents = Money.toCents(subtotal);
+        this.vatCents = Money.toCents(vat);
+        this.totalCostCents = Money.toCents(totalCost);
         this.requestedDelivery = requestedDelivery;
         this.orderTime = LocalDateTime.now();
     }
@@ -190,7 +195,16 @@ public class Order {
      * @return the subtotal amount
      */
     public double getSubtotal() {
-        return subtotal;
+        return Money.toDouble(subtotalCents);
+    }
+
+    /**
+     * Gets the subtotal in cents.
+     * 
+     * @return the subtotal in cents
+     */
+    public long getSubtotalCents() {
+        return subtotalCents;
     }
 
     /**
@@ -199,7 +213,16 @@ public class Order {
      * @return the VAT amount (18%)
      */
     public double getVat() {
-        return vat;
+        return Money.toDouble(vatCents);
+    }
+
+    /**
+     * Gets the VAT in cents.
+     * 
+     * @return the VAT in cents
+     */
+    public long getVatCents() {
+        return vatCents;
     }
 
     /**
@@ -208,7 +231,16 @@ public class Order {
      * @return the discount amount
      */
     public double getDiscount() {
-        return discount;
+        return Money.toDouble(discountCents);
+    }
+
+    /**
+     * Gets the discount in cents.
+     * 
+     * @return the discount in cents
+     */
+    public long getDiscountCents() {
+        return discountCents;
     }
 
     /**
@@ -217,7 +249,16 @@ public class Order {
      * @return the total cost
      */
     public double getTotalCost() {
-        return totalCost;
+        return Money.toDouble(totalCostCents);
+    }
+
+    /**
+     * Gets the total cost in cents.
+     * 
+     * @return the total cost in cents
+     */
+    public long getTotalCostCents() {
+        return totalCostCents;
     }
 
     /**
@@ -345,7 +386,16 @@ public class Order {
      * @param subtotal the subtotal amount to set
      */
     public void setSubtotal(double subtotal) {
-        this.subtotal = subtotal;
+        this.subtotalCents = Money.toCents(subtotal);
+    }
+
+    /**
+     * Sets the subtotal in cents.
+     * 
+     * @param subtotalCents the subtotal in cents to set
+     */
+    public void setSubtotalCents(long subtotalCents) {
+        this.subtotalCents = subtotalCents;
     }
 
     /**
@@ -354,7 +404,16 @@ public class Order {
      * @param vat the VAT amount to set
      */
     public void setVat(double vat) {
-        this.vat = vat;
+        this.vatCents = Money.toCents(vat);
+    }
+
+    /**
+     * Sets the VAT in cents.
+     * 
+     * @param vatCents the VAT in cents to set
+     */
+    public void setVatCents(long vatCents) {
+        this.vatCents = vatCents;
     }
 
     /**
@@ -363,7 +422,16 @@ public class Order {
      * @param discount the discount amount to set
      */
     public void setDiscount(double discount) {
-        this.discount = discount;
+        this.discountCents = Money.toCents(discount);
+    }
+
+    /**
+     * Sets the discount in cents.
+     * 
+     * @param discountCents the discount in cents to set
+     */
+    public void setDiscountCents(long discountCents) {
+        this.discountCents = discountCents;
     }
 
     /**
@@ -372,7 +440,16 @@ public class Order {
      * @param totalCost the total cost to set
      */
     public void setTotalCost(double totalCost) {
-        this.totalCost = totalCost;
+        this.totalCostCents = Money.toCents(totalCost);
+    }
+
+    /**
+     * Sets the total cost in cents.
+     * 
+     * @param totalCostCents the total cost in cents to set
+     */
+    public void setTotalCostCents(long totalCostCents) {
+        this.totalCostCents = totalCostCents;
     }
 
     /**
@@ -462,6 +539,6 @@ public class Order {
 
     @Override
     public String toString() {
-        return "Order #" + id + " - " + status + " - $" + String.format("%.2f", totalCost);
+        return "Order #" + id + " - " + status + " - $" + Money.format(totalCostCents);
     }
 }
@@ -0,0 +1,81 @@
+package com.greengrocer.models;
+
+/**
+ * One row of a customer's order history, with everything its list cell
+ * shows already decided so that drawing the cell needs no database access.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class OrderHistoryEntry {
+
+    /** The order */
+    private final Order order;
+
+    /** Whether the order may still be cancelled */
+    private final boolean cancellable;
+
+    /** Whole hours left to cancel, 0 if not cancellable */
+    private final int hoursToCancel;
+
+    /** Whether the customer may rate the carrier */
+    private boolean rateable;
+
+    /**
+     * Constructor with all fields.
+     *
+     * @param order         The order
+     * @param cancellable   Whether the order may still be cancelled
+     * @param hoursToCancel Whole hours left to cancel
+     * @param rateable      Whether the customer may rate the carrier
+     */
+    public OrderHistoryEntry(Order order, boolean cancellable, int hoursToCancel, boolean rateable) {
+        this.order = order;
+        this.cancellable = cancellable;
+        this.hoursToCancel = hoursToCancel;
+        this.rateable = rateable;
+    }
+
+    /**
+     * Gets the order.
+     *
+     * @return The order
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Checks whether the order may still be cancelled.
+     *
+     * @return true if pending and within the cancellation window
+     */
+    public boolean isCancellable() {
+        return cancellable;
+    }
+
+    /**
+     * Gets the time left to cancel.
+     *
+     * @return Whole hours left, 0 if not cancellable
+     */
+    public int getHoursToCancel() {
+        return hoursToCancel;
+    }
+
+    /**
+     * Checks whether the customer may rate the carrier.
+     *
+     * @return true if delivered by a carrier and not rated yet
+     */
+    public boolean isRateable() {
+        return rateable;
+    }
+
+    /**
+     * Records that the customer has rated the carrier.
+     */
+    public void markRated() {
+        this.rateable = false;
+    }
+}
@@ -1,5 +1,8 @@
 package com.greengrocer.models;
 
+import com.greengrocer.utils.Money;
+import com.greengrocer.utils.Quantity;
+
 /**
  * Represents an individual item within an order.
  * Stores product details at the time of purchase.
@@ -21,11 +24,11 @@ public class OrderItem {
     /** Product name (stored for historical reference) */
     private String productName;
 
-    /** Quantity in kilograms */
-    private double quantity;
+    /** Quantity in grams */
+    private long quantityGrams;
 
-    /** Price per kg at time of purchase */
-    private double priceAtTime;
+    /** Price per kg in cents at time of purchase */
+    private long priceCents;
 
     /**
      * Default constructor.
@@ -47,8 +50,8 @@ public class OrderItem {
         this.orderId = orderId;
         this.productId = productId;
         this.productName = productName;
-        this.quantity = quantity;
-        this.priceAtTime = priceAtTime;
+        this.quantityGrams = Quantity.toGrams(quantity);
+        this.priceCents = Money.toCents(priceAtTime);
     }
 
     /**
@@ -59,12 +62,13 @@ public class OrderItem {
      * @return A new OrderItem
      */
     public static OrderItem fromCartItem(int orderId, CartItem cartItem) {
-        return new OrderItem(
-                orderId,
-                cartItem.getProductId(),
-                cartItem.getProductName(),
-                cartItem.getQuantity(),
-                cartItem.getPriceAtTime());
+        OrderItem item = new OrderItem();
+        item.setOrderId(orderId);
+        item.setProductId(cartItem.getProductId());
+        item.setProductName(cartItem.getProductName());
+        item.setQuantityGrams(cartItem.getQuantityGrams());
+        item.setPriceCents(cartItem.getPriceCents());
+        return item;
     }
 
     // ==================== GETTERS ====================
@@ -111,7 +115,16 @@ public class OrderItem {
      * @return the quantity in kg
      */
     public double getQuantity() {
-        return quantity;
+        return Quantity.toKg(quantityGrams);
+    }
+
+    /**
+     * Gets the quantity of the product in grams.
+     * 
+     * @return the quantity in grams
+     */
+    public long getQuantityGrams() {
+        return quantityGrams;
     }
 
     /**
@@ -120,7 +133,16 @@ public class OrderItem {
      * @return the price per kg at purchase time
      */
     public double getPriceAtTime() {
-        return priceAtTime;
+        return Money.toDouble(priceCents);
+    }
+
+    /**
+     * Gets the price per kilogram in cents at the time of purchase.
+     * 
+     * @return the price per kg in cents
+     */
+    public long getPriceCents() {
+        return priceCents;
     }
 
     /**
@@ -129,7 +151,16 @@ public class OrderItem {
      * @return Total price (quantity * price per kg)
      */
     public double getTotalPrice() {
-        return quantity * priceAtTime;
+        return Money.toDouble(getTotalCents());
+    }
+
+    /**
+     * Calculates the total price for this item in cents.
+     * 
+     * @return Total price in cents, rounded to the nearest cent
+     */
+    public long getTotalCents() {
+        return Money.lineTotal(priceCents, quantityGrams);
     }
 
     // ==================== SETTERS ====================
@@ -176,7 +207,16 @@ public class OrderItem {
      * @param quantity the quantity in kg to set
      */
     public void setQuantity(double quantity) {
-        this.quantity = quantity;
+        this.quantityGrams = Quantity.toGrams(quantity);
+    }
+
+    /**
+     * Sets the quantity of the product in grams.
+     * 
+     * @param quantityGrams the quantity in grams to set
+     */
+    public void setQuantityGrams(long quantityGrams) {
+        this.quantityGrams = quantityGrams;
     }
 
     /**
@@ -185,12 +225,21 @@ public class OrderItem {
      * @param priceAtTime the price per kg to set
      */
     public void setPriceAtTime(double priceAtTime) {
-        this.priceAtTime = priceAtTime;
+        this.priceCents = Money.toCents(priceAtTime);
+    }
+
+    /**
+     * Sets the price per kilogram in cents at the time of purchase.
+     * 
+     * @param priceCents the price per kg in cents to set
+     */
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     @Override
     public String toString() {
         return String.format("%s: %.2f kg @ $%.2f = $%.2f",
-                productName, quantity, priceAtTime, getTotalPrice());
+                productName, getQuantity(), getPriceAtTime(), getTotalPrice());
     }
 }
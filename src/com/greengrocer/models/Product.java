@@ -1,5 +1,7 @@
 package com.greengrocer.models;
 
+import com.greengrocer.utils.Money;
+
 /**
  * Represents a product (vegetable or fruit) in the Greengrocer system.
  * Products have prices that double when stock falls below threshold.
@@ -18,8 +20,8 @@ public class Product {
     /** Type: VEGETABLE or FRUIT */
     private String type;
 
-    /** Base price per kilogram */
-    private double price;
+    /** Base price per kilogram in cents */
+    private long priceCents;
 
     /** Current stock in kilograms */
     private double stock;
@@ -48,7 +50,7 @@ public class Product {
     public Product(String name, String type, double price, double stock, double threshold) {
         this.name = name;
         this.type = type;
-        this.price = price;
+        this.priceCents = Money.toCents(price);
         this.stock = stock;
         this.threshold = threshold;
     }
@@ -69,7 +71,7 @@ public class Product {
         this.id = id;
         this.name = name;
         this.type = type;
-        this.price = price;
+        this.priceCents = Money.toCents(price);
         this.stock = stock;
         this.threshold = threshold;
         this.image = image;
@@ -110,7 +112,16 @@ public class Product {
      * @return The base price
      */
     public double getPrice() {
-        return price;
+        return Money.toDouble(priceCents);
+    }
+
+    /**
+     * Gets the base price per kilogram in cents.
+     * 
+     * @return The base price in cents
+     */
+    public long getPriceCents() {
+        return priceCents;
     }
 
     /**
@@ -147,10 +158,19 @@ public class Product {
      * @return The effective price to display to customer
      */
     public double getDisplayPrice() {
+        return Money.toDouble(getDisplayPriceCents());
+    }
+
+    /**
+     * Gets the displayed price in cents considering threshold.
+     * 
+     * @return The effective price per kg in cents
+     */
+    public long getDisplayPriceCents() {
         if (stock <= threshold) {
-            return price * 2; // Double the price when stock is low
+            return priceCents * 2; // Double the price when stock is low
         }
-        return price;
+        return priceCents;
     }
 
     /**
@@ -215,7 +235,16 @@ public class Product {
      * @param price The price per kg
      */
     public void setPrice(double price) {
-        this.price = price;
+        this.priceCents = Money.toCents(price);
+    }
+
+    /**
+     * Sets the base price in cents.
+     * 
+     * @param priceCents The price per kg in cents
+     */
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     /**
@@ -251,7 +280,7 @@ public class Product {
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", type='" + type + '\'' +
-                ", price=" + price +
+                ", price=" + Money.format(priceCents) +
                 ", stock=" + stock +
                 ", threshold=" + threshold +
                 '}';
@@ -0,0 +1,70 @@
+package com.greengrocer.models;
+
+/**
+ * Represents the delivered sales of one product, as shown in the owner's
+ * sales reports.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class ProductSales {
+
+    /** Name of the product at the time of sale */
+    private String productName;
+
+    /** Quantity sold in grams */
+    private long quantityGrams;
+
+    /** Revenue in cents */
+    private long salesCents;
+
+    /**
+     * Constructor with all fields.
+     *
+     * @param productName   Product name
+     * @param quantityGrams Quantity sold in grams
+     * @param salesCents    Revenue in cents
+     */
+    public ProductSales(String productName, long quantityGrams, long salesCents) {
+        this.productName = productName;
+        this.quantityGrams = quantityGrams;
+        this.salesCents = salesCents;
+    }
+
+    /**
+     * Gets the product name.
+     *
+     * @return Product name
+     */
+    public String getProductName() {
+        return productName;
+    }
+
+    /**
+     * Gets the quantity sold.
+     *
+     * @return Quantity in grams
+     */
+    public long getQuantityGrams() {
+        return quantityGrams;
+    }
+
+    /**
+     * Gets the revenue.
+     *
+     * @return Revenue in cents
+     */
+    public long getSalesCents() {
+        return salesCents;
+    }
+
+    /**
+     * Adds the sales of the same product from another store.
+     *
+     * @param other Sales to add
+     */
+    public void add(ProductSales other) {
+        this.quantityGrams += other.quantityGrams;
+        this.salesCents += other.salesCents;
+    }
+}
@@ -0,0 +1,297 @@
+package com.greengrocer.server;
+
+import com.greengrocer.utils.SessionRegistry;
+import com.greengrocer.utils.UserSession;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One API request with helpers for reading the input and writing JSON.
+ * Every response has a known length or is chunked, and the request body is
+ * always drained, so the JDK server can keep the connection alive.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class ApiExchange {
+
+    /** Header carrying the session ID */
+    public static final String SESSION_HEADER = "X-Session";
+
+    /** Header choosing the store a request works for */
+    public static final String STORE_HEADER = "X-Store";
+
+    /** Largest request body accepted, in bytes */
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    /** The underlying JDK exchange */
+    private final HttpExchange exchange;
+
+    /** Path segments below the context path */
+    private final String[] segments;
+
+    /** Parsed query parameters */
+    private Map<String, String> query;
+
+    /** Parsed body fields */
+    private Map<String, String> body;
+
+    /** Whether a response has been sent */
+    private boolean responded;
+
+    /**
+     * Constructor for an API exchange.
+     *
+     * @param exchange    The JDK exchange
+     * @param contextPath The context path the handler is registered under
+     */
+    public ApiExchange(HttpExchange exchange, String contextPath) {
+        this.exchange = exchange;
+        String rest = exchange.getRequestURI().getPath().substring(contextPath.length());
+        this.segments = rest.isEmpty() || "/".equals(rest)
+                ? new String[0]
+                : rest.replaceAll("^/+|/+$", "").split("/+");
+    }
+
+    /**
+     * Gets the HTTP method.
+     *
+     * @return The method, e.g. GET
+     */
+    public String getMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    /**
+     * Gets the number of path segments below the context path.
+     *
+     * @return Segment count
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Gets a path segment below the context path.
+     *
+     * @param index Segment index
+     * @return The segment, or null if there is none
+     */
+    public String getSegment(int index) {
+        return index < segments.length ? segments[index] : null;
+    }
+
+    /**
+     * Gets a path segment as an ID.
+     *
+     * @param index Segment index
+     * @return The ID
+     * @throws IllegalArgumentException If the segment is missing or not a number
+     */
+    public int getIdSegment(int index) {
+        try {
+            return Integer.parseInt(getSegment(index));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid id: " + getSegment(index));
+        }
+    }
+
+    /**
+     * Gets a query parameter.
+     *
+     * @param name Parameter name
+     * @return The decoded value, or null
+     */
+    public String getQueryParam(String name) {
+        if (query == null) {
+            query = new HashMap<>();
+            String raw = exchange.getRequestURI().getRawQuery();
+            if (raw != null) {
+                for (String pair : raw.split("&")) {
+                    int eq = pair.indexOf('=');
+                    String key = eq < 0 ? pair : pair.substring(0, eq);
+                    String value = eq < 0 ? "" : pair.substring(eq + 1);
+                    query.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                            URLDecoder.decode(value, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query.get(name);
+    }
+
+    /**
+     * Gets a field of the JSON request body.
+     *
+     * @param name Field name
+     * @return The value, or null if absent
+     * @throws IOException If the body cannot be read
+     */
+    public String getBodyField(String name) throws IOException {
+        return body().get(name);
+    }
+
+    /**
+     * Gets a required field of the JSON request body.
+     *
+     * @param name Field name
+     * @return The value
+     * @throws IOException If the body cannot be read
+     */
+    public String requireBodyField(String name) throws IOException {
+        String value = body().get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the session named by the session header.
+     *
+     * @return The session, or null if missing or expired
+     */
+    public UserSession getSession() {
+        return SessionRegistry.getInstance().get(getSessionId());
+    }
+
+    /**
+     * Gets the raw session ID sent by the client.
+     *
+     * @return The session ID, or null
+     */
+    public String getSessionId() {
+        return exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+    }
+
+    /**
+     * Sets a response header; must be called before the response is sent.
+     *
+     * @param name  Header name
+     * @param value Header value
+     */
+    public void setHeader(String name, String value) {
+        exchange.getResponseHeaders().set(name, value);
+    }
+
+    /**
+     * Gets the store sent by the client.
+     *
+     * @return The store ID, or null if the header is missing
+     * @throws IllegalArgumentException If the header is not a number
+     */
+    public Integer getStoreId() {
+        String header = exchange.getRequestHeaders().getFirst(STORE_HEADER);
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid store " + header);
+        }
+    }
+
+    /**
+     * Checks if a response has already been sent.
+     *
+     * @return true if responded
+     */
+    public boolean hasResponded() {
+        return responded;
+    }
+
+    /**
+     * Sends a JSON response with a known length.
+     *
+     * @param status HTTP status
+     * @param json   Response JSON
+     * @throws IOException If writing fails
+     */
+    public void sendJson(int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        drainBody();
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        responded = true;
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Sends an error response of the form {"error": "..."}.
+     *
+     * @param status  HTTP status
+     * @param message Error message
+     * @throws IOException If writing fails
+     */
+    public void sendError(int status, String message) throws IOException {
+        sendJson(status, Json.object().put("error", message).toString());
+    }
+
+    /**
+     * Streams a list as a JSON array using chunked encoding.
+     * Elements are converted and written one at a time, so large lists never
+     * exist as a single string in memory.
+     *
+     * @param <T>     Element type
+     * @param items   The items
+     * @param toJson  Converts one item to JSON
+     * @throws IOException If writing fails
+     */
+    public <T> void streamArray(List<T> items, Function<T, String> toJson) throws IOException {
+        drainBody();
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        responded = true;
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 16 * 1024)) {
+            writer.write('[');
+            boolean first = true;
+            for (T item : items) {
+                if (!first) {
+                    writer.write(',');
+                }
+                writer.write(toJson.apply(item));
+                first = false;
+            }
+            writer.write(']');
+        }
+    }
+
+    /**
+     * Reads and parses the request body once.
+     *
+     * @return Body fields
+     * @throws IOException If the body cannot be read
+     */
+    private Map<String, String> body() throws IOException {
+        if (body == null) {
+            byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            body = Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return body;
+    }
+
+    /**
+     * Discards any unread request body so the connection can be reused.
+     *
+     * @throws IOException If reading fails
+     */
+    private void drainBody() throws IOException {
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+    }
+}
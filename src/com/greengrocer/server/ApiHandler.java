@@ -0,0 +1,22 @@
+package com.greengrocer.server;
+
+import java.io.IOException;
+
+/**
+ * Handles the requests below one API context path.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ApiHandler {
+
+    /**
+     * Handles a request. Implementations throw IllegalArgumentException for
+     * bad input, which the server answers with 400.
+     *
+     * @param exchange The request
+     * @throws IOException If writing the response fails
+     */
+    void handle(ApiExchange exchange) throws IOException;
+}
@@ -0,0 +1,223 @@
+package com.greengrocer.server;
+
+import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.database.SchemaMigrator;
+import com.greengrocer.metrics.Counter;
+import com.greengrocer.metrics.Histogram;
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.metrics.MetricsServer;
+import com.greengrocer.models.User;
+import com.greengrocer.utils.Logger;
+import com.greengrocer.utils.NotificationAggregator;
+import com.greengrocer.utils.SessionRegistry;
+import com.greengrocer.utils.UserSession;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.DateTimeException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Headless entry point that serves the shop over HTTP with the JDK's
+ * built-in server, alongside the JavaFX client started by Main.
+ *
+ * Each request runs on its own virtual thread. At most a configured number
+ * of requests are processed at once; any more are answered with 503 so a
+ * load balancer can retry elsewhere. Clients authenticate with
+ * POST /api/login and send the returned session ID in the X-Session header.
+ * GET /metrics serves the metrics in the Prometheus text format.
+ *
+ * Settings (system properties):
+ * greengrocer.http.port (default 8080),
+ * greengrocer.http.maxInFlight (default 256),
+ * greengrocer.http.backlog (default 1024).
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class ApiServer {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(ApiServer.class);
+
+    /** The underlying HTTP server */
+    private final HttpServer server;
+
+    /** Executor running one virtual thread per request */
+    private final ExecutorService executor;
+
+    /** Limits the number of requests processed at once */
+    private final Semaphore inFlight;
+
+    /** Requests rejected because too many were in flight */
+    private final Counter rejected;
+
+    /**
+     * Creates a server bound to a port.
+     *
+     * @param port        The TCP port
+     * @param maxInFlight Maximum number of requests processed at once
+     * @param backlog     TCP accept backlog
+     * @throws IOException If the port cannot be bound
+     */
+    public ApiServer(int port, int maxInFlight, int backlog) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), backlog);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.inFlight = new Semaphore(maxInFlight);
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.gauge("greengrocer_http_in_flight", "Requests being processed",
+                () -> maxInFlight - inFlight.availablePermits());
+        registry.gauge("greengrocer_http_max_in_flight", "Limit of requests processed at once", () -> maxInFlight);
+        this.rejected = registry.counter("greengrocer_http_rejected_total", "Requests answered with 503 when busy");
+
+        route("/api/health", exchange -> exchange.sendJson(200, "{\"status\":\"UP\"}"));
+        route("/api/login", new AuthApi()::login);
+        route("/api/logout", new AuthApi()::logout);
+        route("/api/products", new CatalogApi());
+        route("/api/cart", new CartApi());
+        route("/api/checkout", new OrderApi()::checkout);
+        route("/api/orders", new OrderApi());
+        route("/api/carrier/orders", new CarrierApi());
+        route("/api/owner/reports", new OwnerApi());
+        server.createContext("/metrics", MetricsServer.handler());
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts the headless server.
+     *
+     * @param args Optional port number
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("greengrocer.http.port", 8080);
+        int maxInFlight = Integer.getInteger("greengrocer.http.maxInFlight", 256);
+        int backlog = Integer.getInteger("greengrocer.http.backlog", 1024);
+
+        SchemaMigrator.migrate();
+
+        ApiServer apiServer = new ApiServer(port, maxInFlight, backlog);
+        Runtime.getRuntime().addShutdownHook(new Thread(apiServer::stop, "api-shutdown"));
+        apiServer.start();
+        LOG.info("GreenGrocer API listening", "port", port, "maxInFlight", maxInFlight);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, saves open carts, sends pending stock
+     * notifications and closes the database.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        SessionRegistry.getInstance().shutdown();
+        NotificationAggregator.getInstance().shutdown();
+        DatabaseAdapter.getInstance().closeConnection();
+    }
+
+    /**
+     * Registers a handler below a context path, wrapped with the in-flight
+     * limit and error handling.
+     *
+     * @param path    The context path
+     * @param handler The handler
+     */
+    private void route(String path, ApiHandler handler) {
+        Histogram latency = MetricsRegistry.getInstance().histogram("greengrocer_http_request_seconds",
+                "Duration of API requests by route", "path", path);
+        server.createContext(path, httpExchange -> {
+            ApiExchange exchange = new ApiExchange(httpExchange, path);
+            if (!inFlight.tryAcquire()) {
+                rejected.inc();
+                httpExchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendError(503, "Server busy");
+                return;
+            }
+
+            long start = System.nanoTime();
+            DatabaseAdapter db = DatabaseAdapter.getInstance();
+            db.bindSession(exchange.getSessionId());
+            try {
+                Integer storeId = exchange.getStoreId();
+                if (storeId != null) {
+                    db.bindStore(storeId);
+                }
+                handler.handle(exchange);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                respondWithError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                LOG.error("API error", e, "path", path);
+                respondWithError(exchange, 500, "Internal error");
+            } finally {
+                db.unbindStore();
+                db.unbindSession();
+                latency.recordSince(start);
+                MetricsRegistry.getInstance().counter("greengrocer_http_responses_total",
+                        "API responses by route and status", "path", path,
+                        "status", String.valueOf(httpExchange.getResponseCode())).inc();
+                inFlight.release();
+                httpExchange.close();
+            }
+        });
+    }
+
+    /**
+     * Sends an error unless a response was already started.
+     *
+     * @param exchange The request
+     * @param status   HTTP status
+     * @param message  Error message
+     * @throws IOException If writing fails
+     */
+    private static void respondWithError(ApiExchange exchange, int status, String message) throws IOException {
+        if (!exchange.hasResponded()) {
+            exchange.sendError(status, message);
+        }
+    }
+
+    /**
+     * Gets the session of a request and checks the user's role.
+     * Sends 401 or 403 when the check fails.
+     *
+     * @param exchange The request
+     * @param role     Required role (customer, carrier or owner), or null for any
+     * @return The session, or null if a response was sent
+     * @throws IOException If writing the error fails
+     */
+    static UserSession requireSession(ApiExchange exchange, String role) throws IOException {
+        UserSession session = exchange.getSession();
+        if (session == null) {
+            exchange.sendError(401, "Not logged in");
+            return null;
+        }
+
+        User user = session.getUser();
+        boolean allowed = role == null
+                || ("customer".equals(role) && user.isCustomer())
+                || ("carrier".equals(role) && user.isCarrier())
+                || ("owner".equals(role) && user.isOwner());
+        if (!allowed) {
+            exchange.sendError(403, "Requires " + role + " role");
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Answers a request whose method or path is not supported.
+     *
+     * @param exchange The request
+     * @throws IOException If writing fails
+     */
+    static void notFound(ApiExchange exchange) throws IOException {
+        exchange.sendError(404, "No route for " + exchange.getMethod() + " request");
+    }
+}
@@ -0,0 +1,76 @@
+package com.greengrocer.server;
+
+import com.greengrocer.database.UserDAO;
+import com.greengrocer.models.User;
+import com.greengrocer.utils.SessionRegistry;
+import com.greengrocer.utils.UserSession;
+import java.io.IOException;
+
+/**
+ * Login and logout endpoints.
+ *
+ * POST /api/login {"username", "password"} returns the session ID;
+ * POST /api/logout closes the session sent in X-Session.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class AuthApi {
+
+    /** User DAO */
+    private final UserDAO userDAO;
+
+    /**
+     * Constructor - initializes the DAO.
+     */
+    public AuthApi() {
+        this.userDAO = new UserDAO();
+    }
+
+    /**
+     * Authenticates a user and opens a session.
+     *
+     * @param exchange The request
+     * @throws IOException If writing fails
+     */
+    public void login(ApiExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getMethod())) {
+            ApiServer.notFound(exchange);
+            return;
+        }
+
+        User user = userDAO.authenticate(
+                exchange.requireBodyField("username"),
+                exchange.requireBodyField("password"));
+        if (user == null) {
+            exchange.sendError(401, "Invalid username or password");
+            return;
+        }
+
+        UserSession session = SessionRegistry.getInstance().create(user);
+        exchange.sendJson(200, Json.object()
+                .put("session", session.getId())
+                .put("userId", user.getId())
+                .put("role", user.getRole())
+                .toString());
+    }
+
+    /**
+     * Closes the caller's session.
+     *
+     * @param exchange The request
+     * @throws IOException If writing fails
+     */
+    public void logout(ApiExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getMethod())) {
+            ApiServer.notFound(exchange);
+            return;
+        }
+
+        String sessionId = exchange.getSessionId();
+        if (sessionId != null) {
+            SessionRegistry.getInstance().remove(sessionId);
+        }
+        exchange.sendJson(204, "");
+    }
+}
@@ -0,0 +1,133 @@
+package com.greengrocer.server;
+
+import com.greengrocer.database.MessageDAO;
+import com.greengrocer.database.OrderDAO;
+import com.greengrocer.database.UserDAO;
+import com.greengrocer.models.Message;
+import com.greengrocer.models.Order;
+import com.greengrocer.utils.UserSession;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Delivery endpoints for the logged-in carrier.
+ *
+ * GET /api/carrier/orders?status=pending|selected|completed streams orders;
+ * POST /api/carrier/orders/{id}/claim takes a pending order (only one
+ * carrier can win); POST /api/carrier/orders/{id}/complete marks one of the
+ * carrier's orders as delivered now.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CarrierApi implements ApiHandler {
+
+    /** Order DAO */
+    private final OrderDAO orderDAO;
+
+    /** User DAO */
+    private final UserDAO userDAO;
+
+    /** Message DAO */
+    private final MessageDAO messageDAO;
+
+    /**
+     * Constructor - initializes the DAOs.
+     */
+    public CarrierApi() {
+        this.orderDAO = new OrderDAO();
+        this.userDAO = new UserDAO();
+        this.messageDAO = new MessageDAO();
+    }
+
+    /**
+     * Dispatches a carrier request.
+     *
+     * @param exchange The request
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        UserSession session = ApiServer.requireSession(exchange, "carrier");
+        if (session == null) {
+            return;
+        }
+        int carrierId = session.getUser().getId();
+        String method = exchange.getMethod();
+
+        if ("GET".equals(method) && exchange.getSegmentCount() == 0) {
+            String status = exchange.getQueryParam("status");
+            List<Order> orders;
+            if (status == null || "pending".equalsIgnoreCase(status)) {
+                orders = orderDAO.findPending();
+            } else if ("selected".equalsIgnoreCase(status)) {
+                orders = orderDAO.findByCarrierSelected(carrierId);
+            } else if ("completed".equalsIgnoreCase(status)) {
+                orders = orderDAO.findByCarrierCompleted(carrierId);
+            } else {
+                throw new IllegalArgumentException("Unknown status: " + status);
+            }
+            exchange.streamArray(orders, JsonViews::order);
+            return;
+        }
+
+        if (!"POST".equals(method) || exchange.getSegmentCount() != 2) {
+            ApiServer.notFound(exchange);
+            return;
+        }
+
+        int orderId = exchange.getIdSegment(0);
+        String action = exchange.getSegment(1);
+        if ("claim".equals(action)) {
+            if (orderDAO.selectOrder(orderId, carrierId)) {
+                exchange.sendJson(200, JsonViews.order(orderDAO.findById(orderId)));
+            } else {
+                exchange.sendError(409, "Order was already taken by another carrier");
+            }
+        } else if ("complete".equals(action)) {
+            complete(exchange, carrierId, orderId);
+        } else {
+            ApiServer.notFound(exchange);
+        }
+    }
+
+    /**
+     * Marks an order as delivered and notifies the customer.
+     *
+     * @param exchange  The request
+     * @param carrierId The carrier ID
+     * @param orderId   The order ID
+     * @throws IOException If writing fails
+     */
+    private void complete(ApiExchange exchange, int carrierId, int orderId) throws IOException {
+        Order order = orderDAO.findById(orderId);
+        if (order == null || order.getCarrierId() != carrierId || !order.isSelected()) {
+            exchange.sendError(404, "No open delivery with this id");
+            return;
+        }
+
+        LocalDateTime deliveredAt = LocalDateTime.now();
+        if (!orderDAO.completeOrder(orderId, deliveredAt)) {
+            exchange.sendError(409, "Order could not be completed");
+            return;
+        }
+
+        userDAO.incrementCompletedOrders(order.getUserId());
+        messageDAO.send(new Message(
+                carrierId,
+                order.getUserId(),
+                "Order #" + orderId + " Delivered",
+                String.format(
+                        "Your order #%d has been delivered successfully at %s.\n\n" +
+                                "Total: $%.2f\n\n" +
+                                "Thank you for shopping with us!\n\n" +
+                                "You can rate your delivery experience from your orders page.",
+                        orderId,
+                        deliveredAt.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
+                        order.getTotalCost())));
+
+        exchange.sendJson(200, JsonViews.order(orderDAO.findById(orderId)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.greengrocer.server;
+
+import com.greengrocer.database.ProductDAO;
+import com.greengrocer.models.Product;
+import com.greengrocer.utils.CartManager;
+import com.greengrocer.utils.UserSession;
+import com.greengrocer.utils.ValidationUtils;
+import java.io.IOException;
+
+/**
+ * Cart endpoints for the logged-in customer.
+ *
+ * GET /api/cart returns the cart; POST /api/cart/items {"productId",
+ * "quantity"} adds to it (merging with an existing line); PUT
+ * /api/cart/items/{productId} {"quantity"} changes a line; DELETE
+ * /api/cart/items/{productId} removes it; DELETE /api/cart empties it.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CartApi implements ApiHandler {
+
+    /** Product DAO */
+    private final ProductDAO productDAO;
+
+    /**
+     * Constructor - initializes the DAO.
+     */
+    public CartApi() {
+        this.productDAO = new ProductDAO();
+    }
+
+    /**
+     * Dispatches a cart request.
+     *
+     * @param exchange The request
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        UserSession session = ApiServer.requireSession(exchange, "customer");
+        if (session == null) {
+            return;
+        }
+        CartManager cart = session.getCart();
+        String method = exchange.getMethod();
+
+        if (exchange.getSegmentCount() == 0) {
+            if ("GET".equals(method)) {
+                exchange.sendJson(200, JsonViews.cart(cart));
+            } else if ("DELETE".equals(method)) {
+                cart.clear();
+                exchange.sendJson(200, JsonViews.cart(cart));
+            } else {
+                ApiServer.notFound(exchange);
+            }
+            return;
+        }
+
+        if (!"items".equals(exchange.getSegment(0))) {
+            ApiServer.notFound(exchange);
+            return;
+        }
+
+        if ("POST".equals(method) && exchange.getSegmentCount() == 1) {
+            int productId = ValidationUtils.parseInt(exchange.requireBodyField("productId"));
+            double quantity = parseQuantity(exchange.requireBodyField("quantity"));
+            Product product = productDAO.findById(productId);
+            if (product == null) {
+                exchange.sendError(404, "Product not found");
+                return;
+            }
+            if (quantity + cart.getQuantity(productId) > product.getStock()) {
+                exchange.sendError(409, String.format("Only %.2f kg available", product.getStock()));
+                return;
+            }
+            cart.addItem(product, quantity);
+        } else if ("PUT".equals(method) && exchange.getSegmentCount() == 2) {
+            int productId = exchange.getIdSegment(1);
+            double quantity = parseQuantity(exchange.requireBodyField("quantity"));
+            if (cart.getItem(productId) == null) {
+                exchange.sendError(404, "Product not in cart");
+                return;
+            }
+            if (!productDAO.hasEnoughStock(productId, quantity)) {
+                exchange.sendError(409, "Not enough stock");
+                return;
+            }
+            cart.updateQuantity(productId, quantity);
+        } else if ("DELETE".equals(method) && exchange.getSegmentCount() == 2) {
+            cart.removeItem(exchange.getIdSegment(1));
+        } else {
+            ApiServer.notFound(exchange);
+            return;
+        }
+
+        exchange.sendJson(200, JsonViews.cart(cart));
+    }
+
+    /**
+     * Parses a positive quantity in kg.
+     *
+     * @param value The quantity text
+     * @return The quantity
+     */
+    private static double parseQuantity(String value) {
+        if (!ValidationUtils.isValidPositiveDouble(value)) {
+            throw new IllegalArgumentException("Quantity must be a positive number");
+        }
+        return ValidationUtils.parseDouble(value);
+    }
+}
@@ -0,0 +1,73 @@
+package com.greengrocer.server;
+
+import com.greengrocer.database.DbResult;
+import com.greengrocer.database.ProductDAO;
+import com.greengrocer.models.Product;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Product catalog endpoints. No login is needed.
+ *
+ * GET /api/products[?type=VEGETABLE|FRUIT][&q=name] streams the products in
+ * stock; GET /api/products/{id} returns one product.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CatalogApi implements ApiHandler {
+
+    /** Product DAO */
+    private final ProductDAO productDAO;
+
+    /**
+     * Constructor - initializes the DAO.
+     */
+    public CatalogApi() {
+        this.productDAO = new ProductDAO();
+    }
+
+    /**
+     * Dispatches a catalog request.
+     *
+     * @param exchange The request
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getMethod())) {
+            ApiServer.notFound(exchange);
+            return;
+        }
+
+        if (exchange.getSegmentCount() == 1) {
+            Product product = productDAO.findById(exchange.getIdSegment(0));
+            if (product == null) {
+                exchange.sendError(404, "Product not found");
+            } else {
+                exchange.sendJson(200, JsonViews.product(product));
+            }
+            return;
+        }
+
+        String keyword = exchange.getQueryParam("q");
+        String type = exchange.getQueryParam("type");
+        List<Product> products;
+        if (keyword != null && !keyword.isBlank()) {
+            products = productDAO.searchByName(keyword);
+        } else if (type != null && !type.isBlank()) {
+            DbResult<List<Product>> result = productDAO.loadByType(type.toUpperCase());
+            if (result.isUnavailable()) {
+                // Let clients back off instead of caching an empty catalog
+                exchange.setHeader("Retry-After", "5");
+                exchange.sendError(503, "Catalog temporarily unavailable");
+                return;
+            }
+            products = result.orElse(new ArrayList<>());
+        } else {
+            products = productDAO.findAll();
+        }
+        exchange.streamArray(products, JsonViews::product);
+    }
+}
@@ -0,0 +1,332 @@
+package com.greengrocer.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the headless server.
+ * Writes objects with a small builder and parses the flat request bodies
+ * the API accepts (string, number, boolean and null values only), so the
+ * server needs no extra library.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public final class Json {
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private Json() {
+    }
+
+    /**
+     * Starts a new JSON object.
+     *
+     * @return Object builder
+     */
+    public static ObjectBuilder object() {
+        return new ObjectBuilder();
+    }
+
+    /**
+     * Quotes and escapes a string value.
+     *
+     * @param value The value, may be null
+     * @return JSON string literal, or null
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Parses a flat JSON object into a map of raw values.
+     * Strings are unescaped; numbers and booleans are kept as text; null
+     * values are omitted.
+     *
+     * @param json The JSON text
+     * @return Map of field names to values
+     * @throws IllegalArgumentException If the text is not a flat JSON object
+     */
+    public static Map<String, String> parseObject(String json) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        if (json == null || json.isBlank()) {
+            return fields;
+        }
+
+        Parser parser = new Parser(json);
+        parser.expect('{');
+        if (!parser.tryConsume('}')) {
+            do {
+                String key = parser.readString();
+                parser.expect(':');
+                String value = parser.readValue();
+                if (value != null) {
+                    fields.put(key, value);
+                }
+            } while (parser.tryConsume(','));
+            parser.expect('}');
+        }
+        parser.expectEnd();
+        return fields;
+    }
+
+    /**
+     * Builder for a single JSON object.
+     */
+    public static final class ObjectBuilder {
+
+        /** The JSON text written so far */
+        private final StringBuilder sb = new StringBuilder("{");
+
+        /**
+         * Adds a string field.
+         *
+         * @param name  Field name
+         * @param value Field value, may be null
+         * @return This builder
+         */
+        public ObjectBuilder put(String name, String value) {
+            return raw(name, quote(value));
+        }
+
+        /**
+         * Adds a whole-number field.
+         *
+         * @param name  Field name
+         * @param value Field value
+         * @return This builder
+         */
+        public ObjectBuilder put(String name, long value) {
+            return raw(name, Long.toString(value));
+        }
+
+        /**
+         * Adds a decimal field.
+         *
+         * @param name  Field name
+         * @param value Field value
+         * @return This builder
+         */
+        public ObjectBuilder put(String name, double value) {
+            return raw(name, Double.toString(value));
+        }
+
+        /**
+         * Adds a boolean field.
+         *
+         * @param name  Field name
+         * @param value Field value
+         * @return This builder
+         */
+        public ObjectBuilder put(String name, boolean value) {
+            return raw(name, Boolean.toString(value));
+        }
+
+        /**
+         * Adds a field whose value is already JSON (object, array or number).
+         *
+         * @param name Field name
+         * @param json Field value as JSON text
+         * @return This builder
+         */
+        public ObjectBuilder raw(String name, String json) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append(quote(name)).append(':').append(json);
+            return this;
+        }
+
+        /**
+         * Finishes the object.
+         *
+         * @return The JSON text
+         */
+        @Override
+        public String toString() {
+            return sb + "}";
+        }
+    }
+
+    /**
+     * Character cursor over a JSON text.
+     */
+    private static final class Parser {
+
+        /** The text being parsed */
+        private final String text;
+
+        /** Current position */
+        private int pos;
+
+        /**
+         * Constructor for a parser.
+         *
+         * @param text The text to parse
+         */
+        Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Skips whitespace.
+         */
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        /**
+         * Consumes a character if it is next.
+         *
+         * @param c The character
+         * @return true if it was consumed
+         */
+        boolean tryConsume(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Consumes a required character.
+         *
+         * @param c The character
+         */
+        void expect(char c) {
+            if (!tryConsume(c)) {
+                throw error("expected '" + c + "'");
+            }
+        }
+
+        /**
+         * Checks that nothing but whitespace is left.
+         */
+        void expectEnd() {
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("unexpected trailing content");
+            }
+        }
+
+        /**
+         * Reads a string literal.
+         *
+         * @return The unescaped string
+         */
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("bad unicode escape");
+                        }
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        sb.append(escaped);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        /**
+         * Reads a scalar value.
+         *
+         * @return The value as text, or null for a JSON null
+         */
+        String readValue() {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == '"') {
+                return readString();
+            }
+
+            int start = pos;
+            while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String token = text.substring(start, pos);
+            if (token.isEmpty() || token.startsWith("{") || token.startsWith("[")) {
+                throw error("expected a string, number or boolean");
+            }
+            return "null".equals(token) ? null : token;
+        }
+
+        /**
+         * Creates a parse error at the current position.
+         *
+         * @param message What went wrong
+         * @return The exception to throw
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at " + pos + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.greengrocer.server;
+
+import com.greengrocer.models.CartItem;
+import com.greengrocer.models.Order;
+import com.greengrocer.models.OrderItem;
+import com.greengrocer.models.Product;
+import com.greengrocer.utils.CartManager;
+import com.greengrocer.utils.Money;
+import com.greengrocer.utils.Quantity;
+import java.util.List;
+
+/**
+ * JSON representations of the models returned by the API.
+ * Money is written as decimal strings (e.g. "12.05") and quantities as
+ * decimal kilograms so clients never see rounding noise.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public final class JsonViews {
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private JsonViews() {
+    }
+
+    /**
+     * Converts a product. Images are not included.
+     *
+     * @param product The product
+     * @return Product JSON
+     */
+    public static String product(Product product) {
+        return Json.object()
+                .put("id", product.getId())
+                .put("name", product.getName())
+                .put("type", product.getType())
+                .put("price", Money.format(product.getDisplayPriceCents()))
+                .put("stock", Quantity.toDecimal(Quantity.toGrams(product.getStock())).toPlainString())
+                .put("lowStock", product.isLowStock())
+                .toString();
+    }
+
+    /**
+     * Converts a cart with its items and totals.
+     *
+     * @param cart The cart
+     * @return Cart JSON
+     */
+    public static String cart(CartManager cart) {
+        StringBuilder items = new StringBuilder("[");
+        for (CartItem item : cart.getItems()) {
+            if (items.length() > 1) {
+                items.append(',');
+            }
+            items.append(Json.object()
+                    .put("productId", item.getProductId())
+                    .put("name", item.getProductName())
+                    .put("quantity", Quantity.toDecimal(item.getQuantityGrams()).toPlainString())
+                    .put("price", Money.format(item.getPriceCents()))
+                    .put("total", Money.format(item.getTotalCents())));
+        }
+        items.append(']');
+
+        return Json.object()
+                .raw("items", items.toString())
+                .put("subtotal", Money.format(cart.getSubtotalCents()))
+                .put("vat", Money.format(cart.getVatCents(0)))
+                .put("total", Money.format(cart.getTotalWithDiscountCents(0)))
+                .put("meetsMinimum", cart.meetsMinimum())
+                .toString();
+    }
+
+    /**
+     * Converts an order without its items.
+     *
+     * @param order The order
+     * @return Order JSON
+     */
+    public static String order(Order order) {
+        return orderBuilder(order).toString();
+    }
+
+    /**
+     * Converts an order including its items.
+     *
+     * @param order The order
+     * @param items The order items
+     * @return Order JSON
+     */
+    public static String order(Order order, List<OrderItem> items) {
+        StringBuilder array = new StringBuilder("[");
+        for (OrderItem item : items) {
+            if (array.length() > 1) {
+                array.append(',');
+            }
+            array.append(Json.object()
+                    .put("productId", item.getProductId())
+                    .put("name", item.getProductName())
+                    .put("quantity", Quantity.toDecimal(item.getQuantityGrams()).toPlainString())
+                    .put("price", Money.format(item.getPriceCents()))
+                    .put("total", Money.format(item.getTotalCents())));
+        }
+        array.append(']');
+        return orderBuilder(order).raw("items", array.toString()).toString();
+    }
+
+    /**
+     * Builds the common order fields.
+     *
+     * @param order The order
+     * @return Builder with the order fields
+     */
+    private static Json.ObjectBuilder orderBuilder(Order order) {
+        return Json.object()
+                .put("id", order.getId())
+                .put("userId", order.getUserId())
+                .put("customerName", order.getCustomerName())
+                .put("carrierId", order.getCarrierId())
+                .put("status", order.getStatus())
+                .put("orderTime", order.getOrderTime() != null ? order.getOrderTime().toString() : null)
+                .put("requestedDelivery",
+                        order.getRequestedDelivery() != null ? order.getRequestedDelivery().toString() : null)
+                .put("deliveryTime", order.getDeliveryTime() != null ? order.getDeliveryTime().toString() : null)
+                .put("subtotal", Money.format(order.getSubtotalCents()))
+                .put("discount", Money.format(order.getDiscountCents()))
+                .put("vat", Money.format(order.getVatCents()))
+                .put("total", Money.format(order.getTotalCostCents()));
+    }
+}
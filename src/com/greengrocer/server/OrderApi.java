@@ -0,0 +1,261 @@
+package com.greengrocer.server;
+
+import com.greengrocer.database.CouponDAO;
+import com.greengrocer.database.LoyaltySettingsDAO;
+import com.greengrocer.database.OrderDAO;
+import com.greengrocer.database.UserDAO;
+import com.greengrocer.models.Coupon;
+import com.greengrocer.models.LoyaltySettings;
+import com.greengrocer.models.Order;
+import com.greengrocer.models.User;
+import com.greengrocer.utils.CartManager;
+import com.greengrocer.utils.CheckoutService;
+import com.greengrocer.utils.UserSession;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Checkout and order endpoints for the logged-in customer.
+ *
+ * POST /api/checkout {"delivery": "2024-05-01T14:30", "couponCode",
+ * "useLoyalty"} places an order from the cart; GET /api/orders?limit=&after=
+ * streams a page of the customer's orders, newest first, and sends the
+ * after value of the next page in the X-Next-After header while there may
+ * be more; GET /api/orders/{id} returns one order with its items;
+ * POST /api/orders/{id}/cancel cancels a pending order.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class OrderApi implements ApiHandler {
+
+    /** Orders per page unless the client asks for fewer */
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** Most orders a client can ask for in one page */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /** Header carrying the cursor of the next page */
+    private static final String NEXT_PAGE_HEADER = "X-Next-After";
+
+    /** Order DAO */
+    private final OrderDAO orderDAO;
+
+    /** Coupon DAO */
+    private final CouponDAO couponDAO;
+
+    /** User DAO */
+    private final UserDAO userDAO;
+
+    /** Loyalty settings DAO */
+    private final LoyaltySettingsDAO loyaltySettingsDAO;
+
+    /** Places the orders */
+    private final CheckoutService checkoutService;
+
+    /**
+     * Constructor - initializes the DAOs.
+     */
+    public OrderApi() {
+        this.orderDAO = new OrderDAO();
+        this.couponDAO = new CouponDAO();
+        this.userDAO = new UserDAO();
+        this.loyaltySettingsDAO = new LoyaltySettingsDAO();
+        this.checkoutService = new CheckoutService();
+    }
+
+    /**
+     * Places an order from the session's cart and takes the ordered items
+     * out of it. The order is placed from a snapshot of the cart, so items
+     * the customer adds in another request meanwhile are neither ordered
+     * nor lost. Conflicts with other customers (slot full, coupon used up,
+     * stock gone) answer 409.
+     *
+     * @param exchange The request
+     * @throws IOException If writing fails
+     */
+    public void checkout(ApiExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getMethod())) {
+            ApiServer.notFound(exchange);
+            return;
+        }
+        UserSession session = ApiServer.requireSession(exchange, "customer");
+        if (session == null) {
+            return;
+        }
+
+        CartManager cart = session.getCart().snapshot();
+        LocalDateTime delivery = LocalDateTime.parse(exchange.requireBodyField("delivery"));
+        String error = checkoutService.validate(cart, delivery);
+        if (error != null) {
+            exchange.sendError(409, error);
+            return;
+        }
+
+        Coupon coupon = null;
+        String couponCode = exchange.getBodyField("couponCode");
+        if (couponCode != null && !couponCode.isBlank()) {
+            coupon = findUsableCoupon(session.getUser().getId(), couponCode, cart);
+            if (coupon == null) {
+                exchange.sendError(409, "Coupon " + couponCode + " cannot be applied to this order");
+                return;
+            }
+        }
+
+        double loyaltyPercent = 0;
+        if (Boolean.parseBoolean(exchange.getBodyField("useLoyalty"))) {
+            User current = userDAO.findById(session.getUser().getId());
+            LoyaltySettings settings = loyaltySettingsDAO.getSettings();
+            if (current == null || !settings.isEligible(current.getCompletedOrders())) {
+                exchange.sendError(409, "Not eligible for the loyalty discount");
+                return;
+            }
+            loyaltyPercent = settings.getDiscountPercent();
+        }
+
+        CheckoutService.Outcome outcome =
+                checkoutService.place(session.getUser(), cart, delivery, coupon, loyaltyPercent);
+        Order order = outcome.getOrder();
+        if (order == null) {
+            CheckoutService.Failure failure = outcome.getFailure();
+            exchange.sendError(failure.isConflict() ? 409 : 500, failure.getMessage());
+            return;
+        }
+
+        session.getCart().removeOrdered(cart);
+        exchange.sendJson(201, JsonViews.order(order, order.getItems()));
+    }
+
+    /**
+     * Dispatches an order request.
+     *
+     * @param exchange The request
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        UserSession session = ApiServer.requireSession(exchange, "customer");
+        if (session == null) {
+            return;
+        }
+        int userId = session.getUser().getId();
+        String method = exchange.getMethod();
+
+        if ("GET".equals(method) && exchange.getSegmentCount() == 0) {
+            listOrders(exchange, userId);
+            return;
+        }
+
+        if (exchange.getSegmentCount() == 0) {
+            ApiServer.notFound(exchange);
+            return;
+        }
+
+        int orderId = exchange.getIdSegment(0);
+        Order order = orderDAO.findById(orderId);
+        if (order == null || order.getUserId() != userId) {
+            exchange.sendError(404, "Order not found");
+            return;
+        }
+
+        if ("GET".equals(method) && exchange.getSegmentCount() == 1) {
+            exchange.sendJson(200, JsonViews.order(order, orderDAO.getOrderItems(orderId)));
+        } else if ("POST".equals(method) && "cancel".equals(exchange.getSegment(1))) {
+            if (orderDAO.cancelOrder(orderId)) {
+                exchange.sendJson(200, JsonViews.order(orderDAO.findById(orderId)));
+            } else {
+                exchange.sendError(409, "Order can no longer be cancelled");
+            }
+        } else {
+            ApiServer.notFound(exchange);
+        }
+    }
+
+    /**
+     * Streams one page of the customer's orders, newest first. The page
+     * continues after the cursor in the after parameter, and a full page
+     * sends the cursor of its last order in the X-Next-After header.
+     *
+     * @param exchange The request
+     * @param userId   The customer ID
+     * @throws IOException If writing fails
+     */
+    private void listOrders(ApiExchange exchange, int userId) throws IOException {
+        int limit = DEFAULT_PAGE_SIZE;
+        String limitParam = exchange.getQueryParam("limit");
+        if (limitParam != null) {
+            try {
+                limit = Math.min(Integer.parseInt(limitParam), MAX_PAGE_SIZE);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid limit: " + limitParam);
+            }
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Invalid limit: " + limitParam);
+            }
+        }
+
+        List<Order> orders = orderDAO.findByUser(userId, parseCursor(exchange.getQueryParam("after")), limit);
+        if (orders.size() == limit) {
+            exchange.setHeader(NEXT_PAGE_HEADER, cursor(orders.get(orders.size() - 1)));
+        }
+        exchange.streamArray(orders, JsonViews::order);
+    }
+
+    /**
+     * Builds the cursor of the page after an order, its order time and ID.
+     *
+     * @param order The last order of a page
+     * @return The cursor, e.g. 2024-05-01T14:30:05_42
+     */
+    private static String cursor(Order order) {
+        return order.getOrderTime() + "_" + order.getId();
+    }
+
+    /**
+     * Reads a cursor made by cursor(Order) back into the order it stands for.
+     *
+     * @param cursor The cursor, or null for the first page
+     * @return An order with only its order time and ID set, or null
+     * @throws IllegalArgumentException If the cursor is malformed
+     */
+    private static Order parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        int separator = cursor.lastIndexOf('_');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        Order after = new Order();
+        after.setOrderTime(LocalDateTime.parse(cursor.substring(0, separator)));
+        try {
+            after.setId(Integer.parseInt(cursor.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return after;
+    }
+
+    /**
+     * Finds an assigned, valid coupon by code that the cart qualifies for.
+     * Unknown codes are turned away by the coupon cache before the
+     * customer's coupons are looked at.
+     *
+     * @param userId The customer ID
+     * @param code   The coupon code
+     * @param cart   The cart
+     * @return The coupon, or null if it cannot be used
+     */
+    private Coupon findUsableCoupon(int userId, String code, CartManager cart) {
+        if (couponDAO.findByCode(code) == null) {
+            return null;
+        }
+        for (Coupon coupon : couponDAO.findUserCoupons(userId)) {
+            if (coupon.getCode().equalsIgnoreCase(code)) {
+                return coupon.isValid() && coupon.meetsMinimum(cart.getSubtotal()) ? coupon : null;
+            }
+        }
+        return null;
+    }
+}
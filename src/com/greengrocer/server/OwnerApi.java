@@ -0,0 +1,167 @@
+package com.greengrocer.server;
+
+import com.greengrocer.database.OrderDAO;
+import com.greengrocer.models.ProductSales;
+import com.greengrocer.utils.Logger;
+import com.greengrocer.utils.Money;
+import com.greengrocer.utils.Quantity;
+import com.greengrocer.utils.StoreReports;
+import com.greengrocer.utils.UserSession;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report endpoints for the owner.
+ *
+ * GET /api/owner/reports/sales returns total sales and sales per product
+ * of the store named by the X-Store header (default store if absent);
+ * GET /api/owner/reports/stores returns the same across all stores;
+ * GET /api/owner/reports/orders[?status=...] streams all orders.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class OwnerApi implements ApiHandler {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(OwnerApi.class);
+
+    /** Order DAO */
+    private final OrderDAO orderDAO;
+
+    /** Cross-store reports */
+    private final StoreReports storeReports;
+
+    /**
+     * Constructor - initializes the DAO.
+     */
+    public OwnerApi() {
+        this.orderDAO = new OrderDAO();
+        this.storeReports = new StoreReports();
+    }
+
+    /**
+     * Dispatches an owner report request.
+     *
+     * @param exchange The request
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        UserSession session = ApiServer.requireSession(exchange, "owner");
+        if (session == null) {
+            return;
+        }
+        if (!"GET".equals(exchange.getMethod()) || exchange.getSegmentCount() != 1) {
+            ApiServer.notFound(exchange);
+            return;
+        }
+
+        String report = exchange.getSegment(0);
+        if ("sales".equals(report)) {
+            exchange.sendJson(200, Json.object()
+                    .put("totalSales", Money.format(orderDAO.getTotalSalesCents()))
+                    .raw("byProduct", salesByProduct())
+                    .toString());
+        } else if ("stores".equals(report)) {
+            exchange.sendJson(200, storesReport());
+        } else if ("orders".equals(report)) {
+            String status = exchange.getQueryParam("status");
+            exchange.streamArray(
+                    status == null ? orderDAO.findAll() : orderDAO.findByStatus(status.toUpperCase()),
+                    JsonViews::order);
+        } else {
+            ApiServer.notFound(exchange);
+        }
+    }
+
+    /**
+     * Builds the cross-store sales report: total sales per store and in
+     * all, and sales per product summed over the stores. Stores that did
+     * not answer either query are listed under missingStores.
+     *
+     * @return JSON object
+     */
+    private String storesReport() {
+        Map<Integer, Long> totals = storeReports.totalSalesByStore();
+        Map<Integer, List<ProductSales>> byStore = new LinkedHashMap<>();
+        List<ProductSales> byProduct = storeReports.salesByProduct(byStore);
+
+        StringBuilder stores = new StringBuilder("[");
+        long total = 0;
+        for (Map.Entry<Integer, Long> entry : totals.entrySet()) {
+            if (stores.length() > 1) {
+                stores.append(',');
+            }
+            stores.append(Json.object()
+                    .put("store", entry.getKey())
+                    .put("totalSales", Money.format(entry.getValue())));
+            total += entry.getValue();
+        }
+
+        StringBuilder missing = new StringBuilder("[");
+        for (int storeId : storeReports.missingStores(totals, byStore)) {
+            if (missing.length() > 1) {
+                missing.append(',');
+            }
+            missing.append(storeId);
+        }
+
+        return Json.object()
+                .put("totalSales", Money.format(total))
+                .raw("stores", stores.append(']').toString())
+                .raw("byProduct", productArray(byProduct))
+                .raw("missingStores", missing.append(']').toString())
+                .toString();
+    }
+
+    /**
+     * Converts product sales to a JSON array.
+     *
+     * @param sales The product sales
+     * @return JSON array
+     */
+    private static String productArray(List<ProductSales> sales) {
+        StringBuilder array = new StringBuilder("[");
+        for (ProductSales product : sales) {
+            if (array.length() > 1) {
+                array.append(',');
+            }
+            array.append(Json.object()
+                    .put("product", product.getProductName())
+                    .put("quantity", Quantity.toDecimal(product.getQuantityGrams()).toPlainString())
+                    .put("sales", Money.format(product.getSalesCents())));
+        }
+        return array.append(']').toString();
+    }
+
+    /**
+     * Builds the sales-per-product array for delivered orders.
+     *
+     * @return JSON array
+     */
+    private String salesByProduct() {
+        StringBuilder array = new StringBuilder("[");
+        ResultSet rs = orderDAO.getSalesByProduct();
+        if (rs != null) {
+            try {
+                while (rs.next()) {
+                    if (array.length() > 1) {
+                        array.append(',');
+                    }
+                    array.append(Json.object()
+                            .put("product", rs.getString("product_name"))
+                            .put("quantity", rs.getBigDecimal("total_quantity").toPlainString())
+                            .put("sales", Money.format(Money.fromDecimal(rs.getBigDecimal("total_sales")))));
+                }
+            } catch (SQLException e) {
+                LOG.error("Sales report error", e);
+            }
+        }
+        return array.append(']').toString();
+    }
+}
@@ -0,0 +1,184 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.database.ProductDAO;
+import com.greengrocer.database.SchemaMigrator;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Staged startup bootstrap.
+ * The login screen is shown straight away while the database connection,
+ * schema migration, catalog warmup and controller class loading run in the
+ * background.
+ * Uses Singleton pattern.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class AppBootstrap {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(AppBootstrap.class);
+
+    /** Classes touched by the first scene switch */
+    private static final String[] PRELOAD_CLASSES = {
+            "javafx.fxml.FXMLLoader",
+            "com.greengrocer.controllers.RegistrationController",
+            "com.greengrocer.controllers.CustomerController",
+            "com.greengrocer.controllers.ShoppingCartController",
+            "com.greengrocer.controllers.CarrierController",
+            "com.greengrocer.controllers.OwnerController"
+    };
+
+    /** Singleton instance */
+    private static AppBootstrap instance;
+
+    /** Background workers for the startup stages */
+    private final ExecutorService executor;
+
+    /** Time the JVM was started, in epoch milliseconds */
+    private final long jvmStartMillis;
+
+    /** Completes when every startup stage has finished */
+    private CompletableFuture<Void> allStages;
+
+    /**
+     * Private constructor for singleton.
+     */
+    private AppBootstrap() {
+        this.executor = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "bootstrap");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.jvmStartMillis = ProcessHandle.current().info().startInstant()
+                .map(Instant::toEpochMilli)
+                .orElse(System.currentTimeMillis());
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return AppBootstrap instance
+     */
+    public static synchronized AppBootstrap getInstance() {
+        if (instance == null) {
+            instance = new AppBootstrap();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts all background stages. Calling this more than once has no effect.
+     */
+    public synchronized void start() {
+        if (allStages != null) {
+            return;
+        }
+
+        CompletableFuture<Void> connect = stage("db-connect", () -> {
+            try {
+                DatabaseAdapter.getInstance().getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+        CompletableFuture<Void> migration = connect.thenRunAsync(
+                () -> timed("schema-migration", SchemaMigrator::migrate), executor);
+        // The catalog queries filter on columns the migration may still have to add
+        CompletableFuture<Void> warmup = migration.thenRunAsync(() -> timed("catalog-warmup", this::warmCatalog),
+                executor);
+        CompletableFuture<Void> classes = stage("class-preload", this::preloadClasses);
+
+        allStages = CompletableFuture.allOf(migration, warmup, classes);
+        allStages.whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOG.error("Startup finished with errors", error);
+            } else {
+                LOG.info("Database connected successfully");
+            }
+            LOG.info("Startup: all background stages done", "sinceJvmStartMs", sinceJvmStart());
+        });
+    }
+
+    /**
+     * Reports the cold start time once the login screen accepts input.
+     */
+    public void reportInteractive() {
+        LOG.info("Startup: login interactive", "sinceJvmStartMs", sinceJvmStart());
+    }
+
+    /**
+     * Stops the background workers.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a stage on the bootstrap executor.
+     *
+     * @param name Stage name used in the timing report
+     * @param work The work to run
+     * @return Future for the stage
+     */
+    private CompletableFuture<Void> stage(String name, Runnable work) {
+        return CompletableFuture.runAsync(() -> timed(name, work), executor);
+    }
+
+    /**
+     * Runs a piece of work and logs how long it took.
+     *
+     * @param name Stage name
+     * @param work The work to run
+     */
+    private void timed(String name, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            LOG.error("Startup stage failed", e, "stage", name);
+            throw e;
+        } finally {
+            LOG.info("Startup stage done", "stage", name, "ms", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Runs the catalog queries once so the first customer screen hits
+     * prepared driver code paths and a warm server buffer pool.
+     */
+    private void warmCatalog() {
+        ProductDAO productDAO = new ProductDAO();
+        productDAO.getVegetables();
+        productDAO.getFruits();
+    }
+
+    /**
+     * Loads and initializes the controller classes ahead of the first scene
+     * switch. The views themselves are parsed when they are shown, since
+     * their controllers read the logged-in user while initializing.
+     */
+    private void preloadClasses() {
+        ClassLoader loader = AppBootstrap.class.getClassLoader();
+        for (String className : PRELOAD_CLASSES) {
+            try {
+                Class.forName(className, true, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOG.warn("Could not preload class", e, "class", className);
+            }
+        }
+    }
+
+    /**
+     * Gets the milliseconds elapsed since the JVM started.
+     *
+     * @return Elapsed milliseconds
+     */
+    private long sinceJvmStart() {
+        return System.currentTimeMillis() - jvmStartMillis;
+    }
+}
@@ -0,0 +1,100 @@
+package com.greengrocer.utils;
+
+import java.util.BitSet;
+
+/**
+ * Bloom filter over strings: answers "definitely not present" or "maybe
+ * present" from a compact bit set. Used to turn away lookups of codes
+ * that do not exist without asking the database.
+ *
+ * Not thread-safe for concurrent adds; callers synchronize writes.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class BloomFilter {
+
+    /** The bits */
+    private final BitSet bits;
+
+    /** Number of bits */
+    private final int size;
+
+    /** Bits set per item */
+    private final int hashes;
+
+    /**
+     * Constructor for a filter sized for a number of items.
+     *
+     * @param expectedItems          Items the filter will hold
+     * @param falsePositiveRate      Wanted chance that an absent item is reported as present
+     */
+    public BloomFilter(int expectedItems, double falsePositiveRate) {
+        int items = Math.max(1, expectedItems);
+        long optimalBits = (long) Math.ceil(-items * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.size = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 1, optimalBits));
+        this.hashes = Math.max(1, (int) Math.round((double) size / items * Math.log(2)));
+        this.bits = new BitSet(size);
+    }
+
+    /**
+     * Adds an item.
+     *
+     * @param item The item
+     */
+    public void add(String item) {
+        long hash = hash(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            bits.set(index(h1 + i * h2));
+        }
+    }
+
+    /**
+     * Checks whether an item may have been added.
+     *
+     * @param item The item
+     * @return false if the item was certainly never added
+     */
+    public boolean mightContain(String item) {
+        long hash = hash(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            if (!bits.get(index(h1 + i * h2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps a combined hash to a bit index.
+     *
+     * @param combined The hash
+     * @return Index in [0, size)
+     */
+    private int index(int combined) {
+        return (combined & Integer.MAX_VALUE) % size;
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a hash of a string, finished with a mixing
+     * step so both halves are usable as independent hashes.
+     *
+     * @param item The string
+     * @return The hash
+     */
+    private static long hash(String item) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < item.length(); i++) {
+            hash ^= item.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
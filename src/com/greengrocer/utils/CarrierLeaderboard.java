@@ -0,0 +1,180 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.database.DbResult;
+import com.greengrocer.database.RatingDAO;
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.models.CarrierRating;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carriers ranked by their Bayesian average rating, for the owner.
+ *
+ * The ranking is built from the carriers' rating totals in one query and
+ * kept per database for a short time, so opening the ratings or carriers
+ * tab repeatedly does not query again. RatingDAO and UserDAO drop it when
+ * a rating is given or a carrier is hired or fired. A ranking whose query
+ * failed is returned but not kept, so the next call tries again instead of
+ * showing no carriers until it expires.
+ *
+ * The Bayesian average adds a number of imagined ratings at the overall
+ * mean to each carrier, so a carrier with one five-star rating does not
+ * outrank one with hundreds of good ones.
+ *
+ * Settings (system properties):
+ * greengrocer.ratings.leaderboardSeconds (default 60),
+ * greengrocer.ratings.priorWeight (default 5).
+ * Uses Singleton pattern.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CarrierLeaderboard {
+
+    /** Singleton instance */
+    private static CarrierLeaderboard instance;
+
+    /**
+     * A ranking with the time it was built.
+     */
+    private static final class Ranking {
+
+        /** Carriers, best first */
+        final List<CarrierRating> carriers;
+
+        /** Mean rating over all carriers */
+        final double mean;
+
+        /** When the ranking was built */
+        final long builtAt = System.nanoTime();
+
+        /**
+         * Constructor with all fields.
+         *
+         * @param carriers Carriers, best first
+         * @param mean     Mean rating over all carriers
+         */
+        Ranking(List<CarrierRating> carriers, double mean) {
+            this.carriers = carriers;
+            this.mean = mean;
+        }
+    }
+
+    /** Rating DAO */
+    private final RatingDAO ratingDAO;
+
+    /** Time a ranking is kept */
+    private final long ttlNanos;
+
+    /** Imagined ratings at the mean added to each carrier */
+    private final int priorWeight;
+
+    /** Rankings by database name */
+    private final ConcurrentHashMap<String, Ranking> rankings;
+
+    /**
+     * Private constructor for singleton.
+     */
+    private CarrierLeaderboard() {
+        this.ratingDAO = new RatingDAO();
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Long.getLong("greengrocer.ratings.leaderboardSeconds", 60));
+        this.priorWeight = Integer.getInteger("greengrocer.ratings.priorWeight", 5);
+        this.rankings = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return CarrierLeaderboard instance
+     */
+    public static synchronized CarrierLeaderboard getInstance() {
+        if (instance == null) {
+            instance = new CarrierLeaderboard();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the best carriers.
+     *
+     * @param n Maximum number of carriers
+     * @return Carriers, best first
+     */
+    public List<CarrierRating> top(int n) {
+        List<CarrierRating> carriers = ranking().carriers;
+        return new ArrayList<>(carriers.subList(0, Math.min(n, carriers.size())));
+    }
+
+    /**
+     * Gets the rating totals of all carriers by carrier ID.
+     *
+     * @return The totals
+     */
+    public Map<Integer, CarrierRating> byCarrier() {
+        Map<Integer, CarrierRating> byId = new HashMap<>();
+        for (CarrierRating carrier : ranking().carriers) {
+            byId.put(carrier.getCarrierId(), carrier);
+        }
+        return byId;
+    }
+
+    /**
+     * Gets a carrier's score on the leaderboard.
+     *
+     * @param carrier The carrier's totals
+     * @return The Bayesian average
+     */
+    public double score(CarrierRating carrier) {
+        return carrier.getBayesianAverage(ranking().mean, priorWeight);
+    }
+
+    /**
+     * Drops the current database's ranking so the next call rebuilds it.
+     */
+    public void refresh() {
+        rankings.remove(DatabaseAdapter.getInstance().getDatabaseName());
+    }
+
+    /**
+     * Gets the current database's ranking, building it if it is missing
+     * or expired. A ranking built from a failed query is not kept.
+     *
+     * @return The ranking
+     */
+    private Ranking ranking() {
+        String database = DatabaseAdapter.getInstance().getDatabaseName();
+        Ranking cached = rankings.get(database);
+        boolean hit = cached != null && System.nanoTime() - cached.builtAt <= ttlNanos;
+        MetricsRegistry.getInstance().cacheLookup("carrier_leaderboard", hit);
+        if (hit) {
+            return cached;
+        }
+
+        DbResult<List<CarrierRating>> loaded = ratingDAO.loadCarrierRatings();
+        List<CarrierRating> carriers = loaded.orElse(new ArrayList<>());
+        long sum = 0;
+        long count = 0;
+        for (CarrierRating carrier : carriers) {
+            sum += carrier.getRatingSum();
+            count += carrier.getRatingCount();
+        }
+        double mean = count > 0 ? (double) sum / count : 0;
+
+        carriers.sort(Comparator.comparingDouble(
+                (CarrierRating carrier) -> carrier.getBayesianAverage(mean, priorWeight))
+                .thenComparingInt(CarrierRating::getRatingCount)
+                .reversed());
+        Ranking ranking = new Ranking(Collections.unmodifiableList(carriers), mean);
+        if (loaded.isOk()) {
+            rankings.put(database, ranking);
+        }
+        return ranking;
+    }
+}
@@ -2,12 +2,18 @@ package com.greengrocer.utils;
 
 import com.greengrocer.models.CartItem;
 import com.greengrocer.models.Product;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Shopping Cart Manager for the current shopping session.
  * Handles cart operations including merging same products.
+ * Items are indexed by product ID in insertion order, and the subtotal and
+ * VAT are kept up to date on every change so reads are constant time.
+ * The desktop client uses the singleton instance; the multi-user session
+ * store creates one cart per session. Mutations are synchronized per cart
+ * and totals can be read without locking.
  * Uses Singleton pattern.
  * 
  * @author Group17
@@ -18,20 +24,41 @@ public class CartManager {
     /** Singleton instance */
     private static CartManager instance;
 
-    /** List of items in the cart */
-    private List<CartItem> items;
+    /** Items in the cart keyed by product ID, in the order they were added */
+    private final Map<Integer, CartItem> items;
+
+    /** Read-only view of the items, rebuilt only when items are added or removed */
+    private volatile List<CartItem> itemsView;
+
+    /** Running sum of the line totals in cents */
+    private volatile long subtotalCents;
+
+    /** Running VAT on the undiscounted subtotal in cents */
+    private volatile long vatCents;
+
+    /** Incremented on every change, used to detect carts that need saving */
+    private volatile long version;
 
     /** Minimum cart value required to checkout */
     public static final double MINIMUM_CART_VALUE = 10.0;
 
+    /** Minimum cart value in cents */
+    public static final long MINIMUM_CART_CENTS = 1000;
+
     /** VAT percentage */
     public static final double VAT_RATE = 0.18; // 18% VAT
 
+    /** VAT rate in basis points */
+    public static final long VAT_BASIS_POINTS = 1800;
+
     /**
-     * Private constructor for singleton.
+     * Creates an empty cart.
+     * Desktop code should use getInstance(); separate carts are created by
+     * the session store.
      */
-    private CartManager() {
-        this.items = new ArrayList<>();
+    public CartManager() {
+        this.items = new LinkedHashMap<>();
+        this.itemsView = List.of();
     }
 
     /**
@@ -53,18 +80,21 @@ public class CartManager {
      * @param product  The product to add
      * @param quantity The quantity in kg
      */
-    public void addItem(Product product, double quantity) {
+    public synchronized void addItem(Product product, double quantity) {
         // Check if product already in cart - merge if so
-        for (CartItem item : items) {
-            if (item.getProductId() == product.getId()) {
-                // Merge quantities
-                item.addQuantity(quantity);
-                return;
-            }
+        CartItem item = items.get(product.getId());
+        if (item != null) {
+            long before = item.getTotalCents();
+            item.addQuantity(quantity);
+            adjustSubtotal(item.getTotalCents() - before);
+            return;
         }
 
         // New product - add to cart
-        items.add(new CartItem(product, quantity));
+        item = new CartItem(product, quantity);
+        items.put(product.getId(), item);
+        itemsView = null;
+        adjustSubtotal(item.getTotalCents());
     }
 
     /**
@@ -72,8 +102,12 @@ public class CartManager {
      * 
      * @param productId The product ID to remove
      */
-    public void removeItem(int productId) {
-        items.removeIf(item -> item.getProductId() == productId);
+    public synchronized void removeItem(int productId) {
+        CartItem removed = items.remove(productId);
+        if (removed != null) {
+            itemsView = null;
+            adjustSubtotal(-removed.getTotalCents());
+        }
     }
 
     /**
@@ -82,29 +116,141 @@ public class CartManager {
      * @param productId   The product ID
      * @param newQuantity The new quantity
      */
-    public void updateQuantity(int productId, double newQuantity) {
-        for (CartItem item : items) {
-            if (item.getProductId() == productId) {
-                item.setQuantity(newQuantity);
-                return;
-            }
+    public synchronized void updateQuantity(int productId, double newQuantity) {
+        CartItem item = items.get(productId);
+        if (item != null) {
+            long before = item.getTotalCents();
+            item.setQuantity(newQuantity);
+            adjustSubtotal(item.getTotalCents() - before);
         }
     }
 
+    /**
+     * Gets the cart item for a product.
+     * 
+     * @param productId The product ID
+     * @return The cart item, or null if the product is not in the cart
+     */
+    public synchronized CartItem getItem(int productId) {
+        return items.get(productId);
+    }
+
+    /**
+     * Gets the quantity of a product already in the cart.
+     * 
+     * @param productId The product ID
+     * @return Quantity in kg, 0 if the product is not in the cart
+     */
+    public synchronized double getQuantity(int productId) {
+        CartItem item = items.get(productId);
+        return item != null ? item.getQuantity() : 0;
+    }
+
     /**
      * Gets all items in the cart.
+     * The returned list is read-only and is shared between calls until an
+     * item is added or removed.
      * 
-     * @return List of cart items
+     * @return Unmodifiable list of cart items
      */
     public List<CartItem> getItems() {
-        return new ArrayList<>(items);
+        List<CartItem> view = itemsView;
+        if (view == null) {
+            synchronized (this) {
+                if (itemsView == null) {
+                    itemsView = List.copyOf(items.values());
+                }
+                view = itemsView;
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Puts a previously saved item back into the cart, keeping its original
+     * price. Replaces any item for the same product.
+     * 
+     * @param item The item to restore
+     */
+    public synchronized void restoreItem(CartItem item) {
+        CartItem previous = items.put(item.getProductId(), item);
+        itemsView = null;
+        adjustSubtotal(item.getTotalCents() - (previous != null ? previous.getTotalCents() : 0));
     }
 
     /**
      * Clears all items from the cart.
      */
-    public void clear() {
+    public synchronized void clear() {
         items.clear();
+        itemsView = List.of();
+        subtotalCents = 0;
+        vatCents = 0;
+        version++;
+    }
+
+    /**
+     * Copies the cart as it is now, so an order can be built from contents
+     * that do not change while it is being placed.
+     *
+     * @return A separate cart with copies of the items and this cart's version
+     */
+    public synchronized CartManager snapshot() {
+        CartManager copy = new CartManager();
+        for (CartItem item : items.values()) {
+            CartItem itemCopy = new CartItem(item.getProduct(), item.getQuantity());
+            itemCopy.setPriceAtTime(item.getPriceAtTime());
+            copy.restoreItem(itemCopy);
+        }
+        copy.version = version;
+        return copy;
+    }
+
+    /**
+     * Takes the contents of a placed order out of the cart. If the cart is
+     * unchanged since the snapshot the order was placed from, it is emptied;
+     * otherwise only the ordered quantities are removed, so items added
+     * while the order was being placed stay in the cart.
+     *
+     * @param ordered The snapshot the order was placed from
+     */
+    public synchronized void removeOrdered(CartManager ordered) {
+        if (ordered.getVersion() == version) {
+            clear();
+            return;
+        }
+        for (CartItem orderedItem : ordered.getItems()) {
+            CartItem item = items.get(orderedItem.getProductId());
+            if (item == null) {
+                continue;
+            }
+            long remainingGrams = item.getQuantityGrams() - orderedItem.getQuantityGrams();
+            if (remainingGrams <= 0) {
+                removeItem(item.getProductId());
+            } else {
+                updateQuantity(item.getProductId(), Quantity.toKg(remainingGrams));
+            }
+        }
+    }
+
+    /**
+     * Gets the change counter of this cart.
+     * 
+     * @return Number of changes made since the cart was created
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Applies a change to the running subtotal and refreshes the VAT.
+     * 
+     * @param deltaCents Change of the subtotal in cents
+     */
+    private void adjustSubtotal(long deltaCents) {
+        subtotalCents += deltaCents;
+        vatCents = Money.percentOf(subtotalCents, VAT_BASIS_POINTS);
+        version++;
     }
 
     /**
@@ -113,11 +259,17 @@ public class CartManager {
      * @return Subtotal amount
      */
     public double getSubtotal() {
-        double subtotal = 0;
-        for (CartItem item : items) {
-            subtotal += item.getTotalPrice();
-        }
-        return subtotal;
+        return Money.toDouble(getSubtotalCents());
+    }
+
+    /**
+     * Gets the subtotal (before tax) in cents.
+     * Each line total is rounded to the cent before summing.
+     * 
+     * @return Subtotal in cents
+     */
+    public long getSubtotalCents() {
+        return subtotalCents;
     }
 
     /**
@@ -126,7 +278,22 @@ public class CartManager {
      * @return VAT amount
      */
     public double getVat() {
-        return getSubtotal() * VAT_RATE;
+        return Money.toDouble(vatCents);
+    }
+
+    /**
+     * Calculates the VAT in cents on the subtotal after a discount.
+     * 
+     * @param discountPercent The discount percentage to apply first
+     * @return VAT in cents
+     */
+    public long getVatCents(double discountPercent) {
+        if (discountPercent == 0) {
+            return vatCents;
+        }
+        long subtotal = subtotalCents;
+        long afterDiscount = subtotal - Money.percentOf(subtotal, Money.toBasisPoints(discountPercent));
+        return Money.percentOf(afterDiscount, VAT_BASIS_POINTS);
     }
 
     /**
@@ -135,7 +302,7 @@ public class CartManager {
      * @return Total amount
      */
     public double getTotal() {
-        return getSubtotal() + getVat();
+        return Money.toDouble(getTotalWithDiscountCents(0));
     }
 
     /**
@@ -145,11 +312,19 @@ public class CartManager {
      * @return Total after discount
      */
     public double getTotalWithDiscount(double discountPercent) {
-        double subtotal = getSubtotal();
-        double discount = subtotal * (discountPercent / 100.0);
-        double afterDiscount = subtotal - discount;
-        double vat = afterDiscount * VAT_RATE;
-        return afterDiscount + vat;
+        return Money.toDouble(getTotalWithDiscountCents(discountPercent));
+    }
+
+    /**
+     * Calculates total in cents after applying discount and VAT.
+     * 
+     * @param discountPercent The discount percentage to apply
+     * @return Total in cents
+     */
+    public long getTotalWithDiscountCents(double discountPercent) {
+        long subtotal = subtotalCents;
+        long afterDiscount = subtotal - Money.percentOf(subtotal, Money.toBasisPoints(discountPercent));
+        return afterDiscount + Money.percentOf(afterDiscount, VAT_BASIS_POINTS);
     }
 
     /**
@@ -159,7 +334,17 @@ public class CartManager {
      * @return Discount amount
      */
     public double getDiscountAmount(double discountPercent) {
-        return getSubtotal() * (discountPercent / 100.0);
+        return Money.toDouble(getDiscountAmountCents(discountPercent));
+    }
+
+    /**
+     * Calculates the discount amount in cents.
+     * 
+     * @param discountPercent The discount percentage
+     * @return Discount in cents
+     */
+    public long getDiscountAmountCents(double discountPercent) {
+        return Money.percentOf(subtotalCents, Money.toBasisPoints(discountPercent));
     }
 
     /**
@@ -167,7 +352,7 @@ public class CartManager {
      * 
      * @return true if empty
      */
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return items.isEmpty();
     }
 
@@ -176,7 +361,7 @@ public class CartManager {
      * 
      * @return Item count
      */
-    public int getItemCount() {
+    public synchronized int getItemCount() {
         return items.size();
     }
 
@@ -186,7 +371,7 @@ public class CartManager {
      * @return true if meets minimum
      */
     public boolean meetsMinimum() {
-        return getSubtotal() >= MINIMUM_CART_VALUE;
+        return subtotalCents >= MINIMUM_CART_CENTS;
     }
 
     /**
@@ -0,0 +1,393 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.CouponDAO;
+import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.database.OrderDAO;
+import com.greengrocer.database.ProductDAO;
+import com.greengrocer.database.UserDAO;
+import com.greengrocer.metrics.Counter;
+import com.greengrocer.metrics.Histogram;
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.models.CartItem;
+import com.greengrocer.models.Coupon;
+import com.greengrocer.models.DeliverySlot;
+import com.greengrocer.models.Order;
+import com.greengrocer.models.OrderItem;
+import com.greengrocer.models.Product;
+import com.greengrocer.models.User;
+import com.greengrocer.utils.FlightEvents.CheckoutEvent;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Places orders from a cart.
+ * Shared by the shopping cart screen and the headless server so both go
+ * through the same validation, delivery slot booking, stock update and
+ * owner notifications.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CheckoutService {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(CheckoutService.class);
+
+    /** Latest allowed delivery time, in hours from now */
+    public static final int MAX_DELIVERY_HOURS = 48;
+
+    /** Orders placed */
+    private static final Counter ORDERS_PLACED = MetricsRegistry.getInstance().counter(
+            "greengrocer_orders_placed_total", "Orders placed");
+
+    /** Checkouts that did not create an order */
+    private static final Counter CHECKOUT_FAILURES = MetricsRegistry.getInstance().counter(
+            "greengrocer_checkout_failures_total", "Checkouts that failed to create an order");
+
+    /** Checkout duration */
+    private static final Histogram CHECKOUT_SECONDS = MetricsRegistry.getInstance().histogram(
+            "greengrocer_checkout_seconds", "Duration of placing an order");
+
+    /** Products that ran out of stock */
+    private static final Counter STOCK_OUTS = MetricsRegistry.getInstance().counter(
+            "greengrocer_stock_out_events_total", "Products that ran out of stock after an order");
+
+    /** Products that fell below their threshold */
+    private static final Counter LOW_STOCK = MetricsRegistry.getInstance().counter(
+            "greengrocer_low_stock_events_total", "Products that fell below their stock threshold after an order");
+
+    /**
+     * Reasons a checkout can fail after validation passed, because another
+     * customer got there first or the database failed.
+     */
+    public enum Failure {
+        /** The delivery slot filled up */
+        SLOT_FULL("The delivery slot is fully booked now. Please choose another time."),
+        /** The coupon was already used or reached its usage limit */
+        COUPON_REFUSED("The coupon can no longer be used."),
+        /** A product no longer has the ordered stock */
+        OUT_OF_STOCK("A product in your cart no longer has sufficient stock."),
+        /** The order could not be saved */
+        ERROR("Could not create order. Please try again.");
+
+        /** Message for the customer */
+        private final String message;
+
+        /**
+         * Constructor with the message.
+         *
+         * @param message Message for the customer
+         */
+        Failure(String message) {
+            this.message = message;
+        }
+
+        /**
+         * Gets the message for the customer.
+         *
+         * @return The message
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * Checks whether the failure is a conflict with other customers
+         * rather than an error, i.e. trying again with other choices can
+         * succeed.
+         *
+         * @return true unless the order could not be saved
+         */
+        public boolean isConflict() {
+            return this != ERROR;
+        }
+    }
+
+    /**
+     * The result of placing an order: the order, or why there is none.
+     */
+    public static final class Outcome {
+
+        /** The saved order, null on failure */
+        private final Order order;
+
+        /** Why no order was placed, null on success */
+        private final Failure failure;
+
+        /**
+         * Constructor with all fields.
+         *
+         * @param order   The saved order, null on failure
+         * @param failure Why no order was placed, null on success
+         */
+        private Outcome(Order order, Failure failure) {
+            this.order = order;
+            this.failure = failure;
+        }
+
+        /**
+         * Gets the saved order.
+         *
+         * @return The order, or null if none was placed
+         */
+        public Order getOrder() {
+            return order;
+        }
+
+        /**
+         * Gets why no order was placed.
+         *
+         * @return The failure, or null if the order was placed
+         */
+        public Failure getFailure() {
+            return failure;
+        }
+    }
+
+    /** Product DAO */
+    private final ProductDAO productDAO;
+
+    /** Order DAO */
+    private final OrderDAO orderDAO;
+
+    /** Coupon DAO */
+    private final CouponDAO couponDAO;
+
+    /** User DAO */
+    private final UserDAO userDAO;
+
+    /** Books the delivery slots */
+    private final DeliverySlotScheduler slotScheduler;
+
+    /**
+     * Constructor - initializes the DAOs.
+     */
+    public CheckoutService() {
+        this.productDAO = new ProductDAO();
+        this.orderDAO = new OrderDAO();
+        this.couponDAO = new CouponDAO();
+        this.userDAO = new UserDAO();
+        this.slotScheduler = DeliverySlotScheduler.getInstance();
+    }
+
+    /**
+     * Checks whether a cart can be checked out.
+     *
+     * @param cart              The cart
+     * @param requestedDelivery The requested delivery time
+     * @return Error message, or null if the cart can be checked out
+     */
+    public String validate(CartManager cart, LocalDateTime requestedDelivery) {
+        if (cart.isEmpty()) {
+            return "Please add items to your cart before checkout.";
+        }
+        if (!cart.meetsMinimum()) {
+            return String.format("Minimum order value is $%.2f", CartManager.MINIMUM_CART_VALUE);
+        }
+        if (requestedDelivery == null) {
+            return "Please select a delivery date and time.";
+        }
+        if (requestedDelivery.isAfter(LocalDateTime.now().plusHours(MAX_DELIVERY_HOURS))) {
+            return "Delivery must be within 48 hours from now.";
+        }
+        if (!slotScheduler.isAvailable(requestedDelivery)) {
+            return "The delivery slot at " + DeliverySlot.startOf(requestedDelivery).toLocalTime()
+                    + " is full or no longer offered. Please choose another time.";
+        }
+        for (CartItem item : cart.getItems()) {
+            if (!productDAO.hasEnoughStock(item.getProductId(), item.getQuantity())) {
+                return "Sorry, " + item.getProductName() + " no longer has sufficient stock.";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Places an order for the cart contents.
+     * Books the delivery slot, saves the order with its invoices, takes the
+     * stock, notifies the owner about products that ran out or fell below
+     * their threshold, and uses up the coupon and loyalty discount. The cart
+     * itself is left unchanged.
+     *
+     * @param customer               The ordering customer
+     * @param cart                   The cart to order
+     * @param requestedDelivery      The requested delivery time
+     * @param coupon                 The applied coupon, or null
+     * @param loyaltyDiscountPercent The applied loyalty discount, 0 if none
+     * @return The saved order, or null if it could not be created
+     */
+    public Order placeOrder(User customer, CartManager cart, LocalDateTime requestedDelivery,
+            Coupon coupon, double loyaltyDiscountPercent) {
+        return place(customer, cart, requestedDelivery, coupon, loyaltyDiscountPercent).getOrder();
+    }
+
+    /**
+     * Places an order for the cart contents like placeOrder, telling why
+     * when no order was placed.
+     *
+     * @param customer               The ordering customer
+     * @param cart                   The cart to order
+     * @param requestedDelivery      The requested delivery time
+     * @param coupon                 The applied coupon, or null
+     * @param loyaltyDiscountPercent The applied loyalty discount, 0 if none
+     * @return The saved order or the reason there is none
+     */
+    public Outcome place(User customer, CartManager cart, LocalDateTime requestedDelivery,
+            Coupon coupon, double loyaltyDiscountPercent) {
+        CheckoutEvent event = new CheckoutEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Outcome outcome = createOrder(customer, cart, requestedDelivery, coupon, loyaltyDiscountPercent);
+        Order order = outcome.getOrder();
+        CHECKOUT_SECONDS.recordSince(start);
+        (order != null ? ORDERS_PLACED : CHECKOUT_FAILURES).inc();
+        event.end();
+        if (event.shouldCommit()) {
+            event.customerId = customer.getId();
+            event.itemCount = cart.getItemCount();
+            event.totalCents = order != null ? order.getTotalCostCents() : 0;
+            event.orderId = order != null ? order.getId() : 0;
+            event.success = order != null;
+            event.commit();
+        }
+        return outcome;
+    }
+
+    /**
+     * Builds and saves the order, updates stock and consumes the discounts.
+     * The slot booking, coupon claim, order rows and stock updates are one
+     * transaction: if the slot is full, the coupon is refused or a product
+     * no longer has the ordered stock, none of them is kept.
+     *
+     * @param customer               The ordering customer
+     * @param cart                   The cart to order
+     * @param requestedDelivery      The requested delivery time
+     * @param coupon                 The applied coupon, or null
+     * @param loyaltyDiscountPercent The applied loyalty discount, 0 if none
+     * @return The saved order or the reason there is none
+     */
+    private Outcome createOrder(User customer, CartManager cart, LocalDateTime requestedDelivery,
+            Coupon coupon, double loyaltyDiscountPercent) {
+        double discountPercent = loyaltyDiscountPercent + (coupon != null ? coupon.getDiscountPercent() : 0);
+        List<CartItem> items = cart.getItems();
+
+        long subtotal = cart.getSubtotalCents();
+        long discount = cart.getDiscountAmountCents(discountPercent);
+        long vat = cart.getVatCents(discountPercent);
+
+        Order order = new Order();
+        order.setUserId(customer.getId());
+        order.setRequestedDelivery(requestedDelivery);
+        order.setStatus("PENDING");
+        order.setSubtotalCents(subtotal);
+        order.setDiscountCents(discount);
+        order.setVatCents(vat);
+        order.setTotalCostCents(subtotal - discount + vat);
+
+        for (CartItem cartItem : items) {
+            order.addItem(OrderItem.fromCartItem(0, cartItem));
+        }
+
+        order.setInvoice(InvoiceGenerator.generateInvoice(order, customer, items, discountPercent));
+        order.setInvoicePdf(PdfInvoiceGenerator.generatePdfInvoice(order, customer, items, discountPercent));
+
+        // Slot booking, coupon claim, order and stock updates commit or roll back together
+        DatabaseAdapter db = DatabaseAdapter.getInstance();
+        List<Runnable> alerts = new ArrayList<>();
+        boolean[] couponClaimed = new boolean[1];
+        Failure failure;
+        try {
+            // Seed the slot's counter outside the transaction, so booking only locks its row
+            slotScheduler.openSlot(requestedDelivery);
+            failure = db.inTransaction(conn -> {
+                // Book the slot first; it may have filled up since it was offered
+                if (!slotScheduler.reserve(requestedDelivery)) {
+                    db.setRollbackOnly();
+                    return Failure.SLOT_FULL;
+                }
+
+                // Then claim the coupon; it may have reached its usage limit since it was applied
+                if (coupon != null) {
+                    couponClaimed[0] = couponDAO.markCouponUsed(customer.getId(), coupon.getId());
+                    if (!couponClaimed[0]) {
+                        db.setRollbackOnly();
+                        return Failure.COUPON_REFUSED;
+                    }
+                }
+
+                int created = orderDAO.create(order);
+                if (created <= 0) {
+                    db.setRollbackOnly();
+                    return Failure.ERROR;
+                }
+                order.setId(created);
+
+                // A product sold out since the cart was checked fails the whole order
+                for (CartItem item : items) {
+                    if (!updateStock(item, alerts)) {
+                        db.setRollbackOnly();
+                        return Failure.OUT_OF_STOCK;
+                    }
+                }
+                return db.isRollbackOnly() ? Failure.ERROR : null;
+            });
+        } catch (SQLException e) {
+            LOG.error("Create order error", e, "userId", customer.getId());
+            failure = Failure.ERROR;
+        }
+
+        if (failure != null) {
+            if (couponClaimed[0]) {
+                // The use was rolled back with the order
+                couponDAO.discardUsage(customer.getId(), coupon.getId());
+            }
+            return new Outcome(null, failure);
+        }
+        alerts.forEach(Runnable::run);
+
+        // User must earn the loyalty discount again by completing more orders
+        if (loyaltyDiscountPercent > 0) {
+            userDAO.resetCompletedOrders(customer.getId());
+        }
+
+        return new Outcome(order, null);
+    }
+
+    /**
+     * Takes the ordered quantity from stock and, if the product ran out or
+     * just crossed below its threshold, adds a notification for the owner's
+     * next stock digest. Notifications are only queued once the order has
+     * committed, so a rolled back order does not announce a stock change.
+     *
+     * @param item   The ordered item
+     * @param alerts Notifications to queue after the commit
+     * @return true if the stock was taken, false if there was not enough left
+     */
+    private boolean updateStock(CartItem item, List<Runnable> alerts) {
+        Product productBefore = productDAO.findById(item.getProductId());
+        boolean wasAboveThreshold = productBefore != null &&
+                productBefore.getStock() > productBefore.getThreshold();
+
+        if (!productDAO.updateStock(item.getProductId(), item.getQuantity())) {
+            return false;
+        }
+
+        Product productAfter = productDAO.findById(item.getProductId());
+        if (productAfter != null) {
+            if (productAfter.getStock() <= 0) {
+                alerts.add(() -> {
+                    STOCK_OUTS.inc();
+                    NotificationAggregator.getInstance().record(NotificationAggregator.Type.OUT_OF_STOCK, productAfter);
+                });
+            } else if (wasAboveThreshold && productAfter.isLowStock()) {
+                alerts.add(() -> {
+                    LOW_STOCK.inc();
+                    NotificationAggregator.getInstance().record(NotificationAggregator.Type.LOW_STOCK, productAfter);
+                });
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.CouponDAO;
+import com.greengrocer.database.UserDAO;
+import com.greengrocer.models.CustomerSegment;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Hands a coupon to every customer of a segment.
+ *
+ * Customers are walked in ranges of user IDs, each assigned with one
+ * INSERT ... SELECT, so a campaign for tens of thousands of customers is
+ * a few dozen statements. Each range commits on its own and keeps the
+ * shared connection free for other work in between. Customers who already
+ * have the coupon are skipped, so a campaign that failed or was cancelled
+ * can simply be run again.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class CouponCampaign {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(CouponCampaign.class);
+
+    /** User IDs per INSERT ... SELECT */
+    private static final int CHUNK_SIZE = Integer.getInteger("greengrocer.campaigns.chunkSize", 5000);
+
+    /**
+     * Receives the progress of a running campaign.
+     */
+    @FunctionalInterface
+    public interface Progress {
+
+        /**
+         * Reports progress after each range.
+         *
+         * @param done     User IDs walked so far
+         * @param total    User IDs to walk
+         * @param assigned Customers assigned so far
+         */
+        void update(long done, long total, int assigned);
+    }
+
+    /** Coupon DAO */
+    private final CouponDAO couponDAO;
+
+    /** User DAO */
+    private final UserDAO userDAO;
+
+    /**
+     * Constructor - initializes the DAOs.
+     */
+    public CouponCampaign() {
+        this.couponDAO = new CouponDAO();
+        this.userDAO = new UserDAO();
+    }
+
+    /**
+     * Counts the customers a campaign would reach.
+     *
+     * @param couponId The coupon ID
+     * @param segment  The segment
+     * @return Customers in the segment without the coupon, or -1 on error
+     */
+    public int countTargets(int couponId, CustomerSegment segment) {
+        return couponDAO.countSegmentWithout(couponId, segment, cutoff(segment));
+    }
+
+    /**
+     * Assigns a coupon to every customer of a segment who does not have it
+     * yet. Stops early if the thread is interrupted.
+     *
+     * @param couponId The coupon ID
+     * @param segment  The segment
+     * @param progress Receives progress after each range, may be null
+     * @return Customers assigned, or -1 if a range failed
+     */
+    public int run(int couponId, CustomerSegment segment, Progress progress) {
+        int[] range = userDAO.getCustomerIdRange();
+        if (range == null) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        Timestamp cutoff = cutoff(segment);
+        long total = (long) range[1] - range[0] + 1;
+        int assigned = 0;
+        for (long from = range[0]; from <= range[1]; from += CHUNK_SIZE) {
+            if (Thread.currentThread().isInterrupted()) {
+                LOG.info("Coupon campaign cancelled", "couponId", couponId, "segment", segment,
+                        "assigned", assigned);
+                return assigned;
+            }
+            int to = (int) Math.min(range[1], from + CHUNK_SIZE - 1);
+            int rows = couponDAO.assignToSegment(couponId, segment, cutoff, (int) from, to);
+            if (rows < 0) {
+                return -1;
+            }
+            assigned += rows;
+            if (progress != null) {
+                progress.update(to - range[0] + 1, total, assigned);
+            }
+        }
+
+        LOG.info("Coupon campaign finished", "couponId", couponId, "segment", segment, "assigned", assigned,
+                "ms", (System.nanoTime() - start) / 1_000_000);
+        return assigned;
+    }
+
+    /**
+     * Gets the start of the activity window of a segment.
+     *
+     * @param segment The segment
+     * @return The cutoff for INACTIVE_DAYS segments, otherwise null
+     */
+    private static Timestamp cutoff(CustomerSegment segment) {
+        if (segment.getType() != CustomerSegment.Type.INACTIVE_DAYS) {
+            return null;
+        }
+        return Timestamp.valueOf(LocalDateTime.now().minusDays(segment.getValue()));
+    }
+}
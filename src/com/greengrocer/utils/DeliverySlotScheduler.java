@@ -0,0 +1,304 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.database.DeliverySlotDAO;
+import com.greengrocer.database.OrderDAO;
+import com.greengrocer.database.UserDAO;
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.models.DeliverySlot;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offers and books half-hour delivery slots within the delivery window,
+ * so no slot gets more orders than the carriers can deliver in it.
+ *
+ * A slot's capacity is the number of carriers times the deliveries one
+ * carrier manages in a slot, estimated from the gaps between each
+ * carrier's deliveries over the last weeks. A store's carriers are those
+ * that delivered its orders in that time; a store without deliveries yet
+ * gets an equal share of the carriers in its database. The capacity is
+ * worked out per store and kept for a few minutes, and the last estimate
+ * stays in use while the database cannot be queried. Bookings are counted in the database and taken
+ * with a conditional update at checkout, so the last place of a slot goes
+ * to one customer only; cancelled orders give their place back.
+ *
+ * Settings (system properties):
+ * greengrocer.slots.capacity (default 0, estimated; otherwise deliveries per slot),
+ * greengrocer.slots.deliveryMinutes (default 30, used until there is delivery history),
+ * greengrocer.slots.capacitySeconds (default 300).
+ * Uses Singleton pattern.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class DeliverySlotScheduler {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(DeliverySlotScheduler.class);
+
+    /** Singleton instance */
+    private static DeliverySlotScheduler instance;
+
+    /** Days of delivery history used to estimate the time per delivery */
+    private static final int HISTORY_DAYS = 30;
+
+    /** Longest gap between two deliveries of a carrier counted as working time */
+    private static final int MAX_GAP_MINUTES = 120;
+
+    /**
+     * A store's slot capacity with the time it was worked out.
+     */
+    private static final class Capacity {
+
+        /** Deliveries per slot */
+        final int perSlot;
+
+        /** When the capacity was worked out */
+        final long computedAt = System.nanoTime();
+
+        /**
+         * Constructor with the capacity.
+         *
+         * @param perSlot Deliveries per slot
+         */
+        Capacity(int perSlot) {
+            this.perSlot = perSlot;
+        }
+    }
+
+    /** Delivery slot DAO */
+    private final DeliverySlotDAO slotDAO;
+
+    /** Order DAO */
+    private final OrderDAO orderDAO;
+
+    /** User DAO */
+    private final UserDAO userDAO;
+
+    /** Fixed deliveries per slot, 0 to estimate them */
+    private final int fixedCapacity;
+
+    /** Minutes per delivery assumed until there is delivery history */
+    private final int defaultMinutes;
+
+    /** Time a store's capacity is kept */
+    private final long ttlNanos;
+
+    /** Capacities by database and store */
+    private final ConcurrentHashMap<String, Capacity> capacities;
+
+    /**
+     * Private constructor for singleton.
+     */
+    private DeliverySlotScheduler() {
+        this.slotDAO = new DeliverySlotDAO();
+        this.orderDAO = new OrderDAO();
+        this.userDAO = new UserDAO();
+        this.fixedCapacity = Integer.getInteger("greengrocer.slots.capacity", 0);
+        this.defaultMinutes = Math.max(1, Integer.getInteger("greengrocer.slots.deliveryMinutes", 30));
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Long.getLong("greengrocer.slots.capacitySeconds", 300));
+        this.capacities = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return DeliverySlotScheduler instance
+     */
+    public static synchronized DeliverySlotScheduler getInstance() {
+        if (instance == null) {
+            instance = new DeliverySlotScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the current store's slots from now to the end of the delivery
+     * window, with their bookings.
+     *
+     * @return The slots, earliest first
+     */
+    public List<DeliverySlot> findSlots() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime first = DeliverySlot.startOf(now).plusMinutes(DeliverySlot.SLOT_MINUTES);
+        LocalDateTime last = now.plusHours(CheckoutService.MAX_DELIVERY_HOURS);
+        int capacity = getCapacity();
+        Map<LocalDateTime, Integer> reserved = slotDAO.findReserved(first, last);
+
+        List<DeliverySlot> slots = new ArrayList<>();
+        for (LocalDateTime start = first; !start.isAfter(last); start = start.plusMinutes(DeliverySlot.SLOT_MINUTES)) {
+            if (DeliverySlot.isWithinHours(start)) {
+                slots.add(new DeliverySlot(start, capacity, reserved.getOrDefault(start, 0)));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Gets the current store's slots that can still take a delivery.
+     *
+     * @return The available slots, earliest first
+     */
+    public List<DeliverySlot> findAvailable() {
+        List<DeliverySlot> available = new ArrayList<>();
+        for (DeliverySlot slot : findSlots()) {
+            if (slot.isAvailable()) {
+                available.add(slot);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Picks the slot with the most room left, the earliest of equals, so
+     * that default choices spread deliveries over the day.
+     *
+     * @param slots The slots to pick from
+     * @return The least booked available slot, or null if none is available
+     */
+    public static DeliverySlot leastBooked(List<DeliverySlot> slots) {
+        DeliverySlot best = null;
+        for (DeliverySlot slot : slots) {
+            if (slot.isAvailable() && (best == null || slot.getRemaining() > best.getRemaining())) {
+                best = slot;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks whether a delivery time falls in an offered slot that still
+     * has room.
+     *
+     * @param time The requested delivery time
+     * @return true if the slot can take the delivery
+     */
+    public boolean isAvailable(LocalDateTime time) {
+        LocalDateTime start = DeliverySlot.startOf(time);
+        if (!isOffered(start, LocalDateTime.now())) {
+            return false;
+        }
+        return slotDAO.findReserved(start, start).getOrDefault(start, 0) < getCapacity();
+    }
+
+    /**
+     * Creates the booking counter of the slot of a time if it is missing.
+     * Called before the checkout transaction, so that transaction only
+     * updates the counter row.
+     *
+     * @param time The requested delivery time
+     * @throws SQLException If the counter cannot be read or created
+     */
+    public void openSlot(LocalDateTime time) throws SQLException {
+        LocalDateTime start = DeliverySlot.startOf(time);
+        if (isOffered(start, LocalDateTime.now())) {
+            slotDAO.ensureSlot(start);
+        }
+    }
+
+    /**
+     * Books a delivery in the slot of a time, opened with openSlot before.
+     *
+     * @param time The requested delivery time
+     * @return true if booked, false if the slot is not offered or full
+     * @throws SQLException If the booking fails, e.g. on a deadlock
+     */
+    public boolean reserve(LocalDateTime time) throws SQLException {
+        LocalDateTime start = DeliverySlot.startOf(time);
+        boolean booked = isOffered(start, LocalDateTime.now()) && slotDAO.reserve(start, getCapacity());
+        MetricsRegistry.getInstance().counter("greengrocer_delivery_slot_bookings_total",
+                "Delivery slot bookings by outcome; FULL means the slot had no room left",
+                "outcome", booked ? "BOOKED" : "FULL").inc();
+        return booked;
+    }
+
+    /**
+     * Gets the deliveries a slot of the current store can take.
+     *
+     * @return Deliveries per slot, at least 1
+     */
+    public int getCapacity() {
+        if (fixedCapacity > 0) {
+            return fixedCapacity;
+        }
+        DatabaseAdapter db = DatabaseAdapter.getInstance();
+        String key = db.getDatabaseName() + ":" + db.getStoreId();
+        Capacity cached = capacities.get(key);
+        if (cached != null && System.nanoTime() - cached.computedAt <= ttlNanos) {
+            return cached.perSlot;
+        }
+
+        LocalDateTime since = LocalDateTime.now().minusDays(HISTORY_DAYS);
+        int carriers = orderDAO.countActiveCarriers(since);
+        if (carriers == 0) {
+            // No deliveries yet; the store gets its share of the carriers in its database
+            int shared = userDAO.countCarriers();
+            carriers = shared < 0 ? -1 : shared / storesSharing(db);
+        }
+        double minutes = orderDAO.getAverageDeliveryMinutes(since, MAX_GAP_MINUTES);
+        if (carriers < 0 || minutes < 0) {
+            LOG.warn("Could not estimate delivery slot capacity, keeping the last estimate",
+                    "store", db.getStoreId(), "carriers", carriers, "minutesPerDelivery", minutes);
+            return cached != null ? cached.perSlot : perSlot(1, defaultMinutes);
+        }
+
+        int perSlot = perSlot(carriers, minutes > 0 ? minutes : defaultMinutes);
+        capacities.put(key, new Capacity(perSlot));
+        LOG.debug("Estimated delivery slot capacity", "store", db.getStoreId(), "carriers", carriers,
+                "minutesPerDelivery", minutes, "perSlot", perSlot);
+        return perSlot;
+    }
+
+    /**
+     * Works out the deliveries per slot of a number of carriers.
+     *
+     * @param carriers Carriers delivering for the store
+     * @param minutes  Minutes per delivery
+     * @return Deliveries per slot, at least 1
+     */
+    private static int perSlot(int carriers, double minutes) {
+        return Math.max(1, (int) (Math.max(1, carriers) * DeliverySlot.SLOT_MINUTES / minutes));
+    }
+
+    /**
+     * Counts the stores whose orders are kept in the current store's
+     * database, and so share its carriers.
+     *
+     * @param db The database adapter
+     * @return Number of stores, at least 1
+     */
+    private static int storesSharing(DatabaseAdapter db) {
+        String database = db.getDatabaseName();
+        int stores = 0;
+        for (int storeId : db.getStoreIds()) {
+            try {
+                if (database.equals(db.withStore(storeId, db::getDatabaseName))) {
+                    stores++;
+                }
+            } catch (SQLException e) {
+                // Only looks up the store's database; nothing is queried
+            }
+        }
+        return Math.max(1, stores);
+    }
+
+    /**
+     * Checks whether a slot is offered to customers at a given moment.
+     *
+     * @param start Start of the slot
+     * @param now   The current time
+     * @return true if the slot has not begun, lies within the delivery
+     *         window and within delivery hours
+     */
+    private static boolean isOffered(LocalDateTime start, LocalDateTime now) {
+        return start.isAfter(now)
+                && !start.isAfter(now.plusHours(CheckoutService.MAX_DELIVERY_HOURS))
+                && DeliverySlot.isWithinHours(start);
+    }
+}
@@ -0,0 +1,180 @@
+package com.greengrocer.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder events for business operations, so stalls in a
+ * recording can be matched with what the shop was doing at the time.
+ *
+ * Events are only written while a recording is running (see run.sh --jfr).
+ * Otherwise creating and committing them is optimised away by the JIT, so
+ * the instrumentation can stay in the hot paths. Each event records its
+ * duration and the stack trace of the calling code.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public final class FlightEvents {
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This class only holds the event types.
+     */
+    private FlightEvents() {
+    }
+
+    /**
+     * A customer checkout, from building the order to the stock updates.
+     */
+    @Name("com.greengrocer.Checkout")
+    @Label("Checkout")
+    @Category({"GreenGrocer", "Orders"})
+    @Description("Order placed from a cart")
+    public static final class CheckoutEvent extends Event {
+
+        /** Ordering customer */
+        @Label("Customer ID")
+        public int customerId;
+
+        /** Number of distinct products in the cart */
+        @Label("Cart Items")
+        public int itemCount;
+
+        /** Order total including VAT, in cents */
+        @Label("Total (cents)")
+        public long totalCents;
+
+        /** Created order, 0 if none */
+        @Label("Order ID")
+        public int orderId;
+
+        /** Whether the order was created */
+        @Label("Success")
+        public boolean success;
+    }
+
+    /**
+     * A carrier's attempt to claim a pending order.
+     */
+    @Name("com.greengrocer.OrderClaim")
+    @Label("Order Claim")
+    @Category({"GreenGrocer", "Orders"})
+    @Description("Carrier claiming a pending order")
+    public static final class OrderClaimEvent extends Event {
+
+        /** Claimed order */
+        @Label("Order ID")
+        public int orderId;
+
+        /** Claiming carrier */
+        @Label("Carrier ID")
+        public int carrierId;
+
+        /** CLAIMED, TAKEN (by another carrier or no longer pending) or ERROR */
+        @Label("Outcome")
+        public String outcome;
+    }
+
+    /**
+     * A database statement executed by a DAO.
+     */
+    @Name("com.greengrocer.Query")
+    @Label("DAO Query")
+    @Category({"GreenGrocer", "Database"})
+    @Description("SQL statement executed through DatabaseAdapter")
+    public static final class QueryEvent extends Event {
+
+        /** The SQL text */
+        @Label("SQL")
+        public String sql;
+
+        /** query, update or execute */
+        @Label("Kind")
+        public String kind;
+
+        /** Rows changed by an update, -1 for queries */
+        @Label("Rows Affected")
+        public long rows;
+    }
+
+    /**
+     * Generation of a PDF invoice.
+     */
+    @Name("com.greengrocer.PdfInvoice")
+    @Label("PDF Invoice")
+    @Category({"GreenGrocer", "Invoices"})
+    @Description("PDF invoice generated with iText")
+    public static final class PdfInvoiceEvent extends Event {
+
+        /** Invoiced order, 0 before it is saved */
+        @Label("Order ID")
+        public int orderId;
+
+        /** Number of order lines */
+        @Label("Items")
+        public int itemCount;
+
+        /** Size of the generated PDF */
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * Decoding of an image stored in the database.
+     */
+    @Name("com.greengrocer.ImageDecode")
+    @Label("Image Decode")
+    @Category({"GreenGrocer", "UI"})
+    @Description("Product image decoded from bytes")
+    public static final class ImageDecodeEvent extends Event {
+
+        /** What the image shows, e.g. the product name */
+        @Label("Source")
+        public String source;
+
+        /** Size of the encoded image */
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+
+        /** Decoded width in pixels */
+        @Label("Width")
+        public int width;
+
+        /** Decoded height in pixels */
+        @Label("Height")
+        public int height;
+
+        /** Whether decoding failed */
+        @Label("Error")
+        public boolean error;
+    }
+
+    /**
+     * Loading of an FXML view.
+     */
+    @Name("com.greengrocer.SceneLoad")
+    @Label("Scene Load")
+    @Category({"GreenGrocer", "UI"})
+    @Description("FXML view loaded and shown")
+    public static final class SceneLoadEvent extends Event {
+
+        /** FXML file, relative to the views folder */
+        @Label("View")
+        public String view;
+
+        /** Window title */
+        @Label("Title")
+        public String title;
+
+        /** Whether loading failed */
+        @Label("Error")
+        public boolean error;
+    }
+}
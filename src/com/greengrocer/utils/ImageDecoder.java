@@ -0,0 +1,45 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.utils.FlightEvents.ImageDecodeEvent;
+import java.io.ByteArrayInputStream;
+import javafx.scene.image.Image;
+
+/**
+ * Decodes images stored as bytes in the database, recording each decode
+ * as a flight recorder event.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public final class ImageDecoder {
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private ImageDecoder() {
+    }
+
+    /**
+     * Decodes an image synchronously.
+     *
+     * @param bytes  The encoded image
+     * @param source What the image shows, e.g. the product name
+     * @return The image; check isError() for failed decodes
+     */
+    public static Image decode(byte[] bytes, String source) {
+        ImageDecodeEvent event = new ImageDecodeEvent();
+        event.begin();
+        Image image = new Image(new ByteArrayInputStream(bytes));
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.bytes = bytes.length;
+            event.width = (int) image.getWidth();
+            event.height = (int) image.getHeight();
+            event.error = image.isError();
+            event.commit();
+        }
+        return image;
+    }
+}
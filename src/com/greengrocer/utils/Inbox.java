@@ -0,0 +1,121 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.MessageDAO;
+import com.greengrocer.models.Message;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A user's received messages, loaded a page at a time, newest first.
+ *
+ * Each page continues from the last message of the previous one, so
+ * reading far back costs the same as the first page, and the unread count
+ * is read from the user's counter rather than counted. The owner's inbox,
+ * which receives every stock notification, stays quick to open however
+ * many messages it holds.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class Inbox {
+
+    /** Messages per page, also used by MessageSearch */
+    static final int PAGE_SIZE = Integer.getInteger("greengrocer.messages.pageSize", 50);
+
+    /** Message DAO */
+    private final MessageDAO messageDAO;
+
+    /** The receiver */
+    private final int userId;
+
+    /** Oldest message loaded so far, null before the first page */
+    private Message last;
+
+    /** Highest message ID loaded so far */
+    private int newestId;
+
+    /** Whether older messages may exist */
+    private boolean more = true;
+
+    /**
+     * Constructor for the inbox of a user.
+     *
+     * @param userId The receiver's user ID
+     */
+    public Inbox(int userId) {
+        this.messageDAO = new MessageDAO();
+        this.userId = userId;
+    }
+
+    /**
+     * Loads the next page of older messages.
+     *
+     * @return The messages, newest first; empty when all are loaded
+     */
+    public List<Message> nextPage() {
+        if (!more) {
+            return new ArrayList<>();
+        }
+        List<Message> messages = messageDAO.findByReceiver(userId, last, PAGE_SIZE);
+        more = messages.size() == PAGE_SIZE;
+        if (!messages.isEmpty()) {
+            last = messages.get(messages.size() - 1);
+        }
+        for (Message message : messages) {
+            newestId = Math.max(newestId, message.getId());
+        }
+        return messages;
+    }
+
+    /**
+     * Checks whether older messages may still be loaded.
+     *
+     * @return true until a short page was loaded
+     */
+    public boolean hasMore() {
+        return more;
+    }
+
+    /**
+     * Gets the number of unread messages, including ones not loaded yet.
+     *
+     * @return The unread count
+     */
+    public int getUnreadCount() {
+        return messageDAO.getUnreadCount(userId);
+    }
+
+    /**
+     * Marks a loaded message as read.
+     *
+     * @param message The message
+     */
+    public void markRead(Message message) {
+        if (!message.isRead()) {
+            messageDAO.markAsRead(message.getId());
+            message.setRead(true);
+        }
+    }
+
+    /**
+     * Marks every unread message up to the newest loaded one as read.
+     * Messages that arrived since the inbox was loaded stay unread.
+     *
+     * @param loaded The messages on screen, updated to read
+     * @return Number of messages marked, or -1 on error
+     */
+    public int markAllRead(List<Message> loaded) {
+        if (newestId == 0) {
+            return 0;
+        }
+        int marked = messageDAO.markAllAsRead(userId, newestId);
+        if (marked >= 0) {
+            for (Message message : loaded) {
+                if (message.getId() <= newestId) {
+                    message.setRead(true);
+                }
+            }
+        }
+        return marked;
+    }
+}
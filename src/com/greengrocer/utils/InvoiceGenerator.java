@@ -73,26 +73,27 @@ public class InvoiceGenerator {
         invoice.append("-----------------------------------------------------------\n");
 
         for (CartItem item : items) {
-            invoice.append(String.format("%-20s %10.2f %12.2f %12.2f\n",
+            invoice.append(String.format("%-20s %10.2f %12s %12s\n",
                     item.getProductName(),
                     item.getQuantity(),
-                    item.getPriceAtTime(),
-                    item.getTotalPrice()));
+                    Money.format(item.getPriceCents()),
+                    Money.format(item.getTotalCents())));
         }
 
         invoice.append("-----------------------------------------------------------\n");
 
         // Totals
-        invoice.append(String.format("%44s %12.2f\n", "Subtotal:", order.getSubtotal()));
+        invoice.append(String.format("%44s %12s\n", "Subtotal:", Money.format(order.getSubtotalCents())));
 
         if (discountPercent > 0) {
             invoice.append(
-                    String.format("%44s %12.2f\n", "Discount (" + discountPercent + "%):", -order.getDiscount()));
+                    String.format("%44s %12s\n", "Discount (" + discountPercent + "%):",
+                            Money.format(-order.getDiscountCents())));
         }
 
-        invoice.append(String.format("%44s %12.2f\n", "VAT (18%):", order.getVat()));
+        invoice.append(String.format("%44s %12s\n", "VAT (18%):", Money.format(order.getVatCents())));
         invoice.append("===========================================================\n");
-        invoice.append(String.format("%44s %12.2f\n", "TOTAL:", order.getTotalCost()));
+        invoice.append(String.format("%44s %12s\n", "TOTAL:", Money.format(order.getTotalCostCents())));
         invoice.append("===========================================================\n");
 
         // Footer
@@ -133,25 +134,25 @@ public class InvoiceGenerator {
         invoice.append("-----------------------------------------------------------\n");
 
         for (OrderItem item : order.getItems()) {
-            invoice.append(String.format("%-20s %10.2f %12.2f %12.2f\n",
+            invoice.append(String.format("%-20s %10.2f %12s %12s\n",
                     item.getProductName(),
                     item.getQuantity(),
-                    item.getPriceAtTime(),
-                    item.getTotalPrice()));
+                    Money.format(item.getPriceCents()),
+                    Money.format(item.getTotalCents())));
         }
 
         invoice.append("-----------------------------------------------------------\n");
 
         // Totals
-        invoice.append(String.format("%44s %12.2f\n", "Subtotal:", order.getSubtotal()));
+        invoice.append(String.format("%44s %12s\n", "Subtotal:", Money.format(order.getSubtotalCents())));
 
-        if (order.getDiscount() > 0) {
-            invoice.append(String.format("%44s %12.2f\n", "Discount:", -order.getDiscount()));
+        if (order.getDiscountCents() > 0) {
+            invoice.append(String.format("%44s %12s\n", "Discount:", Money.format(-order.getDiscountCents())));
         }
 
-        invoice.append(String.format("%44s %12.2f\n", "VAT (18%):", order.getVat()));
+        invoice.append(String.format("%44s %12s\n", "VAT (18%):", Money.format(order.getVatCents())));
         invoice.append("===========================================================\n");
-        invoice.append(String.format("%44s %12.2f\n", "TOTAL:", order.getTotalCost()));
+        invoice.append(String.format("%44s %12s\n", "TOTAL:", Money.format(order.getTotalCostCents())));
         invoice.append("===========================================================\n");
 
         return invoice.toString();
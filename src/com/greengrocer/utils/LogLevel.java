@@ -0,0 +1,38 @@
+package com.greengrocer.utils;
+
+/**
+ * Severity of a log event, from most to least verbose.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public enum LogLevel {
+    /** Diagnostic detail, off by default */
+    DEBUG,
+    /** Normal operation */
+    INFO,
+    /** Something unexpected that the application recovered from */
+    WARN,
+    /** A failed operation */
+    ERROR,
+    /** Disables logging */
+    OFF;
+
+    /**
+     * Parses a level name, case-insensitively.
+     *
+     * @param name         The level name
+     * @param defaultLevel Level to use when the name is null or unknown
+     * @return The level
+     */
+    public static LogLevel parse(String name, LogLevel defaultLevel) {
+        if (name == null) {
+            return defaultLevel;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+}
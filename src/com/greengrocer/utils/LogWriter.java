@@ -0,0 +1,396 @@
+package com.greengrocer.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background writer behind Logger.
+ *
+ * Producers claim a slot in a bounded lock-free ring buffer with one CAS
+ * and return immediately; a single daemon thread drains the buffer in
+ * batches, formats the events and writes them to a size-rotated log file
+ * (and optionally the console). When the buffer is full, events are dropped
+ * and counted rather than blocking the caller, and the count is logged
+ * once there is room again.
+ *
+ * Settings (system properties):
+ * greengrocer.log.file (default logs/greengrocer.log),
+ * greengrocer.log.maxBytes (default 10485760),
+ * greengrocer.log.files (rotated files kept, default 5),
+ * greengrocer.log.console (default true),
+ * greengrocer.log.bufferSize (default 8192, rounded up to a power of two).
+ * Uses Singleton pattern.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class LogWriter {
+
+    /** Singleton instance */
+    private static LogWriter instance;
+
+    /** Longest the writer sleeps when the buffer is empty */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /** Timestamp format of a log line */
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    /** Ring buffer slots, null when free */
+    private final AtomicReferenceArray<Event> buffer;
+
+    /** Index mask of the ring buffer */
+    private final int mask;
+
+    /** Next slot to claim by producers */
+    private final AtomicLong tail;
+
+    /** Next slot to drain by the writer thread */
+    private final AtomicLong head;
+
+    /** Events dropped because the buffer was full */
+    private final AtomicLong dropped;
+
+    /** The log file */
+    private final Path file;
+
+    /** Size at which the log file is rotated */
+    private final long maxBytes;
+
+    /** Number of rotated files kept */
+    private final int maxFiles;
+
+    /** Whether events are echoed to the console */
+    private final boolean console;
+
+    /** The writer thread */
+    private final Thread thread;
+
+    /** Open log file stream, null if the file cannot be written */
+    private OutputStream out;
+
+    /** Bytes in the current log file */
+    private long fileSize;
+
+    /** Cleared on shutdown */
+    private volatile boolean running;
+
+    /**
+     * Private constructor for singleton.
+     */
+    private LogWriter() {
+        int requested = Math.max(2, Integer.getInteger("greengrocer.log.bufferSize", 8192));
+        int capacity = Integer.highestOneBit(requested - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.tail = new AtomicLong();
+        this.head = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.file = Paths.get(System.getProperty("greengrocer.log.file", "logs/greengrocer.log"));
+        this.maxBytes = Long.getLong("greengrocer.log.maxBytes", 10L * 1024 * 1024);
+        this.maxFiles = Integer.getInteger("greengrocer.log.files", 5);
+        this.console = Boolean.parseBoolean(System.getProperty("greengrocer.log.console", "true"));
+        this.running = true;
+
+        openFile();
+        this.thread = new Thread(this::drainLoop, "log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "log-shutdown"));
+    }
+
+    /**
+     * Gets the singleton instance, starting the writer thread on first use.
+     *
+     * @return The LogWriter instance
+     */
+    public static synchronized LogWriter getInstance() {
+        if (instance == null) {
+            instance = new LogWriter();
+        }
+        return instance;
+    }
+
+    /**
+     * Queues an event without blocking. Drops it if the buffer is full.
+     *
+     * @param event The event
+     */
+    void publish(Event event) {
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head.get() > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+        buffer.lazySet((int) slot & mask, event);
+    }
+
+    /**
+     * Stops the writer after draining the queued events.
+     */
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writer thread: drains the buffer, flushing whenever it runs empty.
+     */
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        while (running || head.get() != tail.get()) {
+            int written = 0;
+            Event event;
+            while ((event = poll()) != null) {
+                write(event, line);
+                written++;
+            }
+
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                write(new Event(System.currentTimeMillis(), LogLevel.WARN, "LogWriter", "log-writer",
+                        "Log buffer full, events dropped", new Object[] {"count", lost}, null), line);
+                written++;
+            }
+
+            if (written > 0) {
+                flush();
+            } else if (running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            } else {
+                // A producer claimed a slot but has not stored its event yet
+                Thread.onSpinWait();
+            }
+        }
+        flush();
+        closeFile();
+    }
+
+    /**
+     * Takes the next event from the buffer.
+     *
+     * @return The event, or null if none is ready
+     */
+    private Event poll() {
+        long slot = head.get();
+        int index = (int) slot & mask;
+        Event event = buffer.get(index);
+        if (event == null) {
+            return null;
+        }
+        buffer.lazySet(index, null);
+        head.lazySet(slot + 1);
+        return event;
+    }
+
+    /**
+     * Formats and writes one event.
+     *
+     * @param event The event
+     * @param line  Reusable line buffer
+     */
+    private void write(Event event, StringBuilder line) {
+        line.setLength(0);
+        line.append(TIMESTAMP.format(Instant.ofEpochMilli(event.timeMillis)))
+                .append(' ').append(event.level.name());
+        for (int pad = event.level.name().length(); pad < 5; pad++) {
+            line.append(' ');
+        }
+        line.append(" [").append(event.thread).append("] ")
+                .append(event.logger).append(" - ").append(event.message);
+        for (int i = 0; i + 1 < event.fields.length; i += 2) {
+            line.append(' ').append(event.fields[i]).append('=');
+            appendValue(line, event.fields[i + 1]);
+        }
+        if (event.error != null) {
+            line.append(" error=");
+            appendValue(line, event.error.toString());
+        }
+
+        if (console) {
+            (event.level.ordinal() >= LogLevel.WARN.ordinal() ? System.err : System.out).println(line);
+        }
+
+        if (out != null) {
+            line.append(System.lineSeparator());
+            if (event.error != null && !(event.error instanceof SQLException)) {
+                StringWriter trace = new StringWriter();
+                event.error.printStackTrace(new PrintWriter(trace));
+                line.append(trace);
+            }
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                if (fileSize + bytes.length > maxBytes && fileSize > 0) {
+                    rotate();
+                }
+                out.write(bytes);
+                fileSize += bytes.length;
+            } catch (IOException e) {
+                System.err.println("Log file error: " + e.getMessage());
+                closeFile();
+            }
+        }
+    }
+
+    /**
+     * Appends a field value, quoting it if it contains spaces or quotes.
+     *
+     * @param line  The line
+     * @param value The value
+     */
+    private static void appendValue(StringBuilder line, Object value) {
+        String text = String.valueOf(value);
+        if (text.isEmpty() || text.indexOf(' ') >= 0 || text.indexOf('"') >= 0 || text.indexOf('=') >= 0) {
+            line.append('"').append(text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        } else {
+            line.append(text);
+        }
+    }
+
+    /**
+     * Opens the log file for appending.
+     */
+    private void openFile() {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            fileSize = Files.exists(file) ? Files.size(file) : 0;
+            out = new BufferedOutputStream(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        } catch (IOException e) {
+            System.err.println("Log file error: " + e.getMessage());
+            out = null;
+        }
+    }
+
+    /**
+     * Shifts greengrocer.log to greengrocer.log.1, .1 to .2 and so on,
+     * deleting the oldest, then starts a new file.
+     *
+     * @throws IOException If the files cannot be moved
+     */
+    private void rotate() throws IOException {
+        closeFile();
+        Files.deleteIfExists(Paths.get(file + "." + maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = Paths.get(file + "." + i);
+            if (Files.exists(source)) {
+                Files.move(source, Paths.get(file + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(file, Paths.get(file + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(file);
+        }
+        openFile();
+    }
+
+    /**
+     * Flushes the log file.
+     */
+    private void flush() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Log file error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the log file.
+     */
+    private void closeFile() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Log file error: " + e.getMessage());
+        }
+        out = null;
+    }
+
+    /**
+     * An immutable log event.
+     */
+    static final class Event {
+
+        /** Creation time */
+        final long timeMillis;
+
+        /** Severity */
+        final LogLevel level;
+
+        /** Logger name */
+        final String logger;
+
+        /** Name of the logging thread */
+        final String thread;
+
+        /** The message */
+        final String message;
+
+        /** Alternating keys and values */
+        final Object[] fields;
+
+        /** Exception, or null */
+        final Throwable error;
+
+        /**
+         * Constructor for an event.
+         *
+         * @param timeMillis Creation time
+         * @param level      Severity
+         * @param logger     Logger name
+         * @param thread     Name of the logging thread
+         * @param message    The message
+         * @param fields     Alternating keys and values
+         * @param error      Exception, or null
+         */
+        Event(long timeMillis, LogLevel level, String logger, String thread, String message, Object[] fields,
+                Throwable error) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.logger = logger;
+            this.thread = thread;
+            this.message = message;
+            this.fields = fields;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.greengrocer.utils;
+
+/**
+ * Per-class logger writing structured events through LogWriter.
+ *
+ * Events carry a message plus key/value fields, e.g.
+ * LOG.info("Order created", "orderId", id, "total", total), and are written
+ * as "message key=value ...". The level check is a single field read, so
+ * disabled levels cost nanoseconds; enabled events are handed to a
+ * background writer and never wait for I/O.
+ *
+ * The minimum level is set with the system property greengrocer.log.level
+ * (default INFO) or at runtime with setLevel.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public final class Logger {
+
+    /** Shared empty field list */
+    private static final Object[] NO_FIELDS = new Object[0];
+
+    /** Ordinal of the minimum enabled level */
+    private static volatile int threshold =
+            LogLevel.parse(System.getProperty("greengrocer.log.level"), LogLevel.INFO).ordinal();
+
+    /** Logger name, the simple name of the owning class */
+    private final String name;
+
+    /**
+     * Private constructor, use get.
+     *
+     * @param name Logger name
+     */
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates the logger of a class.
+     *
+     * @param owner The class that logs
+     * @return The logger
+     */
+    public static Logger get(Class<?> owner) {
+        return new Logger(owner.getSimpleName());
+    }
+
+    /**
+     * Sets the minimum level of all loggers.
+     *
+     * @param level The level
+     */
+    public static void setLevel(LogLevel level) {
+        threshold = level.ordinal();
+    }
+
+    /**
+     * Checks whether a level is enabled.
+     *
+     * @param level The level
+     * @return true if events of this level are written
+     */
+    public static boolean isEnabled(LogLevel level) {
+        return level.ordinal() >= threshold;
+    }
+
+    /**
+     * Checks whether debug events are written. Guard expensive debug
+     * arguments with this.
+     *
+     * @return true if debug is enabled
+     */
+    public boolean isDebugEnabled() {
+        return LogLevel.DEBUG.ordinal() >= threshold;
+    }
+
+    /**
+     * Logs a debug event.
+     *
+     * @param message The message
+     * @param fields  Alternating keys and values
+     */
+    public void debug(String message, Object... fields) {
+        if (LogLevel.DEBUG.ordinal() >= threshold) {
+            log(LogLevel.DEBUG, message, null, fields);
+        }
+    }
+
+    /**
+     * Logs an info event.
+     *
+     * @param message The message
+     * @param fields  Alternating keys and values
+     */
+    public void info(String message, Object... fields) {
+        if (LogLevel.INFO.ordinal() >= threshold) {
+            log(LogLevel.INFO, message, null, fields);
+        }
+    }
+
+    /**
+     * Logs a warning.
+     *
+     * @param message The message
+     * @param fields  Alternating keys and values
+     */
+    public void warn(String message, Object... fields) {
+        if (LogLevel.WARN.ordinal() >= threshold) {
+            log(LogLevel.WARN, message, null, fields);
+        }
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param message The message
+     * @param fields  Alternating keys and values
+     */
+    public void error(String message, Object... fields) {
+        if (LogLevel.ERROR.ordinal() >= threshold) {
+            log(LogLevel.ERROR, message, null, fields);
+        }
+    }
+
+    /**
+     * Logs an error caused by an exception.
+     *
+     * @param message The message
+     * @param error   The exception
+     * @param fields  Alternating keys and values
+     */
+    public void error(String message, Throwable error, Object... fields) {
+        if (LogLevel.ERROR.ordinal() >= threshold) {
+            log(LogLevel.ERROR, message, error, fields);
+        }
+    }
+
+    /**
+     * Logs a warning caused by an exception.
+     *
+     * @param message The message
+     * @param error   The exception
+     * @param fields  Alternating keys and values
+     */
+    public void warn(String message, Throwable error, Object... fields) {
+        if (LogLevel.WARN.ordinal() >= threshold) {
+            log(LogLevel.WARN, message, error, fields);
+        }
+    }
+
+    /**
+     * Hands an enabled event to the writer.
+     *
+     * @param level   The level
+     * @param message The message
+     * @param error   The exception, or null
+     * @param fields  Alternating keys and values
+     */
+    private void log(LogLevel level, String message, Throwable error, Object[] fields) {
+        Thread thread = Thread.currentThread();
+        String threadName = thread.getName().isEmpty() ? "virtual-" + thread.threadId() : thread.getName();
+        LogWriter.getInstance().publish(new LogWriter.Event(System.currentTimeMillis(), level, name, threadName,
+                message, fields != null ? fields : NO_FIELDS, error));
+    }
+}
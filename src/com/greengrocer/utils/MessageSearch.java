@@ -0,0 +1,76 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.MessageDAO;
+import com.greengrocer.models.Message;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results of a search of a user's received messages, loaded a page at a
+ * time, best match first.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class MessageSearch {
+
+    /** Message DAO */
+    private final MessageDAO messageDAO;
+
+    /** The receiver */
+    private final int userId;
+
+    /** The search words */
+    private final String words;
+
+    /** Results loaded so far */
+    private int loaded;
+
+    /** Whether more results may exist */
+    private boolean more = true;
+
+    /**
+     * Constructor for a search of a user's messages.
+     *
+     * @param userId The receiver's user ID
+     * @param words  The search words
+     */
+    public MessageSearch(int userId, String words) {
+        this.messageDAO = new MessageDAO();
+        this.userId = userId;
+        this.words = words;
+    }
+
+    /**
+     * Loads the next page of results.
+     *
+     * @return The messages, best match first; empty when all are loaded
+     */
+    public List<Message> nextPage() {
+        if (!more) {
+            return new ArrayList<>();
+        }
+        List<Message> messages = messageDAO.search(userId, words, Inbox.PAGE_SIZE, loaded);
+        loaded += messages.size();
+        more = messages.size() == Inbox.PAGE_SIZE;
+        return messages;
+    }
+
+    /**
+     * Checks whether more results may still be loaded.
+     *
+     * @return true until a short page was loaded
+     */
+    public boolean hasMore() {
+        return more;
+    }
+
+    /**
+     * Gets the search words.
+     *
+     * @return The words
+     */
+    public String getWords() {
+        return words;
+    }
+}
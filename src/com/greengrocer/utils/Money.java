@@ -0,0 +1,142 @@
+package com.greengrocer.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on primitive {@code long} cents.
+ * All pricing math (line totals, subtotals, discounts, VAT) runs on cents so
+ * totals are exact and computing them allocates nothing. Doubles and
+ * BigDecimals only appear at the UI and JDBC boundaries.
+ *
+ * Rounding rule: every derived amount (line total, discount, VAT) is rounded
+ * half away from zero to the nearest cent at the point it is computed, and
+ * sums are taken over the rounded values.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public final class Money {
+
+    /** Cents in one currency unit */
+    public static final long CENTS_PER_UNIT = 100;
+
+    /** Basis points in 100% */
+    public static final long BASIS_POINTS = 10_000;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private Money() {
+    }
+
+    /**
+     * Converts a currency amount to cents.
+     *
+     * @param amount The amount, e.g. 2.50
+     * @return The amount in cents, e.g. 250
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /**
+     * Converts cents to a currency amount for display.
+     *
+     * @param cents The amount in cents
+     * @return The amount as a double
+     */
+    public static double toDouble(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /**
+     * Converts cents to a DECIMAL value for JDBC binding.
+     *
+     * @param cents The amount in cents
+     * @return The amount with scale 2
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Converts a DECIMAL value read from JDBC to cents.
+     *
+     * @param value The value, may be null
+     * @return The amount in cents, 0 for null
+     */
+    public static long fromDecimal(BigDecimal value) {
+        if (value == null) {
+            return 0;
+        }
+        return value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Converts a percentage such as 18.0 or 12.5 to basis points.
+     *
+     * @param percent The percentage
+     * @return The percentage in basis points
+     */
+    public static long toBasisPoints(double percent) {
+        return Math.round(percent * 100);
+    }
+
+    /**
+     * Computes the price of a weighed quantity.
+     *
+     * @param centsPerKg The unit price in cents per kg
+     * @param grams      The quantity in grams
+     * @return The line total in cents
+     */
+    public static long lineTotal(long centsPerKg, long grams) {
+        return divideRounded(centsPerKg * grams, Quantity.GRAMS_PER_KG);
+    }
+
+    /**
+     * Computes a percentage of an amount.
+     *
+     * @param cents       The base amount in cents
+     * @param basisPoints The percentage in basis points (1800 = 18%)
+     * @return The percentage amount in cents
+     */
+    public static long percentOf(long cents, long basisPoints) {
+        return divideRounded(cents * basisPoints, BASIS_POINTS);
+    }
+
+    /**
+     * Divides with rounding half away from zero.
+     *
+     * @param numerator   The numerator
+     * @param denominator The denominator, must be positive
+     * @return The rounded quotient
+     */
+    public static long divideRounded(long numerator, long denominator) {
+        long half = denominator / 2;
+        return numerator >= 0
+                ? (numerator + half) / denominator
+                : -((-numerator + half) / denominator);
+    }
+
+    /**
+     * Formats cents as a plain two-decimal string, e.g. "12.05".
+     *
+     * @param cents The amount in cents
+     * @return Formatted amount without currency sign
+     */
+    public static String format(long cents) {
+        long abs = Math.abs(cents);
+        long fraction = abs % CENTS_PER_UNIT;
+        StringBuilder sb = new StringBuilder(12);
+        if (cents < 0) {
+            sb.append('-');
+        }
+        sb.append(abs / CENTS_PER_UNIT).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+}
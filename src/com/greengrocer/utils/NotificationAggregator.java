@@ -0,0 +1,313 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.database.MessageDAO;
+import com.greengrocer.database.UserDAO;
+import com.greengrocer.metrics.Counter;
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.models.Message;
+import com.greengrocer.models.Product;
+import com.greengrocer.models.User;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects stock notifications for the owner and sends them as one digest
+ * message per store and time window, instead of one message per event.
+ *
+ * Events are kept in memory by store, kind and product, so repeated alerts
+ * for the same product within a window become one line of the digest with
+ * a count, and a product that ran out is not also listed as low on stock.
+ * The owner is looked up once per digest. A digest that cannot be sent,
+ * e.g. because the owner lookup or the message insert failed, puts its
+ * events back so the next window sends them. Events still buffered when
+ * the application stops are sent by shutdown().
+ *
+ * Settings (system properties):
+ * greengrocer.notifications.windowSeconds (default 60; 0 sends each event at once).
+ * Uses Singleton pattern.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class NotificationAggregator {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(NotificationAggregator.class);
+
+    /** Singleton instance */
+    private static NotificationAggregator instance;
+
+    /** Events recorded */
+    private static final Counter EVENTS = MetricsRegistry.getInstance().counter(
+            "greengrocer_notification_events_total", "Stock events recorded for the owner's digest");
+
+    /** Digest messages sent */
+    private static final Counter DIGESTS = MetricsRegistry.getInstance().counter(
+            "greengrocer_notification_digests_total", "Digest messages sent to store owners");
+
+    /** Time format of the digest period */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /** Kinds of event */
+    public enum Type {
+        /** A product ran out of stock */
+        OUT_OF_STOCK,
+        /** A product fell below its threshold and its price doubled */
+        LOW_STOCK
+    }
+
+    /**
+     * The buffered events of one product and kind, with the product as it
+     * was at the latest event.
+     */
+    private static final class Pending {
+
+        /** Store the product belongs to */
+        final int storeId;
+
+        /** Kind of event */
+        final Type type;
+
+        /** The product at the latest event */
+        final Product product;
+
+        /** Number of events */
+        final int count;
+
+        /** Time of the first event */
+        final LocalDateTime firstAt;
+
+        /**
+         * Constructor with all fields.
+         *
+         * @param storeId Store the product belongs to
+         * @param type    Kind of event
+         * @param product The product at the latest event
+         * @param count   Number of events
+         * @param firstAt Time of the first event
+         */
+        Pending(int storeId, Type type, Product product, int count, LocalDateTime firstAt) {
+            this.storeId = storeId;
+            this.type = type;
+            this.product = product;
+            this.count = count;
+            this.firstAt = firstAt;
+        }
+
+        /**
+         * Combines these events with a later one.
+         *
+         * @param later The later event
+         * @return The combined events
+         */
+        Pending combine(Pending later) {
+            return new Pending(storeId, type, later.product, count + later.count, firstAt);
+        }
+    }
+
+    /** Buffered events by store, kind and product */
+    private final ConcurrentHashMap<String, Pending> pending;
+
+    /** Length of a digest window in seconds, 0 to send each event at once */
+    private final long windowSeconds;
+
+    /** Database adapter, for binding flushes to a store */
+    private final DatabaseAdapter db;
+
+    /** Message DAO */
+    private final MessageDAO messageDAO;
+
+    /** User DAO */
+    private final UserDAO userDAO;
+
+    /** Sends digests when a window ends, null if windows are disabled */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Private constructor for singleton.
+     */
+    private NotificationAggregator() {
+        this.pending = new ConcurrentHashMap<>();
+        this.windowSeconds = Long.getLong("greengrocer.notifications.windowSeconds", 60);
+        this.db = DatabaseAdapter.getInstance();
+        this.messageDAO = new MessageDAO();
+        this.userDAO = new UserDAO();
+
+        if (windowSeconds > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "notification-digest");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::flush, windowSeconds, windowSeconds, TimeUnit.SECONDS);
+        } else {
+            this.scheduler = null;
+        }
+        MetricsRegistry.getInstance().gauge("greengrocer_notifications_pending",
+                "Stock events waiting for the next digest", pending::size);
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return NotificationAggregator instance
+     */
+    public static synchronized NotificationAggregator getInstance() {
+        if (instance == null) {
+            instance = new NotificationAggregator();
+        }
+        return instance;
+    }
+
+    /**
+     * Records a stock event of the current store's owner.
+     *
+     * @param type    Kind of event
+     * @param product The product after the change
+     */
+    public void record(Type type, Product product) {
+        EVENTS.inc();
+        int storeId = db.getStoreId();
+        pending.merge(key(storeId, type, product.getId()),
+                new Pending(storeId, type, product, 1, LocalDateTime.now()), Pending::combine);
+        if (scheduler == null) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends a digest for each store with buffered events.
+     */
+    public void flush() {
+        Map<Integer, List<Pending>> byStore = new TreeMap<>();
+        for (String key : pending.keySet()) {
+            Pending events = pending.remove(key);
+            if (events != null) {
+                byStore.computeIfAbsent(events.storeId, id -> new ArrayList<>()).add(events);
+            }
+        }
+
+        for (Map.Entry<Integer, List<Pending>> store : byStore.entrySet()) {
+            boolean sent = false;
+            try {
+                sent = db.withStore(store.getKey(), () -> sendDigest(store.getValue()));
+            } catch (SQLException | RuntimeException e) {
+                LOG.error("Send stock digest error", e, "store", store.getKey(),
+                        "events", store.getValue().size());
+            }
+            if (!sent) {
+                requeue(store.getValue());
+            }
+        }
+    }
+
+    /**
+     * Puts the events of a digest that could not be sent back into the
+     * buffer, ahead of any recorded since, for the next window.
+     *
+     * @param events The events of the store
+     */
+    private void requeue(List<Pending> events) {
+        for (Pending failed : events) {
+            pending.merge(key(failed.storeId, failed.type, failed.product.getId()), failed,
+                    (later, earlier) -> earlier.combine(later));
+        }
+        LOG.warn("Stock digest not sent, keeping its events for the next window",
+                "store", events.get(0).storeId, "events", events.size());
+    }
+
+    /**
+     * Gets the buffer key of a product's events of one kind.
+     *
+     * @param storeId   Store the product belongs to
+     * @param type      Kind of event
+     * @param productId The product ID
+     * @return The key
+     */
+    private static String key(int storeId, Type type, int productId) {
+        return storeId + ":" + type + ":" + productId;
+    }
+
+    /**
+     * Sends the buffered events and stops the background task.
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Sends one store's events to its owner as a single message.
+     *
+     * @param events The events of the store
+     * @return true if the message was saved, false if the owner could not
+     *         be found or the message not saved
+     */
+    private boolean sendDigest(List<Pending> events) {
+        User owner = userDAO.getOwner();
+        if (owner == null) {
+            return false;
+        }
+
+        Set<Integer> outOfStock = new HashSet<>();
+        for (Pending event : events) {
+            if (event.type == Type.OUT_OF_STOCK) {
+                outOfStock.add(event.product.getId());
+            }
+        }
+
+        StringBuilder outLines = new StringBuilder();
+        StringBuilder lowLines = new StringBuilder();
+        int lowCount = 0;
+        LocalDateTime since = LocalDateTime.now();
+        for (Pending event : events) {
+            since = event.firstAt.isBefore(since) ? event.firstAt : since;
+            Product product = event.product;
+            String times = event.count > 1 ? String.format(" (%d alerts)", event.count) : "";
+            if (event.type == Type.OUT_OF_STOCK) {
+                outLines.append(String.format("- %s (%s): %.2f kg left%s\n",
+                        product.getName(), product.getType(), product.getStock(), times));
+            } else if (!outOfStock.contains(product.getId())) {
+                lowCount++;
+                lowLines.append(String.format("- %s (%s): %.2f kg left, threshold %.2f kg, " +
+                                "price $%.2f/kg now $%.2f/kg%s\n",
+                        product.getName(), product.getType(), product.getStock(), product.getThreshold(),
+                        product.getPrice(), product.getDisplayPrice(), times));
+            }
+        }
+
+        String subject = String.format("⚠️ Stock Alert: %d out of stock, %d low stock", outOfStock.size(), lowCount);
+        StringBuilder content = new StringBuilder("STOCK ALERTS since ")
+                .append(since.format(TIME_FORMAT)).append("\n\n");
+        if (outLines.length() > 0) {
+            content.append("OUT OF STOCK\n").append(outLines)
+                    .append("Action Required: Please restock these products as soon as possible.\n\n");
+        }
+        if (lowLines.length() > 0) {
+            content.append("LOW STOCK - PRICE DOUBLED\n").append(lowLines)
+                    .append("Action Required: Consider restocking these products soon.\n\n");
+        }
+        content.append("This notification was automatically generated after customer orders.");
+
+        if (!messageDAO.send(new Message(owner.getId(), owner.getId(), subject, content.toString()))) {
+            return false;
+        }
+        DIGESTS.inc();
+        LOG.debug("Sent stock digest", "owner", owner.getId(), "products", events.size());
+        return true;
+    }
+}
@@ -0,0 +1,132 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.OrderDAO;
+import com.greengrocer.database.RatingDAO;
+import com.greengrocer.models.Order;
+import com.greengrocer.models.OrderHistoryEntry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * View model of a customer's order history, loaded a page at a time.
+ *
+ * Each page costs one query for the orders, one for their items and one
+ * for the customer's ratings of them, and continues from the last order
+ * already shown rather than skipping the newer ones again. Whether an order can still be cancelled is worked out
+ * from its order time against a clock, so list cells only read the
+ * prepared entries and scrolling causes no database traffic. Cancelling
+ * is still checked by the database, which has the final word.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class OrderHistory {
+
+    /** Orders per page */
+    private static final int PAGE_SIZE = Integer.getInteger("greengrocer.orders.pageSize", 50);
+
+    /** Order DAO */
+    private final OrderDAO orderDAO;
+
+    /** Rating DAO */
+    private final RatingDAO ratingDAO;
+
+    /** Clock the cancellation window is measured with */
+    private final Clock clock;
+
+    /** The customer */
+    private final int customerId;
+
+    /** Oldest order loaded so far, null before the first page */
+    private Order last;
+
+    /** Whether older orders may exist */
+    private boolean more = true;
+
+    /**
+     * Constructor for the history of a customer, using the system clock.
+     *
+     * @param customerId The customer ID
+     */
+    public OrderHistory(int customerId) {
+        this(customerId, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor for the history of a customer.
+     *
+     * @param customerId The customer ID
+     * @param clock      Clock the cancellation window is measured with
+     */
+    public OrderHistory(int customerId, Clock clock) {
+        this.orderDAO = new OrderDAO();
+        this.ratingDAO = new RatingDAO();
+        this.clock = clock;
+        this.customerId = customerId;
+    }
+
+    /**
+     * Loads the next page of older orders.
+     *
+     * @return The entries, newest first; empty when all are loaded
+     */
+    public List<OrderHistoryEntry> nextPage() {
+        if (!more) {
+            return new ArrayList<>();
+        }
+        List<Order> orders = orderDAO.findByUser(customerId, last, PAGE_SIZE);
+        if (!orders.isEmpty()) {
+            last = orders.get(orders.size() - 1);
+        }
+        more = orders.size() == PAGE_SIZE;
+
+        List<Integer> delivered = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.isDelivered() && order.getCarrierId() > 0) {
+                delivered.add(order.getId());
+            }
+        }
+        Set<Integer> rated = ratingDAO.findRatedOrderIds(customerId, delivered);
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<OrderHistoryEntry> entries = new ArrayList<>();
+        for (Order order : orders) {
+            entries.add(toEntry(order, rated, now));
+        }
+        return entries;
+    }
+
+    /**
+     * Checks whether older orders may still be loaded.
+     *
+     * @return true until a short page was loaded
+     */
+    public boolean hasMore() {
+        return more;
+    }
+
+    /**
+     * Prepares the entry of an order. Hours are counted whole, as the
+     * database's TIMESTAMPDIFF does when it checks a cancellation.
+     *
+     * @param order The order
+     * @param rated IDs of the orders the customer has rated
+     * @param now   The current time
+     * @return The entry
+     */
+    private static OrderHistoryEntry toEntry(Order order, Set<Integer> rated, LocalDateTime now) {
+        boolean cancellable = false;
+        int hoursToCancel = 0;
+        if (order.isPending() && order.getOrderTime() != null) {
+            long hoursSince = Math.max(0, Duration.between(order.getOrderTime(), now).toHours());
+            cancellable = hoursSince <= Order.CANCEL_WINDOW_HOURS;
+            hoursToCancel = (int) Math.max(0, Order.CANCEL_WINDOW_HOURS - hoursSince);
+        }
+        boolean rateable = order.isDelivered() && order.getCarrierId() > 0 && !rated.contains(order.getId());
+        return new OrderHistoryEntry(order, cancellable, hoursToCancel, rateable);
+    }
+}
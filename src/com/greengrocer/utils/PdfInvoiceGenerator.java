@@ -1,9 +1,13 @@
 package com.greengrocer.utils;
 
+import com.greengrocer.metrics.Counter;
+import com.greengrocer.metrics.Histogram;
+import com.greengrocer.metrics.MetricsRegistry;
 import com.greengrocer.models.CartItem;
 import com.greengrocer.models.Order;
 import com.greengrocer.models.OrderItem;
 import com.greengrocer.models.User;
+import com.greengrocer.utils.FlightEvents.PdfInvoiceEvent;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
 import com.itextpdf.text.pdf.draw.LineSeparator;
@@ -21,6 +25,17 @@ import java.util.List;
  */
 public class PdfInvoiceGenerator {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(PdfInvoiceGenerator.class);
+
+    /** PDF generation time */
+    private static final Histogram PDF_SECONDS = MetricsRegistry.getInstance().histogram(
+            "greengrocer_invoice_pdf_seconds", "Duration of generating a PDF invoice");
+
+    /** Total size of generated PDFs */
+    private static final Counter PDF_BYTES = MetricsRegistry.getInstance().counter(
+            "greengrocer_invoice_pdf_bytes_total", "Bytes of PDF invoices generated");
+
     /** Date formatter for invoice */
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -48,6 +63,9 @@ public class PdfInvoiceGenerator {
      * @return PDF as byte array for storage in database
      */
     public static byte[] generatePdfInvoice(Order order, User customer, List<CartItem> items, double discountPercent) {
+        PdfInvoiceEvent event = new PdfInvoiceEvent();
+        event.begin();
+        long start = System.nanoTime();
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
         try {
@@ -76,11 +94,12 @@ public class PdfInvoiceGenerator {
             document.close();
 
         } catch (DocumentException e) {
-            System.err.println("Error generating PDF invoice: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error generating PDF invoice", e);
         }
 
-        return outputStream.toByteArray();
+        byte[] pdf = outputStream.toByteArray();
+        recordInvoice(event, start, order, items.size(), pdf);
+        return pdf;
     }
 
     /**
@@ -90,6 +109,9 @@ public class PdfInvoiceGenerator {
      * @return PDF as byte array
      */
     public static byte[] generatePdfFromOrder(Order order) {
+        PdfInvoiceEvent event = new PdfInvoiceEvent();
+        event.begin();
+        long start = System.nanoTime();
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
         try {
@@ -128,8 +150,8 @@ public class PdfInvoiceGenerator {
                 addTableRow(table,
                         item.getProductName(),
                         String.format("%.2f", item.getQuantity()),
-                        String.format("$%.2f", item.getPriceAtTime()),
-                        String.format("$%.2f", item.getTotalPrice()));
+                        "$" + Money.format(item.getPriceCents()),
+                        "$" + Money.format(item.getTotalCents()));
             }
 
             document.add(table);
@@ -137,12 +159,12 @@ public class PdfInvoiceGenerator {
 
             // Totals
             Paragraph totals = new Paragraph();
-            totals.add(new Chunk(String.format("Subtotal: $%.2f\n", order.getSubtotal()), NORMAL_FONT));
-            if (order.getDiscount() > 0) {
-                totals.add(new Chunk(String.format("Discount: -$%.2f\n", order.getDiscount()), NORMAL_FONT));
+            totals.add(new Chunk("Subtotal: $" + Money.format(order.getSubtotalCents()) + "\n", NORMAL_FONT));
+            if (order.getDiscountCents() > 0) {
+                totals.add(new Chunk("Discount: -$" + Money.format(order.getDiscountCents()) + "\n", NORMAL_FONT));
             }
-            totals.add(new Chunk(String.format("VAT (18%%): $%.2f\n", order.getVat()), NORMAL_FONT));
-            totals.add(new Chunk(String.format("TOTAL: $%.2f", order.getTotalCost()), TOTAL_FONT));
+            totals.add(new Chunk("VAT (18%): $" + Money.format(order.getVatCents()) + "\n", NORMAL_FONT));
+            totals.add(new Chunk("TOTAL: $" + Money.format(order.getTotalCostCents()), TOTAL_FONT));
             totals.setAlignment(Element.ALIGN_RIGHT);
             document.add(totals);
 
@@ -155,11 +177,34 @@ public class PdfInvoiceGenerator {
             document.close();
 
         } catch (DocumentException e) {
-            System.err.println("Error generating PDF invoice: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error generating PDF invoice", e);
         }
 
-        return outputStream.toByteArray();
+        byte[] pdf = outputStream.toByteArray();
+        recordInvoice(event, start, order, order.getItems() != null ? order.getItems().size() : 0, pdf);
+        return pdf;
+    }
+
+    /**
+     * Records a generated invoice in the metrics and commits its flight
+     * recorder event if it is being recorded.
+     *
+     * @param event     The event started before generating
+     * @param start     System.nanoTime() before generating
+     * @param order     The invoiced order
+     * @param itemCount Number of order lines
+     * @param pdf       The generated PDF
+     */
+    private static void recordInvoice(PdfInvoiceEvent event, long start, Order order, int itemCount, byte[] pdf) {
+        PDF_SECONDS.recordSince(start);
+        PDF_BYTES.add(pdf.length);
+        event.end();
+        if (event.shouldCommit()) {
+            event.orderId = order.getId();
+            event.itemCount = itemCount;
+            event.bytes = pdf.length;
+            event.commit();
+        }
     }
 
     /**
@@ -236,8 +281,8 @@ public class PdfInvoiceGenerator {
             addTableRow(table,
                     item.getProductName(),
                     String.format("%.2f", item.getQuantity()),
-                    String.format("$%.2f", item.getPriceAtTime()),
-                    String.format("$%.2f", item.getTotalPrice()));
+                    "$" + Money.format(item.getPriceCents()),
+                    "$" + Money.format(item.getTotalCents()));
         }
 
         document.add(table);
@@ -274,15 +319,16 @@ public class PdfInvoiceGenerator {
      */
     private static void addTotals(Document document, Order order, double discountPercent) throws DocumentException {
         Paragraph totals = new Paragraph();
-        totals.add(new Chunk(String.format("Subtotal: $%.2f\n", order.getSubtotal()), NORMAL_FONT));
+        totals.add(new Chunk("Subtotal: $" + Money.format(order.getSubtotalCents()) + "\n", NORMAL_FONT));
 
         if (discountPercent > 0) {
-            totals.add(new Chunk(String.format("Discount (%.0f%%): -$%.2f\n", discountPercent, order.getDiscount()),
+            totals.add(new Chunk(String.format("Discount (%.0f%%): -$%s\n", discountPercent,
+                    Money.format(order.getDiscountCents())),
                     NORMAL_FONT));
         }
 
-        totals.add(new Chunk(String.format("VAT (18%%): $%.2f\n", order.getVat()), NORMAL_FONT));
-        totals.add(new Chunk(String.format("TOTAL: $%.2f", order.getTotalCost()), TOTAL_FONT));
+        totals.add(new Chunk("VAT (18%): $" + Money.format(order.getVatCents()) + "\n", NORMAL_FONT));
+        totals.add(new Chunk("TOTAL: $" + Money.format(order.getTotalCostCents()), TOTAL_FONT));
         totals.setAlignment(Element.ALIGN_RIGHT);
         document.add(totals);
     }
@@ -0,0 +1,68 @@
+package com.greengrocer.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point quantity arithmetic on primitive {@code long} grams.
+ * Products are sold by weight in 0.1 kg and 0.5 kg steps, so grams represent
+ * every quantity the UI can produce exactly.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public final class Quantity {
+
+    /** Grams in one kilogram */
+    public static final long GRAMS_PER_KG = 1000;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private Quantity() {
+    }
+
+    /**
+     * Converts kilograms to grams.
+     *
+     * @param kg The quantity in kg
+     * @return The quantity in grams
+     */
+    public static long toGrams(double kg) {
+        return Math.round(kg * GRAMS_PER_KG);
+    }
+
+    /**
+     * Converts grams to kilograms for display.
+     *
+     * @param grams The quantity in grams
+     * @return The quantity in kg
+     */
+    public static double toKg(long grams) {
+        return grams / (double) GRAMS_PER_KG;
+    }
+
+    /**
+     * Converts grams to a DECIMAL kilogram value for JDBC binding.
+     *
+     * @param grams The quantity in grams
+     * @return The quantity in kg with scale 3
+     */
+    public static BigDecimal toDecimal(long grams) {
+        return BigDecimal.valueOf(grams, 3);
+    }
+
+    /**
+     * Converts a DECIMAL kilogram value read from JDBC to grams.
+     *
+     * @param kg The value in kg, may be null
+     * @return The quantity in grams, 0 for null
+     */
+    public static long fromDecimal(BigDecimal kg) {
+        if (kg == null) {
+            return 0;
+        }
+        return kg.movePointRight(3).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
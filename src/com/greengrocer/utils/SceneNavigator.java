@@ -1,5 +1,6 @@
 package com.greengrocer.utils;
 
+import com.greengrocer.utils.FlightEvents.SceneLoadEvent;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -14,6 +15,9 @@ import javafx.stage.Stage;
  */
 public class SceneNavigator {
 
+    /** Logger */
+    private static final Logger LOG = Logger.get(SceneNavigator.class);
+
     /** Default window width */
     public static final int WINDOW_WIDTH = 960;
 
@@ -36,6 +40,8 @@ public class SceneNavigator {
      * @param title    The window title
      */
     public static void loadScene(Stage stage, String fxmlPath, String title) {
+        SceneLoadEvent event = new SceneLoadEvent();
+        event.begin();
         try {
             // Preserve current window state
             boolean wasMaximized = stage.isMaximized();
@@ -67,9 +73,11 @@ public class SceneNavigator {
             }
 
         } catch (Exception e) {
-            System.err.println("Error loading scene: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading scene", e, "view", fxmlPath);
+            event.error = true;
             AlertUtils.showError("Navigation Error", "Could not load the requested page.");
+        } finally {
+            commitEvent(event, fxmlPath, title);
         }
     }
 
@@ -81,6 +89,8 @@ public class SceneNavigator {
      * @return The new stage, or null if failed
      */
     public static Stage openNewWindow(String fxmlPath, String title) {
+        SceneLoadEvent event = new SceneLoadEvent();
+        event.begin();
         try {
             FXMLLoader loader = new FXMLLoader(SceneNavigator.class.getResource("/com/greengrocer/views/" + fxmlPath));
             Parent root = loader.load();
@@ -97,10 +107,28 @@ public class SceneNavigator {
             return newStage;
 
         } catch (Exception e) {
-            System.err.println("Error opening new window: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error opening new window", e, "view", fxmlPath);
+            event.error = true;
             AlertUtils.showError("Navigation Error", "Could not open the requested window.");
             return null;
+        } finally {
+            commitEvent(event, fxmlPath, title);
+        }
+    }
+
+    /**
+     * Ends a scene load event and commits it if it is being recorded.
+     *
+     * @param event    The event started before loading
+     * @param fxmlPath The loaded view
+     * @param title    The window title
+     */
+    private static void commitEvent(SceneLoadEvent event, String fxmlPath, String title) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.view = fxmlPath;
+            event.title = title;
+            event.commit();
         }
     }
 
@@ -4,6 +4,8 @@ import com.greengrocer.models.User;
 
 /**
  * Session Manager for tracking the currently logged-in user.
+ * Covers the single user of the desktop client; deployments serving many
+ * users at once use SessionRegistry instead.
  * Uses Singleton pattern.
  * 
  * @author Group17
@@ -0,0 +1,240 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.CartDAO;
+import com.greengrocer.metrics.MetricsRegistry;
+import com.greengrocer.models.CartItem;
+import com.greengrocer.models.User;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent store of user sessions and their carts, keyed by session ID.
+ * Lets one JVM serve many shoppers at once (e.g. the headless server),
+ * whereas SessionManager and the CartManager singleton serve the single
+ * desktop user.
+ *
+ * Lookups are lock-free. Idle sessions are evicted after a TTL, and when
+ * persistence is enabled changed carts are written to the Carts table in
+ * the background and restored on the user's next login. Each session writes
+ * only its own changes, so a user logged in twice keeps the items of both.
+ *
+ * Settings (system properties):
+ * greengrocer.session.ttlMinutes (default 30),
+ * greengrocer.carts.persist (default false),
+ * greengrocer.carts.flushSeconds (default 5).
+ * Uses Singleton pattern.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class SessionRegistry {
+
+    /** Singleton instance */
+    private static SessionRegistry instance;
+
+    /** Bytes of randomness in a session ID */
+    private static final int SESSION_ID_BYTES = 24;
+
+    /** Active sessions by session ID */
+    private final ConcurrentHashMap<String, UserSession> sessions;
+
+    /** Source of session IDs */
+    private final SecureRandom random;
+
+    /** Idle time after which a session is evicted */
+    private final long ttlMillis;
+
+    /** Whether carts are persisted to the database */
+    private final boolean persistCarts;
+
+    /** Cart DAO, null when persistence is disabled */
+    private final CartDAO cartDAO;
+
+    /** Runs eviction and write-behind flushing */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Private constructor for singleton.
+     */
+    private SessionRegistry() {
+        this.sessions = new ConcurrentHashMap<>();
+        this.random = new SecureRandom();
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(Long.getLong("greengrocer.session.ttlMinutes", 30));
+        this.persistCarts = Boolean.getBoolean("greengrocer.carts.persist");
+        this.cartDAO = persistCarts ? new CartDAO() : null;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MetricsRegistry.getInstance().gauge("greengrocer_sessions_active", "Open user sessions", sessions::size);
+
+        long evictEvery = Math.max(1000, ttlMillis / 4);
+        scheduler.scheduleWithFixedDelay(this::evictIdle, evictEvery, evictEvery, TimeUnit.MILLISECONDS);
+        if (persistCarts) {
+            long flushSeconds = Long.getLong("greengrocer.carts.flushSeconds", 5);
+            scheduler.scheduleWithFixedDelay(this::flushDirtyCarts, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return SessionRegistry instance
+     */
+    public static synchronized SessionRegistry getInstance() {
+        if (instance == null) {
+            instance = new SessionRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Opens a session for an authenticated user.
+     * If persistence is enabled, the user's saved cart is restored.
+     *
+     * @param user The authenticated user
+     * @return The new session
+     */
+    public UserSession create(User user) {
+        CartManager cart = new CartManager();
+        if (persistCarts) {
+            for (CartItem item : cartDAO.loadCart(user.getId())) {
+                cart.restoreItem(item);
+            }
+        }
+
+        UserSession session = new UserSession(newSessionId(), user, cart);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Looks up a session and marks it as used.
+     *
+     * @param sessionId The session ID
+     * @return The session, or null if unknown or expired
+     */
+    public UserSession get(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+
+        UserSession session = sessions.get(sessionId);
+        if (session == null) {
+            MetricsRegistry.getInstance().cacheLookup("sessions", false);
+            return null;
+        }
+        if (isExpired(session, System.currentTimeMillis())) {
+            remove(sessionId);
+            MetricsRegistry.getInstance().cacheLookup("sessions", false);
+            return null;
+        }
+
+        MetricsRegistry.getInstance().cacheLookup("sessions", true);
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Closes a session (logout). The cart is saved first if it changed.
+     *
+     * @param sessionId The session ID
+     */
+    public void remove(String sessionId) {
+        UserSession session = sessions.remove(sessionId);
+        if (session != null) {
+            saveCart(session);
+        }
+    }
+
+    /**
+     * Gets the number of open sessions.
+     *
+     * @return Session count
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Saves all changed carts and stops the background tasks.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flushDirtyCarts();
+    }
+
+    /**
+     * Removes sessions that have been idle longer than the TTL.
+     */
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (UserSession session : sessions.values()) {
+            if (isExpired(session, now)) {
+                remove(session.getId());
+            }
+        }
+    }
+
+    /**
+     * Writes every changed cart to the database.
+     */
+    private void flushDirtyCarts() {
+        for (UserSession session : sessions.values()) {
+            saveCart(session);
+        }
+    }
+
+    /**
+     * Writes a session's cart changes to the database if it changed since
+     * the last save. Does nothing when persistence is disabled. Saves of
+     * the same session are serialized, so a flush racing a removal cannot
+     * replay a diff against a baseline the other one already wrote.
+     *
+     * @param session The session
+     */
+    private void saveCart(UserSession session) {
+        if (!persistCarts) {
+            return;
+        }
+
+        synchronized (session) {
+            if (!session.isCartDirty()) {
+                return;
+            }
+
+            CartManager cart = session.getCart().snapshot();
+            if (cartDAO.saveChanges(session.getUser().getId(), session.getSavedCartItems(), cart.getItems())) {
+                session.markCartSaved(cart);
+            }
+        }
+    }
+
+    /**
+     * Checks if a session has been idle longer than the TTL.
+     *
+     * @param session The session
+     * @param now     Current time in epoch milliseconds
+     * @return true if expired
+     */
+    private boolean isExpired(UserSession session, long now) {
+        return now - session.getLastAccessMillis() > ttlMillis;
+    }
+
+    /**
+     * Generates a random URL-safe session ID.
+     *
+     * @return New session ID
+     */
+    private String newSessionId() {
+        byte[] bytes = new byte[SESSION_ID_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,170 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.database.DatabaseAdapter;
+import com.greengrocer.database.DbResult;
+import com.greengrocer.database.OrderDAO;
+import com.greengrocer.models.ProductSales;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Owner reports across all stores of the deployment.
+ *
+ * Each report is scattered as one query per store, run in parallel on a
+ * small thread pool with every thread bound to its store, and the results
+ * are gathered within a deadline. Stores on separate databases are queried
+ * at the same time; stores sharing a database share its connection. A
+ * store that fails or misses the deadline is left out and listed as
+ * missing instead of failing the whole report.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class StoreReports {
+
+    /** Logger */
+    private static final Logger LOG = Logger.get(StoreReports.class);
+
+    /** Time allowed for all stores to answer */
+    private static final long TIMEOUT_MILLIS = Long.getLong("greengrocer.reports.timeoutMs", 10000);
+
+    /** Number of the next report thread */
+    private static final AtomicInteger NEXT_THREAD = new AtomicInteger(1);
+
+    /** Threads running the per-store queries */
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Integer.getInteger("greengrocer.reports.threads", 4), runnable -> {
+                Thread thread = new Thread(runnable, "store-report-" + NEXT_THREAD.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /** Order DAO */
+    private final OrderDAO orderDAO;
+
+    /** Database adapter, for the store bindings */
+    private final DatabaseAdapter db;
+
+    /**
+     * Constructor - initializes the DAO.
+     */
+    public StoreReports() {
+        this.orderDAO = new OrderDAO();
+        this.db = DatabaseAdapter.getInstance();
+    }
+
+    /**
+     * Gets the delivered sales of every store.
+     *
+     * @return Total sales in cents by store ID, without stores that failed
+     */
+    public Map<Integer, Long> totalSalesByStore() {
+        return gather("total sales", orderDAO::loadTotalSalesCents);
+    }
+
+    /**
+     * Gets the delivered sales per product summed over all stores.
+     *
+     * @param salesByStore Filled with each store's own product sales, may be null
+     * @return Product sales, highest revenue first
+     */
+    public List<ProductSales> salesByProduct(Map<Integer, List<ProductSales>> salesByStore) {
+        Map<Integer, List<ProductSales>> gathered = gather("sales by product", orderDAO::loadSalesByProduct);
+        if (salesByStore != null) {
+            salesByStore.putAll(gathered);
+        }
+
+        Map<String, ProductSales> merged = new LinkedHashMap<>();
+        for (List<ProductSales> storeSales : gathered.values()) {
+            for (ProductSales sales : storeSales) {
+                ProductSales total = merged.computeIfAbsent(sales.getProductName(),
+                        name -> new ProductSales(name, 0, 0));
+                total.add(sales);
+            }
+        }
+
+        List<ProductSales> result = new ArrayList<>(merged.values());
+        result.sort(Comparator.comparingLong(ProductSales::getSalesCents).reversed());
+        return result;
+    }
+
+    /**
+     * Gets the stores missing from any of the gathered parts of a report.
+     * Each part is gathered separately, so a store can answer one and
+     * time out on another.
+     *
+     * @param gathered Results by store ID, one map per gathered part
+     * @return IDs of the stores without a result in at least one part
+     */
+    @SafeVarargs
+    public final List<Integer> missingStores(Map<Integer, ?>... gathered) {
+        List<Integer> missing = new ArrayList<>();
+        for (int storeId : db.getStoreIds()) {
+            for (Map<Integer, ?> part : gathered) {
+                if (!part.containsKey(storeId)) {
+                    missing.add(storeId);
+                    break;
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Runs a query for every store in parallel and collects the results.
+     *
+     * @param <T>    Type of the result
+     * @param report Report name, for the log
+     * @param query  The query, run while bound to one store
+     * @return Results by store ID in store order, without stores that failed
+     */
+    private <T> Map<Integer, T> gather(String report, Supplier<DbResult<T>> query) {
+        Map<Integer, Future<DbResult<T>>> futures = new LinkedHashMap<>();
+        for (int storeId : db.getStoreIds()) {
+            futures.put(storeId, EXECUTOR.submit(() -> {
+                db.bindStore(storeId);
+                try {
+                    return query.get();
+                } finally {
+                    db.unbindStore();
+                }
+            }));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        Map<Integer, T> results = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Future<DbResult<T>>> entry : futures.entrySet()) {
+            try {
+                DbResult<T> result = entry.getValue().get(Math.max(0, deadline - System.nanoTime()),
+                        TimeUnit.NANOSECONDS);
+                if (result.isOk()) {
+                    results.put(entry.getKey(), result.getValue());
+                } else {
+                    LOG.warn("Store left out of report", "report", report, "store", entry.getKey(),
+                            "error", result.getMessage());
+                }
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                LOG.warn("Store left out of report", "report", report, "store", entry.getKey(),
+                        "error", "timed out");
+            } catch (ExecutionException e) {
+                LOG.error("Store report error", e.getCause(), "report", report, "store", entry.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,122 @@
+package com.greengrocer.utils;
+
+import com.greengrocer.models.CartItem;
+import com.greengrocer.models.User;
+import java.util.List;
+
+/**
+ * One logged-in user of a multi-user deployment, with its own cart.
+ * Created and tracked by {@link SessionRegistry}.
+ *
+ * @author Group17
+ * @version 1.0
+ */
+public class UserSession {
+
+    /** Opaque session identifier handed to the client */
+    private final String id;
+
+    /** The authenticated user */
+    private final User user;
+
+    /** The user's shopping cart */
+    private final CartManager cart;
+
+    /** Last time the session was used, in epoch milliseconds */
+    private volatile long lastAccessMillis;
+
+    /** Cart version that was last written to the database */
+    private volatile long savedCartVersion;
+
+    /** Copies of the cart items as last loaded from or written to the database */
+    private volatile List<CartItem> savedCartItems;
+
+    /**
+     * Constructor for a new session.
+     *
+     * @param id   The session ID
+     * @param user The authenticated user
+     * @param cart The user's cart
+     */
+    public UserSession(String id, User user, CartManager cart) {
+        this.id = id;
+        this.user = user;
+        this.cart = cart;
+        this.lastAccessMillis = System.currentTimeMillis();
+        CartManager loaded = cart.snapshot();
+        this.savedCartVersion = loaded.getVersion();
+        this.savedCartItems = loaded.getItems();
+    }
+
+    /**
+     * Gets the session ID.
+     *
+     * @return The session ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the authenticated user.
+     *
+     * @return The user
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Gets the session's cart.
+     *
+     * @return The cart
+     */
+    public CartManager getCart() {
+        return cart;
+    }
+
+    /**
+     * Gets the last access time.
+     *
+     * @return Last access in epoch milliseconds
+     */
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    /**
+     * Marks the session as used now.
+     */
+    public void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Checks if the cart changed since it was last saved.
+     *
+     * @return true if the cart needs saving
+     */
+    public boolean isCartDirty() {
+        return cart.getVersion() != savedCartVersion;
+    }
+
+    /**
+     * Gets the cart items as they were last loaded or saved, which the next
+     * save compares against to find what this session changed.
+     *
+     * @return Copies of the saved items
+     */
+    public List<CartItem> getSavedCartItems() {
+        return savedCartItems;
+    }
+
+    /**
+     * Records that the cart was saved.
+     *
+     * @param saved Snapshot of the cart that was written
+     */
+    public void markCartSaved(CartManager saved) {
+        this.savedCartItems = saved.getItems();
+        this.savedCartVersion = saved.getVersion();
+    }
+}